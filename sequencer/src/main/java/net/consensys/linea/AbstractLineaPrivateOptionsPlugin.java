@@ -47,7 +47,6 @@ import net.consensys.linea.plugins.LineaOptionsPluginConfiguration;
  */
 @Slf4j
 public abstract class AbstractLineaPrivateOptionsPlugin extends AbstractLineaSharedOptionsPlugin {
-
   static {
     // force the initialization of the gnark compress native library to fail fast in case of issues
     LibCompress.CompressedSize(new byte[0], 0);
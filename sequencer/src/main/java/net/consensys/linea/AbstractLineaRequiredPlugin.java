@@ -16,13 +16,18 @@
 package net.consensys.linea;
 
 import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.metrics.LineaMetricCategory;
 import org.hyperledger.besu.plugin.BesuContext;
 import org.hyperledger.besu.plugin.BesuPlugin;
 import org.hyperledger.besu.plugin.services.BlockchainService;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.MetricCategoryRegistry;
 
 @Slf4j
 public abstract class AbstractLineaRequiredPlugin extends AbstractLineaPrivateOptionsPlugin {
   protected BlockchainService blockchainService;
+  protected MetricsSystem metricsSystem;
+  private BesuContext besuContext;
 
   /**
    * Linea plugins extending this class will halt startup of Besu in case of exception during
@@ -46,6 +51,20 @@ public abstract class AbstractLineaRequiredPlugin extends AbstractLineaPrivateOp
                       new RuntimeException(
                           "Failed to obtain BlockchainService from the BesuContext."));
 
+      besuContext = context;
+
+      // the metric categories must be registered before the metrics system is created
+      final MetricCategoryRegistry metricCategoryRegistry =
+          context
+              .getService(MetricCategoryRegistry.class)
+              .orElseThrow(
+                  () ->
+                      new RuntimeException(
+                          "Failed to obtain MetricCategoryRegistry from the BesuContext."));
+      for (final LineaMetricCategory metricCategory : LineaMetricCategory.values()) {
+        metricCategoryRegistry.addMetricCategory(metricCategory);
+      }
+
       doRegister(context);
 
     } catch (Exception e) {
@@ -63,10 +82,20 @@ public abstract class AbstractLineaRequiredPlugin extends AbstractLineaPrivateOp
    */
   public abstract void doRegister(final BesuContext context);
 
+  /**
+   * Linea plugins extending this class must call this method first when overriding it, since the
+   * metrics system is only available once the plugins are started.
+   */
   @Override
   public void start() {
     super.start();
 
+    metricsSystem =
+        besuContext
+            .getService(MetricsSystem.class)
+            .orElseThrow(
+                () -> new RuntimeException("Failed to obtain MetricsSystem from the BesuContext."));
+
     blockchainService
         .getChainId()
         .ifPresentOrElse(
@@ -0,0 +1,92 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.bl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.Transaction;
+
+/**
+ * Bounded cache of the compressed size of the last transactions whose profitability was checked,
+ * keyed by their hash, that is a hash of the encoded transaction that is compressed, so a size is
+ * never stale. The compression is the expensive part of the profitability check, and the same
+ * transaction is checked by the txpool validators when it is added, then by the selection, so with
+ * this cache it is compressed only once. The oldest entry is evicted when the cache is full.
+ *
+ * <p>The compression is done outside the lock, so two threads could compress the same transaction
+ * at the same time, with the same result.
+ */
+public class CompressedTxSizeCache {
+  /** Returned by {@link #cachedSize} when the size of a transaction is not in the cache. */
+  public static final int UNKNOWN_SIZE = -1;
+
+  static final int DEFAULT_CAPACITY = 10_000;
+
+  private final ToIntFunction<Transaction> compressedSizeFunction;
+  private final Map<Hash, Integer> sizes;
+
+  public CompressedTxSizeCache() {
+    this(DEFAULT_CAPACITY, TransactionProfitabilityCalculator::getCompressedTxSize);
+  }
+
+  @VisibleForTesting
+  public CompressedTxSizeCache(
+      final int capacity, final ToIntFunction<Transaction> compressedSizeFunction) {
+    this.compressedSizeFunction = compressedSizeFunction;
+    this.sizes =
+        new LinkedHashMap<>() {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<Hash, Integer> eldest) {
+            return size() > capacity;
+          }
+        };
+  }
+
+  /**
+   * Returns the compressed size of the transaction, compressing it only if it is not cached.
+   *
+   * @param transaction the transaction
+   * @return the compressed size of the transaction
+   */
+  public int compressedSize(final Transaction transaction) {
+    final Hash hash = transaction.getHash();
+    final int cachedSize = cachedSize(hash);
+    if (cachedSize != UNKNOWN_SIZE) {
+      return cachedSize;
+    }
+    final int compressedSize = compressedSizeFunction.applyAsInt(transaction);
+    put(hash, compressedSize);
+    return compressedSize;
+  }
+
+  /**
+   * Returns the cached compressed size of a transaction, without ever compressing it.
+   *
+   * @param hash the hash of the transaction
+   * @return the compressed size of the transaction, or {@link #UNKNOWN_SIZE} if it is not cached
+   */
+  public synchronized int cachedSize(final Hash hash) {
+    final Integer compressedSize = sizes.get(hash);
+    return compressedSize != null ? compressedSize : UNKNOWN_SIZE;
+  }
+
+  private synchronized void put(final Hash hash, final int compressedSize) {
+    sizes.put(hash, compressedSize);
+  }
+}
@@ -16,9 +16,11 @@ package net.consensys.linea.bl;
 
 import java.math.BigDecimal;
 
+import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.compress.LibCompress;
 import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import net.consensys.linea.config.PricingSnapshot;
 import org.hyperledger.besu.datatypes.Transaction;
 import org.hyperledger.besu.datatypes.Wei;
 import org.slf4j.spi.LoggingEventBuilder;
@@ -36,6 +38,11 @@ import org.slf4j.spi.LoggingEventBuilder;
  */
 @Slf4j
 public class TransactionProfitabilityCalculator {
+  /** Returned by the primitive formula when the result does not fit a long. */
+  public static final long NOT_A_LONG = -1;
+
+  private static final double MAX_EXACT_DOUBLE_INTEGER = 0x1p53;
+
   private final LineaProfitabilityConfiguration profitabilityConf;
 
   public TransactionProfitabilityCalculator(
@@ -60,31 +67,20 @@ public class TransactionProfitabilityCalculator {
       final double minMargin,
       final long gas,
       final Wei minGasPriceWei) {
-    final int compressedTxSize = getCompressedTxSize(transaction);
-
-    final long variableCostWei =
-        profitabilityConf.extraDataPricingEnabled()
-            ? profitabilityConf.variableCostWei()
-            : minGasPriceWei.toLong();
-
-    final var profitAt =
-        minMargin * (variableCostWei * compressedTxSize / gas + profitabilityConf.fixedCostWei());
+    final PricingSnapshot pricing = profitabilityConf.pricingSnapshot();
+    final int compressedTxSize =
+        profitabilityConf.compressedTxSizeCache().compressedSize(transaction);
+    final long variableCostWei = variableCostWei(pricing, minGasPriceWei);
 
-    final var profitAtWei = Wei.ofNumber(BigDecimal.valueOf(profitAt).toBigInteger());
-
-    log.atDebug()
-        .setMessage(
-            "Estimated profitable priorityFeePerGas: {}; minMargin={}, fixedCostWei={}, "
-                + "variableCostWei={}, gas={}, txSize={}, compressedTxSize={}")
-        .addArgument(profitAtWei::toHumanReadableString)
-        .addArgument(minMargin)
-        .addArgument(profitabilityConf.fixedCostWei())
-        .addArgument(variableCostWei)
-        .addArgument(gas)
-        .addArgument(transaction::getSize)
-        .addArgument(compressedTxSize)
-        .log();
+    final long profitAt =
+        profitablePriorityFeePerGasWei(
+            minMargin, variableCostWei, pricing.fixedCostWei(), compressedTxSize, gas);
+    final Wei profitAtWei =
+        toWei(
+            profitAt, minMargin, variableCostWei, pricing.fixedCostWei(), compressedTxSize, gas);
 
+    logEstimation(
+        transaction, minMargin, gas, pricing, variableCostWei, compressedTxSize, profitAtWei);
     return profitAtWei;
   }
 
@@ -92,6 +88,9 @@ public class TransactionProfitabilityCalculator {
    * Checks if then given gas price is considered profitable for the given tx, according to the
    * current pricing config, the minMargin and gas used, or gasLimit of the tx.
    *
+   * <p>When all the amounts fit a long, as it is always the case in practice, the check is done
+   * with primitive arithmetic, and the {@link Wei} values are only built if they are logged.
+   *
    * @param context a string to name the context in which it is called, used for logs
    * @param transaction the tx we want to check if profitable
    * @param minMargin the min margin to use for this check
@@ -111,37 +110,145 @@ public class TransactionProfitabilityCalculator {
       final long gas,
       final Wei minGasPriceWei) {
 
-    final Wei profitablePriorityFee =
-        profitablePriorityFeePerGas(transaction, minMargin, gas, minGasPriceWei);
-    final Wei profitableGasPrice = baseFee.add(profitablePriorityFee);
+    // the same pricing is used for the check and for its logs
+    final PricingSnapshot pricing = profitabilityConf.pricingSnapshot();
+    final int compressedTxSize =
+        profitabilityConf.compressedTxSizeCache().compressedSize(transaction);
+    final long variableCostWei = variableCostWei(pricing, minGasPriceWei);
+    final long profitAt =
+        profitablePriorityFeePerGasWei(
+            minMargin, variableCostWei, pricing.fixedCostWei(), compressedTxSize, gas);
+
+    final boolean profitable;
+    if (profitAt != NOT_A_LONG
+        && baseFee.fitsLong()
+        && payingGasPrice.fitsLong()
+        && profitAt <= Long.MAX_VALUE - baseFee.toLong()) {
+      profitable = payingGasPrice.toLong() >= baseFee.toLong() + profitAt;
+    } else {
+      final Wei profitablePriorityFee =
+          toWei(
+              profitAt, minMargin, variableCostWei, pricing.fixedCostWei(), compressedTxSize, gas);
+      profitable = !payingGasPrice.lessThan(baseFee.add(profitablePriorityFee));
+    }
 
-    if (payingGasPrice.lessThan(profitableGasPrice)) {
+    if (log.isDebugEnabled()) {
+      final Wei profitablePriorityFee =
+          toWei(
+              profitAt, minMargin, variableCostWei, pricing.fixedCostWei(), compressedTxSize, gas);
+      logEstimation(
+          transaction,
+          minMargin,
+          gas,
+          pricing,
+          variableCostWei,
+          compressedTxSize,
+          profitablePriorityFee);
       log(
-          log.atDebug(),
+          profitable ? log.atTrace() : log.atDebug(),
+          pricing,
           context,
           transaction,
           minMargin,
           payingGasPrice,
           baseFee,
           profitablePriorityFee,
-          profitableGasPrice,
+          baseFee.add(profitablePriorityFee),
           gas,
           minGasPriceWei);
-      return false;
     }
+    return profitable;
+  }
 
-    log(
-        log.atTrace(),
-        context,
-        transaction,
-        minMargin,
-        payingGasPrice,
-        baseFee,
-        profitablePriorityFee,
-        profitableGasPrice,
-        gas,
-        minGasPriceWei);
-    return true;
+  /**
+   * Calculate the profitable priorityFeePerGas with primitive arithmetic, giving the same result as
+   * {@link #exactProfitablePriorityFeePerGas}, that is only needed when the result does not fit a
+   * long.
+   *
+   * <p>The cost per gas is computed with exact long arithmetic, and the margin is applied with a
+   * single double multiplication, as in the reference formula. Truncating the product is the same
+   * as truncating its decimal representation as long as it is below 2^53, since above that not all
+   * the integers can be represented by a double.
+   *
+   * @param minMargin the min margin to use for this calculation
+   * @param variableCostWei the variable cost in Wei
+   * @param fixedCostWei the fixed cost in Wei
+   * @param compressedTxSize the compressed size of the tx
+   * @param gas the gas to use for this calculation
+   * @return the profitable priorityFeePerGas in Wei, or {@link #NOT_A_LONG} if the exact formula
+   *     must be used instead
+   */
+  public static long profitablePriorityFeePerGasWei(
+      final double minMargin,
+      final long variableCostWei,
+      final long fixedCostWei,
+      final int compressedTxSize,
+      final long gas) {
+    final long costPerGas;
+    try {
+      costPerGas =
+          Math.addExact(Math.multiplyExact(variableCostWei, compressedTxSize) / gas, fixedCostWei);
+    } catch (final ArithmeticException e) {
+      return NOT_A_LONG;
+    }
+    final double profitAt = minMargin * costPerGas;
+    if (profitAt >= 0 && profitAt < MAX_EXACT_DOUBLE_INTEGER) {
+      return (long) profitAt;
+    }
+    return NOT_A_LONG;
+  }
+
+  /** The reference profitability formula, using arbitrary precision for the result. */
+  @VisibleForTesting
+  static Wei exactProfitablePriorityFeePerGas(
+      final double minMargin,
+      final long variableCostWei,
+      final long fixedCostWei,
+      final int compressedTxSize,
+      final long gas) {
+    final var profitAt = minMargin * (variableCostWei * compressedTxSize / gas + fixedCostWei);
+    return Wei.ofNumber(BigDecimal.valueOf(profitAt).toBigInteger());
+  }
+
+  private static Wei toWei(
+      final long profitAt,
+      final double minMargin,
+      final long variableCostWei,
+      final long fixedCostWei,
+      final int compressedTxSize,
+      final long gas) {
+    return profitAt != NOT_A_LONG
+        ? Wei.of(profitAt)
+        : exactProfitablePriorityFeePerGas(
+            minMargin, variableCostWei, fixedCostWei, compressedTxSize, gas);
+  }
+
+  private void logEstimation(
+      final Transaction transaction,
+      final double minMargin,
+      final long gas,
+      final PricingSnapshot pricing,
+      final long variableCostWei,
+      final int compressedTxSize,
+      final Wei profitAtWei) {
+    log.atDebug()
+        .setMessage(
+            "Estimated profitable priorityFeePerGas: {}; minMargin={}, fixedCostWei={}, "
+                + "variableCostWei={}, gas={}, txSize={}, compressedTxSize={}")
+        .addArgument(profitAtWei::toHumanReadableString)
+        .addArgument(minMargin)
+        .addArgument(pricing.fixedCostWei())
+        .addArgument(variableCostWei)
+        .addArgument(gas)
+        .addArgument(transaction::getSize)
+        .addArgument(compressedTxSize)
+        .log();
+  }
+
+  private long variableCostWei(final PricingSnapshot pricing, final Wei minGasPriceWei) {
+    return profitabilityConf.extraDataPricingEnabled()
+        ? pricing.variableCostWei()
+        : minGasPriceWei.toLong();
   }
 
   /**
@@ -150,13 +257,14 @@ public class TransactionProfitabilityCalculator {
    * @param transaction the tx
    * @return the compressed size
    */
-  private int getCompressedTxSize(final Transaction transaction) {
+  public static int getCompressedTxSize(final Transaction transaction) {
     final byte[] bytes = transaction.encoded().toArrayUnsafe();
     return LibCompress.CompressedSize(bytes, bytes.length);
   }
 
   private void log(
       final LoggingEventBuilder leb,
+      final PricingSnapshot pricing,
       final String context,
       final Transaction transaction,
       final double minMargin,
@@ -182,12 +290,8 @@ public class TransactionProfitabilityCalculator {
         .addArgument(profitableGasPrice::toHumanReadableString)
         .addArgument(baseFee::toHumanReadableString)
         .addArgument(profitablePriorityFee::toHumanReadableString)
-        .addArgument(profitabilityConf::fixedCostWei)
-        .addArgument(
-            () ->
-                profitabilityConf.extraDataPricingEnabled()
-                    ? profitabilityConf.variableCostWei()
-                    : minGasPriceWei.toLong())
+        .addArgument(pricing::fixedCostWei)
+        .addArgument(() -> variableCostWei(pricing, minGasPriceWei))
         .addArgument(gasUsed)
         .log();
   }
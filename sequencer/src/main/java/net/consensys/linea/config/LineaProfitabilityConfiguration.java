@@ -19,45 +19,86 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.experimental.Accessors;
+import net.consensys.linea.bl.CompressedTxSizeCache;
 import net.consensys.linea.plugins.LineaOptionsConfiguration;
 
-/** The Linea profitability calculator configuration. */
-@Builder(toBuilder = true)
+/**
+ * The Linea profitability calculator configuration. The fixed and variable costs can be updated at
+ * runtime, so they are kept in an immutable {@link PricingSnapshot} published through a volatile
+ * reference, that readers get without taking any lock. The pricing distributed through the extra
+ * data is also published as epochs on the {@link PricingEpochBus}, to notify the components that
+ * depend on it, and the compressed sizes computed by the profitability checks are kept in a {@link
+ * CompressedTxSizeCache} shared by all of them.
+ */
 @Accessors(fluent = true)
 @Getter
 @ToString
 public class LineaProfitabilityConfiguration implements LineaOptionsConfiguration {
-  /** It is safe to keep this as long, since it will store value <= max_int * 1000 */
-  private long fixedCostWei;
+  private volatile PricingSnapshot pricingSnapshot;
+  @ToString.Exclude private final PricingEpochBus pricingEpochBus = new PricingEpochBus();
+
+  @ToString.Exclude
+  private final CompressedTxSizeCache compressedTxSizeCache = new CompressedTxSizeCache();
 
-  /** It is safe to keep this as long, since it will store value <= max_int * 1000 */
-  private long variableCostWei;
+  private final double minMargin;
+  private final double estimateGasMinMargin;
+  private final double txPoolMinMargin;
+  private final boolean txPoolCheckApiEnabled;
+  private final boolean txPoolCheckP2pEnabled;
+  private final boolean extraDataPricingEnabled;
+  private final boolean extraDataSetMinGasPriceEnabled;
 
-  private double minMargin;
-  private double estimateGasMinMargin;
-  private double txPoolMinMargin;
-  private boolean txPoolCheckApiEnabled;
-  private boolean txPoolCheckP2pEnabled;
-  private boolean extraDataPricingEnabled;
-  private boolean extraDataSetMinGasPriceEnabled;
+  /**
+   * Creates the configuration with the initial pricing.
+   *
+   * @param fixedCostWei fixed cost in Wei, it is safe to keep this as long, since it will store
+   *     value <= max_int * 1000
+   * @param variableCostWei variable cost in Wei, it is safe to keep this as long, since it will
+   *     store value <= max_int * 1000
+   */
+  @Builder(toBuilder = true)
+  private LineaProfitabilityConfiguration(
+      @Builder.ObtainVia(method = "fixedCostWei") final long fixedCostWei,
+      @Builder.ObtainVia(method = "variableCostWei") final long variableCostWei,
+      final double minMargin,
+      final double estimateGasMinMargin,
+      final double txPoolMinMargin,
+      final boolean txPoolCheckApiEnabled,
+      final boolean txPoolCheckP2pEnabled,
+      final boolean extraDataPricingEnabled,
+      final boolean extraDataSetMinGasPriceEnabled) {
+    this.pricingSnapshot = new PricingSnapshot(0, fixedCostWei, variableCostWei);
+    this.minMargin = minMargin;
+    this.estimateGasMinMargin = estimateGasMinMargin;
+    this.txPoolMinMargin = txPoolMinMargin;
+    this.txPoolCheckApiEnabled = txPoolCheckApiEnabled;
+    this.txPoolCheckP2pEnabled = txPoolCheckP2pEnabled;
+    this.extraDataPricingEnabled = extraDataPricingEnabled;
+    this.extraDataSetMinGasPriceEnabled = extraDataSetMinGasPriceEnabled;
+  }
 
   /**
-   * These 2 parameters must be atomically updated
+   * These 2 parameters must be atomically updated, so a new pricing snapshot is published, with the
+   * next version, only if any of them changed. Updates are serialized, while reads are lock free.
    *
    * @param fixedCostWei fixed cost in Wei
    * @param variableCostWei variable cost in Wei
+   * @return the current pricing snapshot, that is the new one if any of the costs changed
    */
-  public synchronized void updateFixedAndVariableCost(
+  public synchronized PricingSnapshot updateFixedAndVariableCost(
       final long fixedCostWei, final long variableCostWei) {
-    this.fixedCostWei = fixedCostWei;
-    this.variableCostWei = variableCostWei;
+    final PricingSnapshot current = pricingSnapshot;
+    if (current.fixedCostWei() != fixedCostWei || current.variableCostWei() != variableCostWei) {
+      pricingSnapshot = current.next(fixedCostWei, variableCostWei);
+    }
+    return pricingSnapshot;
   }
 
-  public synchronized long fixedCostWei() {
-    return fixedCostWei;
+  public long fixedCostWei() {
+    return pricingSnapshot.fixedCostWei();
   }
 
-  public synchronized long variableCostWei() {
-    return variableCostWei;
+  public long variableCostWei() {
+    return pricingSnapshot.variableCostWei();
   }
 }
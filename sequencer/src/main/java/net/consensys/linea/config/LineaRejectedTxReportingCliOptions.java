@@ -17,6 +17,8 @@ package net.consensys.linea.config;
 import java.net.URL;
 
 import com.google.common.base.MoreObjects;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import net.consensys.linea.plugins.LineaCliOptions;
 import picocli.CommandLine.Option;
 
@@ -33,6 +35,91 @@ public class LineaRejectedTxReportingCliOptions implements LineaCliOptions {
   /** The Linea node type. */
   public static final String LINEA_NODE_TYPE = "--plugin-linea-node-type";
 
+  /** The max number of rejected transaction reports sent in a single JSON-RPC batch. */
+  public static final String REJECTED_TX_BATCH_SIZE = "--plugin-linea-rejected-tx-batch-size";
+
+  public static final int DEFAULT_REJECTED_TX_BATCH_SIZE = 1;
+
+  /** The max time a rejected transaction report waits for its batch to be full. */
+  public static final String REJECTED_TX_BATCH_MAX_DELAY =
+      "--plugin-linea-rejected-tx-batch-max-delay";
+
+  public static final long DEFAULT_REJECTED_TX_BATCH_MAX_DELAY = 100;
+
+  /** The size of the segments of the journal of the rejected transaction reports. */
+  public static final String REJECTED_TX_JOURNAL_SEGMENT_SIZE =
+      "--plugin-linea-rejected-tx-journal-segment-size";
+
+  public static final long DEFAULT_REJECTED_TX_JOURNAL_SEGMENT_SIZE = 0;
+
+  /** Whether the records of the journal of the rejected transaction reports are compressed. */
+  public static final String REJECTED_TX_JOURNAL_COMPRESSION =
+      "--plugin-linea-rejected-tx-journal-compression";
+
+  public static final boolean DEFAULT_REJECTED_TX_JOURNAL_COMPRESSION = false;
+
+  /** The max number of rejected transaction reports kept in memory waiting for delivery. */
+  public static final String REJECTED_TX_MEMORY_QUEUE_SIZE =
+      "--plugin-linea-rejected-tx-memory-queue-size";
+
+  public static final int DEFAULT_REJECTED_TX_MEMORY_QUEUE_SIZE = 0;
+
+  /** The number of consecutive delivery failures that opens the circuit breaker. */
+  public static final String REJECTED_TX_CIRCUIT_BREAKER_FAILURE_THRESHOLD =
+      "--plugin-linea-rejected-tx-circuit-breaker-failure-threshold";
+
+  public static final int DEFAULT_REJECTED_TX_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 0;
+
+  /** The time the circuit breaker stays open before probing the endpoint. */
+  public static final String REJECTED_TX_CIRCUIT_BREAKER_OPEN_DURATION =
+      "--plugin-linea-rejected-tx-circuit-breaker-open-duration";
+
+  public static final long DEFAULT_REJECTED_TX_CIRCUIT_BREAKER_OPEN_DURATION = 10_000;
+
+  /** The max number of requests per second sent when delivering the backlog from disk. */
+  public static final String REJECTED_TX_DRAIN_RATE = "--plugin-linea-rejected-tx-drain-rate";
+
+  public static final int DEFAULT_REJECTED_TX_DRAIN_RATE = 0;
+
+  /** The max number of requests to the rejected transaction endpoint in flight at once. */
+  public static final String REJECTED_TX_MAX_IN_FLIGHT_REQUESTS =
+      "--plugin-linea-rejected-tx-max-in-flight-requests";
+
+  public static final int DEFAULT_REJECTED_TX_MAX_IN_FLIGHT_REQUESTS = 0;
+
+  /** The max number of idle connections to the rejected transaction endpoint kept in the pool. */
+  public static final String REJECTED_TX_MAX_IDLE_CONNECTIONS =
+      "--plugin-linea-rejected-tx-max-idle-connections";
+
+  public static final int DEFAULT_REJECTED_TX_MAX_IDLE_CONNECTIONS = 5;
+
+  /** The time an idle connection to the rejected transaction endpoint is kept alive. */
+  public static final String REJECTED_TX_KEEP_ALIVE = "--plugin-linea-rejected-tx-keep-alive";
+
+  public static final long DEFAULT_REJECTED_TX_KEEP_ALIVE = 300_000;
+
+  /** The timeout to connect to the rejected transaction endpoint. */
+  public static final String REJECTED_TX_CONNECT_TIMEOUT =
+      "--plugin-linea-rejected-tx-connect-timeout";
+
+  public static final long DEFAULT_REJECTED_TX_CONNECT_TIMEOUT = 10_000;
+
+  /** The timeout of a whole call to the rejected transaction endpoint. */
+  public static final String REJECTED_TX_CALL_TIMEOUT = "--plugin-linea-rejected-tx-call-timeout";
+
+  public static final long DEFAULT_REJECTED_TX_CALL_TIMEOUT = 0;
+
+  /** Use cleartext HTTP/2 with prior knowledge to connect to the rejected transaction endpoint. */
+  public static final String REJECTED_TX_HTTP2_PRIOR_KNOWLEDGE =
+      "--plugin-linea-rejected-tx-http2-prior-knowledge";
+
+  public static final boolean DEFAULT_REJECTED_TX_HTTP2_PRIOR_KNOWLEDGE = false;
+
+  /** The time window within which repeated reports of the same rejection are suppressed. */
+  public static final String REJECTED_TX_DEDUP_WINDOW = "--plugin-linea-rejected-tx-dedup-window";
+
+  public static final long DEFAULT_REJECTED_TX_DEDUP_WINDOW = 0;
+
   @Option(
       names = {REJECTED_TX_ENDPOINT},
       hidden = true,
@@ -49,6 +136,163 @@ public class LineaRejectedTxReportingCliOptions implements LineaCliOptions {
           "Linea Node type to use when reporting rejected transactions. (Valid values: ${COMPLETION-CANDIDATES})")
   LineaNodeType lineaNodeType = null;
 
+  @Positive
+  @Option(
+      names = {REJECTED_TX_BATCH_SIZE},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of rejected transaction reports sent together as a single JSON-RPC batch,"
+              + " 1 disables batching (default: ${DEFAULT-VALUE})")
+  int rejectedTxBatchSize = DEFAULT_REJECTED_TX_BATCH_SIZE;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_BATCH_MAX_DELAY},
+      hidden = true,
+      paramLabel = "<LONG>",
+      description =
+          "Max time in milliseconds a rejected transaction report waits for its batch to be full"
+              + " before the batch is sent anyway (default: ${DEFAULT-VALUE})")
+  long rejectedTxBatchMaxDelay = DEFAULT_REJECTED_TX_BATCH_MAX_DELAY;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_JOURNAL_SEGMENT_SIZE},
+      hidden = true,
+      paramLabel = "<LONG>",
+      description =
+          "Size in bytes of the segments of the append-only journal where the rejected transaction"
+              + " reports are kept until delivered, 0 keeps each report in its own file"
+              + " (default: ${DEFAULT-VALUE})")
+  long rejectedTxJournalSegmentSize = DEFAULT_REJECTED_TX_JOURNAL_SEGMENT_SIZE;
+
+  @Option(
+      names = {REJECTED_TX_JOURNAL_COMPRESSION},
+      arity = "0..1",
+      hidden = true,
+      paramLabel = "<BOOLEAN>",
+      description =
+          "Deflate compress the records of the journal of the rejected transaction reports,"
+              + " trading some CPU on append and delivery for less disk usage"
+              + " (default: ${DEFAULT-VALUE})")
+  boolean rejectedTxJournalCompression = DEFAULT_REJECTED_TX_JOURNAL_COMPRESSION;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_MEMORY_QUEUE_SIZE},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of rejected transaction reports kept in memory and delivered directly while"
+              + " the endpoint is healthy, the others are spilled to disk, 0 saves all the reports"
+              + " to disk before delivery (default: ${DEFAULT-VALUE})")
+  int rejectedTxMemoryQueueSize = DEFAULT_REJECTED_TX_MEMORY_QUEUE_SIZE;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_CIRCUIT_BREAKER_FAILURE_THRESHOLD},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Number of consecutive failed deliveries to the rejected transaction endpoint after which"
+              + " all the deliveries are paused, 0 disables the circuit breaker"
+              + " (default: ${DEFAULT-VALUE})")
+  int rejectedTxCircuitBreakerFailureThreshold =
+      DEFAULT_REJECTED_TX_CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+
+  @Positive
+  @Option(
+      names = {REJECTED_TX_CIRCUIT_BREAKER_OPEN_DURATION},
+      hidden = true,
+      paramLabel = "<LONG>",
+      description =
+          "Time in milliseconds the deliveries are paused before a single probe request is sent to"
+              + " the rejected transaction endpoint (default: ${DEFAULT-VALUE})")
+  long rejectedTxCircuitBreakerOpenDuration = DEFAULT_REJECTED_TX_CIRCUIT_BREAKER_OPEN_DURATION;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_DRAIN_RATE},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of requests per second sent when delivering the backlog of rejected"
+              + " transaction reports from disk, 0 means unlimited (default: ${DEFAULT-VALUE})")
+  int rejectedTxDrainRate = DEFAULT_REJECTED_TX_DRAIN_RATE;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_MAX_IN_FLIGHT_REQUESTS},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of requests to the rejected transaction endpoint in flight at once, 0 means"
+              + " unlimited (default: ${DEFAULT-VALUE})")
+  int rejectedTxMaxInFlightRequests = DEFAULT_REJECTED_TX_MAX_IN_FLIGHT_REQUESTS;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_MAX_IDLE_CONNECTIONS},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of idle connections to the rejected transaction endpoint kept in the pool, 0"
+              + " uses the HTTP client default (default: ${DEFAULT-VALUE})")
+  int rejectedTxMaxIdleConnections = DEFAULT_REJECTED_TX_MAX_IDLE_CONNECTIONS;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_KEEP_ALIVE},
+      hidden = true,
+      paramLabel = "<LONG>",
+      description =
+          "Time in milliseconds an idle connection to the rejected transaction endpoint is kept"
+              + " alive, 0 uses the HTTP client default (default: ${DEFAULT-VALUE})")
+  long rejectedTxKeepAlive = DEFAULT_REJECTED_TX_KEEP_ALIVE;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_CONNECT_TIMEOUT},
+      hidden = true,
+      paramLabel = "<LONG>",
+      description =
+          "Timeout in milliseconds to connect to the rejected transaction endpoint, 0 uses the HTTP"
+              + " client default (default: ${DEFAULT-VALUE})")
+  long rejectedTxConnectTimeout = DEFAULT_REJECTED_TX_CONNECT_TIMEOUT;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_CALL_TIMEOUT},
+      hidden = true,
+      paramLabel = "<LONG>",
+      description =
+          "Timeout in milliseconds of a whole call to the rejected transaction endpoint, 0 means no"
+              + " timeout (default: ${DEFAULT-VALUE})")
+  long rejectedTxCallTimeout = DEFAULT_REJECTED_TX_CALL_TIMEOUT;
+
+  @Option(
+      names = {REJECTED_TX_HTTP2_PRIOR_KNOWLEDGE},
+      arity = "0..1",
+      hidden = true,
+      paramLabel = "<BOOLEAN>",
+      description =
+          "Use cleartext HTTP/2 with prior knowledge to connect to the rejected transaction"
+              + " endpoint, HTTP/2 is always negotiated for HTTPS endpoints that support it"
+              + " (default: ${DEFAULT-VALUE})")
+  boolean rejectedTxHttp2PriorKnowledge = DEFAULT_REJECTED_TX_HTTP2_PRIOR_KNOWLEDGE;
+
+  @PositiveOrZero
+  @Option(
+      names = {REJECTED_TX_DEDUP_WINDOW},
+      hidden = true,
+      paramLabel = "<LONG>",
+      description =
+          "Time window in milliseconds within which the repeated reports of the same transaction"
+              + " rejected for the same reason are suppressed, their count is sent with the next"
+              + " report, 0 disables the deduplication (default: ${DEFAULT-VALUE})")
+  long rejectedTxDedupWindow = DEFAULT_REJECTED_TX_DEDUP_WINDOW;
+
   /** Default constructor. */
   private LineaRejectedTxReportingCliOptions() {}
 
@@ -71,6 +315,22 @@ public class LineaRejectedTxReportingCliOptions implements LineaCliOptions {
     final LineaRejectedTxReportingCliOptions options = create();
     options.rejectedTxEndpoint = config.rejectedTxEndpoint();
     options.lineaNodeType = config.lineaNodeType();
+    options.rejectedTxBatchSize = config.rejectedTxBatchSize();
+    options.rejectedTxBatchMaxDelay = config.rejectedTxBatchMaxDelay();
+    options.rejectedTxJournalSegmentSize = config.rejectedTxJournalSegmentSize();
+    options.rejectedTxJournalCompression = config.rejectedTxJournalCompression();
+    options.rejectedTxMemoryQueueSize = config.rejectedTxMemoryQueueSize();
+    options.rejectedTxCircuitBreakerFailureThreshold =
+        config.rejectedTxCircuitBreakerFailureThreshold();
+    options.rejectedTxCircuitBreakerOpenDuration = config.rejectedTxCircuitBreakerOpenDuration();
+    options.rejectedTxDrainRate = config.rejectedTxDrainRate();
+    options.rejectedTxMaxInFlightRequests = config.rejectedTxMaxInFlightRequests();
+    options.rejectedTxMaxIdleConnections = config.rejectedTxMaxIdleConnections();
+    options.rejectedTxKeepAlive = config.rejectedTxKeepAlive();
+    options.rejectedTxConnectTimeout = config.rejectedTxConnectTimeout();
+    options.rejectedTxCallTimeout = config.rejectedTxCallTimeout();
+    options.rejectedTxHttp2PriorKnowledge = config.rejectedTxHttp2PriorKnowledge();
+    options.rejectedTxDedupWindow = config.rejectedTxDedupWindow();
     return options;
   }
 
@@ -86,6 +346,21 @@ public class LineaRejectedTxReportingCliOptions implements LineaCliOptions {
     return LineaRejectedTxReportingConfiguration.builder()
         .rejectedTxEndpoint(rejectedTxEndpoint)
         .lineaNodeType(lineaNodeType)
+        .rejectedTxBatchSize(rejectedTxBatchSize)
+        .rejectedTxBatchMaxDelay(rejectedTxBatchMaxDelay)
+        .rejectedTxJournalSegmentSize(rejectedTxJournalSegmentSize)
+        .rejectedTxJournalCompression(rejectedTxJournalCompression)
+        .rejectedTxMemoryQueueSize(rejectedTxMemoryQueueSize)
+        .rejectedTxCircuitBreakerFailureThreshold(rejectedTxCircuitBreakerFailureThreshold)
+        .rejectedTxCircuitBreakerOpenDuration(rejectedTxCircuitBreakerOpenDuration)
+        .rejectedTxDrainRate(rejectedTxDrainRate)
+        .rejectedTxMaxInFlightRequests(rejectedTxMaxInFlightRequests)
+        .rejectedTxMaxIdleConnections(rejectedTxMaxIdleConnections)
+        .rejectedTxKeepAlive(rejectedTxKeepAlive)
+        .rejectedTxConnectTimeout(rejectedTxConnectTimeout)
+        .rejectedTxCallTimeout(rejectedTxCallTimeout)
+        .rejectedTxHttp2PriorKnowledge(rejectedTxHttp2PriorKnowledge)
+        .rejectedTxDedupWindow(rejectedTxDedupWindow)
         .build();
   }
 
@@ -95,6 +370,23 @@ public class LineaRejectedTxReportingCliOptions implements LineaCliOptions {
     return MoreObjects.toStringHelper(this)
         .add(REJECTED_TX_ENDPOINT, rejectedTxEndpoint)
         .add(LINEA_NODE_TYPE, lineaNodeType)
+        .add(REJECTED_TX_BATCH_SIZE, rejectedTxBatchSize)
+        .add(REJECTED_TX_BATCH_MAX_DELAY, rejectedTxBatchMaxDelay)
+        .add(REJECTED_TX_JOURNAL_SEGMENT_SIZE, rejectedTxJournalSegmentSize)
+        .add(REJECTED_TX_JOURNAL_COMPRESSION, rejectedTxJournalCompression)
+        .add(REJECTED_TX_MEMORY_QUEUE_SIZE, rejectedTxMemoryQueueSize)
+        .add(
+            REJECTED_TX_CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+            rejectedTxCircuitBreakerFailureThreshold)
+        .add(REJECTED_TX_CIRCUIT_BREAKER_OPEN_DURATION, rejectedTxCircuitBreakerOpenDuration)
+        .add(REJECTED_TX_DRAIN_RATE, rejectedTxDrainRate)
+        .add(REJECTED_TX_MAX_IN_FLIGHT_REQUESTS, rejectedTxMaxInFlightRequests)
+        .add(REJECTED_TX_MAX_IDLE_CONNECTIONS, rejectedTxMaxIdleConnections)
+        .add(REJECTED_TX_KEEP_ALIVE, rejectedTxKeepAlive)
+        .add(REJECTED_TX_CONNECT_TIMEOUT, rejectedTxConnectTimeout)
+        .add(REJECTED_TX_CALL_TIMEOUT, rejectedTxCallTimeout)
+        .add(REJECTED_TX_HTTP2_PRIOR_KNOWLEDGE, rejectedTxHttp2PriorKnowledge)
+        .add(REJECTED_TX_DEDUP_WINDOW, rejectedTxDedupWindow)
         .toString();
   }
 }
@@ -23,4 +23,21 @@ import net.consensys.linea.plugins.LineaOptionsConfiguration;
 /** Linea Rejected Transactions Reporting Configuration */
 @Builder(toBuilder = true)
 public record LineaRejectedTxReportingConfiguration(
-    URL rejectedTxEndpoint, LineaNodeType lineaNodeType) implements LineaOptionsConfiguration {}
+    URL rejectedTxEndpoint,
+    LineaNodeType lineaNodeType,
+    int rejectedTxBatchSize,
+    long rejectedTxBatchMaxDelay,
+    long rejectedTxJournalSegmentSize,
+    boolean rejectedTxJournalCompression,
+    int rejectedTxMemoryQueueSize,
+    int rejectedTxCircuitBreakerFailureThreshold,
+    long rejectedTxCircuitBreakerOpenDuration,
+    int rejectedTxDrainRate,
+    int rejectedTxMaxInFlightRequests,
+    int rejectedTxMaxIdleConnections,
+    long rejectedTxKeepAlive,
+    long rejectedTxConnectTimeout,
+    long rejectedTxCallTimeout,
+    boolean rejectedTxHttp2PriorKnowledge,
+    long rejectedTxDedupWindow)
+    implements LineaOptionsConfiguration {}
@@ -15,6 +15,7 @@
 package net.consensys.linea.config;
 
 import com.google.common.base.MoreObjects;
+import jakarta.validation.constraints.PositiveOrZero;
 import net.consensys.linea.plugins.LineaCliOptions;
 import picocli.CommandLine;
 
@@ -24,6 +25,20 @@ public class LineaTracerCliOptions implements LineaCliOptions {
   public static final String MODULE_LIMIT_FILE_PATH = "--plugin-linea-module-limit-file-path";
   public static final String DEFAULT_MODULE_LIMIT_FILE_PATH = "moduleLimitFile.toml";
 
+  public static final String LINE_COUNT_PREDICTION_CACHE_SIZE =
+      "--plugin-linea-line-count-prediction-cache-size";
+  public static final int DEFAULT_LINE_COUNT_PREDICTION_CACHE_SIZE = 0;
+
+  public static final String MODULE_LIMIT_CHECK_INTERVAL =
+      "--plugin-linea-module-limit-check-interval";
+  public static final int DEFAULT_MODULE_LIMIT_CHECK_INTERVAL = 0;
+
+  public static final String SIMULATION_MAX_MILLIS = "--plugin-linea-simulation-max-millis";
+  public static final int DEFAULT_SIMULATION_MAX_MILLIS = 0;
+
+  public static final String SIMULATION_MAX_OPCODES = "--plugin-linea-simulation-max-opcodes";
+  public static final int DEFAULT_SIMULATION_MAX_OPCODES = 0;
+
   @CommandLine.Option(
       names = {MODULE_LIMIT_FILE_PATH},
       hidden = true,
@@ -32,6 +47,50 @@ public class LineaTracerCliOptions implements LineaCliOptions {
           "Path to the toml file containing the module limits (default: ${DEFAULT-VALUE})")
   private String moduleLimitFilePath = DEFAULT_MODULE_LIMIT_FILE_PATH;
 
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {LINE_COUNT_PREDICTION_CACHE_SIZE},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of called contracts we keep the line count history of, to predict the"
+              + " line count of a tx before executing it, 0 disables the prediction"
+              + " (default: ${DEFAULT-VALUE})")
+  private int lineCountPredictionCacheSize = DEFAULT_LINE_COUNT_PREDICTION_CACHE_SIZE;
+
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {MODULE_LIMIT_CHECK_INTERVAL},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Number of executed opcodes between two checks of the module limits during the"
+              + " simulation of a tx, that is aborted as soon as a module is over the limit,"
+              + " 0 disables the early abort (default: ${DEFAULT-VALUE})")
+  private int moduleLimitCheckInterval = DEFAULT_MODULE_LIMIT_CHECK_INTERVAL;
+
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {SIMULATION_MAX_MILLIS},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max elapsed time in milliseconds of a single tx simulation of the tx pool validation"
+              + " or of linea_estimateGas, after which it is aborted, 0 means no limit"
+              + " (default: ${DEFAULT-VALUE})")
+  private int simulationMaxMillis = DEFAULT_SIMULATION_MAX_MILLIS;
+
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {SIMULATION_MAX_OPCODES},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of opcodes executed by a single tx simulation of the tx pool validation"
+              + " or of linea_estimateGas, after which it is aborted, 0 means no limit"
+              + " (default: ${DEFAULT-VALUE})")
+  private int simulationMaxOpcodes = DEFAULT_SIMULATION_MAX_OPCODES;
+
   private LineaTracerCliOptions() {}
 
   /**
@@ -52,6 +111,10 @@ public class LineaTracerCliOptions implements LineaCliOptions {
   public static LineaTracerCliOptions fromConfig(final LineaTracerConfiguration config) {
     final LineaTracerCliOptions options = create();
     options.moduleLimitFilePath = config.moduleLimitsFilePath();
+    options.lineCountPredictionCacheSize = config.lineCountPredictionCacheSize();
+    options.moduleLimitCheckInterval = config.moduleLimitCheckInterval();
+    options.simulationMaxMillis = config.simulationMaxMillis();
+    options.simulationMaxOpcodes = config.simulationMaxOpcodes();
     return options;
   }
 
@@ -62,13 +125,23 @@ public class LineaTracerCliOptions implements LineaCliOptions {
    */
   @Override
   public LineaTracerConfiguration toDomainObject() {
-    return LineaTracerConfiguration.builder().moduleLimitsFilePath(moduleLimitFilePath).build();
+    return LineaTracerConfiguration.builder()
+        .moduleLimitsFilePath(moduleLimitFilePath)
+        .lineCountPredictionCacheSize(lineCountPredictionCacheSize)
+        .moduleLimitCheckInterval(moduleLimitCheckInterval)
+        .simulationMaxMillis(simulationMaxMillis)
+        .simulationMaxOpcodes(simulationMaxOpcodes)
+        .build();
   }
 
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
         .add(MODULE_LIMIT_FILE_PATH, moduleLimitFilePath)
+        .add(LINE_COUNT_PREDICTION_CACHE_SIZE, lineCountPredictionCacheSize)
+        .add(MODULE_LIMIT_CHECK_INTERVAL, moduleLimitCheckInterval)
+        .add(SIMULATION_MAX_MILLIS, simulationMaxMillis)
+        .add(SIMULATION_MAX_OPCODES, simulationMaxOpcodes)
         .toString();
   }
 }
@@ -18,7 +18,23 @@ package net.consensys.linea.config;
 import lombok.Builder;
 import net.consensys.linea.plugins.LineaOptionsConfiguration;
 
-/** The Linea tracer configuration. */
+/**
+ * The Linea tracer configuration.
+ *
+ * @param moduleLimitsFilePath the path to the toml file containing the module limits
+ * @param lineCountPredictionCacheSize the max number of called contracts whose line count history
+ *     is kept, 0 disables the prediction
+ * @param moduleLimitCheckInterval the number of executed opcodes between two checks of the module
+ *     limits during a simulation, 0 disables the early abort of the simulation
+ * @param simulationMaxMillis the max elapsed time of a simulation in milliseconds, 0 means no
+ *     limit
+ * @param simulationMaxOpcodes the max number of opcodes executed by a simulation, 0 means no limit
+ */
 @Builder(toBuilder = true)
-public record LineaTracerConfiguration(String moduleLimitsFilePath)
+public record LineaTracerConfiguration(
+    String moduleLimitsFilePath,
+    int lineCountPredictionCacheSize,
+    int moduleLimitCheckInterval,
+    int simulationMaxMillis,
+    int simulationMaxOpcodes)
     implements LineaOptionsConfiguration {}
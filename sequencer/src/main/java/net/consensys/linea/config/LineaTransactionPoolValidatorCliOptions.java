@@ -16,6 +16,8 @@
 package net.consensys.linea.config;
 
 import com.google.common.base.MoreObjects;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import net.consensys.linea.plugins.LineaCliOptions;
 import picocli.CommandLine;
 
@@ -26,6 +28,10 @@ public class LineaTransactionPoolValidatorCliOptions implements LineaCliOptions
   public static final String DENY_LIST_PATH = "--plugin-linea-deny-list-path";
   public static final String DEFAULT_DENY_LIST_PATH = "lineaDenyList.txt";
 
+  public static final String DENY_LIST_REFRESH_SECONDS =
+      "--plugin-linea-deny-list-refresh-seconds";
+  public static final int DEFAULT_DENY_LIST_REFRESH_SECONDS = 0;
+
   public static final String MAX_TX_GAS_LIMIT_OPTION = "--plugin-linea-max-tx-gas-limit";
   public static final int DEFAULT_MAX_TRANSACTION_GAS_LIMIT = 30_000_000;
 
@@ -40,6 +46,27 @@ public class LineaTransactionPoolValidatorCliOptions implements LineaCliOptions
       "--plugin-linea-tx-pool-simulation-check-p2p-enabled";
   public static final boolean DEFAULT_TX_POOL_ENABLE_SIMULATION_CHECK_P2P = false;
 
+  public static final String TX_POOL_QUOTA_SENDER_RATE = "--plugin-linea-tx-pool-quota-sender-rate";
+  public static final int DEFAULT_TX_POOL_QUOTA_SENDER_RATE = 0;
+
+  public static final String TX_POOL_QUOTA_SENDER_BURST =
+      "--plugin-linea-tx-pool-quota-sender-burst";
+  public static final int DEFAULT_TX_POOL_QUOTA_SENDER_BURST = 10;
+
+  public static final String TX_POOL_QUOTA_MAX_SENDERS = "--plugin-linea-tx-pool-quota-max-senders";
+  public static final int DEFAULT_TX_POOL_QUOTA_MAX_SENDERS = 10_000;
+
+  public static final String TX_POOL_QUOTA_API_RATE = "--plugin-linea-tx-pool-quota-api-rate";
+  public static final int DEFAULT_TX_POOL_QUOTA_API_RATE = 0;
+
+  public static final String TX_POOL_QUOTA_P2P_RATE = "--plugin-linea-tx-pool-quota-p2p-rate";
+  public static final int DEFAULT_TX_POOL_QUOTA_P2P_RATE = 0;
+
+  public static final String TX_POOL_QUOTA_OVERFLOW_POLICY =
+      "--plugin-linea-tx-pool-quota-overflow-policy";
+  public static final QuotaOverflowPolicy DEFAULT_TX_POOL_QUOTA_OVERFLOW_POLICY =
+      QuotaOverflowPolicy.REJECT;
+
   @CommandLine.Option(
       names = {DENY_LIST_PATH},
       hidden = true,
@@ -48,6 +75,17 @@ public class LineaTransactionPoolValidatorCliOptions implements LineaCliOptions
           "Path to the file containing the deny list (default: " + DEFAULT_DENY_LIST_PATH + ")")
   private String denyListPath = DEFAULT_DENY_LIST_PATH;
 
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {DENY_LIST_REFRESH_SECONDS},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Interval in seconds between the checks for changes of the deny list file, that is"
+              + " reloaded without restarting the node when it changes, 0 disables the reload"
+              + " (default: ${DEFAULT-VALUE})")
+  private int denyListRefreshSeconds = DEFAULT_DENY_LIST_REFRESH_SECONDS;
+
   @CommandLine.Option(
       names = {MAX_TX_GAS_LIMIT_OPTION},
       hidden = true,
@@ -86,6 +124,66 @@ public class LineaTransactionPoolValidatorCliOptions implements LineaCliOptions
           "Enable the simulation check for txs received via p2p? (default: ${DEFAULT-VALUE})")
   private boolean txPoolSimulationCheckP2pEnabled = DEFAULT_TX_POOL_ENABLE_SIMULATION_CHECK_P2P;
 
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {TX_POOL_QUOTA_SENDER_RATE},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Number of txs per second a single sender can submit to the expensive validators, like"
+              + " the simulation, 0 disables the sender quota (default: ${DEFAULT-VALUE})")
+  private int txPoolQuotaSenderRate = DEFAULT_TX_POOL_QUOTA_SENDER_RATE;
+
+  @Positive
+  @CommandLine.Option(
+      names = {TX_POOL_QUOTA_SENDER_BURST},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Number of txs a single sender can submit at once to the expensive validators"
+              + " (default: ${DEFAULT-VALUE})")
+  private int txPoolQuotaSenderBurst = DEFAULT_TX_POOL_QUOTA_SENDER_BURST;
+
+  @Positive
+  @CommandLine.Option(
+      names = {TX_POOL_QUOTA_MAX_SENDERS},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of senders whose quota is tracked at once, the least recently seen are"
+              + " forgotten first (default: ${DEFAULT-VALUE})")
+  private int txPoolQuotaMaxSenders = DEFAULT_TX_POOL_QUOTA_MAX_SENDERS;
+
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {TX_POOL_QUOTA_API_RATE},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Number of txs per second received via API that can be submitted to the expensive"
+              + " validators, 0 disables the API quota (default: ${DEFAULT-VALUE})")
+  private int txPoolQuotaApiRate = DEFAULT_TX_POOL_QUOTA_API_RATE;
+
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {TX_POOL_QUOTA_P2P_RATE},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Number of txs per second received via P2P that can be submitted to the expensive"
+              + " validators, 0 disables the P2P quota (default: ${DEFAULT-VALUE})")
+  private int txPoolQuotaP2pRate = DEFAULT_TX_POOL_QUOTA_P2P_RATE;
+
+  @CommandLine.Option(
+      names = {TX_POOL_QUOTA_OVERFLOW_POLICY},
+      hidden = true,
+      paramLabel = "<POLICY>",
+      description =
+          "What to do with a tx that exceeds its quota, reject it or skip its simulation,"
+              + " only for API txs, P2P ones are always rejected"
+              + " (Valid values: ${COMPLETION-CANDIDATES}, default: ${DEFAULT-VALUE})")
+  private QuotaOverflowPolicy txPoolQuotaOverflowPolicy = DEFAULT_TX_POOL_QUOTA_OVERFLOW_POLICY;
+
   private LineaTransactionPoolValidatorCliOptions() {}
 
   /**
@@ -107,10 +205,17 @@ public class LineaTransactionPoolValidatorCliOptions implements LineaCliOptions
       final LineaTransactionPoolValidatorConfiguration config) {
     final LineaTransactionPoolValidatorCliOptions options = create();
     options.denyListPath = config.denyListPath();
+    options.denyListRefreshSeconds = config.denyListRefreshSeconds();
     options.maxTxGasLimit = config.maxTxGasLimit();
     options.maxTxCallDataSize = config.maxTxCalldataSize();
     options.txPoolSimulationCheckApiEnabled = config.txPoolSimulationCheckApiEnabled();
     options.txPoolSimulationCheckP2pEnabled = config.txPoolSimulationCheckP2pEnabled();
+    options.txPoolQuotaSenderRate = config.txPoolQuotaSenderRate();
+    options.txPoolQuotaSenderBurst = config.txPoolQuotaSenderBurst();
+    options.txPoolQuotaMaxSenders = config.txPoolQuotaMaxSenders();
+    options.txPoolQuotaApiRate = config.txPoolQuotaApiRate();
+    options.txPoolQuotaP2pRate = config.txPoolQuotaP2pRate();
+    options.txPoolQuotaOverflowPolicy = config.txPoolQuotaOverflowPolicy();
     return options;
   }
 
@@ -123,20 +228,34 @@ public class LineaTransactionPoolValidatorCliOptions implements LineaCliOptions
   public LineaTransactionPoolValidatorConfiguration toDomainObject() {
     return new LineaTransactionPoolValidatorConfiguration(
         denyListPath,
+        denyListRefreshSeconds,
         maxTxGasLimit,
         maxTxCallDataSize,
         txPoolSimulationCheckApiEnabled,
-        txPoolSimulationCheckP2pEnabled);
+        txPoolSimulationCheckP2pEnabled,
+        txPoolQuotaSenderRate,
+        txPoolQuotaSenderBurst,
+        txPoolQuotaMaxSenders,
+        txPoolQuotaApiRate,
+        txPoolQuotaP2pRate,
+        txPoolQuotaOverflowPolicy);
   }
 
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
         .add(DENY_LIST_PATH, denyListPath)
+        .add(DENY_LIST_REFRESH_SECONDS, denyListRefreshSeconds)
         .add(MAX_TX_GAS_LIMIT_OPTION, maxTxGasLimit)
         .add(MAX_TX_CALLDATA_SIZE, maxTxCallDataSize)
         .add(TX_POOL_ENABLE_SIMULATION_CHECK_API, txPoolSimulationCheckApiEnabled)
         .add(TX_POOL_ENABLE_SIMULATION_CHECK_P2P, txPoolSimulationCheckP2pEnabled)
+        .add(TX_POOL_QUOTA_SENDER_RATE, txPoolQuotaSenderRate)
+        .add(TX_POOL_QUOTA_SENDER_BURST, txPoolQuotaSenderBurst)
+        .add(TX_POOL_QUOTA_MAX_SENDERS, txPoolQuotaMaxSenders)
+        .add(TX_POOL_QUOTA_API_RATE, txPoolQuotaApiRate)
+        .add(TX_POOL_QUOTA_P2P_RATE, txPoolQuotaP2pRate)
+        .add(TX_POOL_QUOTA_OVERFLOW_POLICY, txPoolQuotaOverflowPolicy)
         .toString();
   }
 }
@@ -22,14 +22,33 @@ import net.consensys.linea.plugins.LineaOptionsConfiguration;
  * The Linea transaction pool validation configuration.
  *
  * @param denyListPath the path to the file containing the addresses that are denied.
+ * @param denyListRefreshSeconds the interval between the checks for changes of the deny list file,
+ *     0 disables the reload
  * @param maxTxGasLimit the maximum gas limit allowed for transactions
  * @param maxTxCalldataSize the maximum size of calldata allowed for transactions
+ * @param txPoolQuotaSenderRate the number of txs per second a sender can submit to the expensive
+ *     validators, 0 disables the sender quota
+ * @param txPoolQuotaSenderBurst the number of txs a sender can submit at once to the expensive
+ *     validators
+ * @param txPoolQuotaMaxSenders the max number of senders whose quota is tracked at once
+ * @param txPoolQuotaApiRate the number of txs per second received via API that can be submitted
+ *     to the expensive validators, 0 disables the API quota
+ * @param txPoolQuotaP2pRate the number of txs per second received via P2P that can be submitted
+ *     to the expensive validators, 0 disables the P2P quota
+ * @param txPoolQuotaOverflowPolicy what to do with a tx that exceeds its quota
  */
 @Builder(toBuilder = true)
 public record LineaTransactionPoolValidatorConfiguration(
     String denyListPath,
+    int denyListRefreshSeconds,
     int maxTxGasLimit,
     int maxTxCalldataSize,
     boolean txPoolSimulationCheckApiEnabled,
-    boolean txPoolSimulationCheckP2pEnabled)
+    boolean txPoolSimulationCheckP2pEnabled,
+    int txPoolQuotaSenderRate,
+    int txPoolQuotaSenderBurst,
+    int txPoolQuotaMaxSenders,
+    int txPoolQuotaApiRate,
+    int txPoolQuotaP2pRate,
+    QuotaOverflowPolicy txPoolQuotaOverflowPolicy)
     implements LineaOptionsConfiguration {}
@@ -16,7 +16,9 @@
 package net.consensys.linea.config;
 
 import com.google.common.base.MoreObjects;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import net.consensys.linea.plugins.LineaCliOptions;
 import picocli.CommandLine;
 
@@ -39,6 +41,20 @@ public class LineaTransactionSelectorCliOptions implements LineaCliOptions {
   public static final String UNPROFITABLE_RETRY_LIMIT = "--plugin-linea-unprofitable-retry-limit";
   public static final int DEFAULT_UNPROFITABLE_RETRY_LIMIT = 10;
 
+  public static final String BLOCK_PACKING_MAX_ATTEMPTS =
+      "--plugin-linea-block-packing-max-attempts";
+  public static final int DEFAULT_BLOCK_PACKING_MAX_ATTEMPTS = 0;
+
+  public static final String SELECTION_TIME_BUDGET = "--plugin-linea-selection-time-budget";
+  public static final long DEFAULT_SELECTION_TIME_BUDGET = 0;
+
+  public static final String SELECTION_LOW_TIME_PERCENTAGE =
+      "--plugin-linea-selection-low-time-percentage";
+  public static final int DEFAULT_SELECTION_LOW_TIME_PERCENTAGE = 20;
+
+  public static final String PROFITABILITY_TABLE_SIZE = "--plugin-linea-profitability-table-size";
+  public static final int DEFAULT_PROFITABILITY_TABLE_SIZE = 0;
+
   @Positive
   @CommandLine.Option(
       names = {MAX_BLOCK_CALLDATA_SIZE},
@@ -82,6 +98,50 @@ public class LineaTransactionSelectorCliOptions implements LineaCliOptions {
           "Max number of unprofitable transactions we retry on each block creation (default: ${DEFAULT-VALUE})")
   private int unprofitableRetryLimit = DEFAULT_UNPROFITABLE_RETRY_LIMIT;
 
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {BLOCK_PACKING_MAX_ATTEMPTS},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of smaller transactions that are still processed once a module line count"
+              + " limit for the block is reached, 0 stops the selection as soon as that happens"
+              + " (default: ${DEFAULT-VALUE})")
+  private int blockPackingMaxAttempts = DEFAULT_BLOCK_PACKING_MAX_ATTEMPTS;
+
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {SELECTION_TIME_BUDGET},
+      hidden = true,
+      paramLabel = "<LONG>",
+      description =
+          "Time budget in milliseconds for the selection of the transactions of a block, when it is"
+              + " running low cheaper selection policies are used, 0 disables it"
+              + " (default: ${DEFAULT-VALUE})")
+  private long selectionTimeBudget = DEFAULT_SELECTION_TIME_BUDGET;
+
+  @PositiveOrZero
+  @Max(100)
+  @CommandLine.Option(
+      names = {SELECTION_LOW_TIME_PERCENTAGE},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Percentage of the selection time budget under which the remaining time is considered"
+              + " low (default: ${DEFAULT-VALUE})")
+  private int selectionLowTimePercentage = DEFAULT_SELECTION_LOW_TIME_PERCENTAGE;
+
+  @PositiveOrZero
+  @CommandLine.Option(
+      names = {PROFITABILITY_TABLE_SIZE},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Max number of pending transactions whose upfront profitability is re-evaluated in bulk"
+              + " when the pricing or the base fee change, 0 disables it"
+              + " (default: ${DEFAULT-VALUE})")
+  private int profitabilityTableSize = DEFAULT_PROFITABILITY_TABLE_SIZE;
+
   private LineaTransactionSelectorCliOptions() {}
 
   /**
@@ -107,6 +167,10 @@ public class LineaTransactionSelectorCliOptions implements LineaCliOptions {
     options.maxGasPerBlock = config.maxGasPerBlock();
     options.unprofitableCacheSize = config.unprofitableCacheSize();
     options.unprofitableRetryLimit = config.unprofitableRetryLimit();
+    options.blockPackingMaxAttempts = config.blockPackingMaxAttempts();
+    options.selectionTimeBudget = config.selectionTimeBudget();
+    options.selectionLowTimePercentage = config.selectionLowTimePercentage();
+    options.profitabilityTableSize = config.profitabilityTableSize();
     return options;
   }
 
@@ -123,6 +187,10 @@ public class LineaTransactionSelectorCliOptions implements LineaCliOptions {
         .maxGasPerBlock(maxGasPerBlock)
         .unprofitableCacheSize(unprofitableCacheSize)
         .unprofitableRetryLimit(unprofitableRetryLimit)
+        .blockPackingMaxAttempts(blockPackingMaxAttempts)
+        .selectionTimeBudget(selectionTimeBudget)
+        .selectionLowTimePercentage(selectionLowTimePercentage)
+        .profitabilityTableSize(profitabilityTableSize)
         .build();
   }
 
@@ -134,6 +202,10 @@ public class LineaTransactionSelectorCliOptions implements LineaCliOptions {
         .add(MAX_GAS_PER_BLOCK, maxGasPerBlock)
         .add(UNPROFITABLE_CACHE_SIZE, unprofitableCacheSize)
         .add(UNPROFITABLE_RETRY_LIMIT, unprofitableRetryLimit)
+        .add(BLOCK_PACKING_MAX_ATTEMPTS, blockPackingMaxAttempts)
+        .add(SELECTION_TIME_BUDGET, selectionTimeBudget)
+        .add(SELECTION_LOW_TIME_PERCENTAGE, selectionLowTimePercentage)
+        .add(PROFITABILITY_TABLE_SIZE, profitabilityTableSize)
         .toString();
   }
 }
@@ -25,5 +25,9 @@ public record LineaTransactionSelectorConfiguration(
     int overLinesLimitCacheSize,
     long maxGasPerBlock,
     int unprofitableCacheSize,
-    int unprofitableRetryLimit)
+    int unprofitableRetryLimit,
+    int blockPackingMaxAttempts,
+    long selectionTimeBudget,
+    int selectionLowTimePercentage,
+    int profitabilityTableSize)
     implements LineaOptionsConfiguration {}
@@ -0,0 +1,43 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.config;
+
+/**
+ * A pricing epoch, that is the pricing distributed through the extra data, including the min gas
+ * price, as published on the {@link PricingEpochBus}. The epoch has no version of its own: it
+ * carries the {@link PricingSnapshot} published for it, so the components that keep values computed
+ * from the pricing could compare them with a single version, together with the min gas price.
+ *
+ * @param pricing the pricing snapshot of the epoch
+ * @param minGasPriceWei min gas price in Wei
+ */
+public record PricingEpoch(PricingSnapshot pricing, long minGasPriceWei) {
+  /**
+   * Returns the version of the pricing snapshot of the epoch.
+   *
+   * @return the version of the pricing
+   */
+  public long version() {
+    return pricing.version();
+  }
+
+  public long fixedCostWei() {
+    return pricing.fixedCostWei();
+  }
+
+  public long variableCostWei() {
+    return pricing.variableCostWei();
+  }
+}
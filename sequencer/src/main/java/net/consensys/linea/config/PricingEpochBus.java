@@ -0,0 +1,98 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.config;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process bus of the pricing epochs, so the components that keep values computed from the
+ * pricing, like the pending tx profitability table, are notified as soon as the pricing changes,
+ * and can refresh them eagerly, instead of polling for changes or using stale values.
+ *
+ * <p>A new epoch is published only if any of its values changed since the previous one, and the
+ * subscribers are notified synchronously, in order, on the publishing thread, so they must be quick
+ * and must not publish in turn. A failing subscriber does not prevent the others from being
+ * notified.
+ */
+@Slf4j
+public class PricingEpochBus {
+  private final List<Consumer<PricingEpoch>> subscribers = new CopyOnWriteArrayList<>();
+  private volatile PricingEpoch currentEpoch;
+
+  /**
+   * Subscribes to the pricing epochs published from now on.
+   *
+   * @param subscriber the subscriber
+   */
+  public void subscribe(final Consumer<PricingEpoch> subscriber) {
+    subscribers.add(subscriber);
+  }
+
+  /**
+   * Unsubscribes a previously subscribed subscriber.
+   *
+   * @param subscriber the subscriber
+   */
+  public void unsubscribe(final Consumer<PricingEpoch> subscriber) {
+    subscribers.remove(subscriber);
+  }
+
+  /**
+   * Returns the last published epoch.
+   *
+   * @return the last published epoch, or empty if none was published yet
+   */
+  public Optional<PricingEpoch> currentEpoch() {
+    return Optional.ofNullable(currentEpoch);
+  }
+
+  /**
+   * Publishes a new epoch with the given pricing and min gas price, if the version of the pricing
+   * or the min gas price changed since the previous epoch.
+   *
+   * @param pricing the current pricing snapshot
+   * @param minGasPriceWei min gas price in Wei
+   * @return true if a new epoch was published
+   */
+  public synchronized boolean publish(final PricingSnapshot pricing, final long minGasPriceWei) {
+    final PricingEpoch current = currentEpoch;
+    if (current != null
+        && current.version() == pricing.version()
+        && current.minGasPriceWei() == minGasPriceWei) {
+      return false;
+    }
+    final PricingEpoch next = new PricingEpoch(pricing, minGasPriceWei);
+    currentEpoch = next;
+    log.atDebug().setMessage("Publishing pricing epoch {}").addArgument(next).log();
+    for (final Consumer<PricingEpoch> subscriber : subscribers) {
+      try {
+        subscriber.accept(next);
+      } catch (final RuntimeException e) {
+        log.atWarn()
+            .setMessage("Pricing epoch subscriber failed on epoch {}")
+            .addArgument(next.version())
+            .setCause(e)
+            .log();
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.config;
+
+/**
+ * Immutable snapshot of the pricing used by the profitability formula, so the fixed and variable
+ * costs are always read as a consistent pair. The version is increased every time a new pricing is
+ * published, and can be used to invalidate the values computed from a previous pricing.
+ *
+ * @param version the version of the pricing, starting from 0 for the configured one
+ * @param fixedCostWei fixed cost in Wei
+ * @param variableCostWei variable cost in Wei
+ */
+public record PricingSnapshot(long version, long fixedCostWei, long variableCostWei) {
+  /**
+   * Returns the next version of this pricing with the given costs.
+   *
+   * @param fixedCostWei fixed cost in Wei
+   * @param variableCostWei variable cost in Wei
+   * @return the next pricing snapshot
+   */
+  public PricingSnapshot next(final long fixedCostWei, final long variableCostWei) {
+    return new PricingSnapshot(version + 1, fixedCostWei, variableCostWei);
+  }
+}
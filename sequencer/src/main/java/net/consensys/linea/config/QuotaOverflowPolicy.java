@@ -0,0 +1,28 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.config;
+
+/** What to do with a transaction that exceeds its tx pool admission quota. */
+public enum QuotaOverflowPolicy {
+  /** The transaction is rejected before the expensive validators. */
+  REJECT,
+  /**
+   * An API transaction skips the simulation, and is only checked by the other validators, while a
+   * P2P one is rejected, so a remote sender cannot exceed its quota on purpose to skip the
+   * simulation.
+   */
+  SKIP_SIMULATION
+}
@@ -17,9 +17,11 @@ package net.consensys.linea.extradata;
 
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import net.consensys.linea.config.PricingSnapshot;
 import org.apache.commons.lang3.mutable.MutableLong;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt32;
@@ -35,27 +37,50 @@ import org.hyperledger.besu.plugin.services.rpc.RpcResponseType;
  *
  * <p>The version is the first byte of the extra data, currently on version 1 exists, in case the
  * version byte is not recognized as supported, then the extra data is simply ignored.
+ *
+ * <p>The coordinator pushes the same extra data many times, and the same extra data is found in
+ * every new head, so an extra data equal to the last one successfully handled is not processed
+ * again. Only the min gas price is checked against the current one of the node, and set again if
+ * it differs, so a manual change of the min gas price is overwritten by the next extra data.
  */
 @Slf4j
 public class LineaExtraDataHandler {
   private final RpcEndpointService rpcEndpointService;
+  private final Supplier<Wei> currentMinGasPrice;
   private final ExtraDataConsumer[] extraDataConsumers;
+  private Bytes lastHandledExtraData = Bytes.EMPTY;
 
   public LineaExtraDataHandler(
       final RpcEndpointService rpcEndpointService,
+      final Supplier<Wei> currentMinGasPrice,
       final LineaProfitabilityConfiguration profitabilityConf) {
     this.rpcEndpointService = rpcEndpointService;
+    this.currentMinGasPrice = currentMinGasPrice;
     this.extraDataConsumers = new ExtraDataConsumer[] {new Version1Consumer(profitabilityConf)};
   }
 
   /**
    * Handles the extra data, first tries to see if it has a supported format, if so the bytes are
-   * processed according to that format.
+   * processed according to that format, unless it is the same extra data handled last time, in
+   * which case only the min gas price of the node is set again, if it was changed in the meantime.
    *
    * @param rawExtraData the extra data bytes
+   * @return true if the extra data changed and was processed
    * @throws LineaExtraDataException if the format of the extra data is invalid
    */
-  public void handle(final Bytes rawExtraData) throws LineaExtraDataException {
+  public synchronized boolean handle(final Bytes rawExtraData) throws LineaExtraDataException {
+
+    if (rawExtraData.equals(lastHandledExtraData)) {
+      log.trace("Extra data {} unchanged, only checking the min gas price", rawExtraData);
+      if (!Bytes.EMPTY.equals(rawExtraData)) {
+        for (final ExtraDataConsumer extraDataConsumer : extraDataConsumers) {
+          if (extraDataConsumer.canConsume(rawExtraData)) {
+            extraDataConsumer.syncMinGasPrice();
+          }
+        }
+      }
+      return false;
+    }
 
     if (!Bytes.EMPTY.equals(rawExtraData)) {
       for (final ExtraDataConsumer extraDataConsumer : extraDataConsumers) {
@@ -63,13 +88,16 @@ public class LineaExtraDataHandler {
           // strip first byte since it is the version already used to select the actual consumer
           final var extraData = rawExtraData.slice(1);
           extraDataConsumer.accept(extraData);
-          return;
+          // only remembered once successfully handled, so a failed one is retried
+          lastHandledExtraData = rawExtraData.copy();
+          return true;
         }
       }
       throw new LineaExtraDataException(
           LineaExtraDataException.ErrorType.INVALID_ARGUMENT,
           "Unsupported extra data field " + rawExtraData.toHexString());
     }
+    return false;
   }
 
   /** A consumer of a specific version of the extra data format */
@@ -83,6 +111,9 @@ public class LineaExtraDataHandler {
      */
     boolean canConsume(Bytes extraData);
 
+    /** Sets the min gas price of the last consumed extra data again, if the node has another. */
+    void syncMinGasPrice();
+
     static Long toLong(final Bytes fieldBytes) {
       return UInt32.fromBytes(fieldBytes).toLong();
     }
@@ -90,7 +121,7 @@ public class LineaExtraDataHandler {
 
   /**
    * Handles a version 1 extra data field and on successful parsing it updates the pricing config
-   * and the min gas price
+   * and the min gas price, and publishes the new pricing epoch
    *
    * <p>Version 1 has this format:
    *
@@ -103,6 +134,7 @@ public class LineaExtraDataHandler {
     private final FieldConsumer[] fieldsSequence;
     private final MutableLong currFixedCostKWei = new MutableLong();
     private final MutableLong currVariableCostKWei = new MutableLong();
+    private final MutableLong currMinGasPriceKWei = new MutableLong();
 
     public Version1Consumer(final LineaProfitabilityConfiguration profitabilityConf) {
       this.profitabilityConf = profitabilityConf;
@@ -125,21 +157,34 @@ public class LineaExtraDataHandler {
     }
 
     public synchronized void accept(final Bytes extraData) {
-      log.info("Parsing extra data version 1: {}", extraData.toHexString());
+      log.debug("Parsing extra data version 1: {}", extraData.toHexString());
       int startIndex = 0;
       for (final FieldConsumer fieldConsumer : fieldsSequence) {
         fieldConsumer.accept(extraData.slice(startIndex, fieldConsumer.length));
         startIndex += fieldConsumer.length;
       }
 
-      profitabilityConf.updateFixedAndVariableCost(
-          currFixedCostKWei.longValue() * WEI_IN_KWEI,
-          currVariableCostKWei.longValue() * WEI_IN_KWEI);
+      final PricingSnapshot pricing =
+          profitabilityConf.updateFixedAndVariableCost(
+              currFixedCostKWei.longValue() * WEI_IN_KWEI,
+              currVariableCostKWei.longValue() * WEI_IN_KWEI);
+      profitabilityConf
+          .pricingEpochBus()
+          .publish(pricing, currMinGasPriceKWei.longValue() * WEI_IN_KWEI);
+    }
+
+    public synchronized void syncMinGasPrice() {
+      updateMinGasPrice(currMinGasPriceKWei.longValue());
     }
 
     void updateMinGasPrice(final Long minGasPriceKWei) {
-      if (profitabilityConf.extraDataSetMinGasPriceEnabled()) {
-        final var minGasPriceWei = Wei.of(minGasPriceKWei).multiply(WEI_IN_KWEI);
+      currMinGasPriceKWei.setValue(minGasPriceKWei);
+      final var minGasPriceWei = Wei.of(minGasPriceKWei).multiply(WEI_IN_KWEI);
+      if (!profitabilityConf.extraDataSetMinGasPriceEnabled()) {
+        log.trace("Setting minGasPrice from extraData is disabled by conf");
+      } else if (minGasPriceWei.equals(currentMinGasPrice.get())) {
+        log.trace("MinGasPrice from extraData equal to the current one, nothing to do");
+      } else {
         final var resp =
             rpcEndpointService.call(
                 "miner_setMinGasPrice", new Object[] {minGasPriceWei.toShortHexString()});
@@ -148,8 +193,6 @@ public class LineaExtraDataHandler {
               LineaExtraDataException.ErrorType.FAILED_CALLING_SET_MIN_GAS_PRICE,
               "Internal setMinGasPrice method failed: " + resp);
         }
-      } else {
-        log.trace("Setting minGasPrice from extraData is disabled by conf");
       }
     }
   }
@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.AbstractLineaRequiredPlugin;
 import org.hyperledger.besu.plugin.BesuContext;
 import org.hyperledger.besu.plugin.BesuPlugin;
+import org.hyperledger.besu.plugin.services.BesuConfiguration;
 import org.hyperledger.besu.plugin.services.BesuEvents;
 import org.hyperledger.besu.plugin.services.RpcEndpointService;
 
@@ -32,6 +33,7 @@ public class LineaExtraDataPlugin extends AbstractLineaRequiredPlugin {
   public static final String NAME = "linea";
   private BesuContext besuContext;
   private RpcEndpointService rpcEndpointService;
+  private BesuConfiguration besuConfiguration;
 
   @Override
   public Optional<String> getName() {
@@ -41,6 +43,13 @@ public class LineaExtraDataPlugin extends AbstractLineaRequiredPlugin {
   @Override
   public void doRegister(final BesuContext context) {
     besuContext = context;
+    besuConfiguration =
+        context
+            .getService(BesuConfiguration.class)
+            .orElseThrow(
+                () ->
+                    new RuntimeException(
+                        "Failed to obtain BesuConfiguration from the BesuContext."));
     rpcEndpointService =
         context
             .getService(RpcEndpointService.class)
@@ -60,7 +69,8 @@ public class LineaExtraDataPlugin extends AbstractLineaRequiredPlugin {
     super.start();
     if (profitabilityConfiguration().extraDataPricingEnabled()) {
       final var extraDataHandler =
-          new LineaExtraDataHandler(rpcEndpointService, profitabilityConfiguration());
+          new LineaExtraDataHandler(
+              rpcEndpointService, besuConfiguration::getMinGasPrice, profitabilityConfiguration());
       final var chainHeadHeader = blockchainService.getChainHeadHeader();
       final var initialExtraData = chainHeadHeader.getExtraData();
       try {
@@ -0,0 +1,135 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker protecting the rejected-tx endpoint. After a number of consecutive failures the
+ * circuit opens and no request is allowed, then once the open duration has elapsed a single probe
+ * request is allowed: if it succeeds the circuit closes again, otherwise it stays open for another
+ * open duration.
+ */
+@Slf4j
+class CircuitBreaker {
+  /** The states of the circuit. */
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openDurationNanos;
+  private final LongSupplier nanoClock;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAtNanos;
+
+  /**
+   * Creates a new circuit breaker.
+   *
+   * @param failureThreshold the number of consecutive failures that opens the circuit, 0 disables
+   *     the circuit breaker
+   * @param openDurationMillis the time the circuit stays open before a probe request is allowed
+   */
+  CircuitBreaker(final int failureThreshold, final long openDurationMillis) {
+    this(failureThreshold, openDurationMillis, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  CircuitBreaker(
+      final int failureThreshold, final long openDurationMillis, final LongSupplier nanoClock) {
+    this.failureThreshold = failureThreshold;
+    this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+    this.nanoClock = nanoClock;
+  }
+
+  boolean isEnabled() {
+    return failureThreshold > 0;
+  }
+
+  /**
+   * Checks if a request is allowed, moving the circuit to half open, so the caller is the probe,
+   * if it is open and the open duration has elapsed.
+   *
+   * @return true if the request is allowed
+   */
+  synchronized boolean tryAcquire() {
+    return switch (state) {
+      case CLOSED -> true;
+      case HALF_OPEN -> false;
+      case OPEN -> {
+        if (nanoClock.getAsLong() - openedAtNanos < openDurationNanos) {
+          yield false;
+        }
+        log.info("Rejected-tx endpoint circuit breaker is half open, probing the endpoint");
+        state = State.HALF_OPEN;
+        yield true;
+      }
+    };
+  }
+
+  /** Records a successful request, closing the circuit. */
+  synchronized void onSuccess() {
+    consecutiveFailures = 0;
+    if (state != State.CLOSED) {
+      log.info("Rejected-tx endpoint circuit breaker is closed, resuming deliveries");
+      state = State.CLOSED;
+    }
+  }
+
+  /** Records a failed request, opening the circuit if the failure threshold is reached. */
+  synchronized void onFailure() {
+    if (!isEnabled()) {
+      return;
+    }
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN
+        || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+      log.warn(
+          "Rejected-tx endpoint circuit breaker is open after {} consecutive failures, pausing"
+              + " deliveries for {}ms",
+          consecutiveFailures,
+          TimeUnit.NANOSECONDS.toMillis(openDurationNanos));
+      state = State.OPEN;
+      openedAtNanos = nanoClock.getAsLong();
+    }
+  }
+
+  /**
+   * Returns the time before a probe request is allowed.
+   *
+   * @return the remaining open time in milliseconds, 0 if the circuit is not open
+   */
+  synchronized long remainingOpenMillis() {
+    if (state != State.OPEN) {
+      return 0;
+    }
+    return Math.max(
+        0,
+        TimeUnit.NANOSECONDS.toMillis(openDurationNanos - (nanoClock.getAsLong() - openedAtNanos)));
+  }
+
+  synchronized State state() {
+    return state;
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+
+/**
+ * Delivers each request from its own file, saved before it is sent and deleted once it is
+ * delivered, so the files left by the previous run are delivered on startup.
+ *
+ * <p>The files are retried each with its own exponential backoff, but when the circuit breaker is
+ * enabled the files that failed are instead kept in a single backlog, that is delivered in order,
+ * one at a time, once the circuit closes, and paced at the configured drain rate.
+ */
+@Slf4j
+class FileDelivery extends RejectedTxDelivery {
+  private final Path jsonRpcDir;
+  private final Map<Path, Instant> fileStartTimes = new ConcurrentHashMap<>();
+  private final NavigableSet<Path> retryBacklog =
+      new ConcurrentSkipListSet<>(Comparator.comparing(Path::getFileName));
+  private final AtomicBoolean backlogDrainActive = new AtomicBoolean();
+  private Duration backlogRetryDelay = INITIAL_RETRY_DELAY_DURATION;
+
+  FileDelivery(
+      final Path jsonRpcDir,
+      final LineaRejectedTxReportingConfiguration reportingConfiguration,
+      final RejectedTxEndpoint endpoint,
+      final ExecutorService executorService,
+      final ScheduledExecutorService retrySchedulerService) {
+    super(reportingConfiguration, endpoint, executorService, retrySchedulerService);
+    this.jsonRpcDir = jsonRpcDir;
+  }
+
+  @Override
+  void start() throws IOException {
+    final TreeSet<Path> sortedFiles = new TreeSet<>(Comparator.comparing(Path::getFileName));
+
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(jsonRpcDir, "rpc_*.json")) {
+      for (Path path : stream) {
+        sortedFiles.add(path);
+      }
+    }
+
+    log.info("Loaded {} existing JSON-RPC files for reporting", sortedFiles.size());
+
+    for (Path path : sortedFiles) {
+      fileStartTimes.put(path, Instant.now());
+      if (circuitBreaker.isEnabled()) {
+        addToRetryBacklog(path);
+      } else {
+        submitJsonRpcCall(path, INITIAL_RETRY_DELAY_DURATION);
+      }
+    }
+  }
+
+  @Override
+  void deliver(final JsonRpcContent content) {
+    final String jsonContent = content.json();
+    CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                Path jsonFile = saveJsonToDir(jsonContent, jsonRpcDir);
+                fileStartTimes.put(jsonFile, Instant.now());
+                return jsonFile;
+              } catch (final IOException e) {
+                log.error("Failed to save JSON-RPC content", e);
+                throw new CompletionException(e);
+              }
+            },
+            executorService)
+        .thenAcceptAsync(
+            jsonFile -> {
+              if (circuitBreaker.isEnabled()
+                  && (circuitBreaker.state() != CircuitBreaker.State.CLOSED
+                      || !retryBacklog.isEmpty())) {
+                addToRetryBacklog(jsonFile);
+              } else {
+                submitJsonRpcCall(jsonFile, INITIAL_RETRY_DELAY_DURATION);
+              }
+            },
+            executorService)
+        .exceptionally(
+            e -> {
+              log.error("Failed to deliver JSON-RPC content", e);
+              return null;
+            });
+  }
+
+  @Override
+  void save(final JsonRpcContent content) throws IOException {
+    saveJsonToDir(content.json(), jsonRpcDir);
+  }
+
+  @Override
+  boolean hasBacklog() {
+    return !fileStartTimes.isEmpty();
+  }
+
+  private void submitJsonRpcCall(final Path jsonFile, final Duration nextDelay) {
+    executorService.submit(() -> deliverFileOrRetry(jsonFile, nextDelay));
+  }
+
+  private void deliverFileOrRetry(final Path jsonFile, final Duration nextDelay) {
+    if (!deliverFile(jsonFile)) {
+      scheduleRetry(jsonFile, nextDelay);
+    }
+  }
+
+  /**
+   * Sends the JSON-RPC file, deleting it if all its requests succeeded.
+   *
+   * @param jsonFile the JSON-RPC file
+   * @return true if the file was delivered or no longer exists, false if it must be retried,
+   *     including when the circuit breaker does not allow the request
+   */
+  private boolean deliverFile(final Path jsonFile) {
+    if (!Files.exists(jsonFile)) {
+      log.debug("JSON-RPC file {} no longer exists, skipping processing.", jsonFile);
+      fileStartTimes.remove(jsonFile);
+      return true;
+    }
+    try {
+      final String jsonContent = Files.readString(jsonFile);
+      // acquired only right before sending, since the probe is released by the outcome
+      if (!circuitBreaker.tryAcquire()) {
+        return false;
+      }
+      final Optional<String> failedJsonContent = endpoint.send(jsonContent);
+      if (failedJsonContent.isEmpty()) {
+        Files.deleteIfExists(jsonFile);
+        fileStartTimes.remove(jsonFile);
+        return true;
+      }
+      if (!failedJsonContent.get().equals(jsonContent)) {
+        // only the failed reports of the batch are retried
+        Files.writeString(
+            jsonFile, failedJsonContent.get(), StandardOpenOption.TRUNCATE_EXISTING);
+      }
+      log.error(
+          "Failed to send JSON-RPC file {} to {}, Scheduling retry ...",
+          jsonFile,
+          endpoint.url());
+    } catch (final Exception e) {
+      log.error(
+          "Failed to process JSON-RPC file {} due to unexpected error: {}. Scheduling retry ...",
+          jsonFile,
+          e.getMessage());
+    }
+    return false;
+  }
+
+  private void scheduleRetry(final Path jsonFile, final Duration currentDelay) {
+    if (circuitBreaker.isEnabled()) {
+      addToRetryBacklog(jsonFile);
+      return;
+    }
+
+    final Instant startTime = fileStartTimes.get(jsonFile);
+    if (startTime == null) {
+      log.debug("No start time found for JSON-RPC file: {}. Skipping retry.", jsonFile);
+      return;
+    }
+
+    // Check if we're still within the maximum retry duration
+    if (Duration.between(startTime, Instant.now()).compareTo(MAX_RETRY_DURATION) < 0) {
+      // Calculate next delay with exponential backoff, capped at 1 minute
+      final Duration nextDelay = nextRetryDelay(currentDelay);
+
+      // Schedule a retry
+      scheduleDelivery(() -> deliverFileOrRetry(jsonFile, nextDelay), currentDelay.toMillis());
+    } else {
+      discardFile(jsonFile);
+    }
+  }
+
+  private void discardFile(final Path jsonFile) {
+    log.error("Exceeded maximum retry duration for JSON-RPC file: {}.", jsonFile);
+    final Path destination = jsonRpcDir.resolve(DISCARDED_DIR).resolve(jsonFile.getFileName());
+
+    try {
+      Files.move(jsonFile, destination, StandardCopyOption.REPLACE_EXISTING);
+      log.error(
+          "The JSON-RPC file {} has been moved to: {}. The tx notification has been discarded.",
+          jsonFile,
+          destination);
+    } catch (final IOException e) {
+      log.error("Failed to move JSON-RPC file to discarded directory: {}", jsonFile, e);
+    } finally {
+      fileStartTimes.remove(jsonFile);
+    }
+  }
+
+  private void addToRetryBacklog(final Path jsonFile) {
+    retryBacklog.add(jsonFile);
+    if (backlogDrainActive.compareAndSet(false, true)) {
+      scheduleBacklogDrain(circuitBreaker.remainingOpenMillis());
+    }
+  }
+
+  private void scheduleBacklogDrain(final long delayMillis) {
+    scheduleDelivery(this::drainRetryBacklog, delayMillis);
+  }
+
+  /**
+   * Delivers the backlog of the files to retry in order, one at a time, pausing while the circuit
+   * is open, while there is always at most one drain task active.
+   */
+  private void drainRetryBacklog() {
+    while (!isStopping() && !retryBacklog.isEmpty()) {
+      // only this task removes files from the backlog
+      final Path jsonFile = retryBacklog.first();
+      final Instant startTime = fileStartTimes.computeIfAbsent(jsonFile, unused -> Instant.now());
+      if (Duration.between(startTime, Instant.now()).compareTo(MAX_RETRY_DURATION) >= 0) {
+        discardFile(jsonFile);
+        retryBacklog.remove(jsonFile);
+        continue;
+      }
+
+      if (!deliverFile(jsonFile)) {
+        if (circuitBreaker.state() == CircuitBreaker.State.OPEN) {
+          scheduleBacklogDrain(circuitOpenRetryDelayMillis());
+        } else {
+          final Duration currentDelay = backlogRetryDelay;
+          backlogRetryDelay = nextRetryDelay(currentDelay);
+          scheduleBacklogDrain(currentDelay.toMillis());
+        }
+        return;
+      }
+      retryBacklog.remove(jsonFile);
+      backlogRetryDelay = INITIAL_RETRY_DELAY_DURATION;
+      pauseForDrainRate();
+    }
+
+    backlogDrainActive.set(false);
+    // a file could have been added after the last check, without starting a new drain
+    if (!isStopping() && !retryBacklog.isEmpty() && backlogDrainActive.compareAndSet(false, true)) {
+      scheduleBacklogDrain(0);
+    }
+  }
+
+  /**
+   * Saves the given JSON content to a file in the rejected transactions RPC directory. The filename
+   * is generated using a high-precision timestamp and a UUID to ensure uniqueness.
+   *
+   * <p>The file naming format is: rpc_[timestamp]_[uuid].json
+   *
+   * @param jsonContent The JSON string to be written to the file.
+   * @param rejTxRpcDirectory The directory where the file should be saved.
+   * @return The Path object representing the newly created file.
+   * @throws IOException If an I/O error occurs while writing the file, including unexpected file
+   *     collisions.
+   */
+  @VisibleForTesting
+  static Path saveJsonToDir(final String jsonContent, final Path rejTxRpcDirectory)
+      throws IOException {
+    final String timestamp = generateTimestampWithNanos();
+    final String uuid = UUID.randomUUID().toString();
+    final String fileName = String.format("rpc_%s_%s.json", timestamp, uuid);
+    final Path filePath = rejTxRpcDirectory.resolve(fileName);
+
+    try {
+      return Files.writeString(filePath, jsonContent, StandardOpenOption.CREATE_NEW);
+    } catch (final FileAlreadyExistsException e) {
+      // This should never happen with UUID, but just in case
+      log.warn("Unexpected JSON-RPC filename collision occurred: {}", filePath);
+      throw new IOException("Unexpected file name collision", e);
+    }
+  }
+
+  static String generateTimestampWithNanos() {
+    final Instant now = Instant.now();
+    final long seconds = now.getEpochSecond();
+    final int nanos = now.getNano();
+    return String.format("%d%09d", seconds, nanos);
+  }
+}
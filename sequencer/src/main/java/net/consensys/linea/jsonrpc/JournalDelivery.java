@@ -0,0 +1,181 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+
+/**
+ * Delivers the requests from a {@link RejectedTxJournal}, where they are appended in the order they
+ * are submitted and delivered in the same order by a single task, so when the endpoint is down only
+ * the first pending record is retried. The records of the reports are encoded straight from their
+ * fields in a compact binary format, optionally compressed, see {@link RejectedTxRecordCodec}, and
+ * converted to JSON-RPC only when they are sent.
+ */
+@Slf4j
+class JournalDelivery extends RejectedTxDelivery {
+  private final Path jsonRpcDir;
+  private final RejectedTxJournal journal;
+  private final AtomicBoolean deliveryActive = new AtomicBoolean();
+  private Duration retryDelay = INITIAL_RETRY_DELAY_DURATION;
+
+  JournalDelivery(
+      final Path jsonRpcDir,
+      final LineaRejectedTxReportingConfiguration reportingConfiguration,
+      final RejectedTxEndpoint endpoint,
+      final ExecutorService executorService,
+      final ScheduledExecutorService retrySchedulerService) {
+    super(reportingConfiguration, endpoint, executorService, retrySchedulerService);
+    this.jsonRpcDir = jsonRpcDir;
+    this.journal =
+        new RejectedTxJournal(jsonRpcDir, reportingConfiguration.rejectedTxJournalSegmentSize());
+  }
+
+  /** Replays the journal from the first record not yet delivered. */
+  @Override
+  void start() throws IOException {
+    journal.open();
+    triggerDelivery();
+  }
+
+  @Override
+  void deliver(final JsonRpcContent content) {
+    // appended on the caller thread, so the records are in the order of the rejections
+    try {
+      save(content);
+      triggerDelivery();
+    } catch (final IOException e) {
+      log.error("Failed to append JSON-RPC content to the journal", e);
+    }
+  }
+
+  @Override
+  void save(final JsonRpcContent content) throws IOException {
+    journal.append(toRecord(content), Instant.now());
+  }
+
+  @Override
+  boolean hasBacklog() {
+    return journal.hasPending();
+  }
+
+  @Override
+  void close() {
+    try {
+      journal.close();
+    } catch (final IOException e) {
+      log.error("Failed to close the JSON-RPC journal", e);
+    }
+  }
+
+  private byte[] toRecord(final JsonRpcContent content) {
+    return content.toRecord(reportingConfiguration.rejectedTxJournalCompression());
+  }
+
+  private void triggerDelivery() {
+    if (!isStopping() && deliveryActive.compareAndSet(false, true)) {
+      executorService.submit(this::deliverJournal);
+    }
+  }
+
+  /**
+   * Delivers the records of the journal in order, stopping at the first failure and scheduling a
+   * retry with exponential backoff, while there is always at most one delivery task active.
+   */
+  private void deliverJournal() {
+    try {
+      Optional<RejectedTxJournal.Entry> maybeEntry;
+      while (!isStopping() && (maybeEntry = journal.peek()).isPresent()) {
+        final RejectedTxJournal.Entry entry = maybeEntry.get();
+        final String jsonContent;
+        try {
+          jsonContent = RejectedTxRecordCodec.decode(entry.content());
+        } catch (final IllegalArgumentException e) {
+          log.error("Skipping unreadable JSON-RPC journal record: {}", e.getMessage());
+          journal.ack(entry.next());
+          continue;
+        }
+        // acquired only right before sending, since the probe is released by the outcome
+        if (!circuitBreaker.tryAcquire()) {
+          scheduleJournalDelivery(circuitOpenRetryDelayMillis());
+          return;
+        }
+        final Optional<String> failedJsonContent = endpoint.send(jsonContent);
+        if (failedJsonContent.isPresent()) {
+          if (Duration.between(entry.timestamp(), Instant.now()).compareTo(MAX_RETRY_DURATION)
+              < 0) {
+            if (!failedJsonContent.get().equals(jsonContent)) {
+              // only the failed reports of the batch are retried
+              journal.append(
+                  toRecord(JsonRpcContent.of(failedJsonContent.get())), entry.timestamp());
+              journal.ack(entry.next());
+            }
+            log.error(
+                "Failed to send JSON-RPC journal record to {}, Scheduling retry ...",
+                endpoint.url());
+            scheduleJournalRetry();
+            return;
+          }
+          final Path discardedFile =
+              FileDelivery.saveJsonToDir(
+                  failedJsonContent.get(), jsonRpcDir.resolve(DISCARDED_DIR));
+          log.error(
+              "Exceeded maximum retry duration for JSON-RPC journal record, moved to: {}."
+                  + " The tx notification has been discarded.",
+              discardedFile);
+        }
+        journal.ack(entry.next());
+        retryDelay = INITIAL_RETRY_DELAY_DURATION;
+        pauseForDrainRate();
+      }
+    } catch (final Exception e) {
+      log.error(
+          "Failed to deliver JSON-RPC journal due to unexpected error: {}. Scheduling retry ...",
+          e.getMessage());
+      scheduleJournalRetry();
+      return;
+    }
+
+    deliveryActive.set(false);
+    // a record could have been appended after the last read, without starting a new delivery
+    if (journal.hasPending()) {
+      triggerDelivery();
+    }
+  }
+
+  private void scheduleJournalRetry() {
+    if (circuitBreaker.state() == CircuitBreaker.State.OPEN) {
+      scheduleJournalDelivery(circuitOpenRetryDelayMillis());
+      return;
+    }
+    final Duration currentDelay = retryDelay;
+    retryDelay = nextRetryDelay(currentDelay);
+    scheduleJournalDelivery(currentDelay.toMillis());
+  }
+
+  private void scheduleJournalDelivery(final long delayMillis) {
+    scheduleDelivery(this::deliverJournal, delayMillis);
+  }
+}
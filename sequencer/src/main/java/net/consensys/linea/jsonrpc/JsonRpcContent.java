@@ -0,0 +1,109 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.jsonrpc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A JSON-RPC request or batch request to deliver. When it is made of rejected-tx reports they are
+ * kept as such, so the JSON is only built when the content is sent or saved as a file, while its
+ * journal record is encoded straight from their fields. The contents submitted as JSON are kept as
+ * they are.
+ */
+final class JsonRpcContent {
+  private final List<RejectedTxReport> reports;
+  private final boolean batch;
+  private String json;
+
+  private JsonRpcContent(
+      final List<RejectedTxReport> reports, final boolean batch, final String json) {
+    this.reports = reports;
+    this.batch = batch;
+    this.json = json;
+  }
+
+  static JsonRpcContent of(final String json) {
+    return new JsonRpcContent(List.of(), false, json);
+  }
+
+  static JsonRpcContent of(final RejectedTxReport report) {
+    return new JsonRpcContent(List.of(report), false, null);
+  }
+
+  /**
+   * Joins the single requests in a batch request, that keeps the reports only if all the requests
+   * are made of them.
+   *
+   * @param contents the single requests
+   * @return the batch request
+   */
+  static JsonRpcContent batch(final List<JsonRpcContent> contents) {
+    final List<RejectedTxReport> reports = new ArrayList<>(contents.size());
+    for (final JsonRpcContent content : contents) {
+      if (content.reports.isEmpty()) {
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < contents.size(); i++) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          sb.append(contents.get(i).json());
+        }
+        return of(sb.append(']').toString());
+      }
+      reports.addAll(content.reports);
+    }
+    return new JsonRpcContent(reports, true, null);
+  }
+
+  /**
+   * Returns the JSON-RPC content, that is built on the first call if made of reports. Each content
+   * is handled by a single delivery at a time, so it is not built concurrently.
+   *
+   * @return the JSON-RPC request or batch request
+   */
+  String json() {
+    if (json == null) {
+      if (batch) {
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < reports.size(); i++) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          sb.append(reports.get(i).toJsonRpc());
+        }
+        json = sb.append(']').toString();
+      } else {
+        json = reports.get(0).toJsonRpc();
+      }
+    }
+    return json;
+  }
+
+  /**
+   * Returns the content of the journal record: the compact encoding of the reports, or the UTF-8
+   * JSON of a content submitted as JSON.
+   *
+   * @param compress whether the compact record is deflate compressed
+   * @return the record content
+   */
+  byte[] toRecord(final boolean compress) {
+    return reports.isEmpty()
+        ? json.getBytes(UTF_8)
+        : RejectedTxRecordCodec.encode(reports, batch, compress);
+  }
+}
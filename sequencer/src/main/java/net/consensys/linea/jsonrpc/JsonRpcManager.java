@@ -17,56 +17,76 @@ package net.consensys.linea.jsonrpc;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.nio.file.DirectoryStream;
-import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeSet;
-import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.annotations.VisibleForTesting;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.config.LineaNodeType;
 import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
+import net.consensys.linea.metrics.LineaMetricCategory;
+import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
 
-/** This class is responsible for managing JSON-RPC requests for reporting rejected transactions */
+/**
+ * This class is responsible for managing JSON-RPC requests for reporting rejected transactions.
+ * When batching is enabled, the reports submitted within a time window, up to the configured batch
+ * size, are joined in a single JSON-RPC batch request, then only the reports that were not
+ * successfully saved by the endpoint are retried.
+ *
+ * <p>The requests are delivered to the {@link RejectedTxEndpoint} by the {@link RejectedTxDelivery}
+ * of the configured mode: by default each report, or batch, is saved in its own file until it is
+ * delivered, see {@link FileDelivery}, while when the journal is enabled they are appended to a
+ * journal that is delivered in order, see {@link JournalDelivery}. When the memory queue is enabled
+ * the requests are kept in memory while the endpoint is healthy, and spilled to the delivery from
+ * disk otherwise, see {@link MemoryQueueDelivery}.
+ *
+ * <p>When the deduplication is enabled, the repeated reports of the same transaction rejected for
+ * the same reason class within a time window are suppressed, and their count is forwarded with the
+ * next report.
+ */
 @Slf4j
 public class JsonRpcManager {
-  private static final Duration INITIAL_RETRY_DELAY_DURATION = Duration.ofSeconds(1);
-  private static final Duration MAX_RETRY_DURATION = Duration.ofHours(2);
-  private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
   static final String JSON_RPC_DIR = "rej-tx-rpc";
-  static final String DISCARDED_DIR = "discarded";
-
-  private final OkHttpClient client = new OkHttpClient();
-  private final ObjectMapper objectMapper = new ObjectMapper();
-  private final Map<Path, Instant> fileStartTimes = new ConcurrentHashMap<>();
+  private static final int MAX_DEDUP_KEYS = 100_000;
 
   private final Path jsonRpcDir;
   private final LineaRejectedTxReportingConfiguration reportingConfiguration;
   private final ExecutorService executorService;
   private final ScheduledExecutorService retrySchedulerService;
+  private final RejectedTxEndpoint endpoint;
+  private final RejectedTxDelivery delivery;
+  private final int batchSize;
+  private final List<JsonRpcContent> pendingBatch = new ArrayList<>();
+  private OperationTimer.TimingContext pendingBatchTimingContext;
+  private ScheduledFuture<?> pendingBatchFlush;
+
+  private final Counter reportsCounter;
+  private final Counter batchesCounter;
+  private final OperationTimer batchFlushLatencyTimer;
+  private final RejectedTxDeduplicator deduplicator;
+  private final Map<ReportingStage, Counter> stageReportsCounters =
+      new EnumMap<>(ReportingStage.class);
+  private final Map<ReportingStage, Counter> suppressedDuplicatesCounters =
+      new EnumMap<>(ReportingStage.class);
 
   /**
    * Creates a new JSON-RPC manager.
@@ -77,11 +97,14 @@ public class JsonRpcManager {
    *     rej-tx-rpc subdirectory.
    * @param reportingConfiguration Instance of LineaRejectedTxReportingConfiguration containing the
    *     endpoint URI and node type.
+   * @param metricsSystem The metrics system where the reporting metrics are registered, labelled
+   *     with the plugin identifier.
    */
   public JsonRpcManager(
       @NonNull final String pluginIdentifier,
       @NonNull final Path besuDataDir,
-      @NonNull final LineaRejectedTxReportingConfiguration reportingConfiguration) {
+      @NonNull final LineaRejectedTxReportingConfiguration reportingConfiguration,
+      @NonNull final MetricsSystem metricsSystem) {
     if (reportingConfiguration.rejectedTxEndpoint() == null) {
       throw new IllegalStateException("Rejected transaction endpoint URI is required");
     }
@@ -89,16 +112,89 @@ public class JsonRpcManager {
     this.reportingConfiguration = reportingConfiguration;
     this.executorService = Executors.newVirtualThreadPerTaskExecutor();
     this.retrySchedulerService = Executors.newSingleThreadScheduledExecutor();
+    this.endpoint = new RejectedTxEndpoint(pluginIdentifier, reportingConfiguration, metricsSystem);
+    final RejectedTxDelivery diskDelivery =
+        reportingConfiguration.rejectedTxJournalSegmentSize() > 0
+            ? new JournalDelivery(
+                jsonRpcDir,
+                reportingConfiguration,
+                endpoint,
+                executorService,
+                retrySchedulerService)
+            : new FileDelivery(
+                jsonRpcDir,
+                reportingConfiguration,
+                endpoint,
+                executorService,
+                retrySchedulerService);
+    this.delivery =
+        reportingConfiguration.rejectedTxMemoryQueueSize() > 0
+            ? new MemoryQueueDelivery(
+                pluginIdentifier,
+                diskDelivery,
+                reportingConfiguration,
+                endpoint,
+                executorService,
+                retrySchedulerService,
+                metricsSystem)
+            : diskDelivery;
+    this.batchSize = reportingConfiguration.rejectedTxBatchSize();
+    this.deduplicator =
+        new RejectedTxDeduplicator(reportingConfiguration.rejectedTxDedupWindow(), MAX_DEDUP_KEYS);
+
+    this.reportsCounter =
+        metricsSystem
+            .createLabelledCounter(
+                LineaMetricCategory.REJECTED_TX_REPORTING,
+                "reports_total",
+                "Number of rejected transaction reports submitted",
+                "plugin")
+            .labels(pluginIdentifier);
+    this.batchesCounter =
+        metricsSystem
+            .createLabelledCounter(
+                LineaMetricCategory.REJECTED_TX_REPORTING,
+                "batches_total",
+                "Number of batches of rejected transaction reports flushed",
+                "plugin")
+            .labels(pluginIdentifier);
+    this.batchFlushLatencyTimer =
+        metricsSystem
+            .createLabelledTimer(
+                LineaMetricCategory.REJECTED_TX_REPORTING,
+                "batch_flush_latency_seconds",
+                "Time the first report of a batch waited for the batch to be flushed",
+                "plugin")
+            .labels(pluginIdentifier);
+    final LabelledMetric<Counter> stageReports =
+        metricsSystem.createLabelledCounter(
+            LineaMetricCategory.REJECTED_TX_REPORTING,
+            "stage_reports_total",
+            "Number of rejected transaction reports submitted by stage",
+            "plugin",
+            "stage");
+    final LabelledMetric<Counter> suppressedDuplicates =
+        metricsSystem.createLabelledCounter(
+            LineaMetricCategory.REJECTED_TX_REPORTING,
+            "suppressed_duplicates_total",
+            "Number of duplicate rejected transaction reports suppressed by stage",
+            "plugin",
+            "stage");
+    for (final ReportingStage stage : ReportingStage.values()) {
+      stageReportsCounters.put(stage, stageReports.labels(pluginIdentifier, stage.metricLabel()));
+      suppressedDuplicatesCounters.put(
+          stage, suppressedDuplicates.labels(pluginIdentifier, stage.metricLabel()));
+    }
   }
 
   /** Load existing JSON-RPC and submit them. */
   public JsonRpcManager start() {
     try {
       // Create the rej-tx-rpc/pluginIdentifier/discarded directories if it doesn't exist
-      Files.createDirectories(jsonRpcDir.resolve(DISCARDED_DIR));
+      Files.createDirectories(jsonRpcDir.resolve(RejectedTxDelivery.DISCARDED_DIR));
 
-      // Load existing JSON files
-      processExistingJsonFiles();
+      // Load the requests not yet delivered, from the files or the journal
+      delivery.start();
       return this;
     } catch (final IOException e) {
       log.error("Failed to create or access directories under: {}", jsonRpcDir, e);
@@ -106,210 +202,132 @@ public class JsonRpcManager {
     }
   }
 
-  /** Shuts down the executor service and scheduler service. */
-  public void shutdown() {
-    executorService.shutdown();
-    retrySchedulerService.shutdown();
-  }
-
   /**
-   * Submits a new JSON-RPC call.
-   *
-   * @param jsonContent The JSON content to submit
+   * Shuts down the executor service and scheduler service, saving the pending batch and the memory
+   * queue, if any, so they are sent on the next start. The deliveries in progress stop after the
+   * current request, and are awaited up to a timeout before closing the journal.
    */
-  public void submitNewJsonRpcCallAsync(final String jsonContent) {
-    CompletableFuture.supplyAsync(
-            () -> {
-              try {
-                Path jsonFile = saveJsonToDir(jsonContent, jsonRpcDir);
-                fileStartTimes.put(jsonFile, Instant.now());
-                return jsonFile;
-              } catch (final IOException e) {
-                log.error("Failed to save JSON-RPC content", e);
-                throw new CompletionException(e);
-              }
-            },
-            executorService)
-        .thenAcceptAsync(
-            jsonFile -> submitJsonRpcCall(jsonFile, INITIAL_RETRY_DELAY_DURATION), executorService)
-        .exceptionally(
-            e -> {
-              log.error("Error in submitNewJsonRpcCall", e);
-              return null;
-            });
-  }
-
-  public LineaNodeType getNodeType() {
-    return reportingConfiguration.lineaNodeType();
-  }
-
-  private void processExistingJsonFiles() {
-    try {
-      final TreeSet<Path> sortedFiles = new TreeSet<>(Comparator.comparing(Path::getFileName));
-
-      try (DirectoryStream<Path> stream = Files.newDirectoryStream(jsonRpcDir, "rpc_*.json")) {
-        for (Path path : stream) {
-          sortedFiles.add(path);
-        }
+  public void shutdown() {
+    delivery.stop();
+    final List<JsonRpcContent> batch = takePendingBatch();
+    if (!batch.isEmpty()) {
+      try {
+        delivery.save(JsonRpcContent.batch(batch));
+      } catch (final IOException e) {
+        log.error("Failed to save pending JSON-RPC batch of {} reports", batch.size(), e);
       }
-
-      log.info("Loaded {} existing JSON-RPC files for reporting", sortedFiles.size());
-
-      for (Path path : sortedFiles) {
-        fileStartTimes.put(path, Instant.now());
-        submitJsonRpcCall(path, INITIAL_RETRY_DELAY_DURATION);
+    }
+    // the scheduled retries are not needed, what is left on disk is delivered on the next start
+    retrySchedulerService.shutdownNow();
+    executorService.shutdown();
+    try {
+      if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+        log.warn(
+            "JSON-RPC deliveries still running after {}ms, interrupting them",
+            SHUTDOWN_TIMEOUT.toMillis());
+        executorService.shutdownNow();
       }
-    } catch (final IOException e) {
-      log.error("Failed to load existing JSON-RPC files", e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executorService.shutdownNow();
     }
+    endpoint.close();
+    delivery.close();
   }
 
-  private void submitJsonRpcCall(final Path jsonFile, final Duration nextDelay) {
-    executorService.submit(
-        () -> {
-          if (!Files.exists(jsonFile)) {
-            log.debug("JSON-RPC file {} no longer exists, skipping processing.", jsonFile);
-            fileStartTimes.remove(jsonFile);
-            return;
-          }
-          try {
-            final String jsonContent = new String(Files.readAllBytes(jsonFile));
-            final boolean success = sendJsonRpcCall(jsonContent);
-            if (success) {
-              Files.deleteIfExists(jsonFile);
-              fileStartTimes.remove(jsonFile);
-            } else {
-              log.error(
-                  "Failed to send JSON-RPC file {} to {}, Scheduling retry ...",
-                  jsonFile,
-                  reportingConfiguration.rejectedTxEndpoint());
-              scheduleRetry(jsonFile, nextDelay);
-            }
-          } catch (final Exception e) {
-            log.error(
-                "Failed to process JSON-RPC file {} due to unexpected error: {}. Scheduling retry ...",
-                jsonFile,
-                e.getMessage());
-            scheduleRetry(jsonFile, nextDelay);
-          }
-        });
-  }
-
-  private void scheduleRetry(final Path jsonFile, final Duration currentDelay) {
-    final Instant startTime = fileStartTimes.get(jsonFile);
-    if (startTime == null) {
-      log.debug("No start time found for JSON-RPC file: {}. Skipping retry.", jsonFile);
+  /**
+   * Submits a new rejected transaction report, unless the same transaction was already reported
+   * for the same reason class within the deduplication window. The suppressed duplicates are only
+   * counted, and their count is forwarded with the next report of the same rejection.
+   *
+   * @param stage The stage that rejected the transaction
+   * @param transaction The rejected transaction
+   * @param blockNumber Optional block number where the transaction was rejected
+   * @param reasonClass The class of the rejection reason, the reports are deduplicated by it since
+   *     the reason message could contain values that change between rejections
+   * @param reasonMessage The reason message for the rejection
+   * @param overflowValidationResults The module line count overflows
+   */
+  public void submitRejectedTxAsync(
+      final ReportingStage stage,
+      final Transaction transaction,
+      final Optional<Long> blockNumber,
+      final String reasonClass,
+      final String reasonMessage,
+      final List<ModuleLimitsValidationResult> overflowValidationResults) {
+    final OptionalInt suppressedDuplicates =
+        deduplicator.tryReport(transaction.getHash(), reasonClass, stage.name());
+    if (suppressedDuplicates.isEmpty()) {
+      suppressedDuplicatesCounters.get(stage).inc();
       return;
     }
+    stageReportsCounters.get(stage).inc();
+    // kept as fields, so the journal record is encoded without building and parsing the JSON
+    submitAsync(
+        JsonRpcContent.of(
+            new RejectedTxReport(
+                JsonRpcRequestBuilder.nextId(),
+                getNodeType(),
+                Instant.now(),
+                blockNumber,
+                transaction.encoded(),
+                reasonMessage,
+                overflowValidationResults,
+                suppressedDuplicates.getAsInt())));
+  }
 
-    // Check if we're still within the maximum retry duration
-    if (Duration.between(startTime, Instant.now()).compareTo(MAX_RETRY_DURATION) < 0) {
-      // Calculate next delay with exponential backoff, capped at 1 minute
-      final Duration nextDelay =
-          Duration.ofMillis(
-              Math.min(currentDelay.multipliedBy(2).toMillis(), Duration.ofMinutes(1).toMillis()));
-
-      // Schedule a retry
-      retrySchedulerService.schedule(
-          () -> submitJsonRpcCall(jsonFile, nextDelay),
-          currentDelay.toMillis(),
-          TimeUnit.MILLISECONDS);
+  private void submitAsync(final JsonRpcContent content) {
+    reportsCounter.inc();
+    if (batchSize > 1) {
+      addToPendingBatch(content);
     } else {
-      log.error("Exceeded maximum retry duration for JSON-RPC file: {}.", jsonFile);
-      final Path destination = jsonRpcDir.resolve(DISCARDED_DIR).resolve(jsonFile.getFileName());
-
-      try {
-        Files.move(jsonFile, destination, StandardCopyOption.REPLACE_EXISTING);
-        log.error(
-            "The JSON-RPC file {} has been moved to: {}. The tx notification has been discarded.",
-            jsonFile,
-            destination);
-      } catch (final IOException e) {
-        log.error("Failed to move JSON-RPC file to discarded directory: {}", jsonFile, e);
-      } finally {
-        fileStartTimes.remove(jsonFile);
-      }
+      delivery.deliver(content);
     }
   }
 
-  private boolean sendJsonRpcCall(final String jsonContent) {
-    final RequestBody body = RequestBody.create(jsonContent, JSON);
-    final Request request =
-        new Request.Builder().url(reportingConfiguration.rejectedTxEndpoint()).post(body).build();
-
-    try (final Response response = client.newCall(request).execute()) {
-      if (!response.isSuccessful()) {
-        log.error("Unexpected response code from rejected-tx endpoint: {}", response.code());
-        return false;
+  private void addToPendingBatch(final JsonRpcContent content) {
+    final List<JsonRpcContent> batch;
+    synchronized (pendingBatch) {
+      if (pendingBatch.isEmpty()) {
+        pendingBatchTimingContext = batchFlushLatencyTimer.startTimer();
+        pendingBatchFlush =
+            retrySchedulerService.schedule(
+                this::flushPendingBatch,
+                reportingConfiguration.rejectedTxBatchMaxDelay(),
+                TimeUnit.MILLISECONDS);
       }
-
-      // process the response body here ...
-      final String responseBody = response.body() != null ? response.body().string() : null;
-      if (responseBody == null) {
-        log.error("Unexpected empty response body from rejected-tx endpoint");
-        return false;
-      }
-
-      final JsonNode jsonNode = objectMapper.readTree(responseBody);
-      if (jsonNode == null) {
-        log.error("Failed to parse JSON response from rejected-tx endpoint: {}", responseBody);
-        return false;
+      pendingBatch.add(content);
+      if (pendingBatch.size() < batchSize) {
+        return;
       }
-      if (jsonNode.has("error")) {
-        log.error("Error response from rejected-tx endpoint: {}", jsonNode.get("error"));
-        return false;
-      }
-      // Check for result
-      if (jsonNode.has("result")) {
-        final String status = jsonNode.get("result").get("status").asText();
-        log.debug("Rejected-tx JSON-RPC call successful. Status: {}", status);
-        return true;
-      }
-
-      log.warn("Unexpected rejected-tx JSON-RPC response format: {}", responseBody);
-      return false;
-    } catch (final IOException e) {
-      log.error(
-          "Failed to send JSON-RPC call to rejected-tx endpoint {}",
-          reportingConfiguration.rejectedTxEndpoint(),
-          e);
-      return false;
+      pendingBatchFlush.cancel(false);
+      batch = takePendingBatch();
     }
+    delivery.deliver(JsonRpcContent.batch(batch));
   }
 
-  /**
-   * Saves the given JSON content to a file in the rejected transactions RPC directory. The filename
-   * is generated using a high-precision timestamp and a UUID to ensure uniqueness.
-   *
-   * <p>The file naming format is: rpc_[timestamp]_[uuid].json
-   *
-   * @param jsonContent The JSON string to be written to the file.
-   * @param rejTxRpcDirectory The directory where the file should be saved.
-   * @return The Path object representing the newly created file.
-   * @throws IOException If an I/O error occurs while writing the file, including unexpected file
-   *     collisions.
-   */
-  @VisibleForTesting
-  static Path saveJsonToDir(final String jsonContent, final Path rejTxRpcDirectory)
-      throws IOException {
-    final String timestamp = generateTimestampWithNanos();
-    final String uuid = UUID.randomUUID().toString();
-    final String fileName = String.format("rpc_%s_%s.json", timestamp, uuid);
-    final Path filePath = rejTxRpcDirectory.resolve(fileName);
+  private void flushPendingBatch() {
+    final List<JsonRpcContent> batch = takePendingBatch();
+    if (!batch.isEmpty()) {
+      delivery.deliver(JsonRpcContent.batch(batch));
+    }
+  }
 
-    try {
-      return Files.writeString(filePath, jsonContent, StandardOpenOption.CREATE_NEW);
-    } catch (final FileAlreadyExistsException e) {
-      // This should never happen with UUID, but just in case
-      log.warn("Unexpected JSON-RPC filename collision occurred: {}", filePath);
-      throw new IOException("Unexpected file name collision", e);
+  private List<JsonRpcContent> takePendingBatch() {
+    synchronized (pendingBatch) {
+      if (pendingBatch.isEmpty()) {
+        return List.of();
+      }
+      final List<JsonRpcContent> batch = List.copyOf(pendingBatch);
+      pendingBatch.clear();
+      batchesCounter.inc();
+      pendingBatchTimingContext.stopTimer();
+      log.debug("Flushing JSON-RPC batch of {} reports", batch.size());
+      return batch;
     }
   }
 
-  static String generateTimestampWithNanos() {
-    final Instant now = Instant.now();
-    final long seconds = now.getEpochSecond();
-    final int nanos = now.getNano();
-    return String.format("%d%09d", seconds, nanos);
+  public LineaNodeType getNodeType() {
+    return reportingConfiguration.lineaNodeType();
   }
 }
@@ -15,15 +15,19 @@
 
 package net.consensys.linea.jsonrpc;
 
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import net.consensys.linea.config.LineaNodeType;
 import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
+import org.apache.tuweni.bytes.Bytes;
 import org.hyperledger.besu.datatypes.Transaction;
 
 /**
@@ -44,13 +48,25 @@ import org.hyperledger.besu.datatypes.Transaction;
  *           "module": "MUL",
  *           "count": 587,
  *           "limit": 400
- *         }]
+ *         }],
+ *         "suppressedDuplicates": 3 # only if duplicate reports were suppressed before this one
  *     })
  * }
  * </pre>
+ *
+ * <p>The request is written with a streaming generator into a per-thread buffer that is reused
+ * across requests, and the transaction RLP is hex encoded directly into it, so no intermediate
+ * JSON tree or hex string of the transaction is allocated. The request is returned as a String,
+ * since it is the unit that is batched, deduplicated, queued and persisted before being sent, and
+ * it is then encoded straight into the request body.
  */
 public class JsonRpcRequestBuilder {
   private static final AtomicLong idCounter = new AtomicLong(1);
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  // buffers grown by txs with a large calldata are not kept for reuse
+  private static final int MAX_REUSED_BUFFER_SIZE = 256 * 1024;
+  private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
 
   /**
    * Generate linea_saveRejectedTransactionV1 JSON-RPC request from given arguments.
@@ -71,30 +87,150 @@ public class JsonRpcRequestBuilder {
       final Optional<Long> blockNumber,
       final String reasonMessage,
       final List<ModuleLimitsValidationResult> overflowValidationResults) {
-    final JsonObject params = new JsonObject();
-    params.addProperty("txRejectionStage", lineaNodeType.name());
-    params.addProperty("timestamp", timestamp.toString());
-    blockNumber.ifPresent(number -> params.addProperty("blockNumber", number));
-    params.addProperty("transactionRLP", transaction.encoded().toHexString());
-    params.addProperty("reasonMessage", reasonMessage);
+    return generateSaveRejectedTxJsonRpc(
+        lineaNodeType,
+        transaction,
+        timestamp,
+        blockNumber,
+        reasonMessage,
+        overflowValidationResults,
+        0);
+  }
 
-    // overflows
-    final JsonArray overflows = new JsonArray();
-    for (ModuleLimitsValidationResult result : overflowValidationResults) {
-      JsonObject overflow = new JsonObject();
-      overflow.addProperty("module", result.getModuleName());
-      overflow.addProperty("count", result.getModuleLineCount());
-      overflow.addProperty("limit", result.getModuleLineLimit());
-      overflows.add(overflow);
+  /**
+   * Generate linea_saveRejectedTransactionV1 JSON-RPC request from given arguments, including the
+   * number of duplicate reports of the same rejection that were suppressed before this one.
+   *
+   * @param lineaNodeType Linea node type which is reporting the rejected transaction.
+   * @param transaction The rejected transaction. The encoded transaction RLP is used in the
+   *     JSON-RPC request.
+   * @param timestamp The timestamp when the transaction was rejected.
+   * @param blockNumber Optional block number where the transaction was rejected. Used for sequencer
+   *     node.
+   * @param reasonMessage The reason message for the rejection.
+   * @param suppressedDuplicates The number of suppressed duplicate reports, only added to the
+   *     request if greater than 0.
+   * @return JSON-RPC request as a string.
+   */
+  public static String generateSaveRejectedTxJsonRpc(
+      final LineaNodeType lineaNodeType,
+      final Transaction transaction,
+      final Instant timestamp,
+      final Optional<Long> blockNumber,
+      final String reasonMessage,
+      final List<ModuleLimitsValidationResult> overflowValidationResults,
+      final int suppressedDuplicates) {
+    return generateSaveRejectedTxJsonRpc(
+        lineaNodeType,
+        transaction.encoded(),
+        timestamp,
+        blockNumber,
+        reasonMessage,
+        overflowValidationResults,
+        suppressedDuplicates,
+        nextId());
+  }
+
+  /**
+   * Returns the id of the next request.
+   *
+   * @return a request id unique for this process
+   */
+  static long nextId() {
+    return idCounter.getAndIncrement();
+  }
+
+  /**
+   * Generate linea_saveRejectedTransactionV1 JSON-RPC request from the already encoded transaction
+   * and with the given request id, used to rebuild the requests read back from a compact record.
+   */
+  static String generateSaveRejectedTxJsonRpc(
+      final LineaNodeType lineaNodeType,
+      final Bytes transactionRlp,
+      final Instant timestamp,
+      final Optional<Long> blockNumber,
+      final String reasonMessage,
+      final List<ModuleLimitsValidationResult> overflowValidationResults,
+      final int suppressedDuplicates,
+      final long id) {
+    final Buffers buffers = BUFFERS.get();
+    buffers.writer.reset();
+    try (final JsonGenerator generator = JSON_FACTORY.createGenerator(buffers.writer)) {
+      // request
+      generator.writeStartObject();
+      generator.writeStringField("jsonrpc", "2.0");
+      generator.writeStringField("method", "linea_saveRejectedTransactionV1");
+
+      generator.writeObjectFieldStart("params");
+      generator.writeStringField("txRejectionStage", lineaNodeType.name());
+      generator.writeStringField("timestamp", timestamp.toString());
+      if (blockNumber.isPresent()) {
+        generator.writeNumberField("blockNumber", blockNumber.get());
+      }
+      generator.writeFieldName("transactionRLP");
+      writeHexString(generator, transactionRlp, buffers);
+      generator.writeStringField("reasonMessage", reasonMessage);
+
+      // overflows
+      generator.writeArrayFieldStart("overflows");
+      for (ModuleLimitsValidationResult result : overflowValidationResults) {
+        generator.writeStartObject();
+        generator.writeStringField("module", result.getModuleName());
+        writeIntegerField(generator, "count", result.getModuleLineCount());
+        writeIntegerField(generator, "limit", result.getModuleLineLimit());
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      if (suppressedDuplicates > 0) {
+        generator.writeNumberField("suppressedDuplicates", suppressedDuplicates);
+      }
+      generator.writeEndObject();
+
+      generator.writeNumberField("id", id);
+      generator.writeEndObject();
+    } catch (final IOException e) {
+      // writing to memory does not fail
+      throw new UncheckedIOException(e);
+    }
+
+    final String request = buffers.writer.toString();
+    if (buffers.writer.size() > MAX_REUSED_BUFFER_SIZE
+        || buffers.hexChars.length > MAX_REUSED_BUFFER_SIZE) {
+      BUFFERS.remove();
+    }
+    return request;
+  }
+
+  private static void writeHexString(
+      final JsonGenerator generator, final Bytes bytes, final Buffers buffers) throws IOException {
+    final int length = 2 + bytes.size() * 2;
+    if (buffers.hexChars.length < length) {
+      buffers.hexChars = new char[length];
     }
-    params.add("overflows", overflows);
+    final char[] hexChars = buffers.hexChars;
+    hexChars[0] = '0';
+    hexChars[1] = 'x';
+    for (int i = 0, j = 2; i < bytes.size(); i++) {
+      final int b = bytes.get(i) & 0xff;
+      hexChars[j++] = HEX_DIGITS[b >>> 4];
+      hexChars[j++] = HEX_DIGITS[b & 0x0f];
+    }
+    generator.writeString(hexChars, 0, length);
+  }
+
+  private static void writeIntegerField(
+      final JsonGenerator generator, final String fieldName, final Integer value)
+      throws IOException {
+    if (value == null) {
+      generator.writeNullField(fieldName);
+    } else {
+      generator.writeNumberField(fieldName, value);
+    }
+  }
 
-    // request
-    final JsonObject request = new JsonObject();
-    request.addProperty("jsonrpc", "2.0");
-    request.addProperty("method", "linea_saveRejectedTransactionV1");
-    request.add("params", params);
-    request.addProperty("id", idCounter.getAndIncrement());
-    return request.toString();
+  /** The buffers reused by the requests generated on the same thread. */
+  private static final class Buffers {
+    private final CharArrayWriter writer = new CharArrayWriter(1024);
+    private char[] hexChars = new char[1024];
   }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+import net.consensys.linea.metrics.LineaMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+/**
+ * Delivers the requests from a bounded memory queue while the endpoint is healthy, without any
+ * disk I/O, and spills them to the delivery from disk, of the journal or of the files, only when
+ * the queue is full, when there are requests on disk still to be delivered, meaning that the
+ * endpoint is slow or down, or when their delivery fails. On shutdown the memory queue is saved to
+ * disk.
+ */
+@Slf4j
+class MemoryQueueDelivery extends RejectedTxDelivery {
+  private final RejectedTxDelivery diskDelivery;
+  private final BlockingQueue<JsonRpcContent> queue;
+  private final AtomicBoolean deliveryActive = new AtomicBoolean();
+
+  private final Counter memoryDeliveredCounter;
+  private final Counter spilledCounter;
+
+  MemoryQueueDelivery(
+      final String pluginIdentifier,
+      final RejectedTxDelivery diskDelivery,
+      final LineaRejectedTxReportingConfiguration reportingConfiguration,
+      final RejectedTxEndpoint endpoint,
+      final ExecutorService executorService,
+      final ScheduledExecutorService retrySchedulerService,
+      final MetricsSystem metricsSystem) {
+    super(reportingConfiguration, endpoint, executorService, retrySchedulerService);
+    this.diskDelivery = diskDelivery;
+    this.queue = new ArrayBlockingQueue<>(reportingConfiguration.rejectedTxMemoryQueueSize());
+
+    this.memoryDeliveredCounter =
+        metricsSystem
+            .createLabelledCounter(
+                LineaMetricCategory.REJECTED_TX_REPORTING,
+                "memory_delivered_total",
+                "Number of JSON-RPC requests delivered directly from the memory queue",
+                "plugin")
+            .labels(pluginIdentifier);
+    this.spilledCounter =
+        metricsSystem
+            .createLabelledCounter(
+                LineaMetricCategory.REJECTED_TX_REPORTING,
+                "spilled_total",
+                "Number of JSON-RPC requests spilled from the memory queue to disk",
+                "plugin")
+            .labels(pluginIdentifier);
+  }
+
+  @Override
+  void start() throws IOException {
+    diskDelivery.start();
+  }
+
+  @Override
+  void deliver(final JsonRpcContent content) {
+    if (isEndpointHealthy() && queue.offer(content)) {
+      triggerDelivery();
+    } else {
+      spill(content);
+    }
+  }
+
+  @Override
+  void save(final JsonRpcContent content) throws IOException {
+    diskDelivery.save(content);
+  }
+
+  @Override
+  boolean hasBacklog() {
+    return diskDelivery.hasBacklog();
+  }
+
+  @Override
+  void stop() {
+    super.stop();
+    diskDelivery.stop();
+    final List<JsonRpcContent> queued = new ArrayList<>();
+    queue.drainTo(queued);
+    log.info("Saving {} JSON-RPC requests of the memory queue", queued.size());
+    for (final JsonRpcContent content : queued) {
+      try {
+        save(content);
+      } catch (final IOException e) {
+        log.error("Failed to save JSON-RPC request of the memory queue", e);
+      }
+    }
+  }
+
+  @Override
+  void close() {
+    diskDelivery.close();
+  }
+
+  private boolean isEndpointHealthy() {
+    return !diskDelivery.hasBacklog() && circuitBreaker.state() == CircuitBreaker.State.CLOSED;
+  }
+
+  private void triggerDelivery() {
+    if (deliveryActive.compareAndSet(false, true)) {
+      executorService.submit(this::deliverMemoryQueue);
+    }
+  }
+
+  /**
+   * Delivers the requests of the memory queue, and at the first failure spills the failed request
+   * and the rest of the queue to disk, in order, from where they are retried.
+   */
+  private void deliverMemoryQueue() {
+    JsonRpcContent content;
+    while ((content = queue.poll()) != null) {
+      Optional<String> failedJsonContent;
+      if (circuitBreaker.state() != CircuitBreaker.State.CLOSED) {
+        failedJsonContent = Optional.of(content.json());
+      } else {
+        try {
+          failedJsonContent = endpoint.send(content.json());
+        } catch (final Exception e) {
+          log.error("Failed to send JSON-RPC request from the memory queue: {}", e.getMessage());
+          failedJsonContent = Optional.of(content.json());
+        }
+      }
+      if (failedJsonContent.isEmpty()) {
+        memoryDeliveredCounter.inc();
+      } else {
+        log.error(
+            "Failed to send JSON-RPC request to {}, spilling {} requests to disk ...",
+            endpoint.url(),
+            queue.size() + 1);
+        // only the failed reports of a batch are spilled, as JSON since the batch was split
+        spill(
+            failedJsonContent.get().equals(content.json())
+                ? content
+                : JsonRpcContent.of(failedJsonContent.get()));
+        while ((content = queue.poll()) != null) {
+          spill(content);
+        }
+      }
+    }
+
+    deliveryActive.set(false);
+    // a request could have been queued after the last poll, without starting a new delivery
+    if (!queue.isEmpty()) {
+      triggerDelivery();
+    }
+  }
+
+  private void spill(final JsonRpcContent content) {
+    spilledCounter.inc();
+    diskDelivery.deliver(content);
+  }
+}
+
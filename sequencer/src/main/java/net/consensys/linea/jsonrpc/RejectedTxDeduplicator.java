@@ -0,0 +1,104 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.hyperledger.besu.datatypes.Hash;
+
+/**
+ * Time-windowed filter of the repeated reports of the same rejected transaction. Only the first
+ * report for a transaction, reason class and stage within the window is let through, the following
+ * ones are counted, and the count is forwarded with the next report let through, once the window
+ * has elapsed. The least recently seen keys are evicted when the max number of keys is reached.
+ */
+class RejectedTxDeduplicator {
+  private record Key(Hash txHash, String reasonClass, String stage) {}
+
+  private static final class Window {
+    private long startNanos;
+    private int suppressed;
+  }
+
+  private final long windowNanos;
+  private final LongSupplier nanoClock;
+  private final Map<Key, Window> windows;
+
+  /**
+   * Creates a new deduplicator.
+   *
+   * @param windowMillis the time window in milliseconds, 0 disables the deduplication
+   * @param maxKeys the max number of keys tracked at once
+   */
+  RejectedTxDeduplicator(final long windowMillis, final int maxKeys) {
+    this(windowMillis, maxKeys, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  RejectedTxDeduplicator(final long windowMillis, final int maxKeys, final LongSupplier nanoClock) {
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    this.nanoClock = nanoClock;
+    this.windows =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<Key, Window> eldest) {
+            return size() > maxKeys;
+          }
+        };
+  }
+
+  boolean isEnabled() {
+    return windowNanos > 0;
+  }
+
+  /**
+   * Checks if the report is let through.
+   *
+   * @param txHash the hash of the rejected transaction
+   * @param reasonClass the class of the rejection reason
+   * @param stage the stage where the transaction was rejected
+   * @return the number of duplicates suppressed since the previous report, or empty if this report
+   *     is a duplicate and must be suppressed
+   */
+  synchronized OptionalInt tryReport(
+      final Hash txHash, final String reasonClass, final String stage) {
+    if (!isEnabled()) {
+      return OptionalInt.of(0);
+    }
+    final long nowNanos = nanoClock.getAsLong();
+    final Key key = new Key(txHash, reasonClass, stage);
+    final Window window = windows.get(key);
+    if (window == null) {
+      final Window newWindow = new Window();
+      newWindow.startNanos = nowNanos;
+      windows.put(key, newWindow);
+      return OptionalInt.of(0);
+    }
+    if (nowNanos - window.startNanos < windowNanos) {
+      window.suppressed++;
+      return OptionalInt.empty();
+    }
+    final int suppressed = window.suppressed;
+    window.startNanos = nowNanos;
+    window.suppressed = 0;
+    return OptionalInt.of(suppressed);
+  }
+}
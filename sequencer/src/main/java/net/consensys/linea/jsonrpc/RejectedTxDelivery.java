@@ -0,0 +1,141 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+
+/**
+ * Delivers the JSON-RPC requests to the rejected-tx endpoint, retrying them until they are
+ * delivered or the max retry duration has elapsed, one implementation per delivery mode. The
+ * deliveries run on the executor of the {@link JsonRpcManager}, and the retries are scheduled on
+ * its scheduler, so they stop when the manager is shut down.
+ */
+@Slf4j
+abstract class RejectedTxDelivery {
+  static final Duration INITIAL_RETRY_DELAY_DURATION = Duration.ofSeconds(1);
+  static final Duration MAX_RETRY_DURATION = Duration.ofHours(2);
+  static final String DISCARDED_DIR = "discarded";
+
+  protected final LineaRejectedTxReportingConfiguration reportingConfiguration;
+  protected final RejectedTxEndpoint endpoint;
+  protected final CircuitBreaker circuitBreaker;
+  protected final ExecutorService executorService;
+  private final ScheduledExecutorService retrySchedulerService;
+  private final long drainIntervalNanos;
+  private volatile boolean stopping;
+
+  protected RejectedTxDelivery(
+      final LineaRejectedTxReportingConfiguration reportingConfiguration,
+      final RejectedTxEndpoint endpoint,
+      final ExecutorService executorService,
+      final ScheduledExecutorService retrySchedulerService) {
+    this.reportingConfiguration = reportingConfiguration;
+    this.endpoint = endpoint;
+    this.circuitBreaker = endpoint.circuitBreaker();
+    this.executorService = executorService;
+    this.retrySchedulerService = retrySchedulerService;
+    this.drainIntervalNanos =
+        reportingConfiguration.rejectedTxDrainRate() > 0
+            ? TimeUnit.SECONDS.toNanos(1) / reportingConfiguration.rejectedTxDrainRate()
+            : 0;
+  }
+
+  /**
+   * Starts the delivery, including the requests left on disk by the previous run.
+   *
+   * @throws IOException if the requests on disk cannot be loaded
+   */
+  abstract void start() throws IOException;
+
+  /**
+   * Delivers the request asynchronously.
+   *
+   * @param content the request to deliver
+   */
+  abstract void deliver(JsonRpcContent content);
+
+  /**
+   * Saves the request to disk without delivering it, so it is delivered on the next start.
+   *
+   * @param content the request to save
+   * @throws IOException if an I/O error occurs
+   */
+  abstract void save(JsonRpcContent content) throws IOException;
+
+  /**
+   * Returns whether there are requests on disk still to be delivered, meaning that the endpoint is
+   * slow or down.
+   *
+   * @return true if there are requests on disk still to be delivered
+   */
+  abstract boolean hasBacklog();
+
+  /** Stops the deliveries after the current request, and saves the requests kept in memory. */
+  void stop() {
+    stopping = true;
+  }
+
+  /** Releases the resources of the delivery, once the deliveries in progress have stopped. */
+  void close() {}
+
+  protected boolean isStopping() {
+    return stopping;
+  }
+
+  /**
+   * Schedules a delivery task, unless the manager is shut down, since what is left on disk is
+   * delivered on the next start.
+   */
+  protected void scheduleDelivery(final Runnable task, final long delayMillis) {
+    if (retrySchedulerService.isShutdown()) {
+      log.debug("JSON-RPC manager is shut down, the retry is left for the next start");
+      return;
+    }
+    try {
+      retrySchedulerService.schedule(
+          () -> executorService.submit(task), delayMillis, TimeUnit.MILLISECONDS);
+    } catch (final RejectedExecutionException e) {
+      // shut down after the check
+      log.debug("JSON-RPC manager is shut down, the retry is left for the next start");
+    }
+  }
+
+  protected long circuitOpenRetryDelayMillis() {
+    return Math.max(circuitBreaker.remainingOpenMillis(), INITIAL_RETRY_DELAY_DURATION.toMillis());
+  }
+
+  protected static Duration nextRetryDelay(final Duration currentDelay) {
+    // exponential backoff, capped at 1 minute
+    return Duration.ofMillis(
+        Math.min(currentDelay.multipliedBy(2).toMillis(), Duration.ofMinutes(1).toMillis()));
+  }
+
+  /** Paces the delivery from disk at the configured drain rate. */
+  protected void pauseForDrainRate() {
+    if (drainIntervalNanos > 0) {
+      LockSupport.parkNanos(drainIntervalNanos);
+    }
+  }
+}
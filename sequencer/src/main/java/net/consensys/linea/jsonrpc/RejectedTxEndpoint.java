@@ -0,0 +1,477 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+import net.consensys.linea.metrics.LineaMetricCategory;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Utf8;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+
+/**
+ * The rejected-tx endpoint, where the JSON-RPC requests are sent with a pooled HTTP client. The
+ * number of requests in flight at once can be capped, so delivering a large backlog does not open
+ * a connection per report, and the outcome of every request is reported to the {@link
+ * CircuitBreaker} of the endpoint.
+ */
+@Slf4j
+class RejectedTxEndpoint {
+  private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+  private final LineaRejectedTxReportingConfiguration reportingConfiguration;
+  private final OkHttpClient client;
+  private final Optional<Semaphore> inFlightPermits;
+  private final AtomicInteger inFlightRequests = new AtomicInteger();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final CircuitBreaker circuitBreaker;
+
+  private final Counter requestsCounter;
+  private final OperationTimer requestLatencyTimer;
+
+  /**
+   * Creates the endpoint.
+   *
+   * @param pluginIdentifier the plugin identifier, that labels the metrics
+   * @param reportingConfiguration the configuration of the endpoint and of its HTTP client
+   * @param metricsSystem the metrics system where the request metrics are registered
+   */
+  RejectedTxEndpoint(
+      final String pluginIdentifier,
+      final LineaRejectedTxReportingConfiguration reportingConfiguration,
+      final MetricsSystem metricsSystem) {
+    this.reportingConfiguration = reportingConfiguration;
+    this.client = createHttpClient(reportingConfiguration);
+    final int maxInFlightRequests = reportingConfiguration.rejectedTxMaxInFlightRequests();
+    this.inFlightPermits =
+        maxInFlightRequests > 0
+            ? Optional.of(new Semaphore(maxInFlightRequests, true))
+            : Optional.empty();
+    this.circuitBreaker =
+        new CircuitBreaker(
+            reportingConfiguration.rejectedTxCircuitBreakerFailureThreshold(),
+            reportingConfiguration.rejectedTxCircuitBreakerOpenDuration());
+
+    metricsSystem
+        .createLabelledGauge(
+            LineaMetricCategory.REJECTED_TX_REPORTING,
+            "circuit_breaker_state",
+            "State of the rejected-tx endpoint circuit breaker: 0 closed, 1 open, 2 half open",
+            "plugin")
+        .labels(() -> circuitBreaker.state().ordinal(), pluginIdentifier);
+    this.requestsCounter =
+        metricsSystem
+            .createLabelledCounter(
+                LineaMetricCategory.REJECTED_TX_REPORTING,
+                "requests_total",
+                "Number of HTTP requests sent to the rejected-tx endpoint",
+                "plugin")
+            .labels(pluginIdentifier);
+    this.requestLatencyTimer =
+        metricsSystem
+            .createLabelledTimer(
+                LineaMetricCategory.REJECTED_TX_REPORTING,
+                "request_latency_seconds",
+                "Time spent waiting for the responses of the rejected-tx endpoint",
+                "plugin")
+            .labels(pluginIdentifier);
+    metricsSystem
+        .createLabelledGauge(
+            LineaMetricCategory.REJECTED_TX_REPORTING,
+            "in_flight_requests",
+            "Number of HTTP requests to the rejected-tx endpoint currently in flight",
+            "plugin")
+        .labels(inFlightRequests::get, pluginIdentifier);
+  }
+
+  private static OkHttpClient createHttpClient(
+      final LineaRejectedTxReportingConfiguration reportingConfiguration) {
+    final OkHttpClient.Builder builder = new OkHttpClient.Builder();
+    if (reportingConfiguration.rejectedTxMaxIdleConnections() > 0
+        || reportingConfiguration.rejectedTxKeepAlive() > 0) {
+      // the OkHttp defaults are 5 idle connections kept alive for 5 minutes
+      builder.connectionPool(
+          new ConnectionPool(
+              reportingConfiguration.rejectedTxMaxIdleConnections() > 0
+                  ? reportingConfiguration.rejectedTxMaxIdleConnections()
+                  : 5,
+              reportingConfiguration.rejectedTxKeepAlive() > 0
+                  ? reportingConfiguration.rejectedTxKeepAlive()
+                  : TimeUnit.MINUTES.toMillis(5),
+              TimeUnit.MILLISECONDS));
+    }
+    if (reportingConfiguration.rejectedTxConnectTimeout() > 0) {
+      builder.connectTimeout(
+          Duration.ofMillis(reportingConfiguration.rejectedTxConnectTimeout()));
+    }
+    builder.callTimeout(Duration.ofMillis(reportingConfiguration.rejectedTxCallTimeout()));
+    if (reportingConfiguration.rejectedTxHttp2PriorKnowledge()) {
+      builder.protocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+    }
+    return builder.build();
+  }
+
+  URL url() {
+    return reportingConfiguration.rejectedTxEndpoint();
+  }
+
+  CircuitBreaker circuitBreaker() {
+    return circuitBreaker;
+  }
+
+  /** Closes the idle connections of the HTTP client and stops its dispatcher. */
+  void close() {
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
+  }
+
+  /**
+   * Posts the JSON content to the rejected-tx endpoint, waiting for a free slot if the max number
+   * of requests in flight is reached.
+   *
+   * @param jsonContent the JSON content of the request
+   * @param responseHandler the handler of the response, called before the response is closed
+   * @return the result of the response handler
+   */
+  private <T> T post(final String jsonContent, final ResponseHandler<T> responseHandler)
+      throws IOException {
+    final RequestBody body = new JsonRequestBody(jsonContent);
+    final Request request =
+        new Request.Builder().url(reportingConfiguration.rejectedTxEndpoint()).post(body).build();
+
+    if (inFlightPermits.isPresent()) {
+      try {
+        inFlightPermits.get().acquire();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting to send to rejected-tx endpoint");
+      }
+    }
+    inFlightRequests.incrementAndGet();
+    final OperationTimer.TimingContext timingContext = requestLatencyTimer.startTimer();
+    try (final Response response = client.newCall(request).execute()) {
+      return responseHandler.handle(response);
+    } finally {
+      timingContext.stopTimer();
+      requestsCounter.inc();
+      inFlightRequests.decrementAndGet();
+      inFlightPermits.ifPresent(Semaphore::release);
+    }
+  }
+
+  @FunctionalInterface
+  private interface ResponseHandler<T> {
+    T handle(Response response) throws IOException;
+  }
+
+  /**
+   * Request body that encodes the JSON content to UTF-8 directly into the sink of the connection,
+   * instead of first copying it to a byte array as {@link RequestBody#create(String, MediaType)}.
+   */
+  private static final class JsonRequestBody extends RequestBody {
+    private final String jsonContent;
+    private final long contentLength;
+
+    private JsonRequestBody(final String jsonContent) {
+      this.jsonContent = jsonContent;
+      this.contentLength = Utf8.size(jsonContent);
+    }
+
+    @Override
+    public MediaType contentType() {
+      return JSON;
+    }
+
+    @Override
+    public long contentLength() {
+      return contentLength;
+    }
+
+    @Override
+    public void writeTo(final BufferedSink sink) throws IOException {
+      sink.writeUtf8(jsonContent);
+    }
+  }
+
+  private boolean sendJsonRpcCall(final String jsonContent) {
+    try {
+      return post(
+          jsonContent,
+          response -> {
+            if (!response.isSuccessful()) {
+              log.error(
+                  "Unexpected response code from rejected-tx endpoint: {}", response.code());
+              return false;
+            }
+
+            // process the response body here ...
+            if (response.body() == null) {
+              log.error("Unexpected empty response body from rejected-tx endpoint");
+              return false;
+            }
+
+            try (final JsonParser parser =
+                objectMapper.getFactory().createParser(response.body().byteStream())) {
+              if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.error("Failed to parse JSON response from rejected-tx endpoint");
+                return false;
+              }
+              final JsonRpcResponse jsonRpcResponse = readJsonRpcResponse(parser);
+              if (jsonRpcResponse.error() != null) {
+                log.error("Error response from rejected-tx endpoint: {}", jsonRpcResponse.error());
+                return false;
+              }
+              // Check for result
+              if (jsonRpcResponse.hasResult()) {
+                log.debug(
+                    "Rejected-tx JSON-RPC call successful. Status: {}", jsonRpcResponse.status());
+                return true;
+              }
+            }
+
+            log.warn("Unexpected rejected-tx JSON-RPC response format");
+            return false;
+          });
+    } catch (final IOException e) {
+      log.error(
+          "Failed to send JSON-RPC call to rejected-tx endpoint {}",
+          reportingConfiguration.rejectedTxEndpoint(),
+          e);
+      return false;
+    }
+  }
+
+  /** The fields of a JSON-RPC response that are checked, the error is kept as JSON text. */
+  private record JsonRpcResponse(long id, boolean hasResult, String status, String error) {}
+
+  /**
+   * Reads a JSON-RPC response object with the streaming parser, skipping the fields that are not
+   * checked.
+   *
+   * @param parser the parser positioned at the start of the response object
+   * @return the fields of the response that are checked
+   */
+  private static JsonRpcResponse readJsonRpcResponse(final JsonParser parser) throws IOException {
+    long id = 0;
+    boolean hasResult = false;
+    String status = null;
+    String error = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String fieldName = parser.currentName();
+      final JsonToken valueToken = parser.nextToken();
+      switch (fieldName) {
+        case "id" -> id = parser.getValueAsLong();
+        case "error" ->
+            error =
+                valueToken == JsonToken.START_OBJECT
+                    ? parser.readValueAsTree().toString()
+                    : parser.getText();
+        case "result" -> {
+          hasResult = true;
+          if (valueToken == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+              final String resultFieldName = parser.currentName();
+              parser.nextToken();
+              if ("status".equals(resultFieldName)) {
+                status = parser.getValueAsString();
+              } else {
+                parser.skipChildren();
+              }
+            }
+          } else {
+            parser.skipChildren();
+          }
+        }
+        default -> parser.skipChildren();
+      }
+    }
+    return new JsonRpcResponse(id, hasResult, status, error);
+  }
+
+  /**
+   * Reads the ids of the requests of a JSON-RPC batch with the streaming parser, without building
+   * the tree of the requests.
+   *
+   * @param jsonContent the JSON array of the requests
+   * @return the ids of the requests, in order
+   */
+  private List<Long> readRequestIds(final String jsonContent) throws IOException {
+    final List<Long> ids = new ArrayList<>();
+    try (final JsonParser parser = objectMapper.getFactory().createParser(jsonContent)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IOException("JSON-RPC batch is not an array");
+      }
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        long id = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String fieldName = parser.currentName();
+          parser.nextToken();
+          if ("id".equals(fieldName)) {
+            id = parser.getValueAsLong();
+          } else {
+            parser.skipChildren();
+          }
+        }
+        ids.add(id);
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Sends a single JSON-RPC request or a JSON-RPC batch request, reporting its outcome to the
+   * circuit breaker.
+   *
+   * @param jsonContent the JSON of the request or the JSON array of the batch
+   * @return the JSON content of the requests that failed, or empty if all succeeded
+   */
+  Optional<String> send(final String jsonContent) throws IOException {
+    final Optional<String> failedJsonContent;
+    try {
+      failedJsonContent =
+          isBatch(jsonContent)
+              ? sendJsonRpcBatchCall(jsonContent)
+              : sendJsonRpcCall(jsonContent) ? Optional.empty() : Optional.of(jsonContent);
+    } catch (final IOException | RuntimeException e) {
+      // every request allowed by the circuit breaker must report its outcome
+      circuitBreaker.onFailure();
+      throw e;
+    }
+    // the endpoint is considered healthy if at least part of a batch succeeded
+    if (failedJsonContent.isPresent() && failedJsonContent.get().equals(jsonContent)) {
+      circuitBreaker.onFailure();
+    } else {
+      circuitBreaker.onSuccess();
+    }
+    return failedJsonContent;
+  }
+
+  private static boolean isBatch(final String jsonContent) {
+    return jsonContent.stripLeading().startsWith("[");
+  }
+
+  /**
+   * Sends a JSON-RPC batch request, and checks the response of each request in the batch matching
+   * them by id, since the endpoint could return them in any order.
+   *
+   * @param jsonContent the JSON array of the requests
+   * @return the JSON array of the requests that failed, or empty if all succeeded
+   */
+  private Optional<String> sendJsonRpcBatchCall(final String jsonContent) throws IOException {
+    final List<Long> requestIds = readRequestIds(jsonContent);
+
+    final Set<Long> succeededIds = new HashSet<>();
+    try {
+      final boolean validResponse =
+          post(
+              jsonContent,
+              response -> {
+                if (!response.isSuccessful()) {
+                  log.error(
+                      "Unexpected response code from rejected-tx endpoint: {}", response.code());
+                  return false;
+                }
+
+                if (response.body() == null) {
+                  log.error("Unexpected empty response body from rejected-tx endpoint");
+                  return false;
+                }
+
+                try (final JsonParser parser =
+                    objectMapper.getFactory().createParser(response.body().byteStream())) {
+                  if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    log.error("Unexpected JSON-RPC batch response from rejected-tx endpoint");
+                    return false;
+                  }
+
+                  JsonToken token;
+                  while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                    if (token != JsonToken.START_OBJECT) {
+                      parser.skipChildren();
+                      continue;
+                    }
+                    final JsonRpcResponse jsonRpcResponse = readJsonRpcResponse(parser);
+                    if (jsonRpcResponse.error() != null) {
+                      log.error(
+                          "Error response from rejected-tx endpoint: {}",
+                          jsonRpcResponse.error());
+                    } else if (jsonRpcResponse.hasResult()) {
+                      succeededIds.add(jsonRpcResponse.id());
+                    }
+                  }
+                }
+                return true;
+              });
+      if (!validResponse) {
+        return Optional.of(jsonContent);
+      }
+    } catch (final IOException e) {
+      log.error(
+          "Failed to send JSON-RPC batch call to rejected-tx endpoint {}",
+          reportingConfiguration.rejectedTxEndpoint(),
+          e);
+      return Optional.of(jsonContent);
+    }
+
+    final long failedCount = requestIds.stream().filter(id -> !succeededIds.contains(id)).count();
+    log.debug(
+        "Rejected-tx JSON-RPC batch call completed, {} of {} requests failed",
+        failedCount,
+        requestIds.size());
+    if (failedCount == 0) {
+      return Optional.empty();
+    }
+    if (failedCount == requestIds.size()) {
+      return Optional.of(jsonContent);
+    }
+
+    // only on a partial failure the requests are parsed, to write back the failed ones
+    final ArrayNode failedRequests = objectMapper.createArrayNode();
+    for (final JsonNode requestNode : objectMapper.readTree(jsonContent)) {
+      if (!succeededIds.contains(requestNode.path("id").asLong())) {
+        failedRequests.add(requestNode);
+      }
+    }
+    return Optional.of(objectMapper.writeValueAsString(failedRequests));
+  }
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of the JSON-RPC requests waiting to be delivered, split in segment files of a
+ * max size. Each record is made of its length, a CRC32 checksum, the time it was first submitted
+ * and its content, so a record partially written before a crash is detected and dropped on
+ * startup. The position of the first record not yet delivered is kept in a cursor file, updated in
+ * place, and the segments whose records were all delivered are deleted, so replaying the journal on
+ * startup is a sequential scan from the cursor and no file is created or deleted per record.
+ *
+ * <p>Records are read and acknowledged in order, by a single consumer at a time. A record whose
+ * checksum does not match is copied to a quarantine file, and skipped.
+ */
+@Slf4j
+class RejectedTxJournal implements Closeable {
+  static final String SEGMENT_PREFIX = "journal_";
+  static final String SEGMENT_SUFFIX = ".log";
+  static final String CURSOR_FILE = "journal.cursor";
+  static final String QUARANTINE_PREFIX = "corrupted_";
+
+  // length + crc + timestamp
+  private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+  // segment + offset + crc
+  private static final int CURSOR_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+  /**
+   * A position in the journal.
+   *
+   * @param segment the sequence number of the segment
+   * @param offset the offset in the segment
+   */
+  record Position(long segment, long offset) {}
+
+  /**
+   * A record read from the journal.
+   *
+   * @param next the position of the record that follows this one, to acknowledge this record
+   * @param timestamp the time the record was first submitted
+   * @param content the content of the record
+   */
+  record Entry(Position next, Instant timestamp, byte[] content) {}
+
+  private final Path dir;
+  private final long maxSegmentSize;
+  private final NavigableSet<Long> segments = new TreeSet<>();
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private FileChannel cursorChannel;
+  private FileChannel appendChannel;
+  private long appendSegment;
+  private Position ackedPosition;
+
+  /**
+   * Creates a new journal.
+   *
+   * @param dir the directory of the segment files
+   * @param maxSegmentSize the size in bytes after which a new segment is started
+   */
+  RejectedTxJournal(final Path dir, final long maxSegmentSize) {
+    this.dir = dir;
+    this.maxSegmentSize = maxSegmentSize;
+  }
+
+  /**
+   * Opens the journal, loading the existing segments and the cursor, and dropping any incomplete
+   * record at the end of the last segment.
+   *
+   * @return this journal
+   * @throws IOException if an I/O error occurs
+   */
+  RejectedTxJournal open() throws IOException {
+    lock.lock();
+    try {
+      try (DirectoryStream<Path> stream =
+          Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+        for (final Path path : stream) {
+          final String fileName = path.getFileName().toString();
+          segments.add(
+              Long.parseLong(
+                  fileName.substring(
+                      SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length())));
+        }
+      }
+
+      cursorChannel =
+          FileChannel.open(
+              dir.resolve(CURSOR_FILE),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      ackedPosition =
+          readCursor()
+              .filter(cursor -> segments.contains(cursor.segment()))
+              .orElseGet(() -> new Position(segments.isEmpty() ? 0 : segments.first(), 0));
+      deleteSegmentsBefore(ackedPosition.segment());
+
+      appendSegment = segments.isEmpty() ? ackedPosition.segment() : segments.last();
+      segments.add(appendSegment);
+      appendChannel =
+          FileChannel.open(
+              segmentPath(appendSegment),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      final long validSize = validSize(appendChannel);
+      if (validSize < appendChannel.size()) {
+        log.warn(
+            "Dropping {} bytes of incomplete records at the end of journal segment {}",
+            appendChannel.size() - validSize,
+            segmentPath(appendSegment));
+        appendChannel.truncate(validSize);
+      }
+      appendChannel.position(validSize);
+      if (ackedPosition.segment() == appendSegment && ackedPosition.offset() > validSize) {
+        ack(new Position(appendSegment, validSize));
+      }
+
+      log.info(
+          "Opened rejected-tx journal in {} with {} segments, cursor at {}",
+          dir,
+          segments.size(),
+          ackedPosition);
+      return this;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Appends a record to the journal, starting a new segment if the current one is full.
+   *
+   * @param content the content of the record
+   * @param timestamp the time the record was first submitted
+   * @throws IOException if an I/O error occurs
+   */
+  void append(final byte[] content, final Instant timestamp) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + content.length);
+    buffer.putInt(content.length);
+    buffer.putInt(checksum(timestamp.toEpochMilli(), content));
+    buffer.putLong(timestamp.toEpochMilli());
+    buffer.put(content);
+    buffer.flip();
+
+    lock.lock();
+    try {
+      if (appendChannel.position() > 0
+          && appendChannel.position() + buffer.remaining() > maxSegmentSize) {
+        startNewSegment();
+      }
+      while (buffer.hasRemaining()) {
+        appendChannel.write(buffer);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Reads the first record not yet acknowledged. A corrupted record is quarantined and
+   * acknowledged, so it is never returned and the records after it are still delivered. If its
+   * length is corrupted too, the end of the record is unknown and the rest of the segment is
+   * quarantined.
+   *
+   * @return the first record not yet acknowledged, or empty if all the records were acknowledged
+   * @throws IOException if an I/O error occurs
+   */
+  Optional<Entry> peek() throws IOException {
+    lock.lock();
+    try {
+      while (true) {
+        final long segment = ackedPosition.segment();
+        final boolean appending = segment == appendSegment;
+        final FileChannel channel =
+            appending
+                ? appendChannel
+                : FileChannel.open(segmentPath(segment), StandardOpenOption.READ);
+        try {
+          // the append channel is positioned after the last complete record
+          final long end = appending ? appendChannel.position() : channel.size();
+          if (ackedPosition.offset() < end) {
+            final Optional<Entry> entry = readRecord(channel, ackedPosition);
+            if (entry.isPresent()) {
+              return entry;
+            }
+            final Position next = corruptedRecordEnd(channel, ackedPosition, end);
+            quarantine(channel, ackedPosition, next.offset());
+            ack(next);
+            continue;
+          }
+          if (appending) {
+            return Optional.empty();
+          }
+        } finally {
+          if (!appending) {
+            channel.close();
+          }
+        }
+        ack(new Position(segments.higher(segment), 0));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Acknowledges the delivery of the records before the given position, deleting the segments that
+   * have no more records to deliver.
+   *
+   * @param position the position of the first record not yet delivered
+   * @throws IOException if an I/O error occurs
+   */
+  void ack(final Position position) throws IOException {
+    lock.lock();
+    try {
+      ackedPosition = position;
+      writeCursor(position);
+      deleteSegmentsBefore(position.segment());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns whether there are records not yet acknowledged.
+   *
+   * @return true if there are records not yet acknowledged
+   */
+  boolean hasPending() {
+    lock.lock();
+    try {
+      return ackedPosition.segment() != appendSegment
+          || ackedPosition.offset() < appendChannel.position();
+    } catch (final IOException e) {
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      appendChannel.force(false);
+      appendChannel.close();
+      cursorChannel.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void startNewSegment() throws IOException {
+    appendChannel.force(false);
+    appendChannel.close();
+    appendSegment++;
+    segments.add(appendSegment);
+    appendChannel =
+        FileChannel.open(
+            segmentPath(appendSegment),
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    log.debug("Started new journal segment {}", segmentPath(appendSegment));
+  }
+
+  private void deleteSegmentsBefore(final long segment) throws IOException {
+    final Iterator<Long> it = segments.headSet(segment, false).iterator();
+    while (it.hasNext()) {
+      final Path path = segmentPath(it.next());
+      Files.deleteIfExists(path);
+      it.remove();
+      log.debug("Deleted delivered journal segment {}", path);
+    }
+  }
+
+  private Optional<Entry> readRecord(final FileChannel channel, final Position position)
+      throws IOException {
+    final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    if (!readFully(channel, header, position.offset())) {
+      return Optional.empty();
+    }
+    header.flip();
+    final int length = header.getInt();
+    final int checksum = header.getInt();
+    final long timestamp = header.getLong();
+
+    final long contentOffset = position.offset() + RECORD_HEADER_SIZE;
+    if (length < 0 || contentOffset + length > channel.size()) {
+      return Optional.empty();
+    }
+    final ByteBuffer content = ByteBuffer.allocate(length);
+    if (!readFully(channel, content, contentOffset)
+        || checksum(timestamp, content.array()) != checksum) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new Entry(
+            new Position(position.segment(), contentOffset + length),
+            Instant.ofEpochMilli(timestamp),
+            content.array()));
+  }
+
+  /**
+   * Returns the position after a corrupted record, trusting its length if the record fits before
+   * the end of the segment, or else the end of the segment.
+   */
+  private static Position corruptedRecordEnd(
+      final FileChannel channel, final Position position, final long end) throws IOException {
+    final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+    if (readFully(channel, length, position.offset())) {
+      final long recordEnd = position.offset() + RECORD_HEADER_SIZE + length.getInt(0);
+      if (length.getInt(0) >= 0 && recordEnd <= end) {
+        return new Position(position.segment(), recordEnd);
+      }
+    }
+    return new Position(position.segment(), end);
+  }
+
+  private void quarantine(final FileChannel channel, final Position position, final long end)
+      throws IOException {
+    final Path quarantineFile =
+        dir.resolve(
+            String.format(
+                "%s%020d_%020d%s",
+                QUARANTINE_PREFIX, position.segment(), position.offset(), SEGMENT_SUFFIX));
+    final ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(end - position.offset()));
+    readFully(channel, bytes, position.offset());
+    bytes.flip();
+    try (FileChannel quarantineChannel =
+        FileChannel.open(
+            quarantineFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      while (bytes.hasRemaining()) {
+        quarantineChannel.write(bytes);
+      }
+    }
+    log.error(
+        "Skipping {} bytes of corrupted journal records of segment {} from offset {},"
+            + " moved to: {}",
+        end - position.offset(),
+        segmentPath(position.segment()),
+        position.offset(),
+        quarantineFile);
+  }
+
+  private long validSize(final FileChannel channel) throws IOException {
+    Position position = new Position(appendSegment, 0);
+    while (position.offset() < channel.size()) {
+      final Optional<Entry> entry = readRecord(channel, position);
+      if (entry.isEmpty()) {
+        break;
+      }
+      position = entry.get().next();
+    }
+    return position.offset();
+  }
+
+  private Optional<Position> readCursor() throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(CURSOR_SIZE);
+    if (!readFully(cursorChannel, buffer, 0)) {
+      return Optional.empty();
+    }
+    buffer.flip();
+    final long segment = buffer.getLong();
+    final long offset = buffer.getLong();
+    if (buffer.getInt() != checksum(segment, offset)) {
+      log.warn("Ignoring corrupted journal cursor, all the records will be delivered again");
+      return Optional.empty();
+    }
+    return Optional.of(new Position(segment, offset));
+  }
+
+  private void writeCursor(final Position position) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(CURSOR_SIZE);
+    buffer.putLong(position.segment());
+    buffer.putLong(position.offset());
+    buffer.putInt(checksum(position.segment(), position.offset()));
+    buffer.flip();
+    long offset = 0;
+    while (buffer.hasRemaining()) {
+      offset += cursorChannel.write(buffer, offset);
+    }
+  }
+
+  private Path segmentPath(final long segment) {
+    return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+  }
+
+  private static boolean readFully(
+      final FileChannel channel, final ByteBuffer buffer, final long offset) throws IOException {
+    long position = offset;
+    while (buffer.hasRemaining()) {
+      final int read = channel.read(buffer, position);
+      if (read < 0) {
+        return false;
+      }
+      position += read;
+    }
+    return true;
+  }
+
+  private static int checksum(final long timestamp, final byte[] content) {
+    final CRC32 crc = new CRC32();
+    crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, timestamp));
+    crc.update(content);
+    return (int) crc.getValue();
+  }
+
+  private static int checksum(final long segment, final long offset) {
+    final CRC32 crc = new CRC32();
+    crc.update(ByteBuffer.allocate(Long.BYTES * 2).putLong(0, segment).putLong(Long.BYTES, offset));
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import net.consensys.linea.config.LineaNodeType;
+import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Compact binary format of the records of the {@link RejectedTxJournal}. Each
+ * linea_saveRejectedTransactionV1 report, or batch of reports, is encoded straight from its fields,
+ * with varint encoded numbers, the raw transaction RLP bytes and no field names, and the record can
+ * optionally be deflate compressed. The JSON-RPC request is built only when the record is decoded
+ * to be sent.
+ *
+ * <pre>
+ * record   = format(1 byte) payload | format(1 byte) uncompressedSize(varint) deflate(payload)
+ * payload  = isBatch(1 byte) requestCount(varint) request*
+ * request  = id(varint) stage(string) epochSecond(varint) nano(varint) flags(1 byte)
+ *            [blockNumber(varint)] transactionRLP(bytes) [reasonMessage(string)]
+ *            overflowCount(varint) overflow* suppressedDuplicates(varint)
+ * overflow = flags(1 byte) [module(string)] [count(zigzag varint)] [limit(zigzag varint)]
+ * </pre>
+ *
+ * <p>The contents submitted as JSON are stored as their UTF-8 JSON, as are the records written
+ * before this format was introduced, and they are told apart by their first byte, since a JSON
+ * content never starts with a format byte.
+ */
+final class RejectedTxRecordCodec {
+  static final byte FORMAT_COMPACT = 1;
+  static final byte FORMAT_COMPACT_DEFLATED = 2;
+
+  private static final int HAS_BLOCK_NUMBER = 1;
+  private static final int HAS_REASON_MESSAGE = 1 << 1;
+  private static final int HAS_MODULE = 1;
+  private static final int HAS_COUNT = 1 << 1;
+  private static final int HAS_LIMIT = 1 << 2;
+
+  private RejectedTxRecordCodec() {}
+
+  /**
+   * Encodes the reports in the compact format.
+   *
+   * @param reports the reports, a single one if not a batch
+   * @param isBatch whether the reports are sent as a batch request
+   * @param compress whether the compact record is deflate compressed
+   * @return the record content
+   */
+  static byte[] encode(
+      final List<RejectedTxReport> reports, final boolean isBatch, final boolean compress) {
+    final byte[] payload = encodePayload(reports, isBatch);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length + 8);
+    if (compress) {
+      out.write(FORMAT_COMPACT_DEFLATED);
+      writeVarLong(out, payload.length);
+      deflate(payload, out);
+    } else {
+      out.write(FORMAT_COMPACT);
+      out.writeBytes(payload);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes the record content back to the JSON-RPC content.
+   *
+   * @param content the record content
+   * @return the JSON-RPC request or batch request
+   * @throws IllegalArgumentException if the compact record is malformed
+   */
+  static String decode(final byte[] content) {
+    if (content.length == 0
+        || (content[0] != FORMAT_COMPACT && content[0] != FORMAT_COMPACT_DEFLATED)) {
+      return new String(content, UTF_8);
+    }
+    try {
+      final ByteBuffer buffer = ByteBuffer.wrap(content, 1, content.length - 1);
+      final ByteBuffer payload =
+          content[0] == FORMAT_COMPACT_DEFLATED ? ByteBuffer.wrap(inflate(buffer)) : buffer;
+      return decodePayload(payload);
+    } catch (final BufferUnderflowException | DataFormatException e) {
+      throw new IllegalArgumentException("Malformed compact rejected-tx record", e);
+    }
+  }
+
+  private static byte[] encodePayload(final List<RejectedTxReport> reports, final boolean isBatch) {
+    int estimatedSize = 8;
+    for (final RejectedTxReport report : reports) {
+      estimatedSize += report.transactionRlp().size() + 64;
+    }
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(estimatedSize);
+    out.write(isBatch ? 1 : 0);
+    writeVarLong(out, reports.size());
+    for (final RejectedTxReport report : reports) {
+      writeReport(out, report);
+    }
+    return out.toByteArray();
+  }
+
+  private static void writeReport(final ByteArrayOutputStream out, final RejectedTxReport report) {
+    writeVarLong(out, report.id());
+    writeString(out, report.stage().name());
+    writeVarLong(out, report.timestamp().getEpochSecond());
+    writeVarLong(out, report.timestamp().getNano());
+    int flags = 0;
+    if (report.blockNumber().isPresent()) {
+      flags |= HAS_BLOCK_NUMBER;
+    }
+    if (report.reasonMessage() != null) {
+      flags |= HAS_REASON_MESSAGE;
+    }
+    out.write(flags);
+    if (report.blockNumber().isPresent()) {
+      writeVarLong(out, report.blockNumber().get());
+    }
+    writeVarLong(out, report.transactionRlp().size());
+    out.writeBytes(report.transactionRlp().toArrayUnsafe());
+    if (report.reasonMessage() != null) {
+      writeString(out, report.reasonMessage());
+    }
+    writeVarLong(out, report.overflows().size());
+    for (final ModuleLimitsValidationResult overflow : report.overflows()) {
+      final String module = overflow.getModuleName();
+      final Integer count = overflow.getModuleLineCount();
+      final Integer limit = overflow.getModuleLineLimit();
+      int overflowFlags = 0;
+      if (module != null) {
+        overflowFlags |= HAS_MODULE;
+      }
+      if (count != null) {
+        overflowFlags |= HAS_COUNT;
+      }
+      if (limit != null) {
+        overflowFlags |= HAS_LIMIT;
+      }
+      out.write(overflowFlags);
+      if (module != null) {
+        writeString(out, module);
+      }
+      if (count != null) {
+        writeZigZag(out, count);
+      }
+      if (limit != null) {
+        writeZigZag(out, limit);
+      }
+    }
+    writeVarLong(out, report.suppressedDuplicates());
+  }
+
+  private static String decodePayload(final ByteBuffer in) {
+    final boolean isBatch = in.get() != 0;
+    final int requestCount = readLength(in);
+    final StringBuilder sb = new StringBuilder();
+    if (isBatch) {
+      sb.append('[');
+    }
+    for (int i = 0; i < requestCount; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(decodeRequest(in));
+    }
+    if (isBatch) {
+      sb.append(']');
+    }
+    return sb.toString();
+  }
+
+  private static String decodeRequest(final ByteBuffer in) {
+    final long id = readVarLong(in);
+    final LineaNodeType stage;
+    try {
+      stage = LineaNodeType.valueOf(readString(in));
+    } catch (final IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown rejection stage in compact rejected-tx record");
+    }
+    final Instant timestamp = Instant.ofEpochSecond(readVarLong(in), readVarLong(in));
+    final int flags = in.get();
+    final Optional<Long> blockNumber =
+        (flags & HAS_BLOCK_NUMBER) != 0 ? Optional.of(readVarLong(in)) : Optional.empty();
+    final byte[] transactionRlp = new byte[readLength(in)];
+    in.get(transactionRlp);
+    final String reasonMessage = (flags & HAS_REASON_MESSAGE) != 0 ? readString(in) : null;
+    final int overflowCount = readLength(in);
+    final List<ModuleLimitsValidationResult> overflows = new ArrayList<>(overflowCount);
+    for (int i = 0; i < overflowCount; i++) {
+      final int overflowFlags = in.get();
+      final String module = (overflowFlags & HAS_MODULE) != 0 ? readString(in) : null;
+      final Integer count = (overflowFlags & HAS_COUNT) != 0 ? readZigZag(in) : null;
+      final Integer limit = (overflowFlags & HAS_LIMIT) != 0 ? readZigZag(in) : null;
+      overflows.add(
+          ModuleLimitsValidationResult.txModuleLineCountOverflow(module, count, limit, null, null));
+    }
+    final int suppressedDuplicates = (int) readVarLong(in);
+    return new RejectedTxReport(
+            id,
+            stage,
+            timestamp,
+            blockNumber,
+            Bytes.wrap(transactionRlp),
+            reasonMessage,
+            overflows,
+            suppressedDuplicates)
+        .toJsonRpc();
+  }
+
+  private static void deflate(final byte[] payload, final ByteArrayOutputStream out) {
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    try {
+      deflater.setInput(payload);
+      deflater.finish();
+      final byte[] chunk = new byte[Math.max(64, Math.min(payload.length, 16 * 1024))];
+      while (!deflater.finished()) {
+        out.write(chunk, 0, deflater.deflate(chunk));
+      }
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(final ByteBuffer in) throws DataFormatException {
+    final byte[] payload = new byte[readLength(in)];
+    final Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(in);
+      int size = 0;
+      while (size < payload.length) {
+        final int inflated = inflater.inflate(payload, size, payload.length - size);
+        if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new DataFormatException("Truncated compressed payload");
+        }
+        size += inflated;
+      }
+      return payload;
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static void writeString(final ByteArrayOutputStream out, final String value) {
+    final byte[] bytes = value.getBytes(UTF_8);
+    writeVarLong(out, bytes.length);
+    out.writeBytes(bytes);
+  }
+
+  private static String readString(final ByteBuffer in) {
+    final byte[] bytes = new byte[readLength(in)];
+    in.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static void writeZigZag(final ByteArrayOutputStream out, final int value) {
+    writeVarLong(out, Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+  }
+
+  private static int readZigZag(final ByteBuffer in) {
+    final int value = (int) readVarLong(in);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeVarLong(final ByteArrayOutputStream out, final long value) {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      out.write((int) ((remaining & 0x7F) | 0x80));
+      remaining >>>= 7;
+    }
+    out.write((int) remaining);
+  }
+
+  private static long readVarLong(final ByteBuffer in) {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      final byte b = in.get();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint in compact rejected-tx record");
+  }
+
+  private static int readLength(final ByteBuffer in) {
+    final long length = readVarLong(in);
+    if (length < 0 || length > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Malformed length in compact rejected-tx record");
+    }
+    return (int) length;
+  }
+}
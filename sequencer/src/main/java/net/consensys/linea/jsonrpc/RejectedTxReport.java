@@ -0,0 +1,56 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.jsonrpc;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import net.consensys.linea.config.LineaNodeType;
+import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * A linea_saveRejectedTransactionV1 report, kept as its fields until it is converted to JSON-RPC,
+ * to be sent or saved as a file, or encoded in a compact journal record by {@link
+ * RejectedTxRecordCodec}.
+ */
+record RejectedTxReport(
+    long id,
+    LineaNodeType stage,
+    Instant timestamp,
+    Optional<Long> blockNumber,
+    Bytes transactionRlp,
+    String reasonMessage,
+    List<ModuleLimitsValidationResult> overflows,
+    int suppressedDuplicates) {
+
+  /**
+   * Builds the JSON-RPC request of the report.
+   *
+   * @return the linea_saveRejectedTransactionV1 JSON-RPC request
+   */
+  String toJsonRpc() {
+    return JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
+        stage,
+        transactionRlp,
+        timestamp,
+        blockNumber,
+        reasonMessage,
+        overflows,
+        suppressedDuplicates,
+        id);
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.util.Locale;
+
+/** The stages that report rejected transactions through the shared {@link JsonRpcManager}. */
+public enum ReportingStage {
+  /** Transactions not selected during the block creation. */
+  TX_SELECTION,
+  /** Transactions rejected by the txpool validators. */
+  TX_POOL_VALIDATION;
+
+  String metricLabel() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
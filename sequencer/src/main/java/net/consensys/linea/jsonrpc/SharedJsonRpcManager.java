@@ -0,0 +1,125 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+
+/**
+ * Holds the {@link JsonRpcManager} shared by all the plugins of the node that report rejected
+ * transactions, so there is a single delivery pipeline, with its threads and connection pool, per
+ * node. The manager is created and started by the first plugin that acquires it, and it is shut
+ * down when the last plugin releases it.
+ *
+ * <p>The reports left on disk by the managers that each plugin had before, are imported into the
+ * directory of the shared manager before it starts.
+ */
+@Slf4j
+public final class SharedJsonRpcManager {
+  static final String PLUGIN_IDENTIFIER = "linea-rejected-tx-reporting";
+  static final List<String> LEGACY_PLUGIN_IDENTIFIERS =
+      List.of("linea-tx-selector-plugin", "linea-tx-pool-validator-plugin");
+
+  private static JsonRpcManager instance;
+  private static int references;
+
+  private SharedJsonRpcManager() {}
+
+  /**
+   * Returns the shared manager, creating and starting it if this is the first reference.
+   *
+   * @param besuDataDir Path to Besu data directory
+   * @param reportingConfiguration the rejected transaction reporting configuration
+   * @param metricsSystem the metrics system where the reporting metrics are registered
+   * @return the shared manager
+   */
+  public static synchronized JsonRpcManager acquire(
+      final Path besuDataDir,
+      final LineaRejectedTxReportingConfiguration reportingConfiguration,
+      final MetricsSystem metricsSystem) {
+    if (references == 0) {
+      importLegacyReports(besuDataDir, reportingConfiguration);
+      instance =
+          new JsonRpcManager(PLUGIN_IDENTIFIER, besuDataDir, reportingConfiguration, metricsSystem)
+              .start();
+    }
+    references++;
+    return instance;
+  }
+
+  /** Releases a reference to the shared manager, shutting it down if it was the last one. */
+  public static synchronized void release() {
+    if (references == 0) {
+      return;
+    }
+    if (--references == 0) {
+      instance.shutdown();
+      instance = null;
+    }
+  }
+
+  private static void importLegacyReports(
+      final Path besuDataDir, final LineaRejectedTxReportingConfiguration reportingConfiguration) {
+    final Path jsonRpcDir = besuDataDir.resolve(JsonRpcManager.JSON_RPC_DIR);
+    final Path sharedDir = jsonRpcDir.resolve(PLUGIN_IDENTIFIER);
+    for (final String legacyIdentifier : LEGACY_PLUGIN_IDENTIFIERS) {
+      final Path legacyDir = jsonRpcDir.resolve(legacyIdentifier);
+      if (!Files.isDirectory(legacyDir)) {
+        continue;
+      }
+      try {
+        Files.createDirectories(sharedDir);
+        int imported = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(legacyDir, "rpc_*.json")) {
+          for (final Path path : stream) {
+            Files.move(
+                path, sharedDir.resolve(path.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            imported++;
+          }
+        }
+        if (Files.exists(legacyDir.resolve(RejectedTxJournal.CURSOR_FILE))) {
+          // the records not yet delivered are saved as files, that are delivered in both modes
+          try (RejectedTxJournal legacyJournal =
+              new RejectedTxJournal(
+                      legacyDir, Math.max(reportingConfiguration.rejectedTxJournalSegmentSize(), 1))
+                  .open()) {
+            Optional<RejectedTxJournal.Entry> entry;
+            while ((entry = legacyJournal.peek()).isPresent()) {
+              FileDelivery.saveJsonToDir(
+                  RejectedTxRecordCodec.decode(entry.get().content()), sharedDir);
+              legacyJournal.ack(entry.get().next());
+              imported++;
+            }
+          }
+        }
+        if (imported > 0) {
+          log.info("Imported {} rejected-tx reports from {}", imported, legacyDir);
+        }
+      } catch (final IOException e) {
+        log.error("Failed to import the rejected-tx reports from {}", legacyDir, e);
+      }
+    }
+  }
+}
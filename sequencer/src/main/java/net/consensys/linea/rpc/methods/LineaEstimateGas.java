@@ -23,6 +23,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -34,8 +35,10 @@ import net.consensys.linea.config.LineaRpcConfiguration;
 import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.TracerAggregator;
+import net.consensys.linea.sequencer.modulelimit.ModuleLimitWatchingTracer;
 import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
+import net.consensys.linea.sequencer.simulation.SimulationBudget;
 import net.consensys.linea.zktracer.ZkTracer;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt256;
@@ -43,6 +46,7 @@ import org.bouncycastle.asn1.sec.SECNamedCurves;
 import org.bouncycastle.asn1.x9.X9ECParameters;
 import org.bouncycastle.crypto.params.ECDomainParameters;
 import org.hyperledger.besu.crypto.SECPSignature;
+import org.hyperledger.besu.datatypes.Hash;
 import org.hyperledger.besu.datatypes.Wei;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.exception.InvalidJsonRpcParameters;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.exception.InvalidJsonRpcRequestException;
@@ -51,7 +55,9 @@ import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.JsonRpcPara
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.RpcErrorType;
 import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.evm.tracing.EstimateGasOperationTracer;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
 import org.hyperledger.besu.plugin.data.BlockHeader;
+import org.hyperledger.besu.plugin.data.TransactionSimulationResult;
 import org.hyperledger.besu.plugin.services.BesuConfiguration;
 import org.hyperledger.besu.plugin.services.BlockchainService;
 import org.hyperledger.besu.plugin.services.RpcEndpointService;
@@ -92,7 +98,10 @@ public class LineaEstimateGas {
   private LineaProfitabilityConfiguration profitabilityConf;
   private TransactionProfitabilityCalculator txProfitabilityCalculator;
   private LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration;
+  private Map<String, Integer> limitsMap;
   private ModuleLineCountValidator moduleLineCountValidator;
+  private int moduleLimitCheckInterval;
+  private SimulationBudget simulationBudget;
   private UInt256 maxTxGasLimit;
 
   public LineaEstimateGas(
@@ -111,13 +120,18 @@ public class LineaEstimateGas {
       final LineaTransactionPoolValidatorConfiguration transactionValidatorConfiguration,
       final LineaProfitabilityConfiguration profitabilityConf,
       final Map<String, Integer> limitsMap,
+      final int moduleLimitCheckInterval,
+      final SimulationBudget simulationBudget,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration) {
     this.rpcConfiguration = rpcConfiguration;
     this.txValidatorConf = transactionValidatorConfiguration;
     this.profitabilityConf = profitabilityConf;
     this.txProfitabilityCalculator = new TransactionProfitabilityCalculator(profitabilityConf);
     this.l1L2BridgeConfiguration = l1L2BridgeConfiguration;
+    this.limitsMap = limitsMap;
     this.moduleLineCountValidator = new ModuleLineCountValidator(limitsMap);
+    this.moduleLimitCheckInterval = moduleLimitCheckInterval;
+    this.simulationBudget = simulationBudget;
     this.maxTxGasLimit = UInt256.valueOf(txValidatorConf.maxTxGasLimit());
 
     if (l1L2BridgeConfiguration.isEmpty()) {
@@ -271,11 +285,18 @@ public class LineaEstimateGas {
     final var estimateGasTracer = new EstimateGasOperationTracer();
     final var chainHeadHeader = blockchainService.getChainHeadHeader();
     final var zkTracer = createZkTracer(chainHeadHeader, blockchainService.getChainId().get());
-    final TracerAggregator zkAndGasTracer = TracerAggregator.create(estimateGasTracer, zkTracer);
+    // an aborted simulation is rejected by the module limits check below, like a completed one
+    final TracerAggregator zkAndGasTracer =
+        moduleLimitCheckInterval > 0
+            ? TracerAggregator.create(
+                estimateGasTracer,
+                zkTracer,
+                new ModuleLimitWatchingTracer(zkTracer, limitsMap, moduleLimitCheckInterval))
+            : TracerAggregator.create(estimateGasTracer, zkTracer);
 
     final var chainHeadHash = chainHeadHeader.getBlockHash();
     final var maybeSimulationResults =
-        transactionSimulationService.simulate(transaction, chainHeadHash, zkAndGasTracer, false);
+        simulate(transaction, chainHeadHash, zkAndGasTracer, false, logId);
 
     ModuleLimitsValidationResult moduleLimit =
         moduleLineCountValidator.validate(zkTracer.getModulesLineCount());
@@ -320,11 +341,12 @@ public class LineaEstimateGas {
 
               final var lowGasEstimation = r.result().getEstimateGasUsedByTransaction();
               final var lowResult =
-                  transactionSimulationService.simulate(
+                  simulate(
                       createTransactionForSimulation(callParameters, lowGasEstimation),
                       chainHeadHash,
                       estimateGasTracer,
-                      true);
+                      true,
+                      logId);
 
               return lowResult
                   .map(
@@ -355,11 +377,12 @@ public class LineaEstimateGas {
                             mid = (high + low) / 2;
 
                             final var binarySearchResult =
-                                transactionSimulationService.simulate(
+                                simulate(
                                     createTransactionForSimulation(callParameters, mid),
                                     chainHeadHash,
                                     estimateGasTracer,
-                                    true);
+                                    true,
+                                    logId);
 
                             if (binarySearchResult.isEmpty()
                                 || !binarySearchResult.get().isSuccessful()) {
@@ -412,6 +435,39 @@ public class LineaEstimateGas {
                     RpcErrorType.PLUGIN_INTERNAL_ERROR, "Empty result from simulation"));
   }
 
+  /**
+   * Simulates the transaction within the simulation budget, failing the request if the budget is
+   * exceeded, since the estimation cannot be completed.
+   */
+  private Optional<TransactionSimulationResult> simulate(
+      final Transaction transaction,
+      final Hash chainHeadHash,
+      final OperationTracer tracer,
+      final boolean isAllowExceedingBalance,
+      final long logId) {
+    final var budgetedResult =
+        simulationBudget.simulate(
+            transactionSimulationService,
+            transaction,
+            chainHeadHash,
+            tracer,
+            isAllowExceedingBalance);
+    budgetedResult
+        .exceededBudget()
+        .ifPresent(
+            exceededBudget -> {
+              final String errMsg = simulationBudget.describe(exceededBudget);
+              log.atDebug()
+                  .setMessage("[{}] Simulation of transaction {} aborted: {}")
+                  .addArgument(logId)
+                  .addArgument(transaction::toTraceLog)
+                  .addArgument(errMsg)
+                  .log();
+              throw new PluginRpcEndpointException(new InternalError(errMsg));
+            });
+    return budgetedResult.simulationResult();
+  }
+
   private JsonCallParameter parseRequest(final Object[] params) {
     final JsonCallParameter callParameters;
     try {
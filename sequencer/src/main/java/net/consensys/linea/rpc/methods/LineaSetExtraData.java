@@ -39,6 +39,7 @@ public class LineaSetExtraData {
   private final JsonRpcParameter parameterParser = new JsonRpcParameter();
   private final RpcEndpointService rpcEndpointService;
   private LineaExtraDataHandler extraDataHandler;
+  private volatile Bytes32 lastAppliedExtraData;
 
   public LineaSetExtraData(final RpcEndpointService rpcEndpointService) {
     this.rpcEndpointService = rpcEndpointService;
@@ -65,9 +66,15 @@ public class LineaSetExtraData {
     try {
       final var extraData = parseRequest(logId, request.getParams());
 
-      updatePricingConf(logId, extraData);
+      if (extraData.equals(lastAppliedExtraData)) {
+        log.atDebug()
+            .setMessage("[{}] extra data unchanged, nothing to do")
+            .addArgument(logId)
+            .log();
+        return Boolean.TRUE;
+      }
 
-      updateStandardExtraData(extraData);
+      apply(logId, extraData);
 
       return Boolean.TRUE;
     } catch (final LineaExtraDataException lede) {
@@ -75,6 +82,22 @@ public class LineaSetExtraData {
     }
   }
 
+  /**
+   * Applies a changed extra data, first to the pricing conf and then to the standard extra data,
+   * and remembers it only when both succeeded, so a failed one is applied again on the next call.
+   */
+  private synchronized void apply(final int logId, final Bytes32 extraData) {
+    if (extraData.equals(lastAppliedExtraData)) {
+      return;
+    }
+
+    updatePricingConf(logId, extraData);
+
+    updateStandardExtraData(extraData);
+
+    lastAppliedExtraData = extraData;
+  }
+
   private void updateStandardExtraData(final Bytes32 extraData) {
     final var resp =
         rpcEndpointService.call("miner_setExtraData", new Object[] {extraData.toHexString()});
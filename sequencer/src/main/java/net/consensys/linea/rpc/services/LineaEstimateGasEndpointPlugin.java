@@ -21,6 +21,7 @@ import com.google.auto.service.AutoService;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.AbstractLineaRequiredPlugin;
 import net.consensys.linea.rpc.methods.LineaEstimateGas;
+import net.consensys.linea.sequencer.simulation.SimulationBudget;
 import org.hyperledger.besu.plugin.BesuContext;
 import org.hyperledger.besu.plugin.BesuPlugin;
 import org.hyperledger.besu.plugin.services.BesuConfiguration;
@@ -78,13 +79,15 @@ public class LineaEstimateGasEndpointPlugin extends AbstractLineaRequiredPlugin
   }
 
   @Override
-  public void beforeExternalServices() {
-    super.beforeExternalServices();
+  public void start() {
+    super.start();
     lineaEstimateGasMethod.init(
         lineaRpcConfiguration(),
         transactionPoolValidatorConfiguration(),
         profitabilityConfiguration(),
         createLimitModules(tracerConfiguration()),
+        tracerConfiguration().moduleLimitCheckInterval(),
+        new SimulationBudget("estimate_gas", tracerConfiguration(), metricsSystem),
         l1L2BridgeSharedConfiguration());
   }
 }
@@ -22,6 +22,7 @@ import net.consensys.linea.extradata.LineaExtraDataHandler;
 import net.consensys.linea.rpc.methods.LineaSetExtraData;
 import org.hyperledger.besu.plugin.BesuContext;
 import org.hyperledger.besu.plugin.BesuPlugin;
+import org.hyperledger.besu.plugin.services.BesuConfiguration;
 import org.hyperledger.besu.plugin.services.RpcEndpointService;
 
 /** Registers RPC endpoints. This class provides RPC endpoints under the 'linea' namespace. */
@@ -29,6 +30,7 @@ import org.hyperledger.besu.plugin.services.RpcEndpointService;
 @Slf4j
 public class LineaSetExtraDataEndpointPlugin extends AbstractLineaRequiredPlugin {
   private RpcEndpointService rpcEndpointService;
+  private BesuConfiguration besuConfiguration;
   private LineaSetExtraData lineaSetExtraDataMethod;
 
   /**
@@ -38,6 +40,13 @@ public class LineaSetExtraDataEndpointPlugin extends AbstractLineaRequiredPlugin
    */
   @Override
   public void doRegister(final BesuContext context) {
+    besuConfiguration =
+        context
+            .getService(BesuConfiguration.class)
+            .orElseThrow(
+                () ->
+                    new RuntimeException(
+                        "Failed to obtain BesuConfiguration from the BesuContext."));
 
     rpcEndpointService =
         context
@@ -59,6 +68,7 @@ public class LineaSetExtraDataEndpointPlugin extends AbstractLineaRequiredPlugin
   public void beforeExternalServices() {
     super.beforeExternalServices();
     lineaSetExtraDataMethod.init(
-        new LineaExtraDataHandler(rpcEndpointService, profitabilityConfiguration()));
+        new LineaExtraDataHandler(
+            rpcEndpointService, besuConfiguration::getMinGasPrice, profitabilityConfiguration()));
   }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import org.hyperledger.besu.evm.frame.ExceptionalHaltReason;
+import org.hyperledger.besu.evm.frame.MessageFrame;
+import org.hyperledger.besu.evm.operation.Operation;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
+
+/**
+ * Operation tracer that aborts the execution of a transaction as soon as one of its checks fails.
+ * The checks are run after every executed opcode and when a call context exits, and the subclasses
+ * decide how often they actually do the expensive part.
+ *
+ * <p>The execution is aborted by halting the current frame, and then every parent frame as soon
+ * as it is re-entered, so the transaction fails. A tracer is meant to watch a single transaction.
+ *
+ * @param <R> the type of the reasons of the abort
+ */
+public abstract class AbortingTracer<R extends AbortingTracer.HaltReason>
+    implements OperationTracer {
+  /** The reason of the halt of the frames aborted by a tracer, described by its name. */
+  public interface HaltReason extends ExceptionalHaltReason {
+    @Override
+    default String getDescription() {
+      final String description = name().replace('_', ' ').toLowerCase(Locale.ROOT);
+      return Character.toUpperCase(description.charAt(0)) + description.substring(1);
+    }
+  }
+
+  private R abortReason;
+
+  /**
+   * Returns the reason of the abort of the execution.
+   *
+   * @return the reason of the abort, or empty if the execution was not aborted
+   */
+  public Optional<R> abortReason() {
+    return Optional.ofNullable(abortReason);
+  }
+
+  /**
+   * Aborts the execution, that is halted starting from the current frame.
+   *
+   * @param reason the reason of the abort
+   */
+  protected void abort(final R reason) {
+    abortReason = reason;
+  }
+
+  /** Runs the checks after an opcode is executed, and aborts the execution if any fails. */
+  protected abstract void checkAfterOpcode();
+
+  /** Runs the checks when a call context exits, and aborts the execution if any fails. */
+  protected abstract void checkOnContextExit();
+
+  @Override
+  public void tracePostExecution(
+      final MessageFrame frame, final Operation.OperationResult operationResult) {
+    if (abortReason == null) {
+      checkAfterOpcode();
+    }
+    if (abortReason != null) {
+      halt(frame);
+    }
+  }
+
+  @Override
+  public void traceContextExit(final MessageFrame frame) {
+    // the frame is already completed, so the parent is halted when it is re-entered
+    if (abortReason == null) {
+      checkOnContextExit();
+    }
+  }
+
+  @Override
+  public void traceContextReEnter(final MessageFrame frame) {
+    if (abortReason != null) {
+      halt(frame);
+    }
+  }
+
+  private void halt(final MessageFrame frame) {
+    // a suspended frame is halted when re-entered, and a completed one cannot be halted anymore
+    if (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
+      frame.setExceptionalHaltReason(Optional.of(abortReason));
+      frame.setState(MessageFrame.State.EXCEPTIONAL_HALT);
+    }
+  }
+}
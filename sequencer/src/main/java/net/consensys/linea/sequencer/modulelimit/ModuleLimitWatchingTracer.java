@@ -0,0 +1,107 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.modulelimit;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.sequencer.AbortingTracer;
+import net.consensys.linea.zktracer.ZkTracer;
+
+/**
+ * Operation tracer that watches the line counts of the modules while a transaction is simulated,
+ * and aborts the execution as soon as any module goes over its limit, so a transaction that blows
+ * up the trace is rejected without paying for its whole execution. Getting the line counts is not
+ * free, so they are only checked every given number of executed opcodes and when a call context
+ * exits. This tracer must be registered after the {@link ZkTracer} it watches, in the same {@link
+ * net.consensys.linea.sequencer.TracerAggregator}, so the line counts include the last executed
+ * opcode.
+ */
+@Slf4j
+public class ModuleLimitWatchingTracer
+    extends AbortingTracer<ModuleLimitWatchingTracer.HaltReason> {
+  /** The reason of the halt of the frames aborted by this tracer. */
+  public enum HaltReason implements AbortingTracer.HaltReason {
+    MODULE_LINE_COUNT_OVERFLOW
+  }
+
+  private final Supplier<Map<String, Integer>> modulesLineCountSupplier;
+  private final ModuleLineCountValidator moduleLineCountValidator;
+  private final int checkInterval;
+  private int opcodesSinceLastCheck;
+  private ModuleLimitsValidationResult overLimitResult;
+
+  /**
+   * Creates a new tracer.
+   *
+   * @param zkTracer the tracer counting the lines of the modules
+   * @param moduleLineLimitsMap the line count limits of the modules
+   * @param checkInterval the number of executed opcodes between two checks of the line counts
+   */
+  public ModuleLimitWatchingTracer(
+      final ZkTracer zkTracer,
+      final Map<String, Integer> moduleLineLimitsMap,
+      final int checkInterval) {
+    this(zkTracer::getModulesLineCount, moduleLineLimitsMap, checkInterval);
+  }
+
+  @VisibleForTesting
+  ModuleLimitWatchingTracer(
+      final Supplier<Map<String, Integer>> modulesLineCountSupplier,
+      final Map<String, Integer> moduleLineLimitsMap,
+      final int checkInterval) {
+    this.modulesLineCountSupplier = modulesLineCountSupplier;
+    this.moduleLineCountValidator = new ModuleLineCountValidator(moduleLineLimitsMap);
+    this.checkInterval = checkInterval;
+  }
+
+  /**
+   * Returns the result of the check that aborted the execution.
+   *
+   * @return the result of the failed check, or empty if the execution was not aborted
+   */
+  public Optional<ModuleLimitsValidationResult> overLimitResult() {
+    return Optional.ofNullable(overLimitResult);
+  }
+
+  @Override
+  protected void checkAfterOpcode() {
+    if (++opcodesSinceLastCheck >= checkInterval) {
+      checkLineCounts();
+    }
+  }
+
+  @Override
+  protected void checkOnContextExit() {
+    checkLineCounts();
+  }
+
+  private void checkLineCounts() {
+    opcodesSinceLastCheck = 0;
+    final ModuleLimitsValidationResult result =
+        moduleLineCountValidator.validate(modulesLineCountSupplier.get());
+    if (result.getResult() != ModuleLineCountValidator.ModuleLineCountResult.VALID) {
+      overLimitResult = result;
+      log.atDebug()
+          .setMessage("Aborting the execution since the module limits check failed: {}")
+          .addArgument(result)
+          .log();
+      abort(HaltReason.MODULE_LINE_COUNT_OVERFLOW);
+    }
+  }
+}
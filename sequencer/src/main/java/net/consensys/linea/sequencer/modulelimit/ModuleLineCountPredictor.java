@@ -0,0 +1,121 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.modulelimit;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Transaction;
+
+/**
+ * Keeps a history of the line counts per module of the selected transactions, to predict the line
+ * counts of a transaction before executing it. Transactions are grouped by their target, that is
+ * the called contract or the sender for contract creations, and the prediction is the exponential
+ * moving average of the line counts of the previous transactions with the same target. Plain value
+ * transfers, that have no payload, are not tracked since their line counts are negligible.
+ *
+ * <p>Only the transactions actually selected in a block are recorded, so a transaction that is
+ * simulated or executed but then rejected, like one sent to inflate the prediction for a popular
+ * contract, cannot make the honest transactions to the same contract be skipped. A single instance
+ * is created by the transaction selector plugin and kept across the blocks. The history is bounded
+ * to the configured max number of targets, removing the least recently used ones.
+ */
+@Slf4j
+public class ModuleLineCountPredictor {
+  private final Map<Address, Map<String, Integer>> lineCountsByTarget =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  private final int maxTargets;
+
+  /**
+   * Constructs a new predictor.
+   *
+   * @param maxTargets the max number of targets to keep track of, 0 disables the prediction.
+   */
+  public ModuleLineCountPredictor(final int maxTargets) {
+    this.maxTargets = maxTargets;
+  }
+
+  /**
+   * Returns whether the prediction is enabled.
+   *
+   * @return true if the prediction is enabled
+   */
+  public boolean isEnabled() {
+    return maxTargets > 0;
+  }
+
+  /**
+   * Records the line counts per module of a transaction selected in a block.
+   *
+   * @param transaction the selected transaction
+   * @param txLineCounts a map of module names to the line counts added by the transaction
+   */
+  public void record(final Transaction transaction, final Map<String, Integer> txLineCounts) {
+    if (!isEnabled() || transaction.getPayload().isEmpty()) {
+      return;
+    }
+
+    final Address target = target(transaction);
+    synchronized (lineCountsByTarget) {
+      final Map<String, Integer> previous = lineCountsByTarget.get(target);
+      final Map<String, Integer> updated = new HashMap<>(txLineCounts.size());
+      for (final Map.Entry<String, Integer> e : txLineCounts.entrySet()) {
+        final int lineCount = e.getValue();
+        final Integer previousLineCount = previous == null ? null : previous.get(e.getKey());
+        // moving average that gives the same weight to the last sample and to the history
+        updated.put(
+            e.getKey(),
+            previousLineCount == null ? lineCount : (previousLineCount + lineCount + 1) / 2);
+      }
+      lineCountsByTarget.put(target, Map.copyOf(updated));
+
+      while (lineCountsByTarget.size() > maxTargets) {
+        final var it = lineCountsByTarget.keySet().iterator();
+        it.next();
+        it.remove();
+      }
+    }
+    log.atTrace()
+        .setMessage("Recorded line counts for tx {} with target {}")
+        .addArgument(transaction::getHash)
+        .addArgument(target)
+        .log();
+  }
+
+  /**
+   * Predicts the line counts per module of a transaction.
+   *
+   * @param transaction the transaction
+   * @return a map of module names to the predicted line counts, or empty if there is no history
+   *     for the target of the transaction
+   */
+  public Optional<Map<String, Integer>> predict(final Transaction transaction) {
+    if (!isEnabled() || transaction.getPayload().isEmpty()) {
+      return Optional.empty();
+    }
+    synchronized (lineCountsByTarget) {
+      return Optional.ofNullable(lineCountsByTarget.get(target(transaction)));
+    }
+  }
+
+  private static Address target(final Transaction transaction) {
+    return transaction.getTo().isPresent() ? transaction.getTo().get() : transaction.getSender();
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.sequencer.simulation;
+
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import net.consensys.linea.config.LineaTracerConfiguration;
+import net.consensys.linea.metrics.LineaMetricCategory;
+import net.consensys.linea.sequencer.TracerAggregator;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
+import org.hyperledger.besu.plugin.data.TransactionSimulationResult;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.TransactionSimulationService;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+
+/**
+ * Runs the simulations of a caller within the configured budgets, in elapsed time and in executed
+ * opcodes, enforced by a {@link SimulationBudgetTracer}, and exports the latency of the
+ * simulations, so the budgets can be tuned, and the number of simulations that exceeded them.
+ */
+public class SimulationBudget {
+  /**
+   * The outcome of a simulation.
+   *
+   * @param simulationResult the result of the simulation, if any
+   * @param exceededBudget the budget that aborted the simulation, if any
+   */
+  public record Result(
+      Optional<TransactionSimulationResult> simulationResult,
+      Optional<SimulationBudgetTracer.HaltReason> exceededBudget) {}
+
+  private final long maxMillis;
+  private final long maxOpcodes;
+  private final LongSupplier nanoClock;
+  private final LabelledMetric<OperationTimer> latency;
+  private final LabelledMetric<Counter> exceeded;
+
+  /**
+   * Creates the budget of the simulations of a caller.
+   *
+   * @param caller the name of the caller, used as prefix of the names of the metrics
+   * @param tracerConfiguration the tracer configuration
+   * @param metricsSystem the metrics system
+   */
+  public SimulationBudget(
+      final String caller,
+      final LineaTracerConfiguration tracerConfiguration,
+      final MetricsSystem metricsSystem) {
+    this(caller, tracerConfiguration, metricsSystem, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  SimulationBudget(
+      final String caller,
+      final LineaTracerConfiguration tracerConfiguration,
+      final MetricsSystem metricsSystem,
+      final LongSupplier nanoClock) {
+    this.maxMillis = tracerConfiguration.simulationMaxMillis();
+    this.maxOpcodes = tracerConfiguration.simulationMaxOpcodes();
+    this.nanoClock = nanoClock;
+    this.latency =
+        metricsSystem.createSimpleLabelledTimer(
+            LineaMetricCategory.TX_SIMULATION,
+            caller + "_duration_seconds",
+            "Time spent by each " + caller + " simulation");
+    this.exceeded =
+        metricsSystem.createLabelledCounter(
+            LineaMetricCategory.TX_SIMULATION,
+            caller + "_budget_exceeded_total",
+            "Number of " + caller + " simulations aborted since they exceeded their budget",
+            "budget");
+  }
+
+  /**
+   * Checks if any budget is enabled.
+   *
+   * @return true if any budget is enabled
+   */
+  public boolean isEnabled() {
+    return maxMillis > 0 || maxOpcodes > 0;
+  }
+
+  /**
+   * Simulates the transaction within the budgets.
+   *
+   * @param transactionSimulationService the service running the simulation
+   * @param transaction the transaction to simulate
+   * @param blockHash the hash of the block on top of which the transaction is simulated
+   * @param tracer the tracer of the simulation
+   * @param isAllowExceedingBalance whether the sender balance can be lower than the tx upfront cost
+   * @return the result of the simulation, and the budget that aborted it, if any
+   */
+  public Result simulate(
+      final TransactionSimulationService transactionSimulationService,
+      final Transaction transaction,
+      final Hash blockHash,
+      final OperationTracer tracer,
+      final boolean isAllowExceedingBalance) {
+    final OperationTimer.TimingContext timingContext = latency.labels().startTimer();
+    try {
+      if (!isEnabled()) {
+        return new Result(
+            transactionSimulationService.simulate(
+                transaction, blockHash, tracer, isAllowExceedingBalance),
+            Optional.empty());
+      }
+      final var budgetTracer = new SimulationBudgetTracer(maxMillis, maxOpcodes, nanoClock);
+      final var maybeSimulationResult =
+          transactionSimulationService.simulate(
+              transaction,
+              blockHash,
+              TracerAggregator.create(tracer, budgetTracer),
+              isAllowExceedingBalance);
+      final var exceededBudget = budgetTracer.abortReason();
+      exceededBudget.ifPresent(reason -> exceeded.labels(reason.name()).inc());
+      return new Result(maybeSimulationResult, exceededBudget);
+    } finally {
+      timingContext.stopTimer();
+    }
+  }
+
+  /**
+   * Describes the budget that aborted a simulation.
+   *
+   * @param exceededBudget the budget that aborted the simulation
+   * @return the description of the exceeded budget, to be used as rejection reason
+   */
+  public String describe(final SimulationBudgetTracer.HaltReason exceededBudget) {
+    return switch (exceededBudget) {
+      case SIMULATION_TIME_BUDGET_EXCEEDED ->
+          "Transaction simulation exceeded the time budget of " + maxMillis + "ms";
+      case SIMULATION_OPCODE_BUDGET_EXCEEDED ->
+          "Transaction simulation exceeded the budget of " + maxOpcodes + " executed opcodes";
+    };
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.simulation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.sequencer.AbortingTracer;
+
+/**
+ * Operation tracer that enforces the budgets of a single simulation, in elapsed time and in
+ * executed opcodes, aborting the execution as soon as any of them is exceeded, so an adversarial
+ * transaction cannot pin the thread running the simulation. Reading the clock is not free, so the
+ * elapsed time is only checked every given number of executed opcodes and when a call context
+ * exits. The elapsed time is counted from the creation of the tracer, so a new one must be created
+ * for each simulation.
+ */
+@Slf4j
+public class SimulationBudgetTracer extends AbortingTracer<SimulationBudgetTracer.HaltReason> {
+  /** The budget exceeded by the simulations aborted by this tracer. */
+  public enum HaltReason implements AbortingTracer.HaltReason {
+    SIMULATION_TIME_BUDGET_EXCEEDED,
+    SIMULATION_OPCODE_BUDGET_EXCEEDED
+  }
+
+  static final int CLOCK_CHECK_INTERVAL = 64;
+
+  private final long maxNanos;
+  private final long maxOpcodes;
+  private final LongSupplier nanoClock;
+  private final long startNanos;
+  private long executedOpcodes;
+
+  /**
+   * Creates a new tracer, starting the clock of the simulation.
+   *
+   * @param maxMillis the max elapsed time of the simulation in milliseconds, 0 means no limit
+   * @param maxOpcodes the max number of opcodes executed by the simulation, 0 means no limit
+   * @param nanoClock the clock used to measure the elapsed time
+   */
+  SimulationBudgetTracer(
+      final long maxMillis, final long maxOpcodes, final LongSupplier nanoClock) {
+    this.maxNanos = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+    this.maxOpcodes = maxOpcodes;
+    this.nanoClock = nanoClock;
+    this.startNanos = nanoClock.getAsLong();
+  }
+
+  /**
+   * Returns the time elapsed since the creation of this tracer.
+   *
+   * @return the elapsed time in nanoseconds
+   */
+  public long elapsedNanos() {
+    return nanoClock.getAsLong() - startNanos;
+  }
+
+  @Override
+  protected void checkAfterOpcode() {
+    ++executedOpcodes;
+    if (maxOpcodes > 0 && executedOpcodes > maxOpcodes) {
+      abort(HaltReason.SIMULATION_OPCODE_BUDGET_EXCEEDED);
+    } else if (executedOpcodes % CLOCK_CHECK_INTERVAL == 0) {
+      checkElapsedTime();
+    }
+  }
+
+  @Override
+  protected void checkOnContextExit() {
+    checkElapsedTime();
+  }
+
+  private void checkElapsedTime() {
+    if (maxNanos > 0 && elapsedNanos() > maxNanos) {
+      abort(HaltReason.SIMULATION_TIME_BUDGET_EXCEEDED);
+    }
+  }
+
+  @Override
+  protected void abort(final HaltReason reason) {
+    super.abort(reason);
+    log.atDebug()
+        .setMessage("Aborting the simulation after {} opcodes and {}ms: {}")
+        .addArgument(executedOpcodes)
+        .addArgument(() -> TimeUnit.NANOSECONDS.toMillis(elapsedNanos()))
+        .addArgument(reason::getDescription)
+        .log();
+  }
+}
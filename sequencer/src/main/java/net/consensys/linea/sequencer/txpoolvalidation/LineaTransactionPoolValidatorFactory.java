@@ -15,21 +15,23 @@
 
 package net.consensys.linea.sequencer.txpoolvalidation;
 
-import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 
 import net.consensys.linea.config.LineaProfitabilityConfiguration;
 import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
+import net.consensys.linea.sequencer.simulation.SimulationBudget;
+import net.consensys.linea.sequencer.txpoolvalidation.denylist.DenyList;
+import net.consensys.linea.sequencer.txpoolvalidation.validators.AdmissionQuotaValidator;
+import net.consensys.linea.sequencer.txpoolvalidation.validators.AdmissionQuotas;
 import net.consensys.linea.sequencer.txpoolvalidation.validators.AllowedAddressValidator;
 import net.consensys.linea.sequencer.txpoolvalidation.validators.CalldataValidator;
 import net.consensys.linea.sequencer.txpoolvalidation.validators.GasLimitValidator;
 import net.consensys.linea.sequencer.txpoolvalidation.validators.ProfitabilityValidator;
 import net.consensys.linea.sequencer.txpoolvalidation.validators.SimulationValidator;
-import org.hyperledger.besu.datatypes.Address;
 import org.hyperledger.besu.plugin.services.BesuConfiguration;
 import org.hyperledger.besu.plugin.services.BlockchainService;
 import org.hyperledger.besu.plugin.services.TransactionSimulationService;
@@ -44,10 +46,13 @@ public class LineaTransactionPoolValidatorFactory implements PluginTransactionPo
   private final TransactionSimulationService transactionSimulationService;
   private final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf;
   private final LineaProfitabilityConfiguration profitabilityConf;
-  private final Set<Address> denied;
+  private final DenyList denied;
   private final Map<String, Integer> moduleLineLimitsMap;
   private final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration;
+  private final int moduleLimitCheckInterval;
+  private final SimulationBudget simulationBudget;
   private final Optional<JsonRpcManager> rejectedTxJsonRpcManager;
+  private final AdmissionQuotas admissionQuotas;
 
   public LineaTransactionPoolValidatorFactory(
       final BesuConfiguration besuConfiguration,
@@ -55,47 +60,70 @@ public class LineaTransactionPoolValidatorFactory implements PluginTransactionPo
       final TransactionSimulationService transactionSimulationService,
       final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf,
       final LineaProfitabilityConfiguration profitabilityConf,
-      final Set<Address> deniedAddresses,
+      final DenyList denyList,
       final Map<String, Integer> moduleLineLimitsMap,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
-      final Optional<JsonRpcManager> rejectedTxJsonRpcManager) {
+      final int moduleLimitCheckInterval,
+      final SimulationBudget simulationBudget,
+      final Optional<JsonRpcManager> rejectedTxJsonRpcManager,
+      final AdmissionQuotas admissionQuotas) {
     this.besuConfiguration = besuConfiguration;
     this.blockchainService = blockchainService;
     this.transactionSimulationService = transactionSimulationService;
     this.txPoolValidatorConf = txPoolValidatorConf;
     this.profitabilityConf = profitabilityConf;
-    this.denied = deniedAddresses;
+    this.denied = denyList;
     this.moduleLineLimitsMap = moduleLineLimitsMap;
     this.l1L2BridgeConfiguration = l1L2BridgeConfiguration;
+    this.moduleLimitCheckInterval = moduleLimitCheckInterval;
+    this.simulationBudget = simulationBudget;
     this.rejectedTxJsonRpcManager = rejectedTxJsonRpcManager;
+    this.admissionQuotas = admissionQuotas;
   }
 
   /**
    * Creates a new transaction pool validator, that simply calls in sequence all the actual
-   * validators, in a fail-fast mode.
+   * validators, in a fail-fast mode. When any admission quota is enabled, the expensive
+   * validators are put behind the quotas.
    *
    * @return the new transaction pool validator
    */
   @Override
   public PluginTransactionPoolValidator createTransactionValidator() {
-    final var validators =
-        new PluginTransactionPoolValidator[] {
-          new AllowedAddressValidator(denied, rejectedTxJsonRpcManager),
-          new GasLimitValidator(txPoolValidatorConf, rejectedTxJsonRpcManager),
-          new CalldataValidator(txPoolValidatorConf, rejectedTxJsonRpcManager),
-          new ProfitabilityValidator(
-              besuConfiguration, blockchainService, profitabilityConf, rejectedTxJsonRpcManager),
-          new SimulationValidator(
-              blockchainService,
-              transactionSimulationService,
-              txPoolValidatorConf,
-              moduleLineLimitsMap,
-              l1L2BridgeConfiguration,
-              rejectedTxJsonRpcManager)
-        };
+    final var profitabilityValidator =
+        new ProfitabilityValidator(
+            besuConfiguration, blockchainService, profitabilityConf, rejectedTxJsonRpcManager);
+    final var simulationValidator =
+        new SimulationValidator(
+            blockchainService,
+            transactionSimulationService,
+            txPoolValidatorConf,
+            moduleLineLimitsMap,
+            l1L2BridgeConfiguration,
+            rejectedTxJsonRpcManager,
+            moduleLimitCheckInterval,
+            simulationBudget);
+    final List<PluginTransactionPoolValidator> validators =
+        admissionQuotas.isEnabled()
+            ? List.of(
+                new AllowedAddressValidator(denied, rejectedTxJsonRpcManager),
+                new GasLimitValidator(txPoolValidatorConf, rejectedTxJsonRpcManager),
+                new CalldataValidator(txPoolValidatorConf, rejectedTxJsonRpcManager),
+                new AdmissionQuotaValidator(
+                    admissionQuotas,
+                    txPoolValidatorConf.txPoolQuotaOverflowPolicy(),
+                    profitabilityValidator,
+                    simulationValidator,
+                    AdmissionQuotaValidator.checkedSources(profitabilityConf, txPoolValidatorConf)))
+            : List.of(
+                new AllowedAddressValidator(denied, rejectedTxJsonRpcManager),
+                new GasLimitValidator(txPoolValidatorConf, rejectedTxJsonRpcManager),
+                new CalldataValidator(txPoolValidatorConf, rejectedTxJsonRpcManager),
+                profitabilityValidator,
+                simulationValidator);
 
     return (transaction, isLocal, hasPriority) ->
-        Arrays.stream(validators)
+        validators.stream()
             .map(v -> v.validateTransaction(transaction, isLocal, hasPriority))
             .filter(Optional::isPresent)
             .findFirst()
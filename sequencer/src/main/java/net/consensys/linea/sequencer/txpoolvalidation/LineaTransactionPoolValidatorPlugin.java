@@ -18,19 +18,18 @@ package net.consensys.linea.sequencer.txpoolvalidation;
 import static net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator.createLimitModules;
 
 import java.io.File;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import com.google.auto.service.AutoService;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.AbstractLineaRequiredPlugin;
 import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
-import org.hyperledger.besu.datatypes.Address;
+import net.consensys.linea.jsonrpc.SharedJsonRpcManager;
+import net.consensys.linea.sequencer.simulation.SimulationBudget;
+import net.consensys.linea.sequencer.txpoolvalidation.denylist.DenyList;
+import net.consensys.linea.sequencer.txpoolvalidation.validators.AdmissionQuotas;
 import org.hyperledger.besu.plugin.BesuContext;
 import org.hyperledger.besu.plugin.BesuPlugin;
 import org.hyperledger.besu.plugin.services.BesuConfiguration;
@@ -51,6 +50,7 @@ public class LineaTransactionPoolValidatorPlugin extends AbstractLineaRequiredPl
   private TransactionPoolValidatorService transactionPoolValidatorService;
   private TransactionSimulationService transactionSimulationService;
   private Optional<JsonRpcManager> rejectedTxJsonRpcManager = Optional.empty();
+  private Optional<DenyList> denyList = Optional.empty();
 
   @Override
   public Optional<String> getName() {
@@ -88,11 +88,15 @@ public class LineaTransactionPoolValidatorPlugin extends AbstractLineaRequiredPl
   public void start() {
     super.start();
 
-    try (Stream<String> lines =
-        Files.lines(
-            Path.of(new File(transactionPoolValidatorConfiguration().denyListPath()).toURI()))) {
-      final Set<Address> deniedAddresses =
-          lines.map(l -> Address.fromHexString(l.trim())).collect(Collectors.toUnmodifiableSet());
+    try {
+      final DenyList deniedAddresses =
+          DenyList.load(
+              Path.of(new File(transactionPoolValidatorConfiguration().denyListPath()).toURI()));
+      denyList = Optional.of(deniedAddresses);
+      if (transactionPoolValidatorConfiguration().denyListRefreshSeconds() > 0) {
+        deniedAddresses.startReloading(
+            transactionPoolValidatorConfiguration().denyListRefreshSeconds());
+      }
 
       // start the optional json rpc manager for rejected tx reporting
       final LineaRejectedTxReportingConfiguration lineaRejectedTxReportingConfiguration =
@@ -101,11 +105,10 @@ public class LineaTransactionPoolValidatorPlugin extends AbstractLineaRequiredPl
           Optional.ofNullable(lineaRejectedTxReportingConfiguration.rejectedTxEndpoint())
               .map(
                   endpoint ->
-                      new JsonRpcManager(
-                              "linea-tx-pool-validator-plugin",
-                              besuConfiguration.getDataPath(),
-                              lineaRejectedTxReportingConfiguration)
-                          .start());
+                      SharedJsonRpcManager.acquire(
+                          besuConfiguration.getDataPath(),
+                          lineaRejectedTxReportingConfiguration,
+                          metricsSystem));
 
       transactionPoolValidatorService.registerPluginTransactionValidatorFactory(
           new LineaTransactionPoolValidatorFactory(
@@ -117,7 +120,10 @@ public class LineaTransactionPoolValidatorPlugin extends AbstractLineaRequiredPl
               deniedAddresses,
               createLimitModules(tracerConfiguration()),
               l1L2BridgeSharedConfiguration(),
-              rejectedTxJsonRpcManager));
+              tracerConfiguration().moduleLimitCheckInterval(),
+              new SimulationBudget("tx_pool", tracerConfiguration(), metricsSystem),
+              rejectedTxJsonRpcManager,
+              new AdmissionQuotas(transactionPoolValidatorConfiguration(), metricsSystem)));
 
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -127,6 +133,7 @@ public class LineaTransactionPoolValidatorPlugin extends AbstractLineaRequiredPl
   @Override
   public void stop() {
     super.stop();
-    rejectedTxJsonRpcManager.ifPresent(JsonRpcManager::shutdown);
+    denyList.ifPresent(DenyList::close);
+    rejectedTxJsonRpcManager.ifPresent(unused -> SharedJsonRpcManager.release());
   }
 }
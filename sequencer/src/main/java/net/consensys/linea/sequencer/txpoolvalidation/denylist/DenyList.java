@@ -0,0 +1,177 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.sequencer.txpoolvalidation.denylist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.besu.datatypes.Address;
+
+/**
+ * The deny list, read from a file with an address per line, that can be reloaded in the background
+ * when the file changes. On every reload a new {@link DenyListIndex} is built and then atomically
+ * swapped with the current one, so the lookups never wait for a reload, and if the new file cannot
+ * be read or parsed, the current index is kept.
+ *
+ * <p>A changed file is only reloaded once its last modified time and size are the same in two
+ * consecutive checks, and are still the same after reading it, so a file that is still being
+ * written is not loaded half way. The file should anyway be replaced with an atomic rename, since a
+ * writer that stalls for longer than the check interval is not detected.
+ */
+@Slf4j
+public class DenyList implements AutoCloseable {
+  private record FileStamp(FileTime lastModifiedTime, long size) {}
+
+  private final Path path;
+  private volatile DenyListIndex index;
+  private FileStamp loadedStamp;
+  private FileStamp changedStamp;
+  private ScheduledExecutorService reloadExecutor;
+
+  private DenyList(final Path path, final DenyListIndex index, final FileStamp loadedStamp) {
+    this.path = path;
+    this.index = index;
+    this.loadedStamp = loadedStamp;
+  }
+
+  /**
+   * Creates a deny list with the given addresses, that is never reloaded.
+   *
+   * @param addresses the denied addresses
+   * @return the deny list
+   */
+  public static DenyList of(final Collection<Address> addresses) {
+    return new DenyList(null, DenyListIndex.of(addresses), null);
+  }
+
+  /**
+   * Loads the deny list from a file.
+   *
+   * @param path the path of the file
+   * @return the deny list
+   * @throws IOException if the file cannot be read
+   */
+  public static DenyList load(final Path path) throws IOException {
+    final FileStamp stamp = stamp(path);
+    return new DenyList(path, read(path), stamp);
+  }
+
+  /**
+   * Checks if the address is denied.
+   *
+   * @param address the address
+   * @return true if the address is denied
+   */
+  public boolean contains(final Address address) {
+    return index.contains(address);
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * Starts checking periodically, in the background, if the file changed, and in that case
+   * reloading it.
+   *
+   * @param intervalSeconds the interval between the checks in seconds
+   */
+  public synchronized void startReloading(final long intervalSeconds) {
+    if (path == null || reloadExecutor != null) {
+      return;
+    }
+    reloadExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "linea-deny-list-reload");
+              thread.setDaemon(true);
+              return thread;
+            });
+    reloadExecutor.scheduleWithFixedDelay(
+        this::reloadIfChanged, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    log.info("Reloading the deny list {} on change, checking every {}s", path, intervalSeconds);
+  }
+
+  /**
+   * Reloads the deny list if the file changed since the last load, and did not change since the
+   * previous check.
+   *
+   * @return true if the deny list was reloaded
+   */
+  @VisibleForTesting
+  synchronized boolean reloadIfChanged() {
+    try {
+      final FileStamp stamp = stamp(path);
+      if (stamp.equals(loadedStamp)) {
+        changedStamp = null;
+        return false;
+      }
+      if (!stamp.equals(changedStamp)) {
+        log.debug("The deny list {} changed, waiting for it to be stable before reloading", path);
+        changedStamp = stamp;
+        return false;
+      }
+      final long startNanos = System.nanoTime();
+      final DenyListIndex newIndex = read(path);
+      if (!stamp(path).equals(stamp)) {
+        log.debug("The deny list {} changed while reading it, reloading it later", path);
+        changedStamp = null;
+        return false;
+      }
+      index = newIndex;
+      loadedStamp = stamp;
+      changedStamp = null;
+      log.info(
+          "Reloaded the deny list {} with {} addresses in {}ms",
+          path,
+          index.size(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      return true;
+    } catch (final Exception e) {
+      log.warn("Failed reloading the deny list {}, keeping the current one", path, e);
+      return false;
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (reloadExecutor != null) {
+      reloadExecutor.shutdownNow();
+      reloadExecutor = null;
+    }
+  }
+
+  private static FileStamp stamp(final Path path) throws IOException {
+    return new FileStamp(Files.getLastModifiedTime(path), Files.size(path));
+  }
+
+  private static DenyListIndex read(final Path path) throws IOException {
+    try (Stream<String> lines = Files.lines(path)) {
+      final List<Address> addresses = lines.map(l -> Address.fromHexString(l.trim())).toList();
+      return DenyListIndex.of(addresses);
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.sequencer.txpoolvalidation.denylist;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.hyperledger.besu.datatypes.Address;
+
+/**
+ * Immutable index of the denied addresses, in a compact layout: each 20 bytes address is split in
+ * two longs and an int, kept in three sorted primitive arrays, so an entry costs 20 bytes instead
+ * of the 100+ bytes of an {@link Address} in a hash set. In front of the sorted arrays there is a
+ * bloom filter, with about 10 bits per entry, so most of the addresses that are not denied are
+ * rejected without searching the arrays at all. A lookup does not allocate.
+ */
+public final class DenyListIndex {
+  /** The index without any address. */
+  public static final DenyListIndex EMPTY = of(List.of());
+
+  private static final int BLOOM_BITS_PER_ENTRY = 10;
+  private static final int BLOOM_HASHES = 3;
+  private static final int MAX_BLOOM_BITS = 1 << 30;
+
+  private final long[] highs;
+  private final long[] mids;
+  private final int[] lows;
+  private final long[] bloom;
+  private final long bloomMask;
+
+  private DenyListIndex(final long[] highs, final long[] mids, final int[] lows) {
+    this.highs = highs;
+    this.mids = mids;
+    this.lows = lows;
+    final int bloomBits =
+        (int)
+            Math.min(
+                MAX_BLOOM_BITS,
+                Math.max(
+                    Long.SIZE,
+                    Long.highestOneBit((long) highs.length * BLOOM_BITS_PER_ENTRY - 1) << 1));
+    this.bloom = new long[bloomBits / Long.SIZE];
+    this.bloomMask = bloomBits - 1;
+    for (int i = 0; i < highs.length; i++) {
+      final long hash = hash(highs[i], mids[i], lows[i]);
+      final long step = (hash >>> 32) | 1;
+      for (int h = 0; h < BLOOM_HASHES; h++) {
+        final long bit = (hash + h * step) & bloomMask;
+        bloom[(int) (bit >>> 6)] |= 1L << bit;
+      }
+    }
+  }
+
+  /**
+   * Builds the index of the given addresses, ignoring the duplicates.
+   *
+   * @param addresses the denied addresses
+   * @return the index
+   */
+  public static DenyListIndex of(final Collection<Address> addresses) {
+    final Address[] sorted = addresses.toArray(new Address[0]);
+    Arrays.sort(sorted, DenyListIndex::compare);
+
+    final long[] highs = new long[sorted.length];
+    final long[] mids = new long[sorted.length];
+    final int[] lows = new int[sorted.length];
+    int size = 0;
+    for (final Address address : sorted) {
+      final long high = address.getLong(0);
+      final long mid = address.getLong(8);
+      final int low = address.getInt(16);
+      if (size == 0
+          || compare(highs[size - 1], mids[size - 1], lows[size - 1], high, mid, low) != 0) {
+        highs[size] = high;
+        mids[size] = mid;
+        lows[size] = low;
+        size++;
+      }
+    }
+    return new DenyListIndex(
+        Arrays.copyOf(highs, size), Arrays.copyOf(mids, size), Arrays.copyOf(lows, size));
+  }
+
+  /**
+   * Checks if the address is denied.
+   *
+   * @param address the address
+   * @return true if the address is in the index
+   */
+  public boolean contains(final Address address) {
+    final long high = address.getLong(0);
+    final long mid = address.getLong(8);
+    final int low = address.getInt(16);
+    if (!mightContain(high, mid, low)) {
+      return false;
+    }
+    int from = 0;
+    int to = highs.length - 1;
+    while (from <= to) {
+      final int middle = (from + to) >>> 1;
+      final int cmp = compare(highs[middle], mids[middle], lows[middle], high, mid, low);
+      if (cmp < 0) {
+        from = middle + 1;
+      } else if (cmp > 0) {
+        to = middle - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int size() {
+    return highs.length;
+  }
+
+  private boolean mightContain(final long high, final long mid, final int low) {
+    final long hash = hash(high, mid, low);
+    final long step = (hash >>> 32) | 1;
+    for (int h = 0; h < BLOOM_HASHES; h++) {
+      final long bit = (hash + h * step) & bloomMask;
+      if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long hash(final long high, final long mid, final int low) {
+    // the finalizer of murmur3, since addresses like the precompiles are not random at all
+    long hash = high + 0x9E3779B97F4A7C15L * (mid + 0x9E3779B97F4A7C15L * low);
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private static int compare(final Address address1, final Address address2) {
+    return compare(
+        address1.getLong(0),
+        address1.getLong(8),
+        address1.getInt(16),
+        address2.getLong(0),
+        address2.getLong(8),
+        address2.getInt(16));
+  }
+
+  private static int compare(
+      final long high1,
+      final long mid1,
+      final int low1,
+      final long high2,
+      final long mid2,
+      final int low2) {
+    int cmp = Long.compareUnsigned(high1, high2);
+    if (cmp == 0) {
+      cmp = Long.compareUnsigned(mid1, mid2);
+      if (cmp == 0) {
+        cmp = Integer.compareUnsigned(low1, low2);
+      }
+    }
+    return cmp;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.sequencer.txpoolvalidation.validators;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
+import net.consensys.linea.config.QuotaOverflowPolicy;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.plugin.services.txvalidator.PluginTransactionPoolValidator;
+
+/**
+ * Validator that puts the admission quotas in front of the expensive validators, the profitability
+ * one and the simulation one. A transaction within its quotas goes through both, while one that
+ * exceeds a quota is rejected, or only skips the simulation, depending on the overflow policy. The
+ * simulation is only ever skipped for the API transactions, since a P2P sender could otherwise
+ * flood the pool on purpose to get its transactions admitted without being simulated. The
+ * throttled transactions are counted in the metrics, but not reported as rejected, since during a
+ * flood that would just move the load to the reporting. The quotas are only charged for the
+ * sources where at least one of the expensive checks is enabled, since otherwise there is nothing
+ * to protect.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AdmissionQuotaValidator implements PluginTransactionPoolValidator {
+  private final AdmissionQuotas quotas;
+  private final QuotaOverflowPolicy overflowPolicy;
+  private final PluginTransactionPoolValidator profitabilityValidator;
+  private final PluginTransactionPoolValidator simulationValidator;
+  private final Set<AdmissionQuotas.Source> checkedSources;
+
+  /**
+   * Returns the sources of the transactions that go through at least one of the expensive checks.
+   *
+   * @param profitabilityConf the profitability configuration
+   * @param txPoolValidatorConf the tx pool validator configuration
+   * @return the sources with the profitability or the simulation check enabled
+   */
+  public static Set<AdmissionQuotas.Source> checkedSources(
+      final LineaProfitabilityConfiguration profitabilityConf,
+      final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf) {
+    final Set<AdmissionQuotas.Source> checkedSources =
+        EnumSet.noneOf(AdmissionQuotas.Source.class);
+    if (profitabilityConf.txPoolCheckApiEnabled()
+        || txPoolValidatorConf.txPoolSimulationCheckApiEnabled()) {
+      checkedSources.add(AdmissionQuotas.Source.API);
+    }
+    if (profitabilityConf.txPoolCheckP2pEnabled()
+        || txPoolValidatorConf.txPoolSimulationCheckP2pEnabled()) {
+      checkedSources.add(AdmissionQuotas.Source.P2P);
+    }
+    return checkedSources;
+  }
+
+  @Override
+  public Optional<String> validateTransaction(
+      final Transaction transaction, final boolean isLocal, final boolean hasPriority) {
+    final AdmissionQuotas.Source source = AdmissionQuotas.Source.of(isLocal);
+    final Optional<String> throttled =
+        hasPriority || !checkedSources.contains(source)
+            ? Optional.empty()
+            : quotas.tryAcquire(transaction.getSender(), source);
+
+    if (throttled.isPresent()) {
+      log.atTrace()
+          .setMessage("Tx {} throttled: {}, overflow policy {}")
+          .addArgument(transaction::getHash)
+          .addArgument(throttled::get)
+          .addArgument(overflowPolicy)
+          .log();
+      return switch (overflowPolicy) {
+        case REJECT -> throttled;
+        case SKIP_SIMULATION ->
+            isLocal
+                ? profitabilityValidator.validateTransaction(transaction, isLocal, hasPriority)
+                : throttled;
+      };
+    }
+
+    return profitabilityValidator
+        .validateTransaction(transaction, isLocal, hasPriority)
+        .or(() -> simulationValidator.validateTransaction(transaction, isLocal, hasPriority));
+  }
+}
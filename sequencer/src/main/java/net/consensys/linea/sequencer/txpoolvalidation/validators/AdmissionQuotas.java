@@ -0,0 +1,213 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.sequencer.txpoolvalidation.validators;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
+import net.consensys.linea.metrics.LineaMetricCategory;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+
+/**
+ * Token bucket quotas limiting the rate of the transactions submitted to the expensive validators,
+ * per sender and per source, API or P2P, so a single sender flooding the pool cannot monopolize
+ * them. There is no quota per peer, since the plugin API does not expose the peer a transaction
+ * comes from, so the P2P quota is shared by all the peers. The sender quota is checked first, so a
+ * flooding sender is throttled by its own quota before it can drain the quota of its source, shared
+ * with the honest senders, and gets its token back when the source quota is exceeded instead. The
+ * transactions of the priority senders are never throttled.
+ *
+ * <p>The sender buckets are split in stripes by the hash of the sender, each one with its own lock,
+ * so the admission of different senders is not serialized, and only the short update of the source
+ * bucket is shared. The least recently seen senders of a stripe are forgotten when the stripe
+ * reaches its share of the max number of tracked senders, and start again with a full bucket.
+ */
+public class AdmissionQuotas {
+  private static final int MAX_SENDER_STRIPES = 16;
+
+  /** The source of a transaction. */
+  public enum Source {
+    API,
+    P2P;
+
+    static Source of(final boolean isLocal) {
+      return isLocal ? API : P2P;
+    }
+  }
+
+  private static final class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(final int ratePerSecond, final int capacity, final long nowNanos) {
+      this.tokensPerNano = ratePerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+      this.capacity = capacity;
+      this.tokens = capacity;
+      this.lastRefillNanos = nowNanos;
+    }
+
+    boolean tryTake(final long nowNanos) {
+      // the clock is read outside the lock, so a concurrent caller may have seen a later time
+      if (nowNanos > lastRefillNanos) {
+        tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = nowNanos;
+      }
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+
+    void refund() {
+      tokens = Math.min(capacity, tokens + 1);
+    }
+  }
+
+  private final int senderRate;
+  private final int senderBurst;
+  private final LongSupplier nanoClock;
+  private final Map<Address, TokenBucket>[] senderStripes;
+  private final TokenBucket[] sourceBuckets = new TokenBucket[Source.values().length];
+  private final LabelledMetric<Counter> throttledCounter;
+
+  /**
+   * Creates the quotas.
+   *
+   * @param txPoolValidatorConf the tx pool validator configuration
+   * @param metricsSystem the metrics system
+   */
+  public AdmissionQuotas(
+      final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf,
+      final MetricsSystem metricsSystem) {
+    this(txPoolValidatorConf, metricsSystem, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  AdmissionQuotas(
+      final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf,
+      final MetricsSystem metricsSystem,
+      final LongSupplier nanoClock) {
+    this.senderRate = txPoolValidatorConf.txPoolQuotaSenderRate();
+    this.senderBurst = txPoolValidatorConf.txPoolQuotaSenderBurst();
+    this.nanoClock = nanoClock;
+    final int maxSenders = Math.max(1, txPoolValidatorConf.txPoolQuotaMaxSenders());
+    this.senderStripes = createSenderStripes(maxSenders);
+    final long nowNanos = nanoClock.getAsLong();
+    final int apiRate = txPoolValidatorConf.txPoolQuotaApiRate();
+    if (apiRate > 0) {
+      sourceBuckets[Source.API.ordinal()] = new TokenBucket(apiRate, apiRate, nowNanos);
+    }
+    final int p2pRate = txPoolValidatorConf.txPoolQuotaP2pRate();
+    if (p2pRate > 0) {
+      sourceBuckets[Source.P2P.ordinal()] = new TokenBucket(p2pRate, p2pRate, nowNanos);
+    }
+    this.throttledCounter =
+        metricsSystem.createLabelledCounter(
+            LineaMetricCategory.TX_POOL_VALIDATION,
+            "quota_throttled_txs_total",
+            "Number of transactions that exceeded their admission quota",
+            "source",
+            "quota");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<Address, TokenBucket>[] createSenderStripes(final int maxSenders) {
+    final int stripeCount = Math.min(MAX_SENDER_STRIPES, maxSenders);
+    final int maxStripeSenders = Math.ceilDiv(maxSenders, stripeCount);
+    final Map<Address, TokenBucket>[] stripes = new Map[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] =
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Address, TokenBucket> eldest) {
+              return size() > maxStripeSenders;
+            }
+          };
+    }
+    return stripes;
+  }
+
+  /**
+   * Checks if any quota is enabled.
+   *
+   * @return true if any quota is enabled
+   */
+  public boolean isEnabled() {
+    if (senderRate > 0) {
+      return true;
+    }
+    for (final TokenBucket sourceBucket : sourceBuckets) {
+      if (sourceBucket != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Takes a token from the quota of the sender and then from the one of the source, giving the
+   * sender token back if the source quota is exceeded.
+   *
+   * @param sender the sender of the transaction
+   * @param source the source of the transaction
+   * @return the reason if a quota is exceeded, otherwise empty
+   */
+  public Optional<String> tryAcquire(final Address sender, final Source source) {
+    final long nowNanos = nanoClock.getAsLong();
+    Map<Address, TokenBucket> senderStripe = null;
+    TokenBucket senderBucket = null;
+    if (senderRate > 0) {
+      senderStripe = senderStripes[Math.floorMod(sender.hashCode(), senderStripes.length)];
+      synchronized (senderStripe) {
+        senderBucket =
+            senderStripe.computeIfAbsent(
+                sender, unused -> new TokenBucket(senderRate, senderBurst, nowNanos));
+        if (!senderBucket.tryTake(nowNanos)) {
+          throttledCounter.labels(source.name(), "sender").inc();
+          return Optional.of("sender " + sender + " exceeded its tx pool admission quota");
+        }
+      }
+    }
+    final TokenBucket sourceBucket = sourceBuckets[source.ordinal()];
+    if (sourceBucket != null && !tryTake(sourceBucket, nowNanos)) {
+      if (senderBucket != null) {
+        synchronized (senderStripe) {
+          senderBucket.refund();
+        }
+      }
+      throttledCounter.labels(source.name(), "source").inc();
+      return Optional.of("tx pool admission quota for " + source + " txs exceeded");
+    }
+    return Optional.empty();
+  }
+
+  private static boolean tryTake(final TokenBucket bucket, final long nowNanos) {
+    synchronized (bucket) {
+      return bucket.tryTake(nowNanos);
+    }
+  }
+}
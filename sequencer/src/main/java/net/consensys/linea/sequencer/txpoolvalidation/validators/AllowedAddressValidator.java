@@ -14,7 +14,6 @@
  */
 package net.consensys.linea.sequencer.txpoolvalidation.validators;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -22,7 +21,8 @@ import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
-import net.consensys.linea.jsonrpc.JsonRpcRequestBuilder;
+import net.consensys.linea.jsonrpc.ReportingStage;
+import net.consensys.linea.sequencer.txpoolvalidation.denylist.DenyList;
 import org.hyperledger.besu.datatypes.Address;
 import org.hyperledger.besu.datatypes.Transaction;
 import org.hyperledger.besu.plugin.services.txvalidator.PluginTransactionPoolValidator;
@@ -47,9 +47,14 @@ public class AllowedAddressValidator implements PluginTransactionPoolValidator {
           Address.fromHexString("0x0000000000000000000000000000000000000009"),
           Address.fromHexString("0x000000000000000000000000000000000000000a"));
 
-  private final Set<Address> denied;
+  private final DenyList denied;
   private final Optional<JsonRpcManager> rejectedTxJsonRpcManager;
 
+  public AllowedAddressValidator(
+      final Set<Address> denied, final Optional<JsonRpcManager> rejectedTxJsonRpcManager) {
+    this(DenyList.of(denied), rejectedTxJsonRpcManager);
+  }
+
   @Override
   public Optional<String> validateTransaction(
       final Transaction transaction, final boolean isLocal, final boolean hasPriority) {
@@ -93,16 +98,13 @@ public class AllowedAddressValidator implements PluginTransactionPoolValidator {
 
   private void reportRejectedTransaction(final Transaction transaction, final String reason) {
     rejectedTxJsonRpcManager.ifPresent(
-        jsonRpcManager -> {
-          final String jsonRpcCall =
-              JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
-                  jsonRpcManager.getNodeType(),
-                  transaction,
-                  Instant.now(),
-                  Optional.empty(), // block number is not available
-                  reason,
-                  List.of());
-          jsonRpcManager.submitNewJsonRpcCallAsync(jsonRpcCall);
-        });
+        jsonRpcManager ->
+            jsonRpcManager.submitRejectedTxAsync(
+                ReportingStage.TX_POOL_VALIDATION,
+                transaction,
+                Optional.empty(), // block number is not available
+                getClass().getSimpleName(),
+                reason,
+                List.of()));
   }
 }
@@ -14,7 +14,6 @@
  */
 package net.consensys.linea.sequencer.txpoolvalidation.validators;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,7 +21,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
-import net.consensys.linea.jsonrpc.JsonRpcRequestBuilder;
+import net.consensys.linea.jsonrpc.ReportingStage;
 import org.hyperledger.besu.datatypes.Transaction;
 import org.hyperledger.besu.plugin.services.txvalidator.PluginTransactionPoolValidator;
 
@@ -49,16 +48,13 @@ public class CalldataValidator implements PluginTransactionPoolValidator {
 
   private void reportRejectedTransaction(final Transaction transaction, final String reason) {
     rejectedTxJsonRpcManager.ifPresent(
-        jsonRpcManager -> {
-          final String jsonRpcCall =
-              JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
-                  jsonRpcManager.getNodeType(),
-                  transaction,
-                  Instant.now(),
-                  Optional.empty(), // block number is not available
-                  reason,
-                  List.of());
-          jsonRpcManager.submitNewJsonRpcCallAsync(jsonRpcCall);
-        });
+        jsonRpcManager ->
+            jsonRpcManager.submitRejectedTxAsync(
+                ReportingStage.TX_POOL_VALIDATION,
+                transaction,
+                Optional.empty(), // block number is not available
+                getClass().getSimpleName(),
+                reason,
+                List.of()));
   }
 }
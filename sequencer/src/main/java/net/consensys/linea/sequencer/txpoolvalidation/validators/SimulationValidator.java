@@ -18,7 +18,6 @@ import static net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator
 import static net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator.ModuleLineCountResult.TX_MODULE_LINE_COUNT_OVERFLOW;
 
 import java.math.BigInteger;
-import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,12 +25,16 @@ import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
-import net.consensys.linea.jsonrpc.JsonRpcRequestBuilder;
+import net.consensys.linea.jsonrpc.ReportingStage;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
+import net.consensys.linea.sequencer.TracerAggregator;
+import net.consensys.linea.sequencer.modulelimit.ModuleLimitWatchingTracer;
 import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
+import net.consensys.linea.sequencer.simulation.SimulationBudget;
 import net.consensys.linea.zktracer.ZkTracer;
 import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
 import org.hyperledger.besu.plugin.data.BlockHeader;
 import org.hyperledger.besu.plugin.data.TransactionSimulationResult;
 import org.hyperledger.besu.plugin.services.BlockchainService;
@@ -41,6 +44,9 @@ import org.hyperledger.besu.plugin.services.txvalidator.PluginTransactionPoolVal
 /**
  * Validator that checks if transaction simulation completes successfully, including line counting.
  * This check can be enabled/disabled independently for transactions received via API or P2P.
+ * When a module limit check interval is set, the simulation is aborted as soon as a module goes
+ * over its limit, see {@link ModuleLimitWatchingTracer}, and it is aborted as soon as it exceeds
+ * its time or opcode budget, see {@link SimulationBudget}.
  */
 @Slf4j
 public class SimulationValidator implements PluginTransactionPoolValidator {
@@ -50,6 +56,8 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
   private final Map<String, Integer> moduleLineLimitsMap;
   private final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration;
   private final Optional<JsonRpcManager> rejectedTxJsonRpcManager;
+  private final int moduleLimitCheckInterval;
+  private final SimulationBudget simulationBudget;
 
   public SimulationValidator(
       final BlockchainService blockchainService,
@@ -57,13 +65,17 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
       final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf,
       final Map<String, Integer> moduleLineLimitsMap,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
-      final Optional<JsonRpcManager> rejectedTxJsonRpcManager) {
+      final Optional<JsonRpcManager> rejectedTxJsonRpcManager,
+      final int moduleLimitCheckInterval,
+      final SimulationBudget simulationBudget) {
     this.blockchainService = blockchainService;
     this.transactionSimulationService = transactionSimulationService;
     this.txPoolValidatorConf = txPoolValidatorConf;
     this.moduleLineLimitsMap = moduleLineLimitsMap;
     this.l1L2BridgeConfiguration = l1L2BridgeConfiguration;
     this.rejectedTxJsonRpcManager = rejectedTxJsonRpcManager;
+    this.moduleLimitCheckInterval = moduleLimitCheckInterval;
+    this.simulationBudget = simulationBudget;
   }
 
   @Override
@@ -88,19 +100,46 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
       final var chainHeadHeader = blockchainService.getChainHeadHeader();
 
       final var zkTracer = createZkTracer(chainHeadHeader, blockchainService.getChainId().get());
-      final var maybeSimulationResults =
-          transactionSimulationService.simulate(
-              transaction, chainHeadHeader.getBlockHash(), zkTracer, true);
+      // an aborted simulation is rejected by the module limits check below, like a completed one
+      final OperationTracer tracer =
+          moduleLimitCheckInterval > 0
+              ? TracerAggregator.create(
+                  zkTracer,
+                  new ModuleLimitWatchingTracer(
+                      zkTracer, moduleLineLimitsMap, moduleLimitCheckInterval))
+              : zkTracer;
+      final var budgetedResult =
+          simulationBudget.simulate(
+              transactionSimulationService,
+              transaction,
+              chainHeadHeader.getBlockHash(),
+              tracer,
+              true);
+      final var maybeSimulationResults = budgetedResult.simulationResult();
+
+      // the line counts of an aborted simulation are partial, so they are not validated
+      if (budgetedResult.exceededBudget().isPresent()) {
+        final var exceededBudget = budgetedResult.exceededBudget().get();
+        final String errMsg = simulationBudget.describe(exceededBudget);
+        log.atDebug()
+            .setMessage("Simulation of tx with hash={} aborted: {}")
+            .addArgument(transaction::getHash)
+            .addArgument(errMsg)
+            .log();
+        reportRejectedTransaction(transaction, exceededBudget.name(), errMsg);
+        return Optional.of(errMsg);
+      }
 
+      final Map<String, Integer> modulesLineCount = zkTracer.getModulesLineCount();
       ModuleLimitsValidationResult moduleLimitResult =
-          moduleLineCountValidator.validate(zkTracer.getModulesLineCount());
+          moduleLineCountValidator.validate(modulesLineCount);
 
       logSimulationResult(
           transaction, isLocal, hasPriority, maybeSimulationResults, moduleLimitResult);
 
       if (moduleLimitResult.getResult() != ModuleLineCountValidator.ModuleLineCountResult.VALID) {
         final String reason = handleModuleOverLimit(transaction, moduleLimitResult);
-        reportRejectedTransaction(transaction, reason);
+        reportRejectedTransaction(transaction, moduleLimitResult.getResult().name(), reason);
         return Optional.of(reason);
       }
 
@@ -111,7 +150,7 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
               "Invalid transaction"
                   + simulationResult.getInvalidReason().map(ir -> ": " + ir).orElse("");
           log.debug(errMsg);
-          reportRejectedTransaction(transaction, errMsg);
+          reportRejectedTransaction(transaction, "INVALID", errMsg);
           return Optional.of(errMsg);
         }
         if (!simulationResult.isSuccessful()) {
@@ -122,7 +161,7 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
                       .map(rr -> ": " + rr.toHexString())
                       .orElse("");
           log.debug(errMsg);
-          reportRejectedTransaction(transaction, errMsg);
+          reportRejectedTransaction(transaction, "REVERTED", errMsg);
           return Optional.of(errMsg);
         }
       }
@@ -139,19 +178,17 @@ public class SimulationValidator implements PluginTransactionPoolValidator {
     return Optional.empty();
   }
 
-  private void reportRejectedTransaction(final Transaction transaction, final String reason) {
+  private void reportRejectedTransaction(
+      final Transaction transaction, final String reasonClass, final String reason) {
     rejectedTxJsonRpcManager.ifPresent(
-        jsonRpcManager -> {
-          final String jsonRpcCall =
-              JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
-                  jsonRpcManager.getNodeType(),
-                  transaction,
-                  Instant.now(),
-                  Optional.empty(), // block number is not available
-                  reason,
-                  List.of());
-          jsonRpcManager.submitNewJsonRpcCallAsync(jsonRpcCall);
-        });
+        jsonRpcManager ->
+            jsonRpcManager.submitRejectedTxAsync(
+                ReportingStage.TX_POOL_VALIDATION,
+                transaction,
+                Optional.empty(), // block number is not available
+                reasonClass,
+                reason,
+                List.of()));
   }
 
   private void logSimulationResult(
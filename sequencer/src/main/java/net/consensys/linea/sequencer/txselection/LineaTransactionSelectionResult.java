@@ -22,6 +22,11 @@ public class LineaTransactionSelectionResult extends TransactionSelectionResult
     BLOCK_MODULE_LINE_COUNT_FULL(true, false, false),
     TX_GAS_EXCEEDS_USER_MAX_BLOCK_GAS(false, true, true),
     TX_TOO_LARGE_FOR_REMAINING_USER_GAS(false, false, false),
+    TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT(false, false, false),
+    TX_SKIPPED_BY_BLOCK_PACKING(false, false, false),
+    TX_PREDICTED_TOO_LARGE_FOR_REMAINING_LINE_COUNT(false, false, false),
+    TX_SKIPPED_BY_LOW_SELECTION_TIME(false, false, false),
+    TX_PREVIOUS_NONCE_NOT_SELECTED(false, false, false),
     TX_MODULE_LINE_COUNT_OVERFLOW(false, true, true),
     TX_MODULE_LINE_COUNT_OVERFLOW_CACHED(false, true, true),
     TX_UNPROFITABLE(false, false, true),
@@ -66,6 +71,17 @@ public class LineaTransactionSelectionResult extends TransactionSelectionResult
       new LineaTransactionSelectionResult(LineaStatus.TX_GAS_EXCEEDS_USER_MAX_BLOCK_GAS);
   public static final TransactionSelectionResult TX_TOO_LARGE_FOR_REMAINING_USER_GAS =
       new LineaTransactionSelectionResult(LineaStatus.TX_TOO_LARGE_FOR_REMAINING_USER_GAS);
+  public static final TransactionSelectionResult TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT =
+      new LineaTransactionSelectionResult(LineaStatus.TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT);
+  public static final TransactionSelectionResult TX_SKIPPED_BY_BLOCK_PACKING =
+      new LineaTransactionSelectionResult(LineaStatus.TX_SKIPPED_BY_BLOCK_PACKING);
+  public static final TransactionSelectionResult TX_PREDICTED_TOO_LARGE_FOR_REMAINING_LINE_COUNT =
+      new LineaTransactionSelectionResult(
+          LineaStatus.TX_PREDICTED_TOO_LARGE_FOR_REMAINING_LINE_COUNT);
+  public static final TransactionSelectionResult TX_SKIPPED_BY_LOW_SELECTION_TIME =
+      new LineaTransactionSelectionResult(LineaStatus.TX_SKIPPED_BY_LOW_SELECTION_TIME);
+  public static final TransactionSelectionResult TX_PREVIOUS_NONCE_NOT_SELECTED =
+      new LineaTransactionSelectionResult(LineaStatus.TX_PREVIOUS_NONCE_NOT_SELECTED);
   public static final TransactionSelectionResult TX_MODULE_LINE_COUNT_OVERFLOW =
       new LineaTransactionSelectionResult(LineaStatus.TX_MODULE_LINE_COUNT_OVERFLOW);
   public static final TransactionSelectionResult TX_MODULE_LINE_COUNT_OVERFLOW_CACHED =
@@ -22,9 +22,15 @@ import net.consensys.linea.config.LineaProfitabilityConfiguration;
 import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
+import net.consensys.linea.metrics.LineaMetricCategory;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineCountPredictor;
 import net.consensys.linea.sequencer.txselection.selectors.LineaTransactionSelector;
+import net.consensys.linea.sequencer.txselection.selectors.PendingTxProfitabilityTable;
+import net.consensys.linea.sequencer.txselection.selectors.SelectionTimeBudgetTransactionSelector;
 import org.hyperledger.besu.plugin.services.BlockchainService;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
 import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelector;
 import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelectorFactory;
 
@@ -39,8 +45,12 @@ public class LineaTransactionSelectorFactory implements PluginTransactionSelecto
   private final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration;
   private final LineaProfitabilityConfiguration profitabilityConfiguration;
   private final LineaTracerConfiguration tracerConfiguration;
+  private final SelectionTimeBudgetTransactionSelector.Metrics selectionTimeMetrics;
+  private final Counter blockedSenderSkippedTxsCounter;
+  private final Optional<PendingTxProfitabilityTable> profitabilityTable;
 
   private final Map<String, Integer> limitsMap;
+  private final ModuleLineCountPredictor moduleLineCountPredictor;
 
   public LineaTransactionSelectorFactory(
       final BlockchainService blockchainService,
@@ -49,14 +59,25 @@ public class LineaTransactionSelectorFactory implements PluginTransactionSelecto
       final LineaProfitabilityConfiguration profitabilityConfiguration,
       final LineaTracerConfiguration tracerConfiguration,
       final Map<String, Integer> limitsMap,
-      final Optional<JsonRpcManager> rejectedTxJsonRpcManager) {
+      final ModuleLineCountPredictor moduleLineCountPredictor,
+      final Optional<JsonRpcManager> rejectedTxJsonRpcManager,
+      final MetricsSystem metricsSystem,
+      final Optional<PendingTxProfitabilityTable> profitabilityTable) {
     this.blockchainService = blockchainService;
     this.txSelectorConfiguration = txSelectorConfiguration;
     this.l1L2BridgeConfiguration = l1L2BridgeConfiguration;
     this.profitabilityConfiguration = profitabilityConfiguration;
     this.tracerConfiguration = tracerConfiguration;
     this.limitsMap = limitsMap;
+    this.moduleLineCountPredictor = moduleLineCountPredictor;
     this.rejectedTxJsonRpcManager = rejectedTxJsonRpcManager;
+    this.selectionTimeMetrics = new SelectionTimeBudgetTransactionSelector.Metrics(metricsSystem);
+    this.blockedSenderSkippedTxsCounter =
+        metricsSystem.createCounter(
+            LineaMetricCategory.SEQUENCER_SELECTION,
+            "blocked_sender_skipped_txs_total",
+            "Number of transactions skipped since a lower nonce of the sender was not selected");
+    this.profitabilityTable = profitabilityTable;
   }
 
   @Override
@@ -68,6 +89,10 @@ public class LineaTransactionSelectorFactory implements PluginTransactionSelecto
         profitabilityConfiguration,
         tracerConfiguration,
         limitsMap,
-        rejectedTxJsonRpcManager);
+        moduleLineCountPredictor,
+        rejectedTxJsonRpcManager,
+        selectionTimeMetrics,
+        blockedSenderSkippedTxsCounter,
+        profitabilityTable);
   }
 }
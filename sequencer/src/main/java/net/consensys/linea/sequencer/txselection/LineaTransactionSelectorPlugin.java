@@ -25,9 +25,13 @@ import net.consensys.linea.AbstractLineaRequiredPlugin;
 import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
+import net.consensys.linea.jsonrpc.SharedJsonRpcManager;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineCountPredictor;
+import net.consensys.linea.sequencer.txselection.selectors.PendingTxProfitabilityTable;
 import org.hyperledger.besu.plugin.BesuContext;
 import org.hyperledger.besu.plugin.BesuPlugin;
 import org.hyperledger.besu.plugin.services.BesuConfiguration;
+import org.hyperledger.besu.plugin.services.BesuEvents;
 import org.hyperledger.besu.plugin.services.TransactionSelectionService;
 
 /**
@@ -42,6 +46,7 @@ public class LineaTransactionSelectorPlugin extends AbstractLineaRequiredPlugin
   private TransactionSelectionService transactionSelectionService;
   private Optional<JsonRpcManager> rejectedTxJsonRpcManager = Optional.empty();
   private BesuConfiguration besuConfiguration;
+  private BesuContext besuContext;
 
   @Override
   public Optional<String> getName() {
@@ -50,6 +55,7 @@ public class LineaTransactionSelectorPlugin extends AbstractLineaRequiredPlugin
 
   @Override
   public void doRegister(final BesuContext context) {
+    besuContext = context;
     transactionSelectionService =
         context
             .getService(TransactionSelectionService.class)
@@ -79,11 +85,10 @@ public class LineaTransactionSelectorPlugin extends AbstractLineaRequiredPlugin
         Optional.ofNullable(lineaRejectedTxReportingConfiguration.rejectedTxEndpoint())
             .map(
                 endpoint ->
-                    new JsonRpcManager(
-                            "linea-tx-selector-plugin",
-                            besuConfiguration.getDataPath(),
-                            lineaRejectedTxReportingConfiguration)
-                        .start());
+                    SharedJsonRpcManager.acquire(
+                        besuConfiguration.getDataPath(),
+                        lineaRejectedTxReportingConfiguration,
+                        metricsSystem));
     transactionSelectionService.registerPluginTransactionSelectorFactory(
         new LineaTransactionSelectorFactory(
             blockchainService,
@@ -92,12 +97,46 @@ public class LineaTransactionSelectorPlugin extends AbstractLineaRequiredPlugin
             profitabilityConfiguration(),
             tracerConfiguration(),
             createLimitModules(tracerConfiguration()),
-            rejectedTxJsonRpcManager));
+            new ModuleLineCountPredictor(tracerConfiguration().lineCountPredictionCacheSize()),
+            rejectedTxJsonRpcManager,
+            metricsSystem,
+            createProfitabilityTable(txSelectorConfiguration)));
+  }
+
+  private Optional<PendingTxProfitabilityTable> createProfitabilityTable(
+      final LineaTransactionSelectorConfiguration txSelectorConfiguration) {
+    if (txSelectorConfiguration.profitabilityTableSize() == 0) {
+      return Optional.empty();
+    }
+    // BesuEvents is only available once the plugins are started
+    final BesuEvents besuEvents =
+        besuContext
+            .getService(BesuEvents.class)
+            .orElseThrow(
+                () -> new RuntimeException("Failed to obtain BesuEvents from the BesuContext."));
+    final PendingTxProfitabilityTable profitabilityTable =
+        new PendingTxProfitabilityTable(
+            txSelectorConfiguration.profitabilityTableSize(),
+            profitabilityConfiguration(),
+            besuConfiguration::getMinGasPrice);
+    besuEvents.addTransactionAddedListener(profitabilityTable::onTransactionAdded);
+    besuEvents.addTransactionDroppedListener(
+        transaction -> profitabilityTable.remove(transaction.getHash()));
+    besuEvents.addBlockAddedListener(
+        addedBlockContext ->
+            blockchainService
+                .getNextBlockBaseFee()
+                .ifPresent(
+                    nextBaseFee ->
+                        profitabilityTable.onBlockAdded(
+                            addedBlockContext.getBlockBody().getTransactions(), nextBaseFee)));
+    profitabilityConfiguration().pricingEpochBus().subscribe(profitabilityTable::onPricingEpoch);
+    return Optional.of(profitabilityTable);
   }
 
   @Override
   public void stop() {
     super.stop();
-    rejectedTxJsonRpcManager.ifPresent(JsonRpcManager::shutdown);
+    rejectedTxJsonRpcManager.ifPresent(unused -> SharedJsonRpcManager.release());
   }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.txselection.selectors;
+
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.BLOCK_MODULE_LINE_COUNT_FULL;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_SKIPPED_BY_BLOCK_PACKING;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT;
+import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.besu.datatypes.PendingTransaction;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.plugin.data.TransactionProcessingResult;
+import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
+import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelector;
+import org.hyperledger.besu.plugin.services.txselection.TransactionEvaluationContext;
+
+/**
+ * This class implements TransactionSelector and provides a packing mode, that is activated when a
+ * transaction does not fit in the remaining module line count of the block. Instead of stopping the
+ * selection, up to a configurable number of smaller candidates are still processed, to fill the
+ * remaining gas, calldata and line count budgets of the block. Only candidates that fit in the
+ * remaining budgets are processed, the others are skipped without being executed: the calldata
+ * budget is already checked upfront by {@link MaxBlockCallDataTransactionSelector}, while here the
+ * gas limit of the candidate is checked against the remaining block gas and against the gas used by
+ * the smallest transaction that did not fit in the remaining module line count, since line counts
+ * are only known after the execution. An attempt is consumed only when a candidate is actually
+ * executed, so the candidates rejected upfront by the other selectors do not consume any. Once all
+ * the attempts are consumed, the selection is stopped.
+ */
+@Slf4j
+public class BlockPackingTransactionSelector implements PluginTransactionSelector {
+  private final int maxAttempts;
+  private final MaxBlockGasTransactionSelector maxBlockGasTransactionSelector;
+
+  private boolean packing;
+  private int remainingAttempts;
+  private long maxCandidateGasLimit;
+
+  public BlockPackingTransactionSelector(
+      final int maxAttempts, final MaxBlockGasTransactionSelector maxBlockGasTransactionSelector) {
+    this.maxAttempts = maxAttempts;
+    this.maxBlockGasTransactionSelector = maxBlockGasTransactionSelector;
+  }
+
+  /**
+   * Evaluates a transaction before processing. Outside the packing mode all the transactions are
+   * selected, while in packing mode only the candidates that fit in the remaining budgets are
+   * selected for processing, while there are attempts left.
+   *
+   * @param evaluationContext The current selection context.
+   * @return BLOCK_MODULE_LINE_COUNT_FULL if there are no more packing attempts left,
+   *     TX_SKIPPED_BY_BLOCK_PACKING if the transaction does not fit in the remaining budgets,
+   *     otherwise SELECTED.
+   */
+  @Override
+  public TransactionSelectionResult evaluateTransactionPreProcessing(
+      final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext) {
+
+    if (!packing) {
+      return SELECTED;
+    }
+
+    if (remainingAttempts <= 0) {
+      log.atTrace()
+          .setMessage("No more block packing attempts left ({}), stopping selection")
+          .addArgument(maxAttempts)
+          .log();
+      return BLOCK_MODULE_LINE_COUNT_FULL;
+    }
+
+    final Transaction transaction = evaluationContext.getPendingTransaction().getTransaction();
+    final long gasLimit = transaction.getGasLimit();
+    final long remainingBlockGas = maxBlockGasTransactionSelector.remainingBlockGas();
+
+    if (gasLimit >= maxCandidateGasLimit || gasLimit > remainingBlockGas) {
+      log.atTrace()
+          .setMessage(
+              "Block packing: skipping tx {} with gas limit {}, max candidate gas limit {}, remaining block gas {}")
+          .addArgument(transaction::getHash)
+          .addArgument(gasLimit)
+          .addArgument(maxCandidateGasLimit)
+          .addArgument(remainingBlockGas)
+          .log();
+      return TX_SKIPPED_BY_BLOCK_PACKING;
+    }
+
+    return SELECTED;
+  }
+
+  /**
+   * In packing mode, consumes an attempt for the executed candidate. No evaluation is performed
+   * post-processing, since the line count is checked by {@link TraceLineLimitTransactionSelector},
+   * that notifies this selector via {@link #onBlockModuleLineCountFull}.
+   *
+   * @param evaluationContext The current selection context.
+   * @param processingResult The result of the transaction processing.
+   * @return Always returns SELECTED.
+   */
+  @Override
+  public TransactionSelectionResult evaluateTransactionPostProcessing(
+      final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext,
+      final TransactionProcessingResult processingResult) {
+    if (packing) {
+      remainingAttempts--;
+      log.atTrace()
+          .setMessage("Block packing: processed tx {}, attempt {}/{}")
+          .addArgument(evaluationContext.getPendingTransaction().getTransaction()::getHash)
+          .addArgument(() -> maxAttempts - remainingAttempts)
+          .addArgument(maxAttempts)
+          .log();
+    }
+    return SELECTED;
+  }
+
+  /**
+   * Called when the processed transaction does not fit in the remaining module line count of the
+   * block, to decide if the selection must stop or if it could continue in packing mode.
+   *
+   * @param evaluationContext The current selection context.
+   * @param processingResult The result of the transaction processing.
+   * @return BLOCK_MODULE_LINE_COUNT_FULL if the packing mode is disabled or there are no more
+   *     attempts left, otherwise TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT to continue with the
+   *     selection.
+   */
+  public TransactionSelectionResult onBlockModuleLineCountFull(
+      final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext,
+      final TransactionProcessingResult processingResult) {
+    if (maxAttempts == 0) {
+      return BLOCK_MODULE_LINE_COUNT_FULL;
+    }
+
+    final long gasUsed = processingResult.getEstimateGasUsedByTransaction();
+    if (!packing) {
+      packing = true;
+      remainingAttempts = maxAttempts;
+      maxCandidateGasLimit = gasUsed;
+      log.atDebug()
+          .setMessage(
+              "Tx {} does not fit in the remaining line count of block {}, starting block packing with {} attempts")
+          .addArgument(evaluationContext.getPendingTransaction().getTransaction()::getHash)
+          .addArgument(evaluationContext.getPendingBlockHeader()::getNumber)
+          .addArgument(maxAttempts)
+          .log();
+    } else {
+      maxCandidateGasLimit = Math.min(maxCandidateGasLimit, gasUsed);
+    }
+
+    return remainingAttempts > 0
+        ? TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT
+        : BLOCK_MODULE_LINE_COUNT_FULL;
+  }
+}
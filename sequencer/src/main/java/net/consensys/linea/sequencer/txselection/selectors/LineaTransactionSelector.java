@@ -14,7 +14,6 @@
  */
 package net.consensys.linea.sequencer.txselection.selectors;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -24,22 +23,30 @@ import net.consensys.linea.config.LineaProfitabilityConfiguration;
 import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
-import net.consensys.linea.jsonrpc.JsonRpcRequestBuilder;
+import net.consensys.linea.jsonrpc.ReportingStage;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineCountPredictor;
+import net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult;
 import org.hyperledger.besu.datatypes.PendingTransaction;
 import org.hyperledger.besu.plugin.data.TransactionProcessingResult;
 import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
 import org.hyperledger.besu.plugin.services.BlockchainService;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
 import org.hyperledger.besu.plugin.services.tracer.BlockAwareOperationTracer;
 import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelector;
 import org.hyperledger.besu.plugin.services.txselection.TransactionEvaluationContext;
 
-/** Class for transaction selection using a list of selectors. */
+/**
+ * Class for transaction selection using a list of selectors. Since the evaluation is done on the
+ * block creation thread for every pending transaction, the selectors are kept in an array and are
+ * dispatched with indexed loops, to avoid any allocation per call.
+ */
 @Slf4j
 public class LineaTransactionSelector implements PluginTransactionSelector {
-
   private TraceLineLimitTransactionSelector traceLineLimitTransactionSelector;
-  private final List<PluginTransactionSelector> selectors;
+  private BlockPackingTransactionSelector blockPackingTransactionSelector;
+  private SelectionTimeBudgetTransactionSelector selectionTimeBudgetTransactionSelector;
+  private final PluginTransactionSelector[] selectors;
   private final Optional<JsonRpcManager> rejectedTxJsonRpcManager;
 
   public LineaTransactionSelector(
@@ -49,7 +56,11 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
       final LineaProfitabilityConfiguration profitabilityConfiguration,
       final LineaTracerConfiguration tracerConfiguration,
       final Map<String, Integer> limitsMap,
-      final Optional<JsonRpcManager> rejectedTxJsonRpcManager) {
+      final ModuleLineCountPredictor moduleLineCountPredictor,
+      final Optional<JsonRpcManager> rejectedTxJsonRpcManager,
+      final SelectionTimeBudgetTransactionSelector.Metrics selectionTimeMetrics,
+      final Counter blockedSenderSkippedTxsCounter,
+      final Optional<PendingTxProfitabilityTable> profitabilityTable) {
     this.rejectedTxJsonRpcManager = rejectedTxJsonRpcManager;
     selectors =
         createTransactionSelectors(
@@ -58,7 +69,11 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
             l1L2BridgeConfiguration,
             profitabilityConfiguration,
             tracerConfiguration,
-            limitsMap);
+            limitsMap,
+            moduleLineCountPredictor,
+            selectionTimeMetrics,
+            blockedSenderSkippedTxsCounter,
+            profitabilityTable);
   }
 
   /**
@@ -68,15 +83,23 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
    * @param txSelectorConfiguration The configuration to use.
    * @param profitabilityConfiguration The profitability configuration.
    * @param limitsMap The limits map.
-   * @return A list of selectors.
+   * @param moduleLineCountPredictor The shared module line count predictor.
+   * @param selectionTimeMetrics The selection time metrics.
+   * @param blockedSenderSkippedTxsCounter The counter of the txs skipped for a blocked sender.
+   * @param profitabilityTable The pending tx profitability table, if enabled.
+   * @return An array of selectors.
    */
-  private List<PluginTransactionSelector> createTransactionSelectors(
+  private PluginTransactionSelector[] createTransactionSelectors(
       final BlockchainService blockchainService,
       final LineaTransactionSelectorConfiguration txSelectorConfiguration,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
       final LineaProfitabilityConfiguration profitabilityConfiguration,
       final LineaTracerConfiguration tracerConfiguration,
-      final Map<String, Integer> limitsMap) {
+      final Map<String, Integer> limitsMap,
+      final ModuleLineCountPredictor moduleLineCountPredictor,
+      final SelectionTimeBudgetTransactionSelector.Metrics selectionTimeMetrics,
+      final Counter blockedSenderSkippedTxsCounter,
+      final Optional<PendingTxProfitabilityTable> profitabilityTable) {
 
     traceLineLimitTransactionSelector =
         new TraceLineLimitTransactionSelector(
@@ -84,14 +107,38 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
             limitsMap,
             txSelectorConfiguration,
             l1L2BridgeConfiguration,
-            tracerConfiguration);
+            tracerConfiguration,
+            moduleLineCountPredictor);
 
-    return List.of(
-        new MaxBlockCallDataTransactionSelector(txSelectorConfiguration.maxBlockCallDataSize()),
-        new MaxBlockGasTransactionSelector(txSelectorConfiguration.maxGasPerBlock()),
+    final var maxBlockGasTransactionSelector =
+        new MaxBlockGasTransactionSelector(txSelectorConfiguration.maxGasPerBlock());
+
+    blockPackingTransactionSelector =
+        new BlockPackingTransactionSelector(
+            txSelectorConfiguration.blockPackingMaxAttempts(), maxBlockGasTransactionSelector);
+
+    final var profitableTransactionSelector =
         new ProfitableTransactionSelector(
-            blockchainService, txSelectorConfiguration, profitabilityConfiguration),
-        traceLineLimitTransactionSelector);
+            blockchainService,
+            txSelectorConfiguration,
+            profitabilityConfiguration,
+            profitabilityTable);
+
+    selectionTimeBudgetTransactionSelector =
+        new SelectionTimeBudgetTransactionSelector(
+            txSelectorConfiguration, profitableTransactionSelector, selectionTimeMetrics);
+    traceLineLimitTransactionSelector.setBlockEndListener(
+        selectionTimeBudgetTransactionSelector::onBlockEnd);
+
+    return new PluginTransactionSelector[] {
+      new SkipBlockedSenderTransactionSelector(blockedSenderSkippedTxsCounter),
+      blockPackingTransactionSelector,
+      selectionTimeBudgetTransactionSelector,
+      new MaxBlockCallDataTransactionSelector(txSelectorConfiguration.maxBlockCallDataSize()),
+      maxBlockGasTransactionSelector,
+      profitableTransactionSelector,
+      traceLineLimitTransactionSelector
+    };
   }
 
   /**
@@ -104,16 +151,22 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
   @Override
   public TransactionSelectionResult evaluateTransactionPreProcessing(
       final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext) {
-    return selectors.stream()
-        .map(selector -> selector.evaluateTransactionPreProcessing(evaluationContext))
-        .filter(result -> !result.equals(TransactionSelectionResult.SELECTED))
-        .findFirst()
-        .orElse(TransactionSelectionResult.SELECTED);
+    final long startNanos = selectionTimeBudgetTransactionSelector.now();
+    TransactionSelectionResult result = TransactionSelectionResult.SELECTED;
+    for (int i = 0; i < selectors.length; i++) {
+      result = selectors[i].evaluateTransactionPreProcessing(evaluationContext);
+      if (!result.equals(TransactionSelectionResult.SELECTED)) {
+        break;
+      }
+    }
+    selectionTimeBudgetTransactionSelector.onPreProcessingEnd(startNanos);
+    return result;
   }
 
   /**
    * Evaluates a transaction considering its processing result. Stops if any selector doesn't select
-   * the transaction.
+   * the transaction. If the transaction does not fit in the remaining module line count of the
+   * block, the block packing selector decides if the selection must stop or could continue.
    *
    * @param evaluationContext The current selection context.
    * @param processingResult The result of the transaction processing.
@@ -123,14 +176,23 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
   public TransactionSelectionResult evaluateTransactionPostProcessing(
       final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext,
       final TransactionProcessingResult processingResult) {
-    for (var selector : selectors) {
-      TransactionSelectionResult result =
-          selector.evaluateTransactionPostProcessing(evaluationContext, processingResult);
+    final long startNanos =
+        selectionTimeBudgetTransactionSelector.onPostProcessingStart(processingResult);
+    TransactionSelectionResult result = TransactionSelectionResult.SELECTED;
+    for (int i = 0; i < selectors.length; i++) {
+      result = selectors[i].evaluateTransactionPostProcessing(evaluationContext, processingResult);
       if (!result.equals(TransactionSelectionResult.SELECTED)) {
-        return result;
+        if (result.equals(LineaTransactionSelectionResult.BLOCK_MODULE_LINE_COUNT_FULL)) {
+          result =
+              blockPackingTransactionSelector.onBlockModuleLineCountFull(
+                  evaluationContext, processingResult);
+        }
+        break;
       }
     }
-    return TransactionSelectionResult.SELECTED;
+    selectionTimeBudgetTransactionSelector.addStageTime(
+        SelectionTimeBudgetTransactionSelector.Stage.POST_PROCESSING, startNanos);
+    return result;
   }
 
   /**
@@ -143,8 +205,12 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
   public void onTransactionSelected(
       final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext,
       final TransactionProcessingResult processingResult) {
-    selectors.forEach(
-        selector -> selector.onTransactionSelected(evaluationContext, processingResult));
+    final long startNanos = selectionTimeBudgetTransactionSelector.now();
+    for (int i = 0; i < selectors.length; i++) {
+      selectors[i].onTransactionSelected(evaluationContext, processingResult);
+    }
+    selectionTimeBudgetTransactionSelector.addStageTime(
+        SelectionTimeBudgetTransactionSelector.Stage.NOTIFICATION, startNanos);
   }
 
   /**
@@ -157,23 +223,23 @@ public class LineaTransactionSelector implements PluginTransactionSelector {
   public void onTransactionNotSelected(
       final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext,
       final TransactionSelectionResult transactionSelectionResult) {
-    selectors.forEach(
-        selector ->
-            selector.onTransactionNotSelected(evaluationContext, transactionSelectionResult));
-
-    rejectedTxJsonRpcManager.ifPresent(
-        jsonRpcManager -> {
-          if (transactionSelectionResult.discard()) {
-            jsonRpcManager.submitNewJsonRpcCallAsync(
-                JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
-                    jsonRpcManager.getNodeType(),
-                    evaluationContext.getPendingTransaction().getTransaction(),
-                    Instant.now(),
-                    Optional.of(evaluationContext.getPendingBlockHeader().getNumber()),
-                    transactionSelectionResult.toString(),
-                    List.of()));
-          }
-        });
+    final long startNanos = selectionTimeBudgetTransactionSelector.now();
+    for (int i = 0; i < selectors.length; i++) {
+      selectors[i].onTransactionNotSelected(evaluationContext, transactionSelectionResult);
+    }
+
+    if (transactionSelectionResult.discard() && rejectedTxJsonRpcManager.isPresent()) {
+      final JsonRpcManager jsonRpcManager = rejectedTxJsonRpcManager.get();
+      jsonRpcManager.submitRejectedTxAsync(
+          ReportingStage.TX_SELECTION,
+          evaluationContext.getPendingTransaction().getTransaction(),
+          Optional.of(evaluationContext.getPendingBlockHeader().getNumber()),
+          transactionSelectionResult.toString(),
+          transactionSelectionResult.toString(),
+          List.of());
+    }
+    selectionTimeBudgetTransactionSelector.addStageTime(
+        SelectionTimeBudgetTransactionSelector.Stage.NOTIFICATION, startNanos);
   }
 
   /**
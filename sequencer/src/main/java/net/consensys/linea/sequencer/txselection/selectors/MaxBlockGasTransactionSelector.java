@@ -93,6 +93,16 @@ public class MaxBlockGasTransactionSelector implements PluginTransactionSelector
     }
   }
 
+  /**
+   * Returns the gas that is still available in the block, according to the user configured max
+   * gas per block.
+   *
+   * @return the remaining gas for the block
+   */
+  long remainingBlockGas() {
+    return maxGasPerBlock - cumulativeBlockGasUsed;
+  }
+
   /**
    * If the transaction has been selected, then we add its gas used to the current gas used of the
    * block.
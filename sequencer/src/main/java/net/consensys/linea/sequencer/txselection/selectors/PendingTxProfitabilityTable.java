@@ -0,0 +1,467 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.txselection.selectors;
+
+import static net.consensys.linea.bl.CompressedTxSizeCache.UNKNOWN_SIZE;
+import static net.consensys.linea.bl.TransactionProfitabilityCalculator.NOT_A_LONG;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.bl.CompressedTxSizeCache;
+import net.consensys.linea.bl.TransactionProfitabilityCalculator;
+import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import net.consensys.linea.config.PricingEpoch;
+import net.consensys.linea.config.PricingSnapshot;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.Quantity;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.datatypes.Wei;
+
+/**
+ * Columnar table of the pending transactions, with the compressed size, gas limit, max fee and max
+ * priority fee of each one kept in primitive arrays. When a new head is added or a new pricing
+ * epoch is published, the verdicts of the upfront profitability check of all the transactions are
+ * evaluated in bulk with a single loop over the arrays, and published as an immutable {@link
+ * Evaluation}, with the verdicts kept in a bitmap, so they are ready before the selection of the
+ * next block, instead of being discovered one transaction at a time during the selection. The
+ * evaluation also indexes the expected margins of the transactions in ascending order, so when the
+ * selection is short of time, it can skip the transactions under the margin of the best ones that
+ * could still be selected.
+ *
+ * <p>The compressed size is taken from the {@link CompressedTxSizeCache} filled by the txpool
+ * validators, so the pool events only copy a few fields. The transactions not compressed by the
+ * validators are compressed at the next evaluation, outside the lock, and not on the pool event
+ * thread.
+ *
+ * <p>The selection reads the last evaluation without locking, and it never evaluates the table on
+ * the block creation thread. The table is evaluated again on every new head if any transaction was
+ * added, even if the inputs did not change. A transaction added after the last evaluation, or not
+ * in the table, because the table was full or it was added before the plugin started, or with
+ * amounts that do not fit a long, has an unknown verdict, and its profitability is checked as
+ * usual. The same happens for all the transactions if the pricing, the base fee or the min gas
+ * price of the selection differ from the ones of the last evaluation.
+ */
+@Slf4j
+public class PendingTxProfitabilityTable {
+  /** The verdict of the upfront profitability check of a pending transaction. */
+  public enum Verdict {
+    PROFITABLE,
+    UNPROFITABLE,
+    UNKNOWN
+  }
+
+  /**
+   * The immutable result of a bulk evaluation, with the slot of each evaluated transaction in the
+   * bitmap and in the expected margins, and the expected margins of all the evaluated transactions
+   * in ascending order, that is the margin index.
+   */
+  private record Evaluation(
+      long pricingVersion,
+      long baseFee,
+      long minGasPrice,
+      Map<Hash, Integer> slots,
+      long[] profitableBits,
+      double[] margins,
+      double[] sortedMargins) {
+
+    boolean hasInputs(final long pricingVersion, final long baseFee, final long minGasPrice) {
+      return this.pricingVersion == pricingVersion
+          && this.baseFee == baseFee
+          && this.minGasPrice == minGasPrice;
+    }
+  }
+
+  private final int capacity;
+  private final LineaProfitabilityConfiguration profitabilityConf;
+  private final Supplier<Wei> minGasPriceSupplier;
+  private final CompressedTxSizeCache compressedTxSizeCache;
+  private final Map<Hash, Integer> slots;
+  private final Map<Hash, Transaction> uncompressedTxs;
+
+  private final Hash[] hashes;
+  private final int[] compressedSizes;
+  private final long[] gasLimits;
+  private final long[] maxFeesPerGas;
+  private final long[] maxPriorityFeesPerGas;
+  private int size;
+
+  private volatile Evaluation evaluation;
+  private long lastBaseFee = NOT_A_LONG;
+  private boolean addedSinceEvaluation;
+
+  /**
+   * Creates a new table.
+   *
+   * @param capacity the max number of pending transactions kept in the table
+   * @param profitabilityConf the profitability configuration
+   * @param minGasPriceSupplier supplies the current min gas price of the node
+   */
+  public PendingTxProfitabilityTable(
+      final int capacity,
+      final LineaProfitabilityConfiguration profitabilityConf,
+      final Supplier<Wei> minGasPriceSupplier) {
+    this(
+        capacity,
+        profitabilityConf,
+        minGasPriceSupplier,
+        profitabilityConf.compressedTxSizeCache());
+  }
+
+  @VisibleForTesting
+  PendingTxProfitabilityTable(
+      final int capacity,
+      final LineaProfitabilityConfiguration profitabilityConf,
+      final Supplier<Wei> minGasPriceSupplier,
+      final CompressedTxSizeCache compressedTxSizeCache) {
+    this.capacity = capacity;
+    this.profitabilityConf = profitabilityConf;
+    this.minGasPriceSupplier = minGasPriceSupplier;
+    this.compressedTxSizeCache = compressedTxSizeCache;
+    this.slots = new HashMap<>();
+    this.uncompressedTxs = new HashMap<>();
+    this.hashes = new Hash[capacity];
+    this.compressedSizes = new int[capacity];
+    this.gasLimits = new long[capacity];
+    this.maxFeesPerGas = new long[capacity];
+    this.maxPriorityFeesPerGas = new long[capacity];
+  }
+
+  /**
+   * Adds a transaction just added to the pool, with its compressed size if the txpool validators
+   * already computed it, otherwise it is compressed at the next evaluation.
+   *
+   * @param transaction the pending transaction
+   */
+  public void onTransactionAdded(final Transaction transaction) {
+    final long maxFeePerGas;
+    final long maxPriorityFeePerGas;
+    if (transaction.getMaxFeePerGas().isPresent()) {
+      maxFeePerGas = toLong(transaction.getMaxFeePerGas().get());
+      maxPriorityFeePerGas =
+          transaction.getMaxPriorityFeePerGas().map(this::toLong).orElse(NOT_A_LONG);
+    } else {
+      // the effective gas price of a legacy tx is always its gas price
+      maxFeePerGas = transaction.getGasPrice().map(this::toLong).orElse(NOT_A_LONG);
+      maxPriorityFeePerGas = maxFeePerGas;
+    }
+    add(
+        transaction,
+        compressedTxSizeCache.cachedSize(transaction.getHash()),
+        maxFeePerGas,
+        maxPriorityFeePerGas);
+  }
+
+  private synchronized void add(
+      final Transaction transaction,
+      final int compressedSize,
+      final long maxFeePerGas,
+      final long maxPriorityFeePerGas) {
+    final Hash hash = transaction.getHash();
+    if (size == capacity || slots.containsKey(hash)) {
+      return;
+    }
+    final int slot = size++;
+    hashes[slot] = hash;
+    compressedSizes[slot] = compressedSize;
+    gasLimits[slot] = transaction.getGasLimit();
+    maxFeesPerGas[slot] = maxFeePerGas;
+    maxPriorityFeesPerGas[slot] = maxPriorityFeePerGas;
+    slots.put(hash, slot);
+    addedSinceEvaluation = true;
+    if (compressedSize == UNKNOWN_SIZE) {
+      uncompressedTxs.put(hash, transaction);
+    }
+  }
+
+  /**
+   * Removes a transaction that left the pool, moving the last one in its slot to keep the arrays
+   * dense. The last evaluation is not changed, since its verdict for the removed transaction is not
+   * going to be asked anymore.
+   *
+   * @param hash the hash of the transaction
+   */
+  public synchronized void remove(final Hash hash) {
+    final Integer slot = slots.remove(hash);
+    if (slot == null) {
+      return;
+    }
+    uncompressedTxs.remove(hash);
+    final int last = --size;
+    if (slot != last) {
+      hashes[slot] = hashes[last];
+      compressedSizes[slot] = compressedSizes[last];
+      gasLimits[slot] = gasLimits[last];
+      maxFeesPerGas[slot] = maxFeesPerGas[last];
+      maxPriorityFeesPerGas[slot] = maxPriorityFeesPerGas[last];
+      slots.put(hashes[slot], slot);
+    }
+    hashes[last] = null;
+  }
+
+  /**
+   * Removes the transactions included in a new block, and evaluates the table for the base fee of
+   * the next block, so the verdicts are ready when its selection starts.
+   *
+   * @param transactions the transactions of the new block
+   * @param nextBaseFee the base fee of the next block
+   */
+  public void onBlockAdded(final List<? extends Transaction> transactions, final Wei nextBaseFee) {
+    synchronized (this) {
+      for (int i = 0; i < transactions.size(); i++) {
+        remove(transactions.get(i).getHash());
+      }
+      if (!nextBaseFee.fitsLong()) {
+        return;
+      }
+      lastBaseFee = nextBaseFee.toLong();
+    }
+    evaluate(profitabilityConf.pricingSnapshot());
+  }
+
+  /**
+   * Evaluates the table as soon as a new pricing epoch is published, with the pricing of the epoch
+   * and the base fee of the last block, so the verdicts are ready when the next selection starts.
+   * When the extra data sets the min gas price, the node already has the one of the epoch.
+   *
+   * @param pricingEpoch the new pricing epoch
+   */
+  public void onPricingEpoch(final PricingEpoch pricingEpoch) {
+    evaluate(pricingEpoch.pricing());
+  }
+
+  /**
+   * Returns the verdict of the upfront profitability check of a pending transaction, using its gas
+   * limit, from the last evaluation, without locking. If the inputs differ from the ones of the
+   * last evaluation, the verdict is unknown.
+   *
+   * @param hash the hash of the transaction
+   * @param baseFee the base fee of the block being created
+   * @param minGasPrice the current min gas price
+   * @return the verdict, or UNKNOWN if the profitability must be checked as usual
+   */
+  public Verdict verdict(final Hash hash, final Wei baseFee, final Wei minGasPrice) {
+    final Evaluation current = currentEvaluation(baseFee, minGasPrice);
+    final Integer slot = current != null ? current.slots().get(hash) : null;
+    if (slot == null) {
+      return Verdict.UNKNOWN;
+    }
+    return getBit(current.profitableBits(), slot) ? Verdict.PROFITABLE : Verdict.UNPROFITABLE;
+  }
+
+  /**
+   * Returns the expected margin of a pending transaction from the last evaluation, that is the
+   * priority fee per gas it pays, using its gas limit, divided by the cost per gas of its
+   * compressed size, so the break-even line is a margin of 1.
+   *
+   * @param hash the hash of the transaction
+   * @param baseFee the base fee of the block being created
+   * @param minGasPrice the current min gas price
+   * @return the expected margin, or NaN if it is unknown
+   */
+  public double expectedMargin(final Hash hash, final Wei baseFee, final Wei minGasPrice) {
+    final Evaluation current = currentEvaluation(baseFee, minGasPrice);
+    final Integer slot = current != null ? current.slots().get(hash) : null;
+    return slot != null ? current.margins()[slot] : Double.NaN;
+  }
+
+  /**
+   * Returns the lowest expected margin among the given number of pending transactions with the
+   * highest margins, from the margin index of the last evaluation, in O(1), so the tail of the pool
+   * under it could be skipped.
+   *
+   * @param count the number of pending transactions with the highest margins
+   * @param baseFee the base fee of the block being created
+   * @param minGasPrice the current min gas price
+   * @return the lowest expected margin among the best ones, or negative infinity if there are not
+   *     more evaluated transactions than the given number, or the margins are unknown
+   */
+  public double lowestMarginOfTheBest(final int count, final Wei baseFee, final Wei minGasPrice) {
+    final Evaluation current = currentEvaluation(baseFee, minGasPrice);
+    if (current == null || count >= current.sortedMargins().length) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    return current.sortedMargins()[current.sortedMargins().length - Math.max(count, 1)];
+  }
+
+  private Evaluation currentEvaluation(final Wei baseFee, final Wei minGasPrice) {
+    final Evaluation current = evaluation;
+    if (current == null
+        || !baseFee.fitsLong()
+        || !minGasPrice.fitsLong()
+        || !current.hasInputs(
+            profitabilityConf.pricingSnapshot().version(),
+            baseFee.toLong(),
+            minGasPrice.toLong())) {
+      return null;
+    }
+    return current;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  @VisibleForTesting
+  long evaluatedPricingVersion() {
+    final Evaluation current = evaluation;
+    return current != null ? current.pricingVersion() : -1;
+  }
+
+  @VisibleForTesting
+  long evaluatedMinGasPrice() {
+    final Evaluation current = evaluation;
+    return current != null ? current.minGasPrice() : NOT_A_LONG;
+  }
+
+  private void evaluate(final PricingSnapshot pricing) {
+    final Wei currentMinGasPrice = minGasPriceSupplier.get();
+    if (!currentMinGasPrice.fitsLong()) {
+      return;
+    }
+    final long minGasPrice = currentMinGasPrice.toLong();
+    compressPendingTxs();
+    synchronized (this) {
+      final long baseFee = lastBaseFee;
+      final Evaluation previous = evaluation;
+      if (baseFee == NOT_A_LONG
+          || (!addedSinceEvaluation
+              && previous != null
+              && previous.hasInputs(pricing.version(), baseFee, minGasPrice))) {
+        return;
+      }
+      addedSinceEvaluation = false;
+      final long startNanos = System.nanoTime();
+      final double minMargin = profitabilityConf.minMargin();
+      final long fixedCostWei = pricing.fixedCostWei();
+      final long variableCostWei =
+          profitabilityConf.extraDataPricingEnabled() ? pricing.variableCostWei() : minGasPrice;
+
+      final Map<Hash, Integer> evaluatedSlots = HashMap.newHashMap(size);
+      final long[] profitableBits = new long[(size + Long.SIZE - 1) / Long.SIZE];
+      final double[] margins = new double[size];
+      final double[] sortedMargins = new double[size];
+      for (int slot = 0; slot < size; slot++) {
+        final Verdict verdict =
+            evaluateSlot(slot, minMargin, fixedCostWei, variableCostWei, baseFee, margins);
+        if (verdict != Verdict.UNKNOWN) {
+          sortedMargins[evaluatedSlots.size()] = margins[slot];
+          evaluatedSlots.put(hashes[slot], slot);
+          if (verdict == Verdict.PROFITABLE) {
+            setBit(profitableBits, slot);
+          }
+        }
+      }
+      final double[] marginIndex = Arrays.copyOf(sortedMargins, evaluatedSlots.size());
+      Arrays.sort(marginIndex);
+      evaluation =
+          new Evaluation(
+              pricing.version(),
+              baseFee,
+              minGasPrice,
+              evaluatedSlots,
+              profitableBits,
+              margins,
+              marginIndex);
+
+      log.atTrace()
+          .setMessage("Evaluated profitability of {} pending txs in {}ns, pricing version {}")
+          .addArgument(size)
+          .addArgument(System.nanoTime() - startNanos)
+          .addArgument(pricing.version())
+          .log();
+    }
+  }
+
+  /** Compresses the transactions whose size was not cached, outside the lock. */
+  private void compressPendingTxs() {
+    final List<Transaction> toCompress;
+    synchronized (this) {
+      if (uncompressedTxs.isEmpty()) {
+        return;
+      }
+      toCompress = new ArrayList<>(uncompressedTxs.values());
+    }
+    final int[] sizes = new int[toCompress.size()];
+    for (int i = 0; i < sizes.length; i++) {
+      sizes[i] = compressedTxSizeCache.compressedSize(toCompress.get(i));
+    }
+    synchronized (this) {
+      for (int i = 0; i < sizes.length; i++) {
+        final Hash hash = toCompress.get(i).getHash();
+        // the tx could have been removed in the meantime
+        if (uncompressedTxs.remove(hash) != null) {
+          compressedSizes[slots.get(hash)] = sizes[i];
+        }
+      }
+    }
+  }
+
+  private Verdict evaluateSlot(
+      final int slot,
+      final double minMargin,
+      final long fixedCostWei,
+      final long variableCostWei,
+      final long baseFee,
+      final double[] margins) {
+    final long maxFeePerGas = maxFeesPerGas[slot];
+    final long maxPriorityFeePerGas = maxPriorityFeesPerGas[slot];
+    if (compressedSizes[slot] == UNKNOWN_SIZE
+        || maxFeePerGas == NOT_A_LONG
+        || maxPriorityFeePerGas == NOT_A_LONG) {
+      return Verdict.UNKNOWN;
+    }
+    final long profitAt =
+        TransactionProfitabilityCalculator.profitablePriorityFeePerGasWei(
+            minMargin, variableCostWei, fixedCostWei, compressedSizes[slot], gasLimits[slot]);
+    if (profitAt == NOT_A_LONG || profitAt > Long.MAX_VALUE - baseFee) {
+      return Verdict.UNKNOWN;
+    }
+    final long gasPrice =
+        maxPriorityFeePerGas <= Long.MAX_VALUE - baseFee
+            ? Math.min(maxFeePerGas, baseFee + maxPriorityFeePerGas)
+            : maxFeePerGas;
+    // the cost per gas is the profitable priority fee per gas with a margin of 1
+    final long costPerGas =
+        TransactionProfitabilityCalculator.profitablePriorityFeePerGasWei(
+            1.0, variableCostWei, fixedCostWei, compressedSizes[slot], gasLimits[slot]);
+    if (costPerGas == NOT_A_LONG) {
+      return Verdict.UNKNOWN;
+    }
+    margins[slot] =
+        costPerGas > 0 ? (double) (gasPrice - baseFee) / costPerGas : Double.POSITIVE_INFINITY;
+    return gasPrice >= baseFee + profitAt ? Verdict.PROFITABLE : Verdict.UNPROFITABLE;
+  }
+
+  private long toLong(final Quantity quantity) {
+    final BigInteger value = quantity.getAsBigInteger();
+    return value.bitLength() < Long.SIZE ? value.longValue() : NOT_A_LONG;
+  }
+
+  private static boolean getBit(final long[] bits, final int index) {
+    return (bits[index >>> 6] & (1L << index)) != 0;
+  }
+
+  private static void setBit(final long[] bits, final int index) {
+    bits[index >>> 6] |= 1L << index;
+  }
+}
@@ -20,6 +20,7 @@ import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectio
 import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
 
 import java.util.LinkedHashSet;
+import java.util.Optional;
 import java.util.Set;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -53,6 +54,7 @@ public class ProfitableTransactionSelector implements PluginTransactionSelector
   private final LineaTransactionSelectorConfiguration txSelectorConf;
   private final LineaProfitabilityConfiguration profitabilityConf;
   private final TransactionProfitabilityCalculator transactionProfitabilityCalculator;
+  private final Optional<PendingTxProfitabilityTable> profitabilityTable;
   private final Wei baseFee;
 
   private int unprofitableRetries;
@@ -61,7 +63,16 @@ public class ProfitableTransactionSelector implements PluginTransactionSelector
       final BlockchainService blockchainService,
       final LineaTransactionSelectorConfiguration txSelectorConf,
       final LineaProfitabilityConfiguration profitabilityConf) {
+    this(blockchainService, txSelectorConf, profitabilityConf, Optional.empty());
+  }
+
+  public ProfitableTransactionSelector(
+      final BlockchainService blockchainService,
+      final LineaTransactionSelectorConfiguration txSelectorConf,
+      final LineaProfitabilityConfiguration profitabilityConf,
+      final Optional<PendingTxProfitabilityTable> profitabilityTable) {
     this.txSelectorConf = txSelectorConf;
+    this.profitabilityTable = profitabilityTable;
     this.profitabilityConf = profitabilityConf;
     this.transactionProfitabilityCalculator =
         new TransactionProfitabilityCalculator(profitabilityConf);
@@ -72,8 +83,9 @@ public class ProfitableTransactionSelector implements PluginTransactionSelector
   }
 
   /**
-   * Evaluates a transaction before processing. Checks if it is profitable using its gas limit. If
-   * the transaction was found to be unprofitable during a previous block creation process, it is
+   * Evaluates a transaction before processing. Checks if it is profitable using its gas limit,
+   * taking the verdict from the pending tx profitability table when it is known. If the
+   * transaction was found to be unprofitable during a previous block creation process, it is
    * retried, since the gas price market could now make it profitable, but only a configurable
    * amount of these transactions is retried each time, to avoid that they could potentially consume
    * all the time allocated to block creation.
@@ -95,14 +107,20 @@ public class ProfitableTransactionSelector implements PluginTransactionSelector
       final long gasLimit = transaction.getGasLimit();
 
       // check the upfront profitability using the gas limit of the tx
-      if (!transactionProfitabilityCalculator.isProfitable(
-          "PreProcessing",
-          transaction,
-          profitabilityConf.minMargin(),
-          baseFee,
-          evaluationContext.getTransactionGasPrice(),
-          gasLimit,
-          minGasPrice)) {
+      final PendingTxProfitabilityTable.Verdict verdict =
+          profitabilityTable.isPresent()
+              ? profitabilityTable.get().verdict(transaction.getHash(), baseFee, minGasPrice)
+              : PendingTxProfitabilityTable.Verdict.UNKNOWN;
+      if (verdict == PendingTxProfitabilityTable.Verdict.UNPROFITABLE
+          || (verdict == PendingTxProfitabilityTable.Verdict.UNKNOWN
+              && !transactionProfitabilityCalculator.isProfitable(
+                  "PreProcessing",
+                  transaction,
+                  profitabilityConf.minMargin(),
+                  baseFee,
+                  evaluationContext.getTransactionGasPrice(),
+                  gasLimit,
+                  minGasPrice))) {
         return TX_UNPROFITABLE_UPFRONT;
       }
 
@@ -127,6 +145,42 @@ public class ProfitableTransactionSelector implements PluginTransactionSelector
     return SELECTED;
   }
 
+  /**
+   * Stops retrying the unprofitable transactions for the rest of this block creation process, for
+   * example when the remaining time for the selection is low.
+   */
+  public void stopUnprofitableRetries() {
+    unprofitableRetries = txSelectorConf.unprofitableRetryLimit();
+  }
+
+  /**
+   * Returns the expected margin of a pending transaction for the block being created, from the
+   * pending tx profitability table.
+   *
+   * @param hash the hash of the transaction
+   * @param minGasPrice the current min gas price
+   * @return the expected margin, or NaN if it is unknown
+   */
+  public double expectedMargin(final Hash hash, final Wei minGasPrice) {
+    return profitabilityTable.isPresent()
+        ? profitabilityTable.get().expectedMargin(hash, baseFee, minGasPrice)
+        : Double.NaN;
+  }
+
+  /**
+   * Returns the lowest expected margin among the given number of pending transactions with the
+   * highest margins for the block being created, from the pending tx profitability table.
+   *
+   * @param count the number of pending transactions with the highest margins
+   * @param minGasPrice the current min gas price
+   * @return the lowest expected margin among the best ones, or negative infinity if it is unknown
+   */
+  public double lowestMarginOfTheBest(final int count, final Wei minGasPrice) {
+    return profitabilityTable.isPresent()
+        ? profitabilityTable.get().lowestMarginOfTheBest(count, baseFee, minGasPrice)
+        : Double.NEGATIVE_INFINITY;
+  }
+
   /**
    * Evaluates a transaction post-processing. Checks if it is profitable according to its gas used.
    * If unprofitable, the transaction is added to the unprofitable cache, to be retried in the
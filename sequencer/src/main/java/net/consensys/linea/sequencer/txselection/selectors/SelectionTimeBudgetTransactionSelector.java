@@ -0,0 +1,310 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.txselection.selectors;
+
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_SKIPPED_BY_LOW_SELECTION_TIME;
+import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
+import net.consensys.linea.metrics.LineaMetricCategory;
+import org.hyperledger.besu.datatypes.PendingTransaction;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.plugin.data.BlockHeader;
+import org.hyperledger.besu.plugin.data.TransactionProcessingResult;
+import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelector;
+import org.hyperledger.besu.plugin.services.txselection.TransactionEvaluationContext;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * This class implements TransactionSelector and keeps track of the time spent by each stage of the
+ * selection of every transaction, using a monotonic clock, to manage the time budget for the
+ * selection of the transactions of a block. The execution stage includes the tracing, since they
+ * are performed together. When the remaining time goes under a configurable percentage of the
+ * budget, cheaper selection policies are used: unprofitable transactions are no more retried and
+ * transactions whose projected execution time, based on the average execution time per gas unit,
+ * is greater than the remaining time are skipped, to prefer smaller transactions. When the pending
+ * tx profitability table is enabled, the transactions whose expected margin is under the margin of
+ * the best pending transactions that could still be evaluated in the remaining time, at the average
+ * time per transaction so far, are skipped too, to prefer the most valuable ones. The time spent by
+ * each stage is exported as metrics and logged at the end of the block.
+ */
+@Slf4j
+public class SelectionTimeBudgetTransactionSelector implements PluginTransactionSelector {
+  private static final Marker BLOCK_SELECTION_TIME_MARKER =
+      MarkerFactory.getMarker("BLOCK_SELECTION_TIME");
+  private static final double EXECUTION_NANOS_PER_GAS_SMOOTHING = 0.1;
+
+  /** The stages of the selection of a transaction. */
+  public enum Stage {
+    PRE_PROCESSING,
+    EXECUTION,
+    POST_PROCESSING,
+    NOTIFICATION;
+
+    private final String label = name().toLowerCase(Locale.ROOT);
+  }
+
+  private final long budgetNanos;
+  private final long lowTimeNanos;
+  private final ProfitableTransactionSelector profitableTransactionSelector;
+  private final Metrics metrics;
+  private final LongSupplier nanoClock;
+  private final long startNanos;
+  private final long[] stageNanos = new long[Stage.values().length];
+
+  private long executionStartNanos;
+  private boolean lowTime;
+  private double lowTimeMinMargin = Double.NEGATIVE_INFINITY;
+  private int evaluatedTxs;
+  private int lowTimeSkippedTxs;
+
+  public SelectionTimeBudgetTransactionSelector(
+      final LineaTransactionSelectorConfiguration txSelectorConfiguration,
+      final ProfitableTransactionSelector profitableTransactionSelector,
+      final Metrics metrics) {
+    this(txSelectorConfiguration, profitableTransactionSelector, metrics, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  SelectionTimeBudgetTransactionSelector(
+      final LineaTransactionSelectorConfiguration txSelectorConfiguration,
+      final ProfitableTransactionSelector profitableTransactionSelector,
+      final Metrics metrics,
+      final LongSupplier nanoClock) {
+    this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(txSelectorConfiguration.selectionTimeBudget());
+    this.lowTimeNanos = budgetNanos * txSelectorConfiguration.selectionLowTimePercentage() / 100;
+    this.profitableTransactionSelector = profitableTransactionSelector;
+    this.metrics = metrics;
+    this.nanoClock = nanoClock;
+    this.startNanos = nanoClock.getAsLong();
+  }
+
+  /**
+   * Evaluates a transaction before processing. When the remaining time is low, the transactions
+   * that are projected to take more than the remaining time to execute, or whose expected margin is
+   * under the one of the best pending transactions that could still be evaluated, are skipped.
+   *
+   * @param evaluationContext The current selection context.
+   * @return TX_SKIPPED_BY_LOW_SELECTION_TIME if the remaining time is low and the transaction is
+   *     projected to not execute in it, or its margin is too low, otherwise SELECTED.
+   */
+  @Override
+  public TransactionSelectionResult evaluateTransactionPreProcessing(
+      final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext) {
+    evaluatedTxs++;
+
+    if (budgetNanos == 0) {
+      return SELECTED;
+    }
+
+    final long remainingNanos = budgetNanos - (nanoClock.getAsLong() - startNanos);
+    if (remainingNanos > lowTimeNanos) {
+      return SELECTED;
+    }
+
+    if (!lowTime) {
+      lowTime = true;
+      profitableTransactionSelector.stopUnprofitableRetries();
+      // the number of txs that could still be evaluated, at the average time per tx so far
+      final long elapsedNanos = budgetNanos - remainingNanos;
+      final long remainingTxs = remainingNanos * evaluatedTxs / Math.max(elapsedNanos, 1);
+      lowTimeMinMargin =
+          profitableTransactionSelector.lowestMarginOfTheBest(
+              (int) Math.min(remainingTxs, Integer.MAX_VALUE), evaluationContext.getMinGasPrice());
+      metrics.lowTimeBlocks.inc();
+      log.atDebug()
+          .setMessage(
+              "Remaining selection time {}ms for block {} is low, switching to cheaper policies")
+          .addArgument(() -> TimeUnit.NANOSECONDS.toMillis(remainingNanos))
+          .addArgument(evaluationContext.getPendingBlockHeader()::getNumber)
+          .log();
+    }
+
+    final Transaction transaction = evaluationContext.getPendingTransaction().getTransaction();
+    final double projectedNanos = transaction.getGasLimit() * metrics.avgExecutionNanosPerGas;
+    if (projectedNanos > remainingNanos) {
+      log.atTrace()
+          .setMessage("Tx {} projected execution time {}ns is above the remaining time {}ns")
+          .addArgument(transaction::getHash)
+          .addArgument(() -> (long) projectedNanos)
+          .addArgument(remainingNanos)
+          .log();
+      lowTimeSkippedTxs++;
+      metrics.lowTimeSkippedTxs.inc();
+      return TX_SKIPPED_BY_LOW_SELECTION_TIME;
+    }
+
+    if (lowTimeMinMargin > Double.NEGATIVE_INFINITY) {
+      final double margin =
+          profitableTransactionSelector.expectedMargin(
+              transaction.getHash(), evaluationContext.getMinGasPrice());
+      // an unknown margin is NaN, so the tx is not skipped
+      if (margin < lowTimeMinMargin) {
+        log.atTrace()
+            .setMessage("Tx {} expected margin {} is under the margin {} of the best pending txs")
+            .addArgument(transaction::getHash)
+            .addArgument(margin)
+            .addArgument(lowTimeMinMargin)
+            .log();
+        lowTimeSkippedTxs++;
+        metrics.lowTimeSkippedTxs.inc();
+        return TX_SKIPPED_BY_LOW_SELECTION_TIME;
+      }
+    }
+    return SELECTED;
+  }
+
+  /**
+   * No evaluation is performed post-processing.
+   *
+   * @param evaluationContext The current selection context.
+   * @param processingResult The result of the transaction processing.
+   * @return Always returns SELECTED.
+   */
+  @Override
+  public TransactionSelectionResult evaluateTransactionPostProcessing(
+      final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext,
+      final TransactionProcessingResult processingResult) {
+    return SELECTED;
+  }
+
+  /**
+   * Returns the current value of the monotonic clock, to be used as start of a stage.
+   *
+   * @return the current value of the monotonic clock in nanoseconds
+   */
+  public long now() {
+    return nanoClock.getAsLong();
+  }
+
+  /**
+   * Adds the time elapsed from the start of the stage to the time spent by that stage.
+   *
+   * @param stage the stage
+   * @param stageStartNanos the start of the stage, as returned by {@link #now()}
+   * @return the end of the stage
+   */
+  public long addStageTime(final Stage stage, final long stageStartNanos) {
+    final long stageEndNanos = nanoClock.getAsLong();
+    stageNanos[stage.ordinal()] += stageEndNanos - stageStartNanos;
+    return stageEndNanos;
+  }
+
+  /**
+   * Called at the end of the pre-processing of a transaction, that is also the start of its
+   * execution.
+   *
+   * @param preProcessingStartNanos the start of the pre-processing
+   */
+  public void onPreProcessingEnd(final long preProcessingStartNanos) {
+    executionStartNanos = addStageTime(Stage.PRE_PROCESSING, preProcessingStartNanos);
+  }
+
+  /**
+   * Called at the start of the post-processing of a transaction, that is also the end of its
+   * execution, to account the execution time and update the average execution time per gas unit.
+   *
+   * @param processingResult the result of the transaction processing
+   * @return the start of the post-processing
+   */
+  public long onPostProcessingStart(final TransactionProcessingResult processingResult) {
+    final long postProcessingStartNanos = nanoClock.getAsLong();
+    final long executionNanos = postProcessingStartNanos - executionStartNanos;
+    stageNanos[Stage.EXECUTION.ordinal()] += executionNanos;
+
+    final long gasUsed = processingResult.getEstimateGasUsedByTransaction();
+    if (gasUsed > 0) {
+      final double nanosPerGas = (double) executionNanos / gasUsed;
+      final double avg = metrics.avgExecutionNanosPerGas;
+      metrics.avgExecutionNanosPerGas =
+          avg == 0
+              ? nanosPerGas
+              : avg + EXECUTION_NANOS_PER_GAS_SMOOTHING * (nanosPerGas - avg);
+    }
+    return postProcessingStartNanos;
+  }
+
+  /**
+   * Called at the end of the block, to export the time spent by each stage.
+   *
+   * @param blockHeader the header of the block
+   */
+  public void onBlockEnd(final BlockHeader blockHeader) {
+    for (final Stage stage : Stage.values()) {
+      metrics.stageTime.labels(stage.label).inc(stageNanos[stage.ordinal()]);
+    }
+
+    log.atDebug()
+        .addMarker(BLOCK_SELECTION_TIME_MARKER)
+        .addKeyValue("blockNumber", blockHeader::getNumber)
+        .addKeyValue("blockHash", blockHeader::getBlockHash)
+        .addKeyValue("elapsedMs", () -> TimeUnit.NANOSECONDS.toMillis(now() - startNanos))
+        .addKeyValue("evaluatedTxs", evaluatedTxs)
+        .addKeyValue("lowTime", lowTime)
+        .addKeyValue("lowTimeSkippedTxs", lowTimeSkippedTxs)
+        .addKeyValue("preProcessingNs", stageNanos[Stage.PRE_PROCESSING.ordinal()])
+        .addKeyValue("executionNs", stageNanos[Stage.EXECUTION.ordinal()])
+        .addKeyValue("postProcessingNs", stageNanos[Stage.POST_PROCESSING.ordinal()])
+        .addKeyValue("notificationNs", stageNanos[Stage.NOTIFICATION.ordinal()])
+        .log();
+  }
+
+  @VisibleForTesting
+  long getStageNanos(final Stage stage) {
+    return stageNanos[stage.ordinal()];
+  }
+
+  /**
+   * The metrics of the selection time, created once by the factory and shared by all the blocks,
+   * together with the execution time per gas unit, that is averaged over the blocks.
+   */
+  public static class Metrics {
+    private final LabelledMetric<Counter> stageTime;
+    private final Counter lowTimeBlocks;
+    private final Counter lowTimeSkippedTxs;
+
+    @VisibleForTesting volatile double avgExecutionNanosPerGas;
+
+    public Metrics(final MetricsSystem metricsSystem) {
+      stageTime =
+          metricsSystem.createLabelledCounter(
+              LineaMetricCategory.SEQUENCER_SELECTION,
+              "stage_time_nanoseconds_total",
+              "Time spent by each stage of the transaction selection",
+              "stage");
+      lowTimeBlocks =
+          metricsSystem.createCounter(
+              LineaMetricCategory.SEQUENCER_SELECTION,
+              "low_time_blocks_total",
+              "Number of blocks whose remaining selection time went low");
+      lowTimeSkippedTxs =
+          metricsSystem.createCounter(
+              LineaMetricCategory.SEQUENCER_SELECTION,
+              "low_time_skipped_txs_total",
+              "Number of transactions skipped because of low remaining selection time");
+    }
+  }
+}
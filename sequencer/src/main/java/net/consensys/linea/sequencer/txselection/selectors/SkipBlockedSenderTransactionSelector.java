@@ -0,0 +1,128 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.txselection.selectors;
+
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_GAS_EXCEEDS_USER_MAX_BLOCK_GAS;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_MODULE_LINE_COUNT_OVERFLOW;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_MODULE_LINE_COUNT_OVERFLOW_CACHED;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_PREVIOUS_NONCE_NOT_SELECTED;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_UNPROFITABLE;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_UNPROFITABLE_RETRY_LIMIT;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_UNPROFITABLE_UPFRONT;
+import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.PendingTransaction;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.plugin.data.TransactionProcessingResult;
+import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.txselection.PluginTransactionSelector;
+import org.hyperledger.besu.plugin.services.txselection.TransactionEvaluationContext;
+
+/**
+ * This class implements TransactionSelector and keeps track of the senders that had a transaction
+ * not selected during the current block creation, since their transactions with a greater nonce
+ * cannot be included in this block, and so they are skipped without evaluating them. Only the
+ * results that depend on the transaction itself block its sender, like when it was found to be
+ * unprofitable or to go over the line count limit, while for example a transaction with a nonce too
+ * low does not prevent the next ones from being selected.
+ */
+@Slf4j
+public class SkipBlockedSenderTransactionSelector implements PluginTransactionSelector {
+  private static final Set<TransactionSelectionResult> BLOCKING_RESULTS =
+      Set.of(
+          TX_UNPROFITABLE,
+          TX_UNPROFITABLE_UPFRONT,
+          TX_UNPROFITABLE_RETRY_LIMIT,
+          TX_MODULE_LINE_COUNT_OVERFLOW,
+          TX_MODULE_LINE_COUNT_OVERFLOW_CACHED,
+          TX_GAS_EXCEEDS_USER_MAX_BLOCK_GAS);
+
+  private final Counter skippedTxsCounter;
+  private final Map<Address, Long> blockedNonceBySender = new HashMap<>();
+
+  public SkipBlockedSenderTransactionSelector(final Counter skippedTxsCounter) {
+    this.skippedTxsCounter = skippedTxsCounter;
+  }
+
+  /**
+   * Evaluates a transaction before processing. Checks if a transaction of the same sender, with a
+   * lower nonce, was not selected for this block.
+   *
+   * @param evaluationContext The current selection context.
+   * @return TX_PREVIOUS_NONCE_NOT_SELECTED if a transaction of the sender with a lower nonce was
+   *     not selected, otherwise SELECTED.
+   */
+  @Override
+  public TransactionSelectionResult evaluateTransactionPreProcessing(
+      final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext) {
+    if (blockedNonceBySender.isEmpty()) {
+      return SELECTED;
+    }
+
+    final Transaction transaction = evaluationContext.getPendingTransaction().getTransaction();
+    final Long blockedNonce = blockedNonceBySender.get(transaction.getSender());
+    if (blockedNonce != null && transaction.getNonce() > blockedNonce) {
+      log.atTrace()
+          .setMessage("Tx {} skipped since tx of sender {} with nonce {} was not selected")
+          .addArgument(transaction::getHash)
+          .addArgument(transaction::getSender)
+          .addArgument(blockedNonce)
+          .log();
+      skippedTxsCounter.inc();
+      return TX_PREVIOUS_NONCE_NOT_SELECTED;
+    }
+    return SELECTED;
+  }
+
+  /**
+   * No evaluation is performed post-processing.
+   *
+   * @param evaluationContext The current selection context.
+   * @param processingResult The result of the transaction processing.
+   * @return Always returns SELECTED.
+   */
+  @Override
+  public TransactionSelectionResult evaluateTransactionPostProcessing(
+      final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext,
+      final TransactionProcessingResult processingResult) {
+    return SELECTED;
+  }
+
+  /**
+   * Remembers the sender of the not selected transaction, if the result is one of the blocking
+   * ones, so its transactions with a greater nonce are skipped for the rest of this block creation.
+   *
+   * @param evaluationContext The current selection context
+   * @param transactionSelectionResult The transaction selection result
+   */
+  @Override
+  public void onTransactionNotSelected(
+      final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext,
+      final TransactionSelectionResult transactionSelectionResult) {
+    if (!BLOCKING_RESULTS.contains(transactionSelectionResult)) {
+      return;
+    }
+
+    final Transaction transaction = evaluationContext.getPendingTransaction().getTransaction();
+    blockedNonceBySender.merge(transaction.getSender(), transaction.getNonce(), Math::min);
+  }
+}
@@ -17,12 +17,15 @@ package net.consensys.linea.sequencer.txselection.selectors;
 import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.BLOCK_MODULE_LINE_COUNT_FULL;
 import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_MODULE_LINE_COUNT_OVERFLOW;
 import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_MODULE_LINE_COUNT_OVERFLOW_CACHED;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_PREDICTED_TOO_LARGE_FOR_REMAINING_LINE_COUNT;
 import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
 
 import java.math.BigInteger;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -31,6 +34,7 @@ import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineCountPredictor;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
 import net.consensys.linea.zktracer.ZkTracer;
 import net.consensys.linea.zktracer.container.module.Module;
@@ -62,14 +66,17 @@ public class TraceLineLimitTransactionSelector implements PluginTransactionSelec
   private final Map<String, Integer> moduleLimits;
   private final int overLimitCacheSize;
   private final ModuleLineCountValidator moduleLineCountAccumulator;
+  private final ModuleLineCountPredictor moduleLineCountPredictor;
   private Map<String, Integer> currCumulatedLineCount;
+  private Consumer<BlockHeader> blockEndListener = blockHeader -> {};
 
   public TraceLineLimitTransactionSelector(
       final BigInteger chainId,
       final Map<String, Integer> moduleLimits,
       final LineaTransactionSelectorConfiguration txSelectorConfiguration,
       final LineaL1L2BridgeSharedConfiguration l1L2BridgeConfiguration,
-      final LineaTracerConfiguration tracerConfiguration) {
+      final LineaTracerConfiguration tracerConfiguration,
+      final ModuleLineCountPredictor moduleLineCountPredictor) {
     if (l1L2BridgeConfiguration.isEmpty()) {
       log.error("L1L2 bridge settings have not been defined.");
       System.exit(1);
@@ -89,10 +96,13 @@ public class TraceLineLimitTransactionSelector implements PluginTransactionSelec
     }
     zkTracer.traceStartConflation(1L);
     moduleLineCountAccumulator = new ModuleLineCountValidator(moduleLimits);
+    this.moduleLineCountPredictor = moduleLineCountPredictor;
   }
 
   /**
-   * Check if the tx is already known to go over the limit to avoid reprocessing it
+   * Check if the tx is already known to go over the limit to avoid reprocessing it, and if the
+   * prediction is enabled, check that the predicted line counts of the tx fit in the remaining line
+   * counts of the block, to avoid executing a tx that would likely be rolled back.
    *
    * @param evaluationContext The current selection context.
    * @return transaction selection result
@@ -109,6 +119,35 @@ public class TraceLineLimitTransactionSelector implements PluginTransactionSelec
           .log();
       return TX_MODULE_LINE_COUNT_OVERFLOW_CACHED;
     }
+
+    if (moduleLineCountPredictor.isEnabled()) {
+      final Transaction transaction = evaluationContext.getPendingTransaction().getTransaction();
+      final var maybePredictedLineCounts = moduleLineCountPredictor.predict(transaction);
+      if (maybePredictedLineCounts.isPresent()) {
+        final Map<String, Integer> accumulatedLineCounts =
+            moduleLineCountAccumulator.getAccumulatedLineCountsPerModule();
+        for (final Map.Entry<String, Integer> e : maybePredictedLineCounts.get().entrySet()) {
+          final String moduleName = e.getKey();
+          final int predictedLineCount = e.getValue();
+          final int moduleLimit = moduleLimits.getOrDefault(moduleName, Integer.MAX_VALUE);
+          final int remainingLineCount =
+              moduleLimit - accumulatedLineCounts.getOrDefault(moduleName, 0);
+          // a tx predicted to not even fit in an empty block is executed anyway,
+          // to not starve it and to let the validation have the last word
+          if (predictedLineCount > remainingLineCount && predictedLineCount <= moduleLimit) {
+            log.atTrace()
+                .setMessage(
+                    "Tx {} predicted line count for module {}={} is above the remaining line count {}, skipping it")
+                .addArgument(transaction::getHash)
+                .addArgument(moduleName)
+                .addArgument(predictedLineCount)
+                .addArgument(remainingLineCount)
+                .log();
+            return TX_PREDICTED_TOO_LARGE_FOR_REMAINING_LINE_COUNT;
+          }
+        }
+      }
+    }
     return SELECTED;
   }
 
@@ -123,6 +162,11 @@ public class TraceLineLimitTransactionSelector implements PluginTransactionSelec
   public void onTransactionSelected(
       final TransactionEvaluationContext<? extends PendingTransaction> evaluationContext,
       final TransactionProcessingResult processingResult) {
+    // only the selected txs are recorded, so a rejected one cannot skew the prediction
+    if (moduleLineCountPredictor.isEnabled()) {
+      moduleLineCountPredictor.record(
+          evaluationContext.getPendingTransaction().getTransaction(), txLineCounts());
+    }
     moduleLineCountAccumulator.updateAccumulatedLineCounts(currCumulatedLineCount);
   }
 
@@ -181,6 +225,15 @@ public class TraceLineLimitTransactionSelector implements PluginTransactionSelec
     return SELECTED;
   }
 
+  /**
+   * Sets a listener that is notified when the tracing of the block ends.
+   *
+   * @param blockEndListener the listener
+   */
+  public void setBlockEndListener(final Consumer<BlockHeader> blockEndListener) {
+    this.blockEndListener = blockEndListener;
+  }
+
   @Override
   public BlockAwareOperationTracer getOperationTracer() {
     return zkTracer;
@@ -201,6 +254,17 @@ public class TraceLineLimitTransactionSelector implements PluginTransactionSelec
         .log();
   }
 
+  private Map<String, Integer> txLineCounts() {
+    final Map<String, Integer> accumulatedLineCounts =
+        moduleLineCountAccumulator.getAccumulatedLineCountsPerModule();
+    final Map<String, Integer> txLineCounts = new HashMap<>(currCumulatedLineCount.size());
+    for (final Map.Entry<String, Integer> e : currCumulatedLineCount.entrySet()) {
+      txLineCounts.put(
+          e.getKey(), e.getValue() - accumulatedLineCounts.getOrDefault(e.getKey(), 0));
+    }
+    return txLineCounts;
+  }
+
   private String logTxLineCount() {
     return currCumulatedLineCount.entrySet().stream()
         .map(
@@ -239,6 +303,7 @@ public class TraceLineLimitTransactionSelector implements PluginTransactionSelec
                       .map(e -> '"' + e.getKey() + "\":" + e.getValue())
                       .collect(Collectors.joining(",")))
           .log();
+      blockEndListener.accept(blockHeader);
     }
   }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.bl;
+
+import static net.consensys.linea.bl.TransactionProfitabilityCalculator.NOT_A_LONG;
+import static net.consensys.linea.bl.TransactionProfitabilityCalculator.exactProfitablePriorityFeePerGas;
+import static net.consensys.linea.bl.TransactionProfitabilityCalculator.profitablePriorityFeePerGasWei;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TransactionProfitabilityCalculatorTest {
+  // costs are at most max_int KWei
+  private static final long MAX_COST_WEI = Integer.MAX_VALUE * 1000L;
+  private static final double[] MARGINS = {0.0, 0.5, 1.0, 1.1, 1.2, 1.5, 2.0, 2.9999999};
+
+  @Test
+  void primitiveFormulaMatchesTheExactOneForRandomInputs() {
+    final Random random = new Random(42);
+    for (int i = 0; i < 200_000; i++) {
+      final double minMargin =
+          random.nextBoolean()
+              ? MARGINS[random.nextInt(MARGINS.length)]
+              : random.nextDouble() * 10;
+      final long variableCostWei = randomCost(random);
+      final long fixedCostWei = randomCost(random);
+      final int compressedTxSize = 1 + random.nextInt(random.nextBoolean() ? 200 : 130_000);
+      final long gas = 21_000 + random.nextLong(random.nextBoolean() ? 100_000 : 30_000_000);
+
+      assertParity(minMargin, variableCostWei, fixedCostWei, compressedTxSize, gas);
+    }
+  }
+
+  @Test
+  void primitiveFormulaMatchesTheExactOneAroundIntegers() {
+    // products that are integers, or just below them, where rounding differences would show
+    for (long costPerGas = 1; costPerGas < 10_000_000_000L; costPerGas = costPerGas * 3 + 7) {
+      for (final double minMargin : MARGINS) {
+        assertParity(minMargin, 0, costPerGas, 1, 1);
+        assertParity(Math.nextDown(minMargin), 0, costPerGas, 1, 1);
+        assertParity(Math.nextUp(minMargin), 0, costPerGas, 1, 1);
+      }
+    }
+  }
+
+  @Test
+  void resultsNotFittingTheDoublePrecisionUseTheExactFormula() {
+    assertThat(profitablePriorityFeePerGasWei(1.0, 0, 1L << 53, 1, 1)).isEqualTo(NOT_A_LONG);
+    assertThat(profitablePriorityFeePerGasWei(1.0, 0, (1L << 53) - 1, 1, 1))
+        .isEqualTo((1L << 53) - 1);
+    assertThat(profitablePriorityFeePerGasWei(1.0, Long.MAX_VALUE, 0, 2, 1)).isEqualTo(NOT_A_LONG);
+    assertThat(profitablePriorityFeePerGasWei(1.0, 0, Long.MAX_VALUE, 1, 1)).isEqualTo(NOT_A_LONG);
+  }
+
+  private static long randomCost(final Random random) {
+    return switch (random.nextInt(3)) {
+      case 0 -> 0;
+      case 1 -> random.nextLong(1_000_000_000L);
+      default -> random.nextLong(MAX_COST_WEI);
+    };
+  }
+
+  private static void assertParity(
+      final double minMargin,
+      final long variableCostWei,
+      final long fixedCostWei,
+      final int compressedTxSize,
+      final long gas) {
+    final long profitAt =
+        profitablePriorityFeePerGasWei(
+            minMargin, variableCostWei, fixedCostWei, compressedTxSize, gas);
+    if (profitAt != NOT_A_LONG) {
+      assertThat(profitAt)
+          .as(
+              "minMargin=%s, variableCostWei=%s, fixedCostWei=%s, compressedTxSize=%s, gas=%s",
+              minMargin, variableCostWei, fixedCostWei, compressedTxSize, gas)
+          .isEqualTo(
+              exactProfitablePriorityFeePerGas(
+                      minMargin, variableCostWei, fixedCostWei, compressedTxSize, gas)
+                  .toLong());
+    }
+  }
+}
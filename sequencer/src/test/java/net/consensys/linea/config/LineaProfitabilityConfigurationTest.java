@@ -0,0 +1,63 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LineaProfitabilityConfigurationTest {
+
+  @Test
+  void initialPricingHasVersionZero() {
+    final LineaProfitabilityConfiguration config =
+        LineaProfitabilityConfiguration.builder().fixedCostWei(10).variableCostWei(20).build();
+
+    assertThat(config.pricingSnapshot()).isEqualTo(new PricingSnapshot(0, 10, 20));
+    assertThat(config.fixedCostWei()).isEqualTo(10);
+    assertThat(config.variableCostWei()).isEqualTo(20);
+  }
+
+  @Test
+  void newPricingIsPublishedWithTheNextVersionOnlyIfChanged() {
+    final LineaProfitabilityConfiguration config =
+        LineaProfitabilityConfiguration.builder().fixedCostWei(10).variableCostWei(20).build();
+    final PricingSnapshot initial = config.pricingSnapshot();
+
+    config.updateFixedAndVariableCost(10, 20);
+    assertThat(config.pricingSnapshot()).isSameAs(initial);
+
+    config.updateFixedAndVariableCost(10, 30);
+    assertThat(config.pricingSnapshot()).isEqualTo(new PricingSnapshot(1, 10, 30));
+
+    config.updateFixedAndVariableCost(15, 30);
+    assertThat(config.pricingSnapshot()).isEqualTo(new PricingSnapshot(2, 15, 30));
+    // the snapshot read before the updates is not changed
+    assertThat(initial).isEqualTo(new PricingSnapshot(0, 10, 20));
+  }
+
+  @Test
+  void toBuilderKeepsTheCurrentPricing() {
+    final LineaProfitabilityConfiguration config =
+        LineaProfitabilityConfiguration.builder().fixedCostWei(10).variableCostWei(20).build();
+    config.updateFixedAndVariableCost(11, 21);
+
+    final LineaProfitabilityConfiguration copy = config.toBuilder().minMargin(1.5).build();
+
+    assertThat(copy.fixedCostWei()).isEqualTo(11);
+    assertThat(copy.variableCostWei()).isEqualTo(21);
+    assertThat(copy.minMargin()).isEqualTo(1.5);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+class PricingEpochBusTest {
+  private static final PricingSnapshot PRICING = new PricingSnapshot(0, 1, 2);
+
+  private final PricingEpochBus bus = new PricingEpochBus();
+
+  @Test
+  void subscribersAreNotifiedOnlyWhenTheEpochChanges() {
+    final List<PricingEpoch> epochs = new ArrayList<>();
+    bus.subscribe(epochs::add);
+    assertThat(bus.currentEpoch()).isEmpty();
+
+    final PricingSnapshot nextPricing = PRICING.next(1, 3);
+    assertThat(bus.publish(PRICING, 3)).isTrue();
+    assertThat(bus.publish(PRICING, 3)).isFalse();
+    assertThat(bus.publish(PRICING, 4)).isTrue();
+    assertThat(bus.publish(nextPricing, 4)).isTrue();
+
+    assertThat(epochs)
+        .containsExactly(
+            new PricingEpoch(PRICING, 3),
+            new PricingEpoch(PRICING, 4),
+            new PricingEpoch(nextPricing, 4));
+    // the epoch carries the version of its pricing
+    assertThat(bus.currentEpoch().get().version()).isEqualTo(nextPricing.version());
+  }
+
+  @Test
+  void failingSubscriberDoesNotStopTheOthers() {
+    final List<PricingEpoch> epochs = new ArrayList<>();
+    bus.subscribe(
+        epoch -> {
+          throw new IllegalStateException("boom");
+        });
+    bus.subscribe(epochs::add);
+
+    bus.publish(PRICING, 3);
+
+    assertThat(epochs).containsExactly(new PricingEpoch(PRICING, 3));
+  }
+
+  @Test
+  void unsubscribedSubscriberIsNotNotified() {
+    final List<PricingEpoch> epochs = new ArrayList<>();
+    final Consumer<PricingEpoch> subscriber = epochs::add;
+    bus.subscribe(subscriber);
+    bus.unsubscribe(subscriber);
+
+    bus.publish(PRICING, 3);
+
+    assertThat(epochs).isEmpty();
+  }
+}
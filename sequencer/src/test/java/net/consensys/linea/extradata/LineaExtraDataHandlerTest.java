@@ -0,0 +1,130 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.extradata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import net.consensys.linea.config.PricingEpoch;
+import net.consensys.linea.config.PricingSnapshot;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.plugin.services.RpcEndpointService;
+import org.hyperledger.besu.plugin.services.rpc.PluginRpcResponse;
+import org.hyperledger.besu.plugin.services.rpc.RpcResponseType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LineaExtraDataHandlerTest {
+  private final RpcEndpointService rpcEndpointService = mock(RpcEndpointService.class);
+  private final PluginRpcResponse response = mock(PluginRpcResponse.class);
+  private LineaProfitabilityConfiguration profitabilityConf;
+  private LineaExtraDataHandler handler;
+  private Wei nodeMinGasPrice = Wei.ZERO;
+
+  @BeforeEach
+  void initialize() {
+    when(rpcEndpointService.call(eq("miner_setMinGasPrice"), any()))
+        .thenAnswer(
+            invocation -> {
+              if (response.getType() == RpcResponseType.SUCCESS) {
+                final Object[] params = invocation.getArgument(1);
+                nodeMinGasPrice = Wei.fromHexString((String) params[0]);
+              }
+              return response;
+            });
+    when(response.getType()).thenReturn(RpcResponseType.SUCCESS);
+    profitabilityConf =
+        LineaProfitabilityConfiguration.builder()
+            .extraDataPricingEnabled(true)
+            .extraDataSetMinGasPriceEnabled(true)
+            .build();
+    handler =
+        new LineaExtraDataHandler(rpcEndpointService, () -> nodeMinGasPrice, profitabilityConf);
+  }
+
+  @Test
+  void pricingIsUpdatedAndPublished() {
+    assertThat(handler.handle(extraData(1, 2, 3))).isTrue();
+
+    assertThat(profitabilityConf.fixedCostWei()).isEqualTo(1_000);
+    assertThat(profitabilityConf.variableCostWei()).isEqualTo(2_000);
+    assertThat(profitabilityConf.pricingEpochBus().currentEpoch())
+        .contains(new PricingEpoch(new PricingSnapshot(1, 1_000, 2_000), 3_000));
+    verify(rpcEndpointService).call("miner_setMinGasPrice", new Object[] {"0xbb8"});
+  }
+
+  @Test
+  void unchangedExtraDataIsANoOp() {
+    handler.handle(extraData(1, 2, 3));
+    final long pricingVersion = profitabilityConf.pricingSnapshot().version();
+
+    assertThat(handler.handle(extraData(1, 2, 3))).isFalse();
+
+    assertThat(profitabilityConf.pricingSnapshot().version()).isEqualTo(pricingVersion);
+    verify(rpcEndpointService, times(1)).call(eq("miner_setMinGasPrice"), any());
+  }
+
+  @Test
+  void unchangedMinGasPriceIsNotSetAgain() {
+    handler.handle(extraData(1, 2, 3));
+
+    assertThat(handler.handle(extraData(4, 5, 3))).isTrue();
+
+    assertThat(profitabilityConf.fixedCostWei()).isEqualTo(4_000);
+    verify(rpcEndpointService, times(1)).call(eq("miner_setMinGasPrice"), any());
+  }
+
+  @Test
+  void manuallyChangedMinGasPriceIsSetAgain() {
+    handler.handle(extraData(1, 2, 3));
+    nodeMinGasPrice = Wei.of(1);
+
+    assertThat(handler.handle(extraData(1, 2, 3))).isFalse();
+
+    assertThat(nodeMinGasPrice).isEqualTo(Wei.of(3_000));
+    verify(rpcEndpointService, times(2)).call("miner_setMinGasPrice", new Object[] {"0xbb8"});
+  }
+
+  @Test
+  void failedExtraDataIsHandledAgain() {
+    when(response.getType()).thenReturn(RpcResponseType.ERROR);
+    assertThatThrownBy(() -> handler.handle(extraData(1, 2, 3)))
+        .isInstanceOf(LineaExtraDataException.class);
+
+    when(response.getType()).thenReturn(RpcResponseType.SUCCESS);
+    assertThat(handler.handle(extraData(1, 2, 3))).isTrue();
+
+    verify(rpcEndpointService, times(2)).call(eq("miner_setMinGasPrice"), any());
+  }
+
+  private static Bytes extraData(
+      final int fixedCostKWei, final int variableCostKWei, final int minGasPriceKWei) {
+    return Bytes.concatenate(
+        Bytes.of(1),
+        Bytes.ofUnsignedInt(fixedCostKWei),
+        Bytes.ofUnsignedInt(variableCostKWei),
+        Bytes.ofUnsignedInt(minGasPriceKWei),
+        Bytes.wrap(new byte[19]));
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+  private static final long OPEN_DURATION_MILLIS = 1000;
+
+  private final AtomicLong nanoClock = new AtomicLong();
+  private CircuitBreaker circuitBreaker;
+
+  @BeforeEach
+  void init() {
+    circuitBreaker = new CircuitBreaker(3, OPEN_DURATION_MILLIS, nanoClock::get);
+  }
+
+  @Test
+  void opensAfterConsecutiveFailures() {
+    circuitBreaker.onFailure();
+    circuitBreaker.onFailure();
+    // a success resets the consecutive failures
+    circuitBreaker.onSuccess();
+    circuitBreaker.onFailure();
+    circuitBreaker.onFailure();
+    assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+
+    circuitBreaker.onFailure();
+    assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isFalse();
+    assertThat(circuitBreaker.remainingOpenMillis()).isEqualTo(OPEN_DURATION_MILLIS);
+  }
+
+  @Test
+  void allowsASingleProbeAfterTheOpenDuration() {
+    open();
+    advanceMillis(OPEN_DURATION_MILLIS - 1);
+    assertThat(circuitBreaker.tryAcquire()).isFalse();
+
+    advanceMillis(1);
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+    assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    // only one probe at a time
+    assertThat(circuitBreaker.tryAcquire()).isFalse();
+
+    circuitBreaker.onSuccess();
+    assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+  }
+
+  @Test
+  void reopensWhenTheProbeFails() {
+    open();
+    advanceMillis(OPEN_DURATION_MILLIS);
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+
+    circuitBreaker.onFailure();
+    assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(circuitBreaker.remainingOpenMillis()).isEqualTo(OPEN_DURATION_MILLIS);
+  }
+
+  @Test
+  void neverOpensWhenDisabled() {
+    circuitBreaker = new CircuitBreaker(0, OPEN_DURATION_MILLIS, nanoClock::get);
+    for (int i = 0; i < 10; i++) {
+      circuitBreaker.onFailure();
+    }
+    assertThat(circuitBreaker.isEnabled()).isFalse();
+    assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+  }
+
+  private void open() {
+    for (int i = 0; i < 3; i++) {
+      circuitBreaker.onFailure();
+    }
+    assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+  }
+
+  private void advanceMillis(final long millis) {
+    nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+}
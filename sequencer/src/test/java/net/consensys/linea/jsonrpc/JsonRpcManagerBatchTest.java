@@ -0,0 +1,206 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.matchingJsonPath;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.matching.RequestPatternBuilder;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import net.consensys.linea.config.LineaNodeType;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@WireMockTest
+@ExtendWith(MockitoExtension.class)
+class JsonRpcManagerBatchTest {
+  static final String PLUGIN_IDENTIFIER = "linea-batch-test-plugin";
+  @TempDir private Path tempDataDir;
+  private JsonRpcManager jsonRpcManager;
+  private final Bytes randomEncodedBytes = Bytes.random(32);
+  @Mock private Transaction transaction;
+
+  @BeforeEach
+  void init(final WireMockRuntimeInfo wmInfo) throws MalformedURLException {
+    when(transaction.encoded()).thenReturn(randomEncodedBytes);
+    final LineaRejectedTxReportingConfiguration config =
+        LineaRejectedTxReportingConfiguration.builder()
+            .rejectedTxEndpoint(URI.create(wmInfo.getHttpBaseUrl()).toURL())
+            .lineaNodeType(LineaNodeType.SEQUENCER)
+            .rejectedTxBatchSize(2)
+            .rejectedTxBatchMaxDelay(200)
+            .build();
+    jsonRpcManager =
+        new JsonRpcManager(PLUGIN_IDENTIFIER, tempDataDir, config, new NoOpMetricsSystem());
+    jsonRpcManager.start();
+  }
+
+  @AfterEach
+  void cleanup() {
+    jsonRpcManager.shutdown();
+  }
+
+  @Test
+  void fullBatchIsSentAsSingleRequest() {
+    final long id1 = nextReportId();
+    final long id2 = id1 + 1;
+
+    stubFor(
+        post(urlEqualTo("/"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[" + successResponse(id2) + "," + successResponse(id1) + "]")));
+
+    submitRejectedTx("test1");
+    submitRejectedTx("test2");
+
+    await()
+        .atMost(2, SECONDS)
+        .untilAsserted(
+            () -> {
+              verify(exactly(1), batchRequestWithReasons("test1", "test2"));
+              assertThat(countJsonFiles()).isZero();
+            });
+  }
+
+  @Test
+  void partialBatchIsSentAfterMaxDelay() {
+    final long id = nextReportId();
+
+    stubFor(
+        post(urlEqualTo("/"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[" + successResponse(id) + "]")));
+
+    submitRejectedTx("test");
+
+    await()
+        .atMost(2, SECONDS)
+        .untilAsserted(() -> verify(exactly(1), batchRequestWithReasons("test")));
+  }
+
+  @Test
+  void onlyFailedRequestsOfTheBatchAreRetried() {
+    final long id1 = nextReportId();
+    final long id2 = id1 + 1;
+
+    stubFor(
+        post(urlEqualTo("/"))
+            .inScenario("RPC Calls")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "["
+                            + successResponse(id1)
+                            + ",{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32000,\"message\":\"Internal error\"},\"id\":"
+                            + id2
+                            + "}]"))
+            .willSetStateTo("Second Call"));
+
+    stubFor(
+        post(urlEqualTo("/"))
+            .inScenario("RPC Calls")
+            .whenScenarioStateIs("Second Call")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[" + successResponse(id2) + "]")));
+
+    submitRejectedTx("test1");
+    submitRejectedTx("test2");
+
+    await()
+        .atMost(4, SECONDS)
+        .untilAsserted(
+            () -> {
+              // the first request of the batch sent again is the failed one
+              verify(exactly(1), batchRequestWithReasons("test2"));
+              assertThat(countJsonFiles()).isZero();
+            });
+  }
+
+  private void submitRejectedTx(final String reason) {
+    jsonRpcManager.submitRejectedTxAsync(
+        ReportingStage.TX_SELECTION, transaction, Optional.of(1L), reason, reason, List.of());
+  }
+
+  /** Returns the id of the next report submitted, since the ids are assigned in sequence. */
+  private static long nextReportId() {
+    return JsonRpcRequestBuilder.nextId() + 1;
+  }
+
+  /** Matches a batch request whose first requests are the reports of the given reasons. */
+  private static RequestPatternBuilder batchRequestWithReasons(final String... reasons) {
+    final RequestPatternBuilder request = postRequestedFor(urlEqualTo("/"));
+    for (int i = 0; i < reasons.length; i++) {
+      request.withRequestBody(
+          matchingJsonPath("$[" + i + "].params.reasonMessage", equalTo(reasons[i])));
+    }
+    return request;
+  }
+
+  private static String successResponse(final long id) {
+    return "{\"jsonrpc\":\"2.0\",\"result\":{ \"status\": \"SAVED\"},\"id\":" + id + "}";
+  }
+
+  private long countJsonFiles() throws IOException {
+    final Path rejTxRpcDir =
+        tempDataDir.resolve(JsonRpcManager.JSON_RPC_DIR).resolve(PLUGIN_IDENTIFIER);
+    try (Stream<Path> files = Files.list(rejTxRpcDir)) {
+      return files.filter(path -> path.toString().endsWith(".json")).count();
+    }
+  }
+}
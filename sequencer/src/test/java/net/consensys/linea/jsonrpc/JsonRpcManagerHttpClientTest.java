@@ -0,0 +1,123 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.getAllServeEvents;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.when;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import net.consensys.linea.config.LineaNodeType;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@WireMockTest
+@ExtendWith(MockitoExtension.class)
+class JsonRpcManagerHttpClientTest {
+  static final String PLUGIN_IDENTIFIER = "linea-http-client-test-plugin";
+  private static final int RESPONSE_DELAY_MILLIS = 300;
+  @TempDir private Path tempDataDir;
+  private JsonRpcManager jsonRpcManager;
+  private final Bytes randomEncodedBytes = Bytes.random(32);
+  @Mock private Transaction transaction;
+
+  @BeforeEach
+  void init(final WireMockRuntimeInfo wmInfo) throws MalformedURLException {
+    when(transaction.encoded()).thenReturn(randomEncodedBytes);
+    final LineaRejectedTxReportingConfiguration config =
+        LineaRejectedTxReportingConfiguration.builder()
+            .rejectedTxEndpoint(URI.create(wmInfo.getHttpBaseUrl()).toURL())
+            .lineaNodeType(LineaNodeType.SEQUENCER)
+            .rejectedTxMaxInFlightRequests(1)
+            .rejectedTxMaxIdleConnections(1)
+            .build();
+    jsonRpcManager =
+        new JsonRpcManager(PLUGIN_IDENTIFIER, tempDataDir, config, new NoOpMetricsSystem());
+    jsonRpcManager.start();
+  }
+
+  @AfterEach
+  void cleanup() {
+    jsonRpcManager.shutdown();
+  }
+
+  @Test
+  void requestsInFlightAreCapped() {
+    stubFor(
+        post(urlEqualTo("/"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withFixedDelay(RESPONSE_DELAY_MILLIS)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"jsonrpc\":\"2.0\",\"result\":{ \"status\": \"SAVED\"},\"id\":1}")));
+
+    for (int i = 0; i < 3; i++) {
+      jsonRpcManager.submitRejectedTxAsync(
+          ReportingStage.TX_SELECTION,
+          transaction,
+          Optional.of(1L),
+          "test" + i,
+          "test" + i,
+          List.of());
+    }
+
+    await()
+        .atMost(4, SECONDS)
+        .untilAsserted(() -> verify(exactly(3), postRequestedFor(urlEqualTo("/"))));
+
+    // with a single request in flight, each request is received after the previous response
+    final List<Instant> receivedTimes =
+        getAllServeEvents().stream()
+            .map(ServeEvent::getRequest)
+            .map(request -> request.getLoggedDate().toInstant())
+            .sorted(Comparator.naturalOrder())
+            .toList();
+    for (int i = 1; i < receivedTimes.size(); i++) {
+      assertThat(receivedTimes.get(i))
+          .isAfterOrEqualTo(receivedTimes.get(i - 1).plusMillis(RESPONSE_DELAY_MILLIS));
+    }
+  }
+}
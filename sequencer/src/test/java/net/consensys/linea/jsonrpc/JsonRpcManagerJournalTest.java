@@ -0,0 +1,232 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.matchingJsonPath;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.matching.RequestPatternBuilder;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import net.consensys.linea.config.LineaNodeType;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@WireMockTest
+@ExtendWith(MockitoExtension.class)
+class JsonRpcManagerJournalTest {
+  static final String PLUGIN_IDENTIFIER = "linea-journal-test-plugin";
+  @TempDir private Path tempDataDir;
+  private LineaRejectedTxReportingConfiguration config;
+  private JsonRpcManager jsonRpcManager;
+  private final Bytes randomEncodedBytes = Bytes.random(32);
+  @Mock private Transaction transaction;
+
+  @BeforeEach
+  void init(final WireMockRuntimeInfo wmInfo) throws MalformedURLException {
+    when(transaction.encoded()).thenReturn(randomEncodedBytes);
+    config =
+        LineaRejectedTxReportingConfiguration.builder()
+            .rejectedTxEndpoint(URI.create(wmInfo.getHttpBaseUrl()).toURL())
+            .lineaNodeType(LineaNodeType.SEQUENCER)
+            .rejectedTxJournalSegmentSize(1024 * 1024)
+            .build();
+    jsonRpcManager =
+        new JsonRpcManager(PLUGIN_IDENTIFIER, tempDataDir, config, new NoOpMetricsSystem());
+    jsonRpcManager.start();
+  }
+
+  @AfterEach
+  void cleanup() {
+    jsonRpcManager.shutdown();
+  }
+
+  @Test
+  void journalRecordsAreDeliveredInOrderAfterRetry() throws IOException {
+    stubFor(
+        post(urlEqualTo("/"))
+            .inScenario("RPC Calls")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(
+                aResponse()
+                    .withStatus(500)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32000,\"message\":\"Internal error\"},\"id\":1}"))
+            .willSetStateTo("Second Call"));
+
+    stubFor(
+        post(urlEqualTo("/"))
+            .inScenario("RPC Calls")
+            .whenScenarioStateIs("Second Call")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"jsonrpc\":\"2.0\",\"result\":{ \"status\": \"SAVED\"},\"id\":1}")));
+
+    submitRejectedTx("test1");
+
+    // the first record is being retried, the second one waits for it
+    await().atMost(2, SECONDS).untilAsserted(() -> verify(exactly(1), requestWithReason("test1")));
+    submitRejectedTx("test2");
+
+    await()
+        .atMost(4, SECONDS)
+        .untilAsserted(
+            () -> {
+              verify(exactly(2), requestWithReason("test1"));
+              verify(exactly(1), requestWithReason("test2"));
+            });
+
+    // no file is created per report
+    final Path rejTxRpcDir =
+        tempDataDir.resolve(JsonRpcManager.JSON_RPC_DIR).resolve(PLUGIN_IDENTIFIER);
+    try (Stream<Path> files = Files.list(rejTxRpcDir)) {
+      assertThat(files.filter(path -> path.toString().endsWith(".json")).count()).isZero();
+    }
+  }
+
+  @Test
+  void journalRecordsFollowTheOrderOfTheRejections() throws IOException {
+    stubFor(post(urlEqualTo("/")).willReturn(aResponse().withStatus(500)));
+
+    for (int i = 0; i < 50; i++) {
+      jsonRpcManager.submitRejectedTxAsync(
+          ReportingStage.TX_SELECTION,
+          transaction,
+          Optional.of(1L),
+          "reason-" + i,
+          "reason-" + i,
+          List.of());
+    }
+    jsonRpcManager.shutdown();
+
+    final Path rejTxRpcDir =
+        tempDataDir.resolve(JsonRpcManager.JSON_RPC_DIR).resolve(PLUGIN_IDENTIFIER);
+    try (RejectedTxJournal journal = new RejectedTxJournal(rejTxRpcDir, 1024 * 1024).open()) {
+      for (int i = 0; i < 50; i++) {
+        final RejectedTxJournal.Entry entry = journal.peek().orElseThrow();
+        assertThat(RejectedTxRecordCodec.decode(entry.content()))
+            .contains("\"reasonMessage\":\"reason-" + i + "\"");
+        journal.ack(entry.next());
+      }
+      assertThat(journal.peek()).isEmpty();
+    }
+  }
+
+  @Test
+  void corruptRecordDoesNotHoldTheProbeWhileHalfOpen() throws IOException {
+    final String expiredJsonRpcCall = generateJsonRpcCall("expired");
+    final String jsonRpcCall = generateJsonRpcCall("test");
+    stubFor(
+        post(urlEqualTo("/"))
+            .withRequestBody(equalToJson(expiredJsonRpcCall))
+            .willReturn(aResponse().withStatus(500)));
+    stubFor(
+        post(urlEqualTo("/"))
+            .withRequestBody(equalToJson(jsonRpcCall))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"jsonrpc\":\"2.0\",\"result\":{ \"status\": \"SAVED\"},\"id\":1}")));
+
+    // restart with a journal whose first record opens the circuit, followed by a corrupt one
+    jsonRpcManager.shutdown();
+    final Path rejTxRpcDir =
+        tempDataDir.resolve(JsonRpcManager.JSON_RPC_DIR).resolve(PLUGIN_IDENTIFIER);
+    final RejectedTxJournal journal = new RejectedTxJournal(rejTxRpcDir, 1024 * 1024).open();
+    // older than the max retry duration, so it is discarded after its failure
+    journal.append(
+        JsonRpcContent.of(expiredJsonRpcCall).toRecord(false),
+        Instant.now().minus(Duration.ofHours(3)));
+    // a truncated compact record
+    journal.append(new byte[] {RejectedTxRecordCodec.FORMAT_COMPACT}, Instant.now());
+    journal.append(JsonRpcContent.of(jsonRpcCall).toRecord(false), Instant.now());
+    journal.close();
+
+    jsonRpcManager =
+        new JsonRpcManager(
+            PLUGIN_IDENTIFIER,
+            tempDataDir,
+            config.toBuilder()
+                .rejectedTxCircuitBreakerFailureThreshold(1)
+                .rejectedTxCircuitBreakerOpenDuration(100)
+                .build(),
+            new NoOpMetricsSystem());
+    jsonRpcManager.start();
+
+    // the corrupt record is skipped without taking the probe, so the next one is sent
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(
+                    exactly(1),
+                    postRequestedFor(urlEqualTo("/")).withRequestBody(equalToJson(jsonRpcCall))));
+  }
+
+  private void submitRejectedTx(final String reason) {
+    jsonRpcManager.submitRejectedTxAsync(
+        ReportingStage.TX_SELECTION, transaction, Optional.of(1L), reason, reason, List.of());
+  }
+
+  private static RequestPatternBuilder requestWithReason(final String reason) {
+    return postRequestedFor(urlEqualTo("/"))
+        .withRequestBody(matchingJsonPath("$.params.reasonMessage", equalTo(reason)));
+  }
+
+  private String generateJsonRpcCall(final String reason) {
+    return JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
+        LineaNodeType.SEQUENCER, transaction, Instant.now(), Optional.of(1L), reason, List.of());
+  }
+}
@@ -39,6 +39,7 @@ import net.consensys.linea.config.LineaNodeType;
 import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
 import org.apache.tuweni.bytes.Bytes;
 import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -81,7 +82,7 @@ public class JsonRpcManagerStartTest {
               result.toString(),
               List.of());
 
-      JsonRpcManager.saveJsonToDir(jsonRpcCall, jsonRpcDir);
+      FileDelivery.saveJsonToDir(jsonRpcCall, jsonRpcDir);
     }
 
     final LineaRejectedTxReportingConfiguration config =
@@ -89,7 +90,8 @@ public class JsonRpcManagerStartTest {
             .rejectedTxEndpoint(URI.create(wmInfo.getHttpBaseUrl()).toURL())
             .lineaNodeType(LineaNodeType.SEQUENCER)
             .build();
-    jsonRpcManager = new JsonRpcManager(PLUGIN_IDENTIFIER, tempDataDir, config);
+    jsonRpcManager =
+        new JsonRpcManager(PLUGIN_IDENTIFIER, tempDataDir, config, new NoOpMetricsSystem());
   }
 
   @AfterEach
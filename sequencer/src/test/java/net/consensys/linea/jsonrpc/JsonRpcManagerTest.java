@@ -16,8 +16,9 @@
 package net.consensys.linea.jsonrpc;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
-import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.matchingJsonPath;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
@@ -33,7 +34,6 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -41,12 +41,13 @@ import java.util.stream.Stream;
 import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.matching.RequestPatternBuilder;
 import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import net.consensys.linea.config.LineaNodeType;
 import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
 import org.apache.tuweni.bytes.Bytes;
 import org.hyperledger.besu.datatypes.Transaction;
-import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -73,7 +74,8 @@ class JsonRpcManagerTest {
             .rejectedTxEndpoint(URI.create(wmInfo.getHttpBaseUrl()).toURL())
             .lineaNodeType(LineaNodeType.SEQUENCER)
             .build();
-    jsonRpcManager = new JsonRpcManager(PLUGIN_IDENTIFIER, tempDataDir, config);
+    jsonRpcManager =
+        new JsonRpcManager(PLUGIN_IDENTIFIER, tempDataDir, config, new NoOpMetricsSystem());
     jsonRpcManager.start();
   }
 
@@ -94,29 +96,10 @@ class JsonRpcManagerTest {
                     .withBody(
                         "{\"jsonrpc\":\"2.0\",\"result\":{ \"status\": \"SAVED\"},\"id\":1}")));
 
-    final TransactionSelectionResult result = TransactionSelectionResult.invalid("test");
-    final Instant timestamp = Instant.now();
-
-    // method under test
-    final String jsonRpcCall =
-        JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
-            LineaNodeType.SEQUENCER,
-            transaction,
-            timestamp,
-            Optional.of(1L),
-            result.maybeInvalidReason().orElse(""),
-            List.of());
-
-    jsonRpcManager.submitNewJsonRpcCallAsync(jsonRpcCall);
+    submitRejectedTx("test");
 
     // Use Awaitility to wait for the condition to be met
-    await()
-        .atMost(2, SECONDS)
-        .untilAsserted(
-            () ->
-                verify(
-                    exactly(1),
-                    postRequestedFor(urlEqualTo("/")).withRequestBody(equalToJson(jsonRpcCall))));
+    await().atMost(2, SECONDS).untilAsserted(() -> verify(exactly(1), requestWithReason("test")));
   }
 
   @Test
@@ -144,31 +127,11 @@ class JsonRpcManagerTest {
                     .withBody(
                         "{\"jsonrpc\":\"2.0\",\"result\":{ \"status\": \"SAVED\"},\"id\":1}")));
 
-    // Prepare test data
-    final TransactionSelectionResult result = TransactionSelectionResult.invalid("test");
-    final Instant timestamp = Instant.now();
-
-    // Generate JSON-RPC call
-    final String jsonRpcCall =
-        JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
-            LineaNodeType.SEQUENCER,
-            transaction,
-            timestamp,
-            Optional.of(1L),
-            result.maybeInvalidReason().orElse(""),
-            List.of());
-
     // Submit the call, the scheduler will retry the failed call
-    jsonRpcManager.submitNewJsonRpcCallAsync(jsonRpcCall);
+    submitRejectedTx("test");
 
     // Use Awaitility to wait for the condition to be met
-    await()
-        .atMost(2, SECONDS)
-        .untilAsserted(
-            () ->
-                verify(
-                    exactly(2),
-                    postRequestedFor(urlEqualTo("/")).withRequestBody(equalToJson(jsonRpcCall))));
+    await().atMost(2, SECONDS).untilAsserted(() -> verify(exactly(2), requestWithReason("test")));
 
     // Verify that the JSON file no longer exists in the directory (as the second call was
     // successful)
@@ -192,31 +155,11 @@ class JsonRpcManagerTest {
                     .withBody(
                         "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":-32000,\"message\":\"Internal error\"},\"id\":1}")));
 
-    // Prepare test data
-    final TransactionSelectionResult result = TransactionSelectionResult.invalid("test");
-    final Instant timestamp = Instant.now();
-
-    // Generate JSON-RPC call
-    final String jsonRpcCall =
-        JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
-            LineaNodeType.SEQUENCER,
-            transaction,
-            timestamp,
-            Optional.of(1L),
-            result.maybeInvalidReason().orElse(""),
-            List.of());
-
     // Submit the call
-    jsonRpcManager.submitNewJsonRpcCallAsync(jsonRpcCall);
+    submitRejectedTx("test");
 
     // Use Awaitility to wait for the condition to be met
-    await()
-        .atMost(2, SECONDS)
-        .untilAsserted(
-            () ->
-                verify(
-                    exactly(1),
-                    postRequestedFor(urlEqualTo("/")).withRequestBody(equalToJson(jsonRpcCall))));
+    await().atMost(2, SECONDS).untilAsserted(() -> verify(exactly(1), requestWithReason("test")));
 
     // Verify that the JSON file still exists in the directory (as the call was unsuccessful)
     final Path rejTxRpcDir =
@@ -259,31 +202,11 @@ class JsonRpcManagerTest {
                     .withBody(
                         "{\"jsonrpc\":\"2.0\",\"result\":{ \"status\": \"SAVED\"},\"id\":1}")));
 
-    // Prepare test data
-    final TransactionSelectionResult result = TransactionSelectionResult.invalid("test");
-    final Instant timestamp = Instant.now();
-
-    // Generate JSON-RPC call
-    final String jsonRpcCall =
-        JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
-            LineaNodeType.SEQUENCER,
-            transaction,
-            timestamp,
-            Optional.of(1L),
-            result.maybeInvalidReason().orElse(""),
-            List.of());
-
     // Submit the call, the scheduler will retry the failed calls
-    jsonRpcManager.submitNewJsonRpcCallAsync(jsonRpcCall);
+    submitRejectedTx("test");
 
     // Use Awaitility to wait for the condition to be met
-    await()
-        .atMost(6, SECONDS)
-        .untilAsserted(
-            () ->
-                verify(
-                    exactly(3),
-                    postRequestedFor(urlEqualTo("/")).withRequestBody(equalToJson(jsonRpcCall))));
+    await().atMost(6, SECONDS).untilAsserted(() -> verify(exactly(3), requestWithReason("test")));
 
     // Verify that the JSON file no longer exists in the directory (as the second call was
     // successful)
@@ -294,4 +217,14 @@ class JsonRpcManagerTest {
       assertThat(fileCount).isEqualTo(0);
     }
   }
+
+  private void submitRejectedTx(final String reason) {
+    jsonRpcManager.submitRejectedTxAsync(
+        ReportingStage.TX_SELECTION, transaction, Optional.of(1L), reason, reason, List.of());
+  }
+
+  private static RequestPatternBuilder requestWithReason(final String reason) {
+    return postRequestedFor(urlEqualTo("/"))
+        .withRequestBody(matchingJsonPath("$.params.reasonMessage", equalTo(reason)));
+  }
 }
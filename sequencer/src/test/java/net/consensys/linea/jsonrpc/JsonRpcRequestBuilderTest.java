@@ -0,0 +1,98 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.consensys.linea.config.LineaNodeType;
+import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.junit.jupiter.api.Test;
+
+class JsonRpcRequestBuilderTest {
+  private static final Instant TIMESTAMP = Instant.parse("2024-08-22T09:18:51Z");
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void requestContainsAllTheFields() throws Exception {
+    final Bytes encoded = Bytes.fromHexString("0x02f8aa0182012a");
+    final String request =
+        JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
+            LineaNodeType.SEQUENCER,
+            mockTransaction(encoded),
+            TIMESTAMP,
+            Optional.of(123L),
+            "Transaction line count for module ADD=402 is above the limit 70",
+            List.of(
+                ModuleLimitsValidationResult.txModuleLineCountOverflow("ADD", 402, 70, 402, 70)));
+
+    final JsonNode json = objectMapper.readTree(request);
+    assertThat(json.get("jsonrpc").asText()).isEqualTo("2.0");
+    assertThat(json.get("method").asText()).isEqualTo("linea_saveRejectedTransactionV1");
+    assertThat(json.get("id").isNumber()).isTrue();
+
+    final JsonNode params = json.get("params");
+    assertThat(params.get("txRejectionStage").asText()).isEqualTo("SEQUENCER");
+    assertThat(params.get("timestamp").asText()).isEqualTo(TIMESTAMP.toString());
+    assertThat(params.get("blockNumber").asLong()).isEqualTo(123L);
+    assertThat(params.get("transactionRLP").asText()).isEqualTo(encoded.toHexString());
+    assertThat(params.get("reasonMessage").asText())
+        .isEqualTo("Transaction line count for module ADD=402 is above the limit 70");
+
+    final JsonNode overflow = params.get("overflows").get(0);
+    assertThat(overflow.get("module").asText()).isEqualTo("ADD");
+    assertThat(overflow.get("count").asInt()).isEqualTo(402);
+    assertThat(overflow.get("limit").asInt()).isEqualTo(70);
+  }
+
+  @Test
+  void reusedBufferDoesNotLeakPreviousRequest() throws Exception {
+    final Bytes large = Bytes.random(4096);
+    final Bytes small = Bytes.fromHexString("0x01");
+    JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
+        LineaNodeType.RPC, mockTransaction(large), TIMESTAMP, Optional.empty(), "large", List.of());
+
+    final JsonNode json =
+        objectMapper.readTree(
+            JsonRpcRequestBuilder.generateSaveRejectedTxJsonRpc(
+                LineaNodeType.RPC,
+                mockTransaction(small),
+                TIMESTAMP,
+                Optional.empty(),
+                "small \"quoted\"",
+                List.of()));
+
+    assertThat(json.get("params").has("blockNumber")).isFalse();
+    assertThat(json.get("params").get("transactionRLP").asText()).isEqualTo("0x01");
+    assertThat(json.get("params").get("reasonMessage").asText()).isEqualTo("small \"quoted\"");
+    assertThat(json.get("params").get("overflows").isEmpty()).isTrue();
+  }
+
+  private static Transaction mockTransaction(final Bytes encoded) {
+    final Transaction transaction = mock(Transaction.class);
+    when(transaction.encoded()).thenReturn(encoded);
+    return transaction;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.datatypes.Hash;
+import org.junit.jupiter.api.Test;
+
+class RejectedTxDeduplicatorTest {
+  private static final long WINDOW_MILLIS = 1000;
+  private static final Hash TX_HASH_1 = Hash.hash(Bytes.of(1));
+  private static final Hash TX_HASH_2 = Hash.hash(Bytes.of(2));
+
+  private final AtomicLong nanoClock = new AtomicLong();
+  private final RejectedTxDeduplicator deduplicator =
+      new RejectedTxDeduplicator(WINDOW_MILLIS, 10, nanoClock::get);
+
+  @Test
+  void duplicatesWithinTheWindowAreSuppressedAndCounted() {
+    assertThat(deduplicator.tryReport(TX_HASH_1, "TX_UNPROFITABLE", "selector"))
+        .isEqualTo(OptionalInt.of(0));
+    advanceMillis(100);
+    assertThat(deduplicator.tryReport(TX_HASH_1, "TX_UNPROFITABLE", "selector")).isEmpty();
+    assertThat(deduplicator.tryReport(TX_HASH_1, "TX_UNPROFITABLE", "selector")).isEmpty();
+
+    advanceMillis(WINDOW_MILLIS);
+    // the count of the suppressed duplicates is forwarded with the next report
+    assertThat(deduplicator.tryReport(TX_HASH_1, "TX_UNPROFITABLE", "selector"))
+        .isEqualTo(OptionalInt.of(2));
+    advanceMillis(WINDOW_MILLIS);
+    assertThat(deduplicator.tryReport(TX_HASH_1, "TX_UNPROFITABLE", "selector"))
+        .isEqualTo(OptionalInt.of(0));
+  }
+
+  @Test
+  void otherTxsReasonsAndStagesAreNotDuplicates() {
+    assertThat(deduplicator.tryReport(TX_HASH_1, "TX_UNPROFITABLE", "selector")).isPresent();
+    assertThat(deduplicator.tryReport(TX_HASH_2, "TX_UNPROFITABLE", "selector")).isPresent();
+    assertThat(deduplicator.tryReport(TX_HASH_1, "REVERTED", "selector")).isPresent();
+    assertThat(deduplicator.tryReport(TX_HASH_1, "TX_UNPROFITABLE", "validator")).isPresent();
+  }
+
+  @Test
+  void nothingIsSuppressedWhenDisabled() {
+    final RejectedTxDeduplicator disabled = new RejectedTxDeduplicator(0, 10, nanoClock::get);
+    assertThat(disabled.tryReport(TX_HASH_1, "TX_UNPROFITABLE", "selector"))
+        .isEqualTo(OptionalInt.of(0));
+    assertThat(disabled.tryReport(TX_HASH_1, "TX_UNPROFITABLE", "selector"))
+        .isEqualTo(OptionalInt.of(0));
+  }
+
+  private void advanceMillis(final long millis) {
+    nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RejectedTxJournalTest {
+  private static final Instant TIMESTAMP = Instant.ofEpochMilli(1_700_000_000_000L);
+
+  @TempDir private Path journalDir;
+
+  @Test
+  void recordsAreReadInOrderUntilAcked() throws IOException {
+    try (RejectedTxJournal journal = new RejectedTxJournal(journalDir, 1024).open()) {
+      assertThat(journal.peek()).isEmpty();
+      assertThat(journal.hasPending()).isFalse();
+
+      journal.append("first".getBytes(UTF_8), TIMESTAMP);
+      journal.append("second".getBytes(UTF_8), TIMESTAMP);
+      assertThat(journal.hasPending()).isTrue();
+
+      final var first = journal.peek().orElseThrow();
+      assertThat(new String(first.content(), UTF_8)).isEqualTo("first");
+      assertThat(first.timestamp()).isEqualTo(TIMESTAMP);
+      // not acked, so it is read again
+      assertThat(new String(journal.peek().orElseThrow().content(), UTF_8)).isEqualTo("first");
+
+      journal.ack(first.next());
+      final var second = journal.peek().orElseThrow();
+      assertThat(new String(second.content(), UTF_8)).isEqualTo("second");
+
+      journal.ack(second.next());
+      assertThat(journal.peek()).isEmpty();
+      assertThat(journal.hasPending()).isFalse();
+    }
+  }
+
+  @Test
+  void deliveredSegmentsAreDeleted() throws IOException {
+    try (RejectedTxJournal journal = new RejectedTxJournal(journalDir, 64).open()) {
+      for (int i = 0; i < 10; i++) {
+        journal.append(("record-" + i).getBytes(UTF_8), TIMESTAMP);
+      }
+      assertThat(countSegments()).isGreaterThan(1);
+
+      for (int i = 0; i < 10; i++) {
+        final var entry = journal.peek().orElseThrow();
+        assertThat(new String(entry.content(), UTF_8)).isEqualTo("record-" + i);
+        journal.ack(entry.next());
+      }
+      assertThat(journal.peek()).isEmpty();
+      assertThat(countSegments()).isOne();
+    }
+  }
+
+  @Test
+  void replayStartsFromTheCursor() throws IOException {
+    try (RejectedTxJournal journal = new RejectedTxJournal(journalDir, 64).open()) {
+      for (int i = 0; i < 5; i++) {
+        journal.append(("record-" + i).getBytes(UTF_8), TIMESTAMP);
+      }
+      journal.ack(journal.peek().orElseThrow().next());
+      journal.ack(journal.peek().orElseThrow().next());
+    }
+
+    try (RejectedTxJournal journal = new RejectedTxJournal(journalDir, 64).open()) {
+      for (int i = 2; i < 5; i++) {
+        final var entry = journal.peek().orElseThrow();
+        assertThat(new String(entry.content(), UTF_8)).isEqualTo("record-" + i);
+        journal.ack(entry.next());
+      }
+      assertThat(journal.peek()).isEmpty();
+    }
+  }
+
+  @Test
+  void incompleteRecordIsDroppedOnOpen() throws IOException {
+    try (RejectedTxJournal journal = new RejectedTxJournal(journalDir, 1024).open()) {
+      journal.append("complete".getBytes(UTF_8), TIMESTAMP);
+      journal.append("incomplete".getBytes(UTF_8), TIMESTAMP);
+    }
+    // simulate a crash while writing the last record
+    final Path segment = listSegments()[0];
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    try (RejectedTxJournal journal = new RejectedTxJournal(journalDir, 1024).open()) {
+      final var entry = journal.peek().orElseThrow();
+      assertThat(new String(entry.content(), UTF_8)).isEqualTo("complete");
+      journal.ack(entry.next());
+      assertThat(journal.peek()).isEmpty();
+
+      journal.append("after".getBytes(UTF_8), TIMESTAMP);
+      assertThat(new String(journal.peek().orElseThrow().content(), UTF_8)).isEqualTo("after");
+    }
+  }
+
+  @Test
+  void corruptedRecordIsQuarantinedAndTheNextOneIsRead() throws IOException {
+    try (RejectedTxJournal journal = new RejectedTxJournal(journalDir, 1024).open()) {
+      journal.append("first".getBytes(UTF_8), TIMESTAMP);
+      journal.append("second".getBytes(UTF_8), TIMESTAMP);
+      // flip the first byte of the content of the first record, so its checksum does not match
+      overwrite(listSegments()[0], 16, ByteBuffer.wrap("F".getBytes(UTF_8)));
+
+      final var entry = journal.peek().orElseThrow();
+      assertThat(new String(entry.content(), UTF_8)).isEqualTo("second");
+      assertThat(listQuarantined()).hasSize(1);
+      assertThat(Files.size(listQuarantined()[0])).isEqualTo(16 + "first".length());
+
+      journal.ack(entry.next());
+      assertThat(journal.peek()).isEmpty();
+      assertThat(journal.hasPending()).isFalse();
+    }
+  }
+
+  @Test
+  void corruptedRecordLengthSkipsTheRestOfTheSegment() throws IOException {
+    try (RejectedTxJournal journal = new RejectedTxJournal(journalDir, 1024).open()) {
+      journal.append("first".getBytes(UTF_8), TIMESTAMP);
+      journal.append("second".getBytes(UTF_8), TIMESTAMP);
+      overwrite(listSegments()[0], 0, ByteBuffer.allocate(Integer.BYTES).putInt(0, 1_000_000));
+
+      // the end of the corrupted record is unknown, so the records after it are not readable
+      assertThat(journal.peek()).isEmpty();
+      assertThat(journal.hasPending()).isFalse();
+      assertThat(listQuarantined()).hasSize(1);
+
+      journal.append("after".getBytes(UTF_8), TIMESTAMP);
+      assertThat(new String(journal.peek().orElseThrow().content(), UTF_8)).isEqualTo("after");
+    }
+  }
+
+  private static void overwrite(final Path segment, final long offset, final ByteBuffer bytes)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.write(bytes, offset);
+    }
+  }
+
+  private Path[] listQuarantined() throws IOException {
+    try (Stream<Path> files = Files.list(journalDir)) {
+      return files
+          .filter(
+              path -> path.getFileName().toString().startsWith(RejectedTxJournal.QUARANTINE_PREFIX))
+          .toArray(Path[]::new);
+    }
+  }
+
+  private long countSegments() throws IOException {
+    return listSegments().length;
+  }
+
+  private Path[] listSegments() throws IOException {
+    try (Stream<Path> files = Files.list(journalDir)) {
+      return files
+          .filter(
+              path -> path.getFileName().toString().startsWith(RejectedTxJournal.SEGMENT_PREFIX))
+          .sorted()
+          .toArray(Path[]::new);
+    }
+  }
+}
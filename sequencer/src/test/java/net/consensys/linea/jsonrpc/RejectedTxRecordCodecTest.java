@@ -0,0 +1,138 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.jsonrpc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.consensys.linea.config.LineaNodeType;
+import net.consensys.linea.sequencer.modulelimit.ModuleLimitsValidationResult;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RejectedTxRecordCodecTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void requestIsRebuiltFromCompactRecord(final boolean compress) throws IOException {
+    final RejectedTxReport report =
+        new RejectedTxReport(
+            42,
+            LineaNodeType.SEQUENCER,
+            Instant.parse("2024-08-22T09:18:51.123456789Z"),
+            Optional.of(12345L),
+            Bytes.random(200),
+            "Transaction line count for module ADD=402 is above the limit 70",
+            List.of(
+                ModuleLimitsValidationResult.txModuleLineCountOverflow("ADD", 402, 70, null, null),
+                ModuleLimitsValidationResult.moduleNotDefined("MUL")),
+            3);
+    final String request = report.toJsonRpc();
+
+    final byte[] record = RejectedTxRecordCodec.encode(List.of(report), false, compress);
+
+    assertThat(record[0])
+        .isEqualTo(
+            compress
+                ? RejectedTxRecordCodec.FORMAT_COMPACT_DEFLATED
+                : RejectedTxRecordCodec.FORMAT_COMPACT);
+    assertThat(record.length).isLessThan(request.getBytes(UTF_8).length);
+    assertThat(objectMapper.readTree(RejectedTxRecordCodec.decode(record)))
+        .isEqualTo(objectMapper.readTree(request));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void batchIsRebuiltFromCompactRecord(final boolean compress) throws IOException {
+    final Bytes transactionRlp = Bytes.random(500);
+    final List<JsonRpcContent> contents = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      contents.add(
+          JsonRpcContent.of(
+              new RejectedTxReport(
+                  i,
+                  LineaNodeType.P2P,
+                  Instant.ofEpochSecond(1_700_000_000L + i),
+                  Optional.empty(),
+                  transactionRlp,
+                  "Gas price too low",
+                  List.of(),
+                  0)));
+    }
+    final JsonRpcContent batch = JsonRpcContent.batch(contents);
+
+    final byte[] record = batch.toRecord(compress);
+
+    assertThat(objectMapper.readTree(RejectedTxRecordCodec.decode(record)))
+        .isEqualTo(objectMapper.readTree(batch.json()));
+    assertThat(objectMapper.readTree(batch.json()).size()).isEqualTo(contents.size());
+    if (compress) {
+      // the same transaction reported many times is compressed away
+      assertThat(record.length).isLessThan(transactionRlp.size() * 2);
+    }
+  }
+
+  @Test
+  void jsonContentIsStoredAsJson() {
+    final String request =
+        "{\"jsonrpc\":\"2.0\",\"method\":\"linea_saveRejectedTransactionV1\",\"params\":{"
+            + "\"txRejectionStage\":\"SEQUENCER\",\"timestamp\":\"2024-08-22T09:18:51Z\","
+            + "\"transactionRLP\":\"0x01\",\"reasonMessage\":\"reason\",\"overflows\":[]},"
+            + "\"id\":1}";
+
+    final byte[] record = JsonRpcContent.of(request).toRecord(true);
+
+    assertThat(record).isEqualTo(request.getBytes(UTF_8));
+    assertThat(RejectedTxRecordCodec.decode(record)).isEqualTo(request);
+  }
+
+  @Test
+  void jsonRecordIsDecodedAsIs() {
+    final String request = "[{\"jsonrpc\":\"2.0\",\"method\":\"other\",\"id\":1}]";
+
+    assertThat(RejectedTxRecordCodec.decode(request.getBytes(UTF_8))).isEqualTo(request);
+  }
+
+  @Test
+  void truncatedCompactRecordIsRejected() {
+    final RejectedTxReport report =
+        new RejectedTxReport(
+            1,
+            LineaNodeType.RPC,
+            Instant.ofEpochSecond(1_700_000_000L),
+            Optional.of(1L),
+            Bytes.random(32),
+            "reason",
+            List.of(),
+            0);
+    final byte[] record = RejectedTxRecordCodec.encode(List.of(report), false, false);
+
+    assertThatThrownBy(
+            () -> RejectedTxRecordCodec.decode(Arrays.copyOf(record, record.length - 10)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.jsonrpc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import net.consensys.linea.config.LineaNodeType;
+import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SharedJsonRpcManagerTest {
+  @TempDir private Path tempDataDir;
+  private LineaRejectedTxReportingConfiguration config;
+
+  @BeforeEach
+  void init() throws MalformedURLException {
+    // nothing listens on this port, so the reports stay on disk
+    config =
+        LineaRejectedTxReportingConfiguration.builder()
+            .rejectedTxEndpoint(URI.create("http://localhost:1").toURL())
+            .lineaNodeType(LineaNodeType.SEQUENCER)
+            .build();
+  }
+
+  @Test
+  void sameManagerIsSharedUntilTheLastRelease() {
+    final JsonRpcManager first =
+        SharedJsonRpcManager.acquire(tempDataDir, config, new NoOpMetricsSystem());
+    final JsonRpcManager second =
+        SharedJsonRpcManager.acquire(tempDataDir, config, new NoOpMetricsSystem());
+    assertThat(second).isSameAs(first);
+
+    SharedJsonRpcManager.release();
+    SharedJsonRpcManager.release();
+
+    final JsonRpcManager third =
+        SharedJsonRpcManager.acquire(tempDataDir, config, new NoOpMetricsSystem());
+    assertThat(third).isNotSameAs(first);
+    SharedJsonRpcManager.release();
+  }
+
+  @Test
+  void legacyReportsAreImported() throws IOException {
+    final Path selectorDir =
+        tempDataDir
+            .resolve(JsonRpcManager.JSON_RPC_DIR)
+            .resolve(SharedJsonRpcManager.LEGACY_PLUGIN_IDENTIFIERS.get(0));
+    Files.createDirectories(selectorDir);
+    FileDelivery.saveJsonToDir("{\"id\":1}", selectorDir);
+
+    final Path validatorDir =
+        tempDataDir
+            .resolve(JsonRpcManager.JSON_RPC_DIR)
+            .resolve(SharedJsonRpcManager.LEGACY_PLUGIN_IDENTIFIERS.get(1));
+    Files.createDirectories(validatorDir);
+    try (RejectedTxJournal journal = new RejectedTxJournal(validatorDir, 1024).open()) {
+      journal.append("{\"id\":2}".getBytes(UTF_8), Instant.now());
+    }
+
+    SharedJsonRpcManager.acquire(tempDataDir, config, new NoOpMetricsSystem());
+    try {
+      assertThat(countJsonFiles(selectorDir)).isZero();
+      assertThat(
+              countJsonFiles(
+                  tempDataDir
+                      .resolve(JsonRpcManager.JSON_RPC_DIR)
+                      .resolve(SharedJsonRpcManager.PLUGIN_IDENTIFIER)))
+          .isEqualTo(2);
+    } finally {
+      SharedJsonRpcManager.release();
+    }
+  }
+
+  private long countJsonFiles(final Path dir) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.filter(path -> path.toString().endsWith(".json")).count();
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.hyperledger.besu.evm.frame.MessageFrame;
+import org.junit.jupiter.api.Test;
+
+public class AbortingTracerTest {
+  private enum TestHaltReason implements AbortingTracer.HaltReason {
+    TEST_CHECK_FAILED
+  }
+
+  private static class TestTracer extends AbortingTracer<TestHaltReason> {
+    private boolean failing;
+    private int checks;
+
+    @Override
+    protected void checkAfterOpcode() {
+      check();
+    }
+
+    @Override
+    protected void checkOnContextExit() {
+      check();
+    }
+
+    private void check() {
+      ++checks;
+      if (failing) {
+        abort(TestHaltReason.TEST_CHECK_FAILED);
+      }
+    }
+  }
+
+  private final TestTracer tracer = new TestTracer();
+
+  @Test
+  public void executionIsNotHaltedWhileTheChecksPass() {
+    final MessageFrame frame = frame(MessageFrame.State.CODE_EXECUTING);
+    tracer.tracePostExecution(frame, null);
+    tracer.traceContextExit(frame);
+
+    assertThat(tracer.abortReason()).isEmpty();
+    verify(frame, never()).setState(any());
+  }
+
+  @Test
+  public void currentFrameIsHaltedWhenACheckFails() {
+    final MessageFrame frame = frame(MessageFrame.State.CODE_EXECUTING);
+    tracer.failing = true;
+
+    tracer.tracePostExecution(frame, null);
+    tracer.tracePostExecution(frame, null);
+
+    assertThat(tracer.abortReason()).contains(TestHaltReason.TEST_CHECK_FAILED);
+    assertThat(tracer.checks).isOne();
+    verify(frame).setExceptionalHaltReason(Optional.of(TestHaltReason.TEST_CHECK_FAILED));
+    verify(frame, times(2)).setState(MessageFrame.State.EXCEPTIONAL_HALT);
+  }
+
+  @Test
+  public void parentFrameIsHaltedWhenReEnteredAfterTheChildFailedACheck() {
+    final MessageFrame child = frame(MessageFrame.State.COMPLETED_SUCCESS);
+    final MessageFrame parent = frame(MessageFrame.State.CODE_EXECUTING);
+    tracer.failing = true;
+
+    tracer.traceContextExit(child);
+    tracer.traceContextReEnter(parent);
+
+    verify(child, never()).setState(any());
+    verify(parent).setState(MessageFrame.State.EXCEPTIONAL_HALT);
+  }
+
+  @Test
+  public void suspendedFrameIsNotHalted() {
+    final MessageFrame frame = frame(MessageFrame.State.CODE_SUSPENDED);
+    tracer.failing = true;
+
+    tracer.tracePostExecution(frame, null);
+
+    assertThat(tracer.abortReason()).isPresent();
+    verify(frame, never()).setState(any());
+  }
+
+  @Test
+  public void haltReasonIsDescribedByItsName() {
+    assertThat(TestHaltReason.TEST_CHECK_FAILED.getDescription()).isEqualTo("Test check failed");
+  }
+
+  private static MessageFrame frame(final MessageFrame.State state) {
+    final MessageFrame frame = mock(MessageFrame.class);
+    when(frame.getState()).thenReturn(state);
+    return frame;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.modulelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hyperledger.besu.evm.frame.MessageFrame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ModuleLimitWatchingTracerTest {
+  private static final Map<String, Integer> LIMITS = Map.of("ADD", 10, "MUL", 10);
+
+  private final Map<String, Integer> lineCounts = new HashMap<>();
+  private final AtomicInteger checks = new AtomicInteger();
+  private ModuleLimitWatchingTracer tracer;
+
+  @BeforeEach
+  public void initialize() {
+    lineCounts.put("ADD", 0);
+    lineCounts.put("MUL", 0);
+    tracer =
+        new ModuleLimitWatchingTracer(
+            () -> {
+              checks.incrementAndGet();
+              return lineCounts;
+            },
+            LIMITS,
+            3);
+  }
+
+  @Test
+  public void lineCountsAreCheckedEveryIntervalOpcodes() {
+    final MessageFrame frame = frame(MessageFrame.State.CODE_EXECUTING);
+    for (int i = 0; i < 7; i++) {
+      tracer.tracePostExecution(frame, null);
+    }
+
+    assertThat(checks).hasValue(2);
+    assertThat(tracer.overLimitResult()).isEmpty();
+    assertThat(tracer.abortReason()).isEmpty();
+  }
+
+  @Test
+  public void executionIsHaltedWhenAModuleIsOverTheLimit() {
+    final MessageFrame frame = frame(MessageFrame.State.CODE_EXECUTING);
+    tracer.tracePostExecution(frame, null);
+    lineCounts.put("MUL", 11);
+    tracer.tracePostExecution(frame, null);
+    assertThat(tracer.abortReason()).isEmpty();
+
+    tracer.tracePostExecution(frame, null);
+
+    assertThat(tracer.overLimitResult().map(ModuleLimitsValidationResult::getResult))
+        .contains(ModuleLineCountValidator.ModuleLineCountResult.TX_MODULE_LINE_COUNT_OVERFLOW);
+    assertThat(tracer.abortReason())
+        .contains(ModuleLimitWatchingTracer.HaltReason.MODULE_LINE_COUNT_OVERFLOW);
+  }
+
+  @Test
+  public void lineCountsAreCheckedWhenAContextExits() {
+    lineCounts.put("ADD", 11);
+
+    tracer.traceContextExit(frame(MessageFrame.State.COMPLETED_SUCCESS));
+
+    assertThat(checks).hasValue(1);
+    assertThat(tracer.abortReason())
+        .contains(ModuleLimitWatchingTracer.HaltReason.MODULE_LINE_COUNT_OVERFLOW);
+  }
+
+  private static MessageFrame frame(final MessageFrame.State state) {
+    final MessageFrame frame = mock(MessageFrame.class);
+    when(frame.getState()).thenReturn(state);
+    return frame;
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.modulelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.junit.jupiter.api.Test;
+
+public class ModuleLineCountPredictorTest {
+  private static final Address SENDER = Address.fromHexString("0x1000");
+  private static final Bytes CALL_DATA = Bytes.fromHexString("0xdeadbeef");
+
+  @Test
+  public void shouldNotPredictWhenDisabled() {
+    final var predictor = new ModuleLineCountPredictor(0);
+    final var tx = mockTransaction(Address.fromHexString("0x01"), CALL_DATA);
+
+    predictor.record(tx, Map.of("EXT", 100));
+
+    assertThat(predictor.isEnabled()).isFalse();
+    assertThat(predictor.predict(tx)).isEmpty();
+  }
+
+  @Test
+  public void shouldNotTrackPlainTransfers() {
+    final var predictor = new ModuleLineCountPredictor(10);
+    final var tx = mockTransaction(Address.fromHexString("0x01"), Bytes.EMPTY);
+
+    predictor.record(tx, Map.of("EXT", 100));
+
+    assertThat(predictor.predict(tx)).isEmpty();
+  }
+
+  @Test
+  public void shouldAverageLineCountsOfSameTarget() {
+    final var predictor = new ModuleLineCountPredictor(10);
+    final var contract = Address.fromHexString("0x01");
+
+    predictor.record(mockTransaction(contract, CALL_DATA), Map.of("EXT", 100, "HUB", 10));
+    predictor.record(mockTransaction(contract, CALL_DATA), Map.of("EXT", 200, "HUB", 10));
+
+    assertThat(predictor.predict(mockTransaction(contract, CALL_DATA)))
+        .contains(Map.of("EXT", 150, "HUB", 10));
+    assertThat(predictor.predict(mockTransaction(Address.fromHexString("0x02"), CALL_DATA)))
+        .isEmpty();
+  }
+
+  @Test
+  public void shouldUseSenderForContractCreation() {
+    final var predictor = new ModuleLineCountPredictor(10);
+
+    predictor.record(mockTransaction(null, CALL_DATA), Map.of("EXT", 100));
+
+    assertThat(predictor.predict(mockTransaction(null, CALL_DATA))).contains(Map.of("EXT", 100));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedTarget() {
+    final var predictor = new ModuleLineCountPredictor(2);
+    final var tx1 = mockTransaction(Address.fromHexString("0x01"), CALL_DATA);
+    final var tx2 = mockTransaction(Address.fromHexString("0x02"), CALL_DATA);
+    final var tx3 = mockTransaction(Address.fromHexString("0x03"), CALL_DATA);
+
+    predictor.record(tx1, Map.of("EXT", 1));
+    predictor.record(tx2, Map.of("EXT", 2));
+    // use the first one, so the second one is the least recently used
+    assertThat(predictor.predict(tx1)).isPresent();
+    predictor.record(tx3, Map.of("EXT", 3));
+
+    assertThat(predictor.predict(tx1)).isPresent();
+    assertThat(predictor.predict(tx2)).isEmpty();
+    assertThat(predictor.predict(tx3)).isPresent();
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Transaction mockTransaction(final Address to, final Bytes payload) {
+    final Transaction transaction = mock(Transaction.class);
+    when(transaction.getTo()).thenReturn((Optional) Optional.ofNullable(to));
+    when(transaction.getSender()).thenReturn(SENDER);
+    when(transaction.getPayload()).thenReturn(payload);
+    return transaction;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hyperledger.besu.evm.frame.MessageFrame;
+import org.junit.jupiter.api.Test;
+
+public class SimulationBudgetTracerTest {
+  private final AtomicLong nanoClock = new AtomicLong();
+
+  @Test
+  public void executionWithinTheBudgetsIsNotHalted() {
+    final SimulationBudgetTracer tracer = new SimulationBudgetTracer(10, 100, nanoClock::get);
+    final MessageFrame frame = frame(MessageFrame.State.CODE_EXECUTING);
+    for (int i = 0; i < 100; i++) {
+      tracer.tracePostExecution(frame, null);
+    }
+    nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+    tracer.traceContextExit(frame);
+
+    assertThat(tracer.abortReason()).isEmpty();
+  }
+
+  @Test
+  public void executionIsHaltedWhenTheOpcodeBudgetIsExceeded() {
+    final SimulationBudgetTracer tracer = new SimulationBudgetTracer(0, 100, nanoClock::get);
+    final MessageFrame frame = frame(MessageFrame.State.CODE_EXECUTING);
+    for (int i = 0; i < 100; i++) {
+      tracer.tracePostExecution(frame, null);
+    }
+    assertThat(tracer.abortReason()).isEmpty();
+
+    tracer.tracePostExecution(frame, null);
+
+    assertThat(tracer.abortReason())
+        .contains(SimulationBudgetTracer.HaltReason.SIMULATION_OPCODE_BUDGET_EXCEEDED);
+  }
+
+  @Test
+  public void elapsedTimeIsCheckedEveryIntervalOpcodes() {
+    final SimulationBudgetTracer tracer = new SimulationBudgetTracer(10, 0, nanoClock::get);
+    final MessageFrame frame = frame(MessageFrame.State.CODE_EXECUTING);
+    nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(11));
+    for (int i = 1; i < SimulationBudgetTracer.CLOCK_CHECK_INTERVAL; i++) {
+      tracer.tracePostExecution(frame, null);
+    }
+    assertThat(tracer.abortReason()).isEmpty();
+
+    tracer.tracePostExecution(frame, null);
+
+    assertThat(tracer.abortReason())
+        .contains(SimulationBudgetTracer.HaltReason.SIMULATION_TIME_BUDGET_EXCEEDED);
+  }
+
+  @Test
+  public void elapsedTimeIsCheckedWhenAContextExits() {
+    final SimulationBudgetTracer tracer = new SimulationBudgetTracer(10, 0, nanoClock::get);
+    nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(11));
+
+    tracer.traceContextExit(frame(MessageFrame.State.COMPLETED_SUCCESS));
+
+    assertThat(tracer.abortReason())
+        .contains(SimulationBudgetTracer.HaltReason.SIMULATION_TIME_BUDGET_EXCEEDED);
+  }
+
+  private static MessageFrame frame(final MessageFrame.State state) {
+    final MessageFrame frame = mock(MessageFrame.class);
+    when(frame.getState()).thenReturn(state);
+    return frame;
+  }
+}
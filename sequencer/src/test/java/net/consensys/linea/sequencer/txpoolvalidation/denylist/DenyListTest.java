@@ -0,0 +1,130 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.sequencer.txpoolvalidation.denylist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.datatypes.Address;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DenyListTest {
+  private static final Address FIRST =
+      Address.fromHexString("0x0000000000000000000000000000000000001000");
+  private static final Address SECOND =
+      Address.fromHexString("0xff00000000000000000000000000000000001001");
+  private static final Address THIRD =
+      Address.fromHexString("0x0000000000000000000000000000000000001002");
+
+  @TempDir private Path tempDir;
+
+  @Test
+  void indexFindsExactlyTheDeniedAddresses() {
+    final Random random = new Random(42);
+    final List<Address> denied = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      denied.add(Address.wrap(Bytes.random(Address.SIZE, random)));
+    }
+    // duplicates are ignored
+    denied.add(denied.get(0));
+    final Set<Address> deniedSet = new HashSet<>(denied);
+
+    final DenyListIndex index = DenyListIndex.of(denied);
+
+    assertThat(index.size()).isEqualTo(deniedSet.size());
+    assertThat(denied).allMatch(index::contains);
+    for (int i = 0; i < 100_000; i++) {
+      final Address address = Address.wrap(Bytes.random(Address.SIZE, random));
+      assertThat(index.contains(address)).isEqualTo(deniedSet.contains(address));
+    }
+    assertThat(DenyListIndex.EMPTY.contains(Address.ZERO)).isFalse();
+  }
+
+  @Test
+  void denyListIsReloadedWhenTheFileChanges() throws IOException {
+    final Path file = tempDir.resolve("denyList.txt");
+    write(file, List.of(FIRST.toHexString()), 1);
+
+    try (DenyList denyList = DenyList.load(file)) {
+      assertThat(denyList.contains(FIRST)).isTrue();
+      assertThat(denyList.contains(SECOND)).isFalse();
+      assertThat(denyList.reloadIfChanged()).isFalse();
+
+      write(file, List.of(SECOND.toHexString()), 2);
+
+      // the change is only seen at the first check, and reloaded when still the same at the next
+      assertThat(denyList.reloadIfChanged()).isFalse();
+      assertThat(denyList.contains(FIRST)).isTrue();
+      assertThat(denyList.reloadIfChanged()).isTrue();
+      assertThat(denyList.contains(FIRST)).isFalse();
+      assertThat(denyList.contains(SECOND)).isTrue();
+    }
+  }
+
+  @Test
+  void fileStillBeingWrittenIsNotReloaded() throws IOException {
+    final Path file = tempDir.resolve("denyList.txt");
+    write(file, List.of(FIRST.toHexString()), 1);
+
+    try (DenyList denyList = DenyList.load(file)) {
+      write(file, List.of(SECOND.toHexString()), 2);
+      assertThat(denyList.reloadIfChanged()).isFalse();
+
+      write(file, List.of(SECOND.toHexString(), THIRD.toHexString()), 3);
+      assertThat(denyList.reloadIfChanged()).isFalse();
+      assertThat(denyList.size()).isOne();
+      assertThat(denyList.contains(FIRST)).isTrue();
+
+      assertThat(denyList.reloadIfChanged()).isTrue();
+      assertThat(denyList.contains(FIRST)).isFalse();
+      assertThat(denyList.contains(SECOND)).isTrue();
+      assertThat(denyList.contains(THIRD)).isTrue();
+    }
+  }
+
+  @Test
+  void currentDenyListIsKeptIfTheReloadFails() throws IOException {
+    final Path file = tempDir.resolve("denyList.txt");
+    write(file, List.of(FIRST.toHexString()), 1);
+
+    try (DenyList denyList = DenyList.load(file)) {
+      write(file, List.of("not an address"), 2);
+
+      assertThat(denyList.reloadIfChanged()).isFalse();
+      assertThat(denyList.reloadIfChanged()).isFalse();
+      assertThat(denyList.contains(FIRST)).isTrue();
+      assertThat(denyList.size()).isOne();
+    }
+  }
+
+  private static void write(final Path file, final List<String> lines, final long seconds)
+      throws IOException {
+    Files.write(file, lines);
+    // the resolution of the last modified time could be too coarse to see the change
+    Files.setLastModifiedTime(file, FileTime.fromMillis(seconds * 1_000));
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package net.consensys.linea.sequencer.txpoolvalidation.validators;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
+import net.consensys.linea.config.QuotaOverflowPolicy;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.txvalidator.PluginTransactionPoolValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdmissionQuotaValidatorTest {
+  private static final Address SPAMMER =
+      Address.fromHexString("0x0000000000000000000000000000000000001000");
+  private static final Address HONEST =
+      Address.fromHexString("0x0000000000000000000000000000000000002000");
+
+  private final PluginTransactionPoolValidator profitabilityValidator =
+      mock(PluginTransactionPoolValidator.class);
+  private final PluginTransactionPoolValidator simulationValidator =
+      mock(PluginTransactionPoolValidator.class);
+  private long nowNanos;
+
+  @BeforeEach
+  void initialize() {
+    when(profitabilityValidator.validateTransaction(any(), anyBoolean(), anyBoolean()))
+        .thenReturn(Optional.empty());
+    when(simulationValidator.validateTransaction(any(), anyBoolean(), anyBoolean()))
+        .thenReturn(Optional.empty());
+  }
+
+  @Test
+  void senderExceedingItsQuotaIsRejectedWithoutAffectingOthers() {
+    final var validator =
+        createValidator(
+            LineaTransactionPoolValidatorConfiguration.builder()
+                .txPoolQuotaSenderRate(1)
+                .txPoolQuotaSenderBurst(2)
+                .txPoolQuotaMaxSenders(10)
+                .txPoolQuotaOverflowPolicy(QuotaOverflowPolicy.REJECT)
+                .build());
+
+    assertThat(validator.validateTransaction(tx(SPAMMER), false, false)).isEmpty();
+    assertThat(validator.validateTransaction(tx(SPAMMER), false, false)).isEmpty();
+    assertThat(validator.validateTransaction(tx(SPAMMER), false, false))
+        .contains("sender " + SPAMMER + " exceeded its tx pool admission quota");
+    assertThat(validator.validateTransaction(tx(HONEST), false, false)).isEmpty();
+    verify(simulationValidator, times(3)).validateTransaction(any(), anyBoolean(), anyBoolean());
+
+    // the bucket is refilled with the configured rate
+    nowNanos += TimeUnit.SECONDS.toNanos(1);
+    assertThat(validator.validateTransaction(tx(SPAMMER), false, false)).isEmpty();
+  }
+
+  @Test
+  void sourceQuotaIsIndependentForApiAndP2p() {
+    final var validator =
+        createValidator(
+            LineaTransactionPoolValidatorConfiguration.builder()
+                .txPoolQuotaMaxSenders(10)
+                .txPoolQuotaP2pRate(1)
+                .txPoolQuotaOverflowPolicy(QuotaOverflowPolicy.REJECT)
+                .build());
+
+    assertThat(validator.validateTransaction(tx(SPAMMER), false, false)).isEmpty();
+    assertThat(validator.validateTransaction(tx(HONEST), false, false))
+        .contains("tx pool admission quota for P2P txs exceeded");
+    assertThat(validator.validateTransaction(tx(HONEST), true, false)).isEmpty();
+  }
+
+  @Test
+  void throttledApiTxOnlySkipsTheSimulationWithSkipPolicy() {
+    final var validator =
+        createValidator(
+            LineaTransactionPoolValidatorConfiguration.builder()
+                .txPoolQuotaSenderRate(1)
+                .txPoolQuotaSenderBurst(1)
+                .txPoolQuotaMaxSenders(10)
+                .txPoolQuotaOverflowPolicy(QuotaOverflowPolicy.SKIP_SIMULATION)
+                .build());
+
+    assertThat(validator.validateTransaction(tx(SPAMMER), true, false)).isEmpty();
+    assertThat(validator.validateTransaction(tx(SPAMMER), true, false)).isEmpty();
+
+    verify(profitabilityValidator, times(2))
+        .validateTransaction(any(), anyBoolean(), anyBoolean());
+    verify(simulationValidator, times(1)).validateTransaction(any(), anyBoolean(), anyBoolean());
+  }
+
+  @Test
+  void throttledP2pTxIsRejectedEvenWithSkipPolicy() {
+    final var validator =
+        createValidator(
+            LineaTransactionPoolValidatorConfiguration.builder()
+                .txPoolQuotaSenderRate(1)
+                .txPoolQuotaSenderBurst(1)
+                .txPoolQuotaMaxSenders(10)
+                .txPoolQuotaOverflowPolicy(QuotaOverflowPolicy.SKIP_SIMULATION)
+                .build());
+
+    assertThat(validator.validateTransaction(tx(SPAMMER), false, false)).isEmpty();
+    assertThat(validator.validateTransaction(tx(SPAMMER), false, false))
+        .contains("sender " + SPAMMER + " exceeded its tx pool admission quota");
+
+    verify(profitabilityValidator, times(1))
+        .validateTransaction(any(), anyBoolean(), anyBoolean());
+    verify(simulationValidator, times(1)).validateTransaction(any(), anyBoolean(), anyBoolean());
+  }
+
+  @Test
+  void concurrentSendersNeverTakeMoreThanTheSourceQuota() throws Exception {
+    final var validator =
+        createValidator(
+            LineaTransactionPoolValidatorConfiguration.builder()
+                .txPoolQuotaSenderRate(1)
+                .txPoolQuotaSenderBurst(5)
+                .txPoolQuotaMaxSenders(100)
+                .txPoolQuotaP2pRate(100)
+                .txPoolQuotaOverflowPolicy(QuotaOverflowPolicy.REJECT)
+                .build());
+
+    final AtomicInteger admitted = new AtomicInteger();
+    try (final ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      for (int i = 0; i < 40; i++) {
+        final Transaction transaction =
+            tx(Address.fromHexString(String.format("0x%040x", 0x4000 + i)));
+        executor.submit(
+            () -> {
+              for (int j = 0; j < 10; j++) {
+                if (validator.validateTransaction(transaction, false, false).isEmpty()) {
+                  admitted.incrementAndGet();
+                }
+              }
+            });
+      }
+    }
+
+    // 40 senders with a burst of 5 would take 200 tokens, but the P2P quota only has 100
+    assertThat(admitted).hasValue(100);
+  }
+
+  @Test
+  void senderTokenIsGivenBackWhenTheSourceQuotaIsExceeded() {
+    final var validator =
+        createValidator(
+            LineaTransactionPoolValidatorConfiguration.builder()
+                .txPoolQuotaSenderRate(1)
+                .txPoolQuotaSenderBurst(1)
+                .txPoolQuotaMaxSenders(10)
+                .txPoolQuotaP2pRate(10)
+                .txPoolQuotaOverflowPolicy(QuotaOverflowPolicy.REJECT)
+                .build());
+
+    for (int i = 0; i < 10; i++) {
+      final Address sender = Address.fromHexString(String.format("0x%040x", 0x3000 + i));
+      assertThat(validator.validateTransaction(tx(sender), false, false)).isEmpty();
+    }
+    assertThat(validator.validateTransaction(tx(SPAMMER), false, false))
+        .contains("tx pool admission quota for P2P txs exceeded");
+
+    // the source quota is refilled with a token, while the sender one would not be
+    nowNanos += TimeUnit.MILLISECONDS.toNanos(150);
+    assertThat(validator.validateTransaction(tx(SPAMMER), false, false)).isEmpty();
+  }
+
+  @Test
+  void sourceWithoutExpensiveChecksIsNotCharged() {
+    final var txPoolValidatorConf =
+        LineaTransactionPoolValidatorConfiguration.builder()
+            .txPoolQuotaSenderRate(1)
+            .txPoolQuotaSenderBurst(1)
+            .txPoolQuotaMaxSenders(10)
+            .txPoolQuotaOverflowPolicy(QuotaOverflowPolicy.REJECT)
+            .build();
+    final var validator =
+        createValidator(txPoolValidatorConf, EnumSet.of(AdmissionQuotas.Source.API));
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(validator.validateTransaction(tx(SPAMMER), false, false)).isEmpty();
+    }
+    // the API txs are still throttled, and the P2P ones did not take any token of the sender
+    assertThat(validator.validateTransaction(tx(SPAMMER), true, false)).isEmpty();
+    assertThat(validator.validateTransaction(tx(SPAMMER), true, false))
+        .contains("sender " + SPAMMER + " exceeded its tx pool admission quota");
+  }
+
+  @Test
+  void priorityTxIsNeverThrottled() {
+    final var validator =
+        createValidator(
+            LineaTransactionPoolValidatorConfiguration.builder()
+                .txPoolQuotaSenderRate(1)
+                .txPoolQuotaSenderBurst(1)
+                .txPoolQuotaMaxSenders(10)
+                .txPoolQuotaApiRate(1)
+                .txPoolQuotaOverflowPolicy(QuotaOverflowPolicy.REJECT)
+                .build());
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(validator.validateTransaction(tx(SPAMMER), true, true)).isEmpty();
+    }
+    verify(simulationValidator, times(10)).validateTransaction(any(), anyBoolean(), anyBoolean());
+  }
+
+  private AdmissionQuotaValidator createValidator(
+      final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf) {
+    return createValidator(txPoolValidatorConf, EnumSet.allOf(AdmissionQuotas.Source.class));
+  }
+
+  private AdmissionQuotaValidator createValidator(
+      final LineaTransactionPoolValidatorConfiguration txPoolValidatorConf,
+      final Set<AdmissionQuotas.Source> checkedSources) {
+    final AdmissionQuotas quotas =
+        new AdmissionQuotas(txPoolValidatorConf, new NoOpMetricsSystem(), () -> nowNanos);
+    assertThat(quotas.isEnabled()).isTrue();
+    return new AdmissionQuotaValidator(
+        quotas,
+        txPoolValidatorConf.txPoolQuotaOverflowPolicy(),
+        profitabilityValidator,
+        simulationValidator,
+        checkedSources);
+  }
+
+  private static Transaction tx(final Address sender) {
+    final Transaction transaction = mock(Transaction.class);
+    when(transaction.getSender()).thenReturn(sender);
+    return transaction;
+  }
+}
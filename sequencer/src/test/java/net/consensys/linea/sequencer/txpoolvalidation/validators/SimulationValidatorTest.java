@@ -27,7 +27,11 @@ import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -37,6 +41,7 @@ import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -49,8 +54,11 @@ import net.consensys.linea.config.LineaRejectedTxReportingConfiguration;
 import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionPoolValidatorConfiguration;
 import net.consensys.linea.jsonrpc.JsonRpcManager;
+import net.consensys.linea.jsonrpc.ReportingStage;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
+import net.consensys.linea.sequencer.simulation.SimulationBudget;
+import net.consensys.linea.sequencer.simulation.SimulationBudgetTracer;
 import net.consensys.linea.sequencer.txselection.selectors.TraceLineLimitTransactionSelectorTest;
 import org.apache.tuweni.bytes.Bytes;
 import org.bouncycastle.asn1.sec.SECNamedCurves;
@@ -60,6 +68,7 @@ import org.hyperledger.besu.crypto.SECPSignature;
 import org.hyperledger.besu.datatypes.Address;
 import org.hyperledger.besu.datatypes.Wei;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 import org.hyperledger.besu.plugin.services.BlockchainService;
 import org.hyperledger.besu.plugin.services.TransactionSimulationService;
 import org.junit.jupiter.api.AfterEach;
@@ -139,7 +148,9 @@ public class SimulationValidatorTest {
             .lineaNodeType(LineaNodeType.P2P)
             .build();
     jsonRpcManager =
-        new JsonRpcManager("simulation-test", tempDataDir, rejectedTxReportingConf).start();
+        new JsonRpcManager(
+                "simulation-test", tempDataDir, rejectedTxReportingConf, new NoOpMetricsSystem())
+            .start();
 
     // rejected tx json-rpc stubbing
     stubFor(
@@ -161,6 +172,21 @@ public class SimulationValidatorTest {
       final Map<String, Integer> lineCountLimits,
       final boolean enableForApi,
       final boolean enableForP2p) {
+    return createSimulationValidator(
+        lineCountLimits,
+        enableForApi,
+        enableForP2p,
+        new SimulationBudget(
+            "tx_pool", LineaTracerConfiguration.builder().build(), new NoOpMetricsSystem()),
+        jsonRpcManager);
+  }
+
+  private SimulationValidator createSimulationValidator(
+      final Map<String, Integer> lineCountLimits,
+      final boolean enableForApi,
+      final boolean enableForP2p,
+      final SimulationBudget simulationBudget,
+      final JsonRpcManager jsonRpcManager) {
     return new SimulationValidator(
         blockchainService,
         transactionSimulationService,
@@ -173,7 +199,9 @@ public class SimulationValidatorTest {
             .contract(BRIDGE_CONTRACT)
             .topic(BRIDGE_LOG_TOPIC)
             .build(),
-        Optional.of(jsonRpcManager));
+        Optional.of(jsonRpcManager),
+        0,
+        simulationBudget);
   }
 
   @Test
@@ -192,6 +220,50 @@ public class SimulationValidatorTest {
     assertThat(simulationValidator.validateTransaction(transaction, true, false)).isEmpty();
   }
 
+  @Test
+  public void transactionExceedingTheSimulationBudgetIsInvalidAndReported() {
+    final var simulationBudget =
+        spy(
+            new SimulationBudget(
+                "tx_pool",
+                LineaTracerConfiguration.builder().simulationMaxOpcodes(100).build(),
+                new NoOpMetricsSystem()));
+    doReturn(
+            new SimulationBudget.Result(
+                Optional.empty(),
+                Optional.of(
+                    SimulationBudgetTracer.HaltReason.SIMULATION_OPCODE_BUDGET_EXCEEDED)))
+        .when(simulationBudget)
+        .simulate(any(), any(), any(), any(), anyBoolean());
+    final var reportingJsonRpcManager = mock(JsonRpcManager.class);
+    final var simulationValidator =
+        createSimulationValidator(
+            lineCountLimits, true, false, simulationBudget, reportingJsonRpcManager);
+    final org.hyperledger.besu.ethereum.core.Transaction transaction =
+        org.hyperledger.besu.ethereum.core.Transaction.builder()
+            .sender(SENDER)
+            .to(RECIPIENT)
+            .gasLimit(21000)
+            .gasPrice(PROFITABLE_GAS_PRICE)
+            .payload(Bytes.EMPTY)
+            .value(Wei.ONE)
+            .signature(FAKE_SIGNATURE)
+            .build();
+
+    final var expectedReasonMessage =
+        "Transaction simulation exceeded the budget of 100 executed opcodes";
+    assertThat(simulationValidator.validateTransaction(transaction, true, false))
+        .contains(expectedReasonMessage);
+    org.mockito.Mockito.verify(reportingJsonRpcManager)
+        .submitRejectedTxAsync(
+            ReportingStage.TX_POOL_VALIDATION,
+            transaction,
+            Optional.empty(),
+            SimulationBudgetTracer.HaltReason.SIMULATION_OPCODE_BUDGET_EXCEEDED.name(),
+            expectedReasonMessage,
+            List.of());
+  }
+
   @Test
   public void moduleLineCountOverflowTransactionIsInvalidAndReported() {
     lineCountLimits.put("EXT", 5);
@@ -0,0 +1,168 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.txselection.selectors;
+
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.BLOCK_MODULE_LINE_COUNT_FULL;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_SKIPPED_BY_BLOCK_PACKING;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.PendingTransaction;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.plugin.data.ProcessableBlockHeader;
+import org.hyperledger.besu.plugin.data.TransactionProcessingResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BlockPackingTransactionSelectorTest {
+  private static final int MAX_GAS_PER_BLOCK = 1000;
+  private static final int MAX_ATTEMPTS = 2;
+
+  private MaxBlockGasTransactionSelector maxBlockGasTransactionSelector;
+
+  @BeforeEach
+  public void initialize() {
+    maxBlockGasTransactionSelector = new MaxBlockGasTransactionSelector(MAX_GAS_PER_BLOCK);
+  }
+
+  @Test
+  public void shouldStopSelectionWhenPackingIsDisabled() {
+    final var selector = new BlockPackingTransactionSelector(0, maxBlockGasTransactionSelector);
+
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(500)))
+        .isEqualTo(SELECTED);
+    assertThat(
+            selector.onBlockModuleLineCountFull(
+                mockEvaluationContext(500), mockTransactionProcessingResult(400)))
+        .isEqualTo(BLOCK_MODULE_LINE_COUNT_FULL);
+  }
+
+  @Test
+  public void shouldSelectAllWhenNotPacking() {
+    final var selector =
+        new BlockPackingTransactionSelector(MAX_ATTEMPTS, maxBlockGasTransactionSelector);
+
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(MAX_GAS_PER_BLOCK)))
+        .isEqualTo(SELECTED);
+  }
+
+  @Test
+  public void shouldOnlyProcessCandidatesThatFitWhilePacking() {
+    final var selector =
+        new BlockPackingTransactionSelector(MAX_ATTEMPTS, maxBlockGasTransactionSelector);
+
+    // fill the block up to 80% of gas
+    final var fillingContext = mockEvaluationContext(800);
+    final var fillingResult = mockTransactionProcessingResult(800);
+    maxBlockGasTransactionSelector.evaluateTransactionPostProcessing(fillingContext, fillingResult);
+    maxBlockGasTransactionSelector.onTransactionSelected(fillingContext, fillingResult);
+
+    assertThat(
+            selector.onBlockModuleLineCountFull(
+                mockEvaluationContext(150), mockTransactionProcessingResult(150)))
+        .isEqualTo(TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT);
+
+    // not smaller than the tx that did not fit in the line count
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(150)))
+        .isEqualTo(TX_SKIPPED_BY_BLOCK_PACKING);
+    // does not fit in the remaining block gas
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(300)))
+        .isEqualTo(TX_SKIPPED_BY_BLOCK_PACKING);
+    // fits
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(100)))
+        .isEqualTo(SELECTED);
+  }
+
+  @Test
+  public void shouldStopSelectionWhenAttemptsAreConsumed() {
+    final var selector =
+        new BlockPackingTransactionSelector(MAX_ATTEMPTS, maxBlockGasTransactionSelector);
+
+    assertThat(
+            selector.onBlockModuleLineCountFull(
+                mockEvaluationContext(500), mockTransactionProcessingResult(500)))
+        .isEqualTo(TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT);
+
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(400)))
+        .isEqualTo(SELECTED);
+    selector.evaluateTransactionPostProcessing(
+        mockEvaluationContext(400), mockTransactionProcessingResult(400));
+    assertThat(
+            selector.onBlockModuleLineCountFull(
+                mockEvaluationContext(400), mockTransactionProcessingResult(400)))
+        .isEqualTo(TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT);
+
+    // the max candidate gas limit is lowered by the last overflowing tx
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(450)))
+        .isEqualTo(TX_SKIPPED_BY_BLOCK_PACKING);
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(300)))
+        .isEqualTo(SELECTED);
+    selector.evaluateTransactionPostProcessing(
+        mockEvaluationContext(300), mockTransactionProcessingResult(300));
+    assertThat(
+            selector.onBlockModuleLineCountFull(
+                mockEvaluationContext(300), mockTransactionProcessingResult(300)))
+        .isEqualTo(BLOCK_MODULE_LINE_COUNT_FULL);
+
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(100)))
+        .isEqualTo(BLOCK_MODULE_LINE_COUNT_FULL);
+  }
+
+  @Test
+  public void candidatesNotExecutedDoNotConsumeAttempts() {
+    final var selector =
+        new BlockPackingTransactionSelector(MAX_ATTEMPTS, maxBlockGasTransactionSelector);
+
+    assertThat(
+            selector.onBlockModuleLineCountFull(
+                mockEvaluationContext(500), mockTransactionProcessingResult(500)))
+        .isEqualTo(TX_TOO_LARGE_FOR_REMAINING_LINE_COUNT);
+
+    // candidates rejected by the following selectors before being executed
+    for (int i = 0; i < MAX_ATTEMPTS * 2; i++) {
+      assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(100)))
+          .isEqualTo(SELECTED);
+    }
+
+    final var executedContext = mockEvaluationContext(100);
+    assertThat(selector.evaluateTransactionPreProcessing(executedContext)).isEqualTo(SELECTED);
+    selector.evaluateTransactionPostProcessing(
+        executedContext, mockTransactionProcessingResult(100));
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(100)))
+        .isEqualTo(SELECTED);
+  }
+
+  private TestTransactionEvaluationContext mockEvaluationContext(final long gasLimit) {
+    PendingTransaction pendingTransaction = mock(PendingTransaction.class);
+    Transaction transaction = mock(Transaction.class);
+    when(transaction.getGasLimit()).thenReturn(gasLimit);
+    when(transaction.getHash()).thenReturn(Hash.ZERO);
+    when(pendingTransaction.getTransaction()).thenReturn(transaction);
+    return new TestTransactionEvaluationContext(
+        mock(ProcessableBlockHeader.class), pendingTransaction);
+  }
+
+  private TransactionProcessingResult mockTransactionProcessingResult(long gasUsedByTransaction) {
+    TransactionProcessingResult mockTransactionProcessingResult =
+        mock(TransactionProcessingResult.class);
+    when(mockTransactionProcessingResult.getEstimateGasUsedByTransaction())
+        .thenReturn(gasUsedByTransaction);
+    return mockTransactionProcessingResult;
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.txselection.selectors;
+
+import static net.consensys.linea.sequencer.txselection.selectors.PendingTxProfitabilityTable.Verdict.PROFITABLE;
+import static net.consensys.linea.sequencer.txselection.selectors.PendingTxProfitabilityTable.Verdict.UNKNOWN;
+import static net.consensys.linea.sequencer.txselection.selectors.PendingTxProfitabilityTable.Verdict.UNPROFITABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.consensys.linea.bl.CompressedTxSizeCache;
+import net.consensys.linea.config.LineaProfitabilityConfiguration;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.datatypes.Wei;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PendingTxProfitabilityTableTest {
+  private static final int COMPRESSED_SIZE = 100;
+  private static final long GAS_LIMIT = 21_000;
+  private static final Wei BASE_FEE = Wei.of(7);
+  private static final Wei MIN_GAS_PRICE = Wei.of(1_000_000);
+  // the profitable priority fee is 1 * (1_000_000_000 * 100 / 21_000 + 0) = 4_761_904
+  private static final long VARIABLE_COST_WEI = 1_000_000_000;
+
+  private final AtomicInteger compressions = new AtomicInteger();
+  private LineaProfitabilityConfiguration profitabilityConf;
+  private CompressedTxSizeCache compressedTxSizeCache;
+  private Wei minGasPrice = MIN_GAS_PRICE;
+  private PendingTxProfitabilityTable table;
+
+  @BeforeEach
+  void initialize() {
+    profitabilityConf =
+        LineaProfitabilityConfiguration.builder()
+            .fixedCostWei(0)
+            .variableCostWei(VARIABLE_COST_WEI)
+            .minMargin(1.0)
+            .extraDataPricingEnabled(true)
+            .build();
+    compressedTxSizeCache =
+        new CompressedTxSizeCache(
+            16,
+            tx -> {
+              compressions.incrementAndGet();
+              return COMPRESSED_SIZE;
+            });
+    table = createTable();
+  }
+
+  @Test
+  void verdictFollowsTheProfitabilityFormula() {
+    final Transaction profitable = legacyTx(1, 4_761_904 + 7);
+    final Transaction unprofitable = legacyTx(2, 4_761_904 + 6);
+    final Transaction eip1559 = eip1559Tx(3, 10_000_000, 4_761_904);
+
+    table.onTransactionAdded(profitable);
+    table.onTransactionAdded(unprofitable);
+    table.onTransactionAdded(eip1559);
+    table.onBlockAdded(List.of(), BASE_FEE);
+
+    assertThat(verdict(profitable)).isEqualTo(PROFITABLE);
+    assertThat(verdict(unprofitable)).isEqualTo(UNPROFITABLE);
+    assertThat(verdict(eip1559)).isEqualTo(PROFITABLE);
+    // the effective gas price is capped by the max fee
+    table.onBlockAdded(List.of(), Wei.of(5_238_097));
+    assertThat(table.verdict(eip1559.getHash(), Wei.of(5_238_097), MIN_GAS_PRICE))
+        .isEqualTo(UNPROFITABLE);
+  }
+
+  @Test
+  void verdictIsUnknownUntilTheTableIsEvaluatedForTheSameInputs() {
+    final Transaction transaction = legacyTx(1, 5_000_000);
+    table.onTransactionAdded(transaction);
+
+    // the verdict never evaluates the table
+    assertThat(verdict(transaction)).isEqualTo(UNKNOWN);
+    assertThat(table.evaluatedPricingVersion()).isEqualTo(-1);
+
+    table.onBlockAdded(List.of(), BASE_FEE);
+    assertThat(verdict(transaction)).isEqualTo(PROFITABLE);
+    assertThat(table.verdict(transaction.getHash(), Wei.of(8), MIN_GAS_PRICE)).isEqualTo(UNKNOWN);
+    assertThat(table.verdict(transaction.getHash(), BASE_FEE, Wei.of(1))).isEqualTo(UNKNOWN);
+  }
+
+  @Test
+  void pricingEpochReEvaluatesTheTable() {
+    profitabilityConf.pricingEpochBus().subscribe(table::onPricingEpoch);
+    final Transaction transaction = legacyTx(1, 5_000_000);
+    table.onTransactionAdded(transaction);
+    table.onBlockAdded(List.of(), BASE_FEE);
+    assertThat(verdict(transaction)).isEqualTo(PROFITABLE);
+
+    profitabilityConf.updateFixedAndVariableCost(0, VARIABLE_COST_WEI * 2);
+    // the last evaluation is for the previous pricing
+    assertThat(verdict(transaction)).isEqualTo(UNKNOWN);
+
+    profitabilityConf
+        .pricingEpochBus()
+        .publish(profitabilityConf.pricingSnapshot(), MIN_GAS_PRICE.toLong());
+
+    assertThat(table.evaluatedPricingVersion())
+        .isEqualTo(profitabilityConf.pricingSnapshot().version());
+    assertThat(verdict(transaction)).isEqualTo(UNPROFITABLE);
+  }
+
+  @Test
+  void pricingEpochReEvaluatesTheTableWithTheMinGasPriceOfTheNode() {
+    profitabilityConf =
+        profitabilityConf.toBuilder()
+            .extraDataPricingEnabled(false)
+            .extraDataSetMinGasPriceEnabled(true)
+            .build();
+    table = createTable();
+    profitabilityConf.pricingEpochBus().subscribe(table::onPricingEpoch);
+    // without the extra data pricing the variable cost is the min gas price
+    final Transaction transaction = legacyTx(1, 100_000);
+    table.onTransactionAdded(transaction);
+    table.onBlockAdded(List.of(), BASE_FEE);
+    assertThat(verdict(transaction)).isEqualTo(PROFITABLE);
+
+    // the extra data sets the min gas price of the node before publishing the epoch
+    minGasPrice = Wei.of(VARIABLE_COST_WEI);
+    profitabilityConf
+        .pricingEpochBus()
+        .publish(profitabilityConf.pricingSnapshot(), VARIABLE_COST_WEI);
+
+    assertThat(table.evaluatedMinGasPrice()).isEqualTo(VARIABLE_COST_WEI);
+    assertThat(table.verdict(transaction.getHash(), BASE_FEE, Wei.of(VARIABLE_COST_WEI)))
+        .isEqualTo(UNPROFITABLE);
+  }
+
+  @Test
+  void blockAddedRemovesIncludedTxsAndEvaluatesForTheNextBaseFee() {
+    final Transaction included = legacyTx(1, 5_000_000);
+    final Transaction pending = legacyTx(2, 5_000_000);
+    table.onTransactionAdded(included);
+    table.onTransactionAdded(pending);
+    table.onBlockAdded(List.of(), BASE_FEE);
+    assertThat(verdict(pending)).isEqualTo(PROFITABLE);
+
+    table.onBlockAdded(List.of(included), Wei.of(300_000));
+
+    assertThat(table.size()).isOne();
+    assertThat(table.verdict(included.getHash(), Wei.of(300_000), MIN_GAS_PRICE))
+        .isEqualTo(UNKNOWN);
+    assertThat(table.verdict(pending.getHash(), Wei.of(300_000), MIN_GAS_PRICE))
+        .isEqualTo(UNPROFITABLE);
+  }
+
+  @Test
+  void txsAddedAfterTheEvaluationAreEvaluatedOnTheNextHead() {
+    table.onBlockAdded(List.of(), BASE_FEE);
+    final Transaction transaction = legacyTx(1, 5_000_000);
+    table.onTransactionAdded(transaction);
+    assertThat(verdict(transaction)).isEqualTo(UNKNOWN);
+
+    // the base fee did not change, but the table is evaluated again for the added tx
+    table.onBlockAdded(List.of(), BASE_FEE);
+
+    assertThat(verdict(transaction)).isEqualTo(PROFITABLE);
+  }
+
+  @Test
+  void removedSlotIsFilledByTheLastTx() {
+    final Transaction first = legacyTx(1, 5_000_000);
+    final Transaction second = legacyTx(2, 1_000_000);
+    final Transaction third = legacyTx(3, 5_000_000);
+    table.onTransactionAdded(first);
+    table.onTransactionAdded(second);
+    table.onTransactionAdded(third);
+
+    table.remove(first.getHash());
+    table.onBlockAdded(List.of(), BASE_FEE);
+
+    assertThat(table.size()).isEqualTo(2);
+    assertThat(verdict(first)).isEqualTo(UNKNOWN);
+    assertThat(verdict(second)).isEqualTo(UNPROFITABLE);
+    assertThat(verdict(third)).isEqualTo(PROFITABLE);
+  }
+
+  @Test
+  void txsOverTheCapacityAreUnknown() {
+    for (int i = 1; i <= 4; i++) {
+      table.onTransactionAdded(legacyTx(i, 5_000_000));
+    }
+    table.onBlockAdded(List.of(), BASE_FEE);
+
+    assertThat(table.size()).isEqualTo(3);
+    assertThat(verdict(legacyTx(3, 5_000_000))).isEqualTo(PROFITABLE);
+    assertThat(verdict(legacyTx(4, 5_000_000))).isEqualTo(UNKNOWN);
+  }
+
+  @Test
+  void marginIndexListsTheLowestMarginOfTheBestTxs() {
+    final Transaction high = legacyTx(1, 4_761_904 * 2 + 7);
+    final Transaction breakEven = legacyTx(2, 4_761_904 + 7);
+    final Transaction low = legacyTx(3, 4_761_904 / 2 + 7);
+    table.onTransactionAdded(low);
+    table.onTransactionAdded(high);
+    table.onTransactionAdded(breakEven);
+    table.onBlockAdded(List.of(), BASE_FEE);
+
+    assertThat(table.expectedMargin(high.getHash(), BASE_FEE, MIN_GAS_PRICE)).isEqualTo(2.0);
+    assertThat(table.expectedMargin(breakEven.getHash(), BASE_FEE, MIN_GAS_PRICE)).isEqualTo(1.0);
+    assertThat(table.expectedMargin(low.getHash(), BASE_FEE, MIN_GAS_PRICE)).isEqualTo(0.5);
+    assertThat(table.expectedMargin(legacyTx(4, 1).getHash(), BASE_FEE, MIN_GAS_PRICE)).isNaN();
+
+    assertThat(table.lowestMarginOfTheBest(1, BASE_FEE, MIN_GAS_PRICE)).isEqualTo(2.0);
+    assertThat(table.lowestMarginOfTheBest(2, BASE_FEE, MIN_GAS_PRICE)).isEqualTo(1.0);
+    // all the evaluated txs are among the best ones
+    assertThat(table.lowestMarginOfTheBest(3, BASE_FEE, MIN_GAS_PRICE))
+        .isEqualTo(Double.NEGATIVE_INFINITY);
+    // the index is not used for other inputs
+    assertThat(table.lowestMarginOfTheBest(1, Wei.of(8), MIN_GAS_PRICE))
+        .isEqualTo(Double.NEGATIVE_INFINITY);
+  }
+
+  @Test
+  void sizesCompressedByTheValidatorsAreReused() {
+    final Transaction validated = legacyTx(1, 5_000_000);
+    final Transaction notValidated = legacyTx(2, 5_000_000);
+    // the txpool validators compress the tx before it is added
+    compressedTxSizeCache.compressedSize(validated);
+    assertThat(compressions).hasValue(1);
+
+    table.onTransactionAdded(validated);
+    table.onTransactionAdded(notValidated);
+    // nothing is compressed on the pool event thread
+    assertThat(compressions).hasValue(1);
+
+    table.onBlockAdded(List.of(), BASE_FEE);
+
+    assertThat(compressions).hasValue(2);
+    assertThat(verdict(validated)).isEqualTo(PROFITABLE);
+    assertThat(verdict(notValidated)).isEqualTo(PROFITABLE);
+  }
+
+  private PendingTxProfitabilityTable createTable() {
+    return new PendingTxProfitabilityTable(
+        3, profitabilityConf, () -> minGasPrice, compressedTxSizeCache);
+  }
+
+  private PendingTxProfitabilityTable.Verdict verdict(final Transaction transaction) {
+    return table.verdict(transaction.getHash(), BASE_FEE, MIN_GAS_PRICE);
+  }
+
+  private static Transaction legacyTx(final int id, final long gasPrice) {
+    final Transaction transaction = mockTx(id);
+    doReturn(Optional.empty()).when(transaction).getMaxFeePerGas();
+    doReturn(Optional.of(Wei.of(gasPrice))).when(transaction).getGasPrice();
+    return transaction;
+  }
+
+  private static Transaction eip1559Tx(
+      final int id, final long maxFeePerGas, final long maxPriorityFeePerGas) {
+    final Transaction transaction = mockTx(id);
+    doReturn(Optional.of(Wei.of(maxFeePerGas))).when(transaction).getMaxFeePerGas();
+    doReturn(Optional.of(Wei.of(maxPriorityFeePerGas)))
+        .when(transaction)
+        .getMaxPriorityFeePerGas();
+    return transaction;
+  }
+
+  private static Transaction mockTx(final int id) {
+    final Transaction transaction = mock(Transaction.class);
+    when(transaction.getHash()).thenReturn(Hash.wrap(Bytes32.leftPad(Bytes.ofUnsignedInt(id))));
+    when(transaction.getGasLimit()).thenReturn(GAS_LIMIT);
+    return transaction;
+  }
+}
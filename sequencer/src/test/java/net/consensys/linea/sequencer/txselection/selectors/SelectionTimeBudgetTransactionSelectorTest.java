@@ -0,0 +1,170 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.txselection.selectors;
+
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_SKIPPED_BY_LOW_SELECTION_TIME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
+import net.consensys.linea.sequencer.txselection.selectors.SelectionTimeBudgetTransactionSelector.Stage;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.PendingTransaction;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.data.ProcessableBlockHeader;
+import org.hyperledger.besu.plugin.data.TransactionProcessingResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SelectionTimeBudgetTransactionSelectorTest {
+  private static final long BUDGET_MS = 1000;
+  private static final int LOW_TIME_PERCENTAGE = 20;
+
+  private final AtomicLong clock = new AtomicLong();
+  private ProfitableTransactionSelector profitableTransactionSelector;
+  private SelectionTimeBudgetTransactionSelector.Metrics metrics;
+  private SelectionTimeBudgetTransactionSelector selector;
+
+  @BeforeEach
+  public void initialize() {
+    metrics = new SelectionTimeBudgetTransactionSelector.Metrics(new NoOpMetricsSystem());
+    profitableTransactionSelector = mock(ProfitableTransactionSelector.class);
+    selector = newSelector(BUDGET_MS);
+  }
+
+  @Test
+  public void shouldAccountStageTimes() {
+    final var evaluationContext = mockEvaluationContext(21_000);
+
+    final long preProcessingStart = selector.now();
+    clock.addAndGet(10);
+    selector.onPreProcessingEnd(preProcessingStart);
+    clock.addAndGet(21_000);
+    final long postProcessingStart =
+        selector.onPostProcessingStart(mockTransactionProcessingResult(21_000));
+    clock.addAndGet(30);
+    selector.addStageTime(Stage.POST_PROCESSING, postProcessingStart);
+    final long notificationStart = selector.now();
+    clock.addAndGet(5);
+    selector.addStageTime(Stage.NOTIFICATION, notificationStart);
+
+    assertThat(selector.getStageNanos(Stage.PRE_PROCESSING)).isEqualTo(10);
+    assertThat(selector.getStageNanos(Stage.EXECUTION)).isEqualTo(21_000);
+    assertThat(selector.getStageNanos(Stage.POST_PROCESSING)).isEqualTo(30);
+    assertThat(selector.getStageNanos(Stage.NOTIFICATION)).isEqualTo(5);
+    assertThat(metrics.avgExecutionNanosPerGas).isEqualTo(1.0);
+    assertThat(selector.evaluateTransactionPreProcessing(evaluationContext)).isEqualTo(SELECTED);
+  }
+
+  @Test
+  public void shouldSelectAllWhenBudgetIsDisabled() {
+    selector = newSelector(0);
+    metrics.avgExecutionNanosPerGas = 1.0;
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(30_000_000)))
+        .isEqualTo(SELECTED);
+    verify(profitableTransactionSelector, never()).stopUnprofitableRetries();
+  }
+
+  @Test
+  public void shouldPreferSmallTxsWhenTimeIsLow() {
+    metrics.avgExecutionNanosPerGas = 1.0;
+
+    // plenty of time, big tx is selected
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(30_000_000)))
+        .isEqualTo(SELECTED);
+    verify(profitableTransactionSelector, never()).stopUnprofitableRetries();
+
+    // 10ms left, under the low time threshold
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(BUDGET_MS - 10));
+
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(30_000_000)))
+        .isEqualTo(TX_SKIPPED_BY_LOW_SELECTION_TIME);
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(21_000)))
+        .isEqualTo(SELECTED);
+    verify(profitableTransactionSelector, times(1)).stopUnprofitableRetries();
+  }
+
+  @Test
+  public void shouldSkipTheTxsUnderTheMarginOfTheBestOnesWhenTimeIsLow() {
+    metrics.avgExecutionNanosPerGas = 1.0;
+    // 4 txs evaluated in the first 800ms, so 1 more could be evaluated in the last 200ms
+    for (int i = 0; i < 3; i++) {
+      selector.evaluateTransactionPreProcessing(mockEvaluationContext(21_000));
+    }
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(BUDGET_MS - 200));
+    when(profitableTransactionSelector.lowestMarginOfTheBest(eq(1), any())).thenReturn(2.0);
+
+    final var lowMargin = mockEvaluationContext(21_000);
+    final var highMargin = mockEvaluationContext(21_000);
+    final var unknownMargin = mockEvaluationContext(21_000);
+    mockExpectedMargin(lowMargin, 1.5);
+    mockExpectedMargin(highMargin, 3.0);
+    mockExpectedMargin(unknownMargin, Double.NaN);
+
+    assertThat(selector.evaluateTransactionPreProcessing(lowMargin))
+        .isEqualTo(TX_SKIPPED_BY_LOW_SELECTION_TIME);
+    assertThat(selector.evaluateTransactionPreProcessing(highMargin)).isEqualTo(SELECTED);
+    assertThat(selector.evaluateTransactionPreProcessing(unknownMargin)).isEqualTo(SELECTED);
+  }
+
+  private void mockExpectedMargin(
+      final TestTransactionEvaluationContext evaluationContext, final double margin) {
+    final Hash hash = Hash.wrap(Bytes32.random());
+    when(evaluationContext.getPendingTransaction().getTransaction().getHash()).thenReturn(hash);
+    when(profitableTransactionSelector.expectedMargin(eq(hash), any())).thenReturn(margin);
+  }
+
+  private SelectionTimeBudgetTransactionSelector newSelector(final long budgetMs) {
+    return new SelectionTimeBudgetTransactionSelector(
+        LineaTransactionSelectorConfiguration.builder()
+            .selectionTimeBudget(budgetMs)
+            .selectionLowTimePercentage(LOW_TIME_PERCENTAGE)
+            .build(),
+        profitableTransactionSelector,
+        metrics,
+        clock::get);
+  }
+
+  private TestTransactionEvaluationContext mockEvaluationContext(final long gasLimit) {
+    PendingTransaction pendingTransaction = mock(PendingTransaction.class);
+    Transaction transaction = mock(Transaction.class);
+    when(transaction.getGasLimit()).thenReturn(gasLimit);
+    when(pendingTransaction.getTransaction()).thenReturn(transaction);
+    return new TestTransactionEvaluationContext(
+        mock(ProcessableBlockHeader.class), pendingTransaction);
+  }
+
+  private TransactionProcessingResult mockTransactionProcessingResult(long gasUsedByTransaction) {
+    TransactionProcessingResult mockTransactionProcessingResult =
+        mock(TransactionProcessingResult.class);
+    when(mockTransactionProcessingResult.getEstimateGasUsedByTransaction())
+        .thenReturn(gasUsedByTransaction);
+    return mockTransactionProcessingResult;
+  }
+}
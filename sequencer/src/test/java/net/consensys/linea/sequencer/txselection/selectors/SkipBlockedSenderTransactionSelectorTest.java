@@ -0,0 +1,113 @@
+/*
+ * Copyright Consensys Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.linea.sequencer.txselection.selectors;
+
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_MODULE_LINE_COUNT_OVERFLOW;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_PREVIOUS_NONCE_NOT_SELECTED;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_SKIPPED_BY_BLOCK_PACKING;
+import static net.consensys.linea.sequencer.txselection.LineaTransactionSelectionResult.TX_UNPROFITABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.PendingTransaction;
+import org.hyperledger.besu.datatypes.Transaction;
+import org.hyperledger.besu.plugin.data.ProcessableBlockHeader;
+import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SkipBlockedSenderTransactionSelectorTest {
+  private static final Address SENDER_1 = Address.fromHexString("0x1");
+  private static final Address SENDER_2 = Address.fromHexString("0x2");
+
+  private Counter skippedTxsCounter;
+  private SkipBlockedSenderTransactionSelector selector;
+
+  @BeforeEach
+  public void initialize() {
+    skippedTxsCounter = mock(Counter.class);
+    selector = new SkipBlockedSenderTransactionSelector(skippedTxsCounter);
+  }
+
+  @Test
+  public void shouldSelectWhenNoSenderIsBlocked() {
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(SENDER_1, 0)))
+        .isEqualTo(SELECTED);
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(SENDER_1, 1)))
+        .isEqualTo(SELECTED);
+  }
+
+  @Test
+  public void shouldSkipGreaterNoncesOfBlockedSender() {
+    final var unprofitableContext = mockEvaluationContext(SENDER_1, 5);
+    assertThat(selector.evaluateTransactionPreProcessing(unprofitableContext)).isEqualTo(SELECTED);
+    selector.onTransactionNotSelected(unprofitableContext, TX_UNPROFITABLE);
+
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(SENDER_1, 6)))
+        .isEqualTo(TX_PREVIOUS_NONCE_NOT_SELECTED);
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(SENDER_1, 7)))
+        .isEqualTo(TX_PREVIOUS_NONCE_NOT_SELECTED);
+    // the same or a lower nonce could still be selected, for example a replacement tx
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(SENDER_1, 5)))
+        .isEqualTo(SELECTED);
+    // other senders are not affected
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(SENDER_2, 6)))
+        .isEqualTo(SELECTED);
+
+    verify(skippedTxsCounter, times(2)).inc();
+  }
+
+  @Test
+  public void shouldKeepTheLowestBlockedNonce() {
+    selector.onTransactionNotSelected(
+        mockEvaluationContext(SENDER_1, 3), TX_MODULE_LINE_COUNT_OVERFLOW);
+    selector.onTransactionNotSelected(mockEvaluationContext(SENDER_1, 8), TX_UNPROFITABLE);
+
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(SENDER_1, 4)))
+        .isEqualTo(TX_PREVIOUS_NONCE_NOT_SELECTED);
+  }
+
+  @Test
+  public void shouldNotBlockSenderForOtherResults() {
+    selector.onTransactionNotSelected(
+        mockEvaluationContext(SENDER_1, 3), TransactionSelectionResult.invalid("NONCE_TOO_LOW"));
+    selector.onTransactionNotSelected(
+        mockEvaluationContext(SENDER_1, 4), TX_SKIPPED_BY_BLOCK_PACKING);
+    selector.onTransactionNotSelected(
+        mockEvaluationContext(SENDER_1, 5), TX_PREVIOUS_NONCE_NOT_SELECTED);
+
+    assertThat(selector.evaluateTransactionPreProcessing(mockEvaluationContext(SENDER_1, 6)))
+        .isEqualTo(SELECTED);
+  }
+
+  private TestTransactionEvaluationContext mockEvaluationContext(
+      final Address sender, final long nonce) {
+    PendingTransaction pendingTransaction = mock(PendingTransaction.class);
+    Transaction transaction = mock(Transaction.class);
+    when(transaction.getSender()).thenReturn(sender);
+    when(transaction.getNonce()).thenReturn(nonce);
+    when(transaction.getHash()).thenReturn(Hash.ZERO);
+    when(pendingTransaction.getTransaction()).thenReturn(transaction);
+    return new TestTransactionEvaluationContext(
+        mock(ProcessableBlockHeader.class), pendingTransaction);
+  }
+}
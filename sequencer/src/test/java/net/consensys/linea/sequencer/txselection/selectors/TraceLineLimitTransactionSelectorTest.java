@@ -27,10 +27,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import net.consensys.linea.config.LineaTracerConfiguration;
 import net.consensys.linea.config.LineaTransactionSelectorConfiguration;
 import net.consensys.linea.plugins.config.LineaL1L2BridgeSharedConfiguration;
+import net.consensys.linea.sequencer.modulelimit.ModuleLineCountPredictor;
 import net.consensys.linea.sequencer.modulelimit.ModuleLineCountValidator;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
@@ -197,6 +199,49 @@ public class TraceLineLimitTransactionSelectorTest {
         .isTrue();
   }
 
+  @Test
+  public void shouldOnlyRecordTheLineCountsOfSelectedTxs() {
+    final var predictor = new ModuleLineCountPredictor(10);
+    final Address contract = Address.fromHexString("0x1234");
+
+    lineCountLimits.put("EXT", 5);
+    var transactionSelector =
+        new TestableTraceLineLimitTransactionSelector(
+            lineaTracerConfiguration, lineCountLimits, OVER_LINE_COUNT_LIMIT_CACHE_SIZE, predictor);
+    transactionSelector.resetCache();
+    final var rejected = mockEvaluationContextCalling(contract);
+    verifyTransactionSelection(
+        transactionSelector,
+        rejected,
+        mock(TransactionProcessingResult.class),
+        SELECTED,
+        TX_MODULE_LINE_COUNT_OVERFLOW);
+    assertThat(predictor.predict(rejected.getPendingTransaction().getTransaction())).isEmpty();
+
+    // a new block with the default limits
+    initialize();
+    transactionSelector =
+        new TestableTraceLineLimitTransactionSelector(
+            lineaTracerConfiguration, lineCountLimits, OVER_LINE_COUNT_LIMIT_CACHE_SIZE, predictor);
+    final var selected = mockEvaluationContextCalling(contract);
+    verifyTransactionSelection(
+        transactionSelector,
+        selected,
+        mock(TransactionProcessingResult.class),
+        SELECTED,
+        SELECTED);
+    assertThat(predictor.predict(selected.getPendingTransaction().getTransaction())).isPresent();
+  }
+
+  private TestTransactionEvaluationContext mockEvaluationContextCalling(final Address contract) {
+    final var evaluationContext =
+        mockEvaluationContext(false, 100, Wei.of(1_100_000_000), Wei.of(1_000_000_000), 21000);
+    final Transaction transaction = evaluationContext.getPendingTransaction().getTransaction();
+    when(transaction.getTo()).thenReturn(Optional.of(contract));
+    when(transaction.getPayload()).thenReturn(Bytes.fromHexString("0x01"));
+    return evaluationContext;
+  }
+
   private void verifyTransactionSelection(
       final TestableTraceLineLimitTransactionSelector selector,
       final TestTransactionEvaluationContext evaluationContext,
@@ -250,6 +295,18 @@ public class TraceLineLimitTransactionSelectorTest {
         final LineaTracerConfiguration lineaTracerConfiguration,
         final Map<String, Integer> moduleLimits,
         final int overLimitCacheSize) {
+      this(
+          lineaTracerConfiguration,
+          moduleLimits,
+          overLimitCacheSize,
+          new ModuleLineCountPredictor(lineaTracerConfiguration.lineCountPredictionCacheSize()));
+    }
+
+    TestableTraceLineLimitTransactionSelector(
+        final LineaTracerConfiguration lineaTracerConfiguration,
+        final Map<String, Integer> moduleLimits,
+        final int overLimitCacheSize,
+        final ModuleLineCountPredictor moduleLineCountPredictor) {
       super(
           BigInteger.ONE,
           moduleLimits,
@@ -260,7 +317,8 @@ public class TraceLineLimitTransactionSelectorTest {
               .contract(Address.fromHexString("0xDEADBEEF"))
               .topic(Bytes.fromHexString("0x012345"))
               .build(),
-          lineaTracerConfiguration);
+          lineaTracerConfiguration,
+          moduleLineCountPredictor);
     }
 
     void resetCache() {